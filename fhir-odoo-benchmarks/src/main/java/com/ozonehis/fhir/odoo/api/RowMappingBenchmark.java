@@ -0,0 +1,190 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.api;
+
+import static com.ozonehis.fhir.odoo.benchmarks.BenchmarkData.row;
+import static com.ozonehis.fhir.odoo.benchmarks.BenchmarkData.setField;
+
+import com.odoojava.api.Row;
+import com.ozonehis.fhir.odoo.model.Partner;
+import com.ozonehis.fhir.odoo.model.Product;
+import com.ozonehis.fhir.odoo.model.SaleOrder;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of converting a single Odoo row to a model. Lives in the services' package because
+ * {@code mapRowToResource} is protected.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMappingBenchmark {
+
+    private static final String DOB_FIELD = "x_customer_dob";
+
+    private static final String EXTERNAL_ID_FIELD = "x_external_identifier";
+
+    private static final String WEIGHT_FIELD = "x_customer_weight";
+
+    private final PartnerService partnerService = new PartnerService();
+
+    private final ProductService productService = new ProductService();
+
+    private final SaleOrderService saleOrderService = new SaleOrderService();
+
+    private Row partnerRow;
+
+    private Row productRow;
+
+    private Row saleOrderRow;
+
+    @Setup
+    public void setUp() throws Exception {
+        setField(partnerService, "odooPartnerDobField", DOB_FIELD);
+        setField(partnerService, "odooPartnerIdField", EXTERNAL_ID_FIELD);
+        setField(saleOrderService, "odooPartnerDobField", DOB_FIELD);
+        setField(saleOrderService, "odooPartnerIdField", EXTERNAL_ID_FIELD);
+        setField(saleOrderService, "odooPartnerWeightField", WEIGHT_FIELD);
+
+        Map<String, Object> partner = auditValues(7, "John Doe");
+        partner.put("ref", "0b3d5a64-8b5b-4f5e-9d0e-5f1f4c9a1f7e");
+        partner.put("type", "contact");
+        partner.put("street", "Kenyatta Avenue");
+        partner.put("street2", "Suite 4");
+        partner.put("city", "Nairobi");
+        partner.put("zip", "00100");
+        partner.put("country_id", 110);
+        partner.put("state_id", 1230);
+        partner.put("company_id", 1);
+        partner.put("active", true);
+        partner.put("comment", "10001V");
+        partner.put(DOB_FIELD, "1970-01-01");
+        partner.put(EXTERNAL_ID_FIELD, "10001V");
+        Map<String, String> partnerTypes = auditTypes();
+        partnerTypes.putAll(Map.of(
+                "ref", "char",
+                "type", "selection",
+                "street", "char",
+                "street2", "char",
+                "city", "char",
+                "zip", "char",
+                "country_id", "integer",
+                "state_id", "integer",
+                "company_id", "integer",
+                "active", "boolean"));
+        partnerTypes.putAll(Map.of("comment", "text", DOB_FIELD, "char", EXTERNAL_ID_FIELD, "char"));
+        partnerRow = row(partner, partnerTypes);
+
+        Map<String, Object> product = auditValues(42, "Paracetamol 500mg");
+        product.put("description", "Paracetamol tablets");
+        product.put("uom_name", "Units");
+        product.put("qty_available", 1250.0);
+        product.put("list_price", 15.0);
+        product.put("lst_price", 15.0);
+        product.put("standard_price", 12.5);
+        product.put("active", true);
+        product.put("code", "PARA500");
+        product.put("currency_id", 2);
+        product.put("type", "product");
+        product.put("x_concept_source", "CIEL");
+        product.put("x_concept_code", "70116");
+        product.put("x_drug_strength", "500mg");
+        Map<String, String> productTypes = auditTypes();
+        productTypes.putAll(Map.of(
+                "description", "text",
+                "uom_name", "char",
+                "qty_available", "float",
+                "list_price", "float",
+                "lst_price", "float",
+                "standard_price", "float",
+                "active", "boolean",
+                "code", "char",
+                "currency_id", "integer",
+                "type", "selection"));
+        productTypes.putAll(Map.of("x_concept_source", "char", "x_concept_code", "char", "x_drug_strength", "char"));
+        productRow = row(product, productTypes);
+
+        Map<String, Object> saleOrder = auditValues(12, "S00012");
+        saleOrder.put("client_order_ref", "0b3d5a64-8b5b-4f5e-9d0e-5f1f4c9a1f7e");
+        saleOrder.put("state", "draft");
+        saleOrder.put("partner_id", 7);
+        saleOrder.put("company_id", 1);
+        saleOrder.put("type_name", "Quotation");
+        saleOrder.put("order_line", new Object[] {101, 102, 103});
+        saleOrder.put(WEIGHT_FIELD, "72");
+        saleOrder.put(DOB_FIELD, "1970-01-01");
+        saleOrder.put(EXTERNAL_ID_FIELD, "10001V");
+        Map<String, String> saleOrderTypes = auditTypes();
+        saleOrderTypes.putAll(Map.of(
+                "client_order_ref", "char",
+                "state", "selection",
+                "partner_id", "integer",
+                "company_id", "integer",
+                "type_name", "char",
+                "order_line", "one2many",
+                WEIGHT_FIELD, "char",
+                DOB_FIELD, "char",
+                EXTERNAL_ID_FIELD, "char"));
+        saleOrderRow = row(saleOrder, saleOrderTypes);
+    }
+
+    @Benchmark
+    public Partner partnerRowToModel() {
+        return partnerService.mapRowToResource(partnerRow);
+    }
+
+    @Benchmark
+    public Product productRowToModel() {
+        return productService.mapRowToResource(productRow);
+    }
+
+    @Benchmark
+    public SaleOrder saleOrderRowToModel() {
+        return saleOrderService.mapRowToResource(saleOrderRow);
+    }
+
+    private static Map<String, Object> auditValues(int id, String name) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", id);
+        values.put("name", name);
+        values.put("display_name", name);
+        values.put("create_date", new Date());
+        values.put("create_uid", 2);
+        values.put("write_date", new Date());
+        values.put("write_uid", 2);
+        return values;
+    }
+
+    private static Map<String, String> auditTypes() {
+        Map<String, String> types = new HashMap<>();
+        types.put("id", "integer");
+        types.put("name", "char");
+        types.put("display_name", "char");
+        types.put("create_date", "datetime");
+        types.put("create_uid", "integer");
+        types.put("write_date", "datetime");
+        types.put("write_uid", "integer");
+        return types;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odoojava.api.FieldCollection;
+import com.odoojava.api.Row;
+import com.ozonehis.fhir.odoo.benchmarks.BenchmarkData;
+import com.ozonehis.fhir.odoo.model.OdooModelReader;
+import com.ozonehis.fhir.odoo.model.Product;
+import com.ozonehis.fhir.odoo.transport.JsonRpcCodec;
+import com.ozonehis.fhir.odoo.transport.XmlRpcCodec;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.xmlrpc.client.XmlRpcClient;
+import org.apache.xmlrpc.client.XmlRpcClientConfigImpl;
+import org.apache.xmlrpc.common.TypeFactoryImpl;
+import org.apache.xmlrpc.parser.XmlRpcResponseParser;
+import org.apache.xmlrpc.util.SAXParsers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+/**
+ * Compares reading {@code products} products from a {@code search_read} response the way searches without a model
+ * reader do, parsing the response into maps, wrapping each map in a row and mapping the row with
+ * {@code mapRowToResource}, with decoding the response straight into products with the model reader of the service.
+ * Lives in the services' package because {@code mapRowToResource} and {@code modelReader} are protected.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchReadDecodeBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int products;
+
+    private final ProductService productService = new ProductService();
+
+    private byte[] xmlRpcResponse;
+
+    private byte[] jsonRpcResponse;
+
+    private FieldCollection productFields;
+
+    private OdooModelReader<Product> productReader;
+
+    private XmlRpcClientConfigImpl xmlRpcConfig;
+
+    private TypeFactoryImpl xmlRpcTypeFactory;
+
+    @Setup
+    public void setUp() throws Exception {
+        Object[] records = new Object[products];
+        for (int i = 0; i < products; i++) {
+            Map<String, Object> record = new HashMap<>();
+            record.put("id", i + 1);
+            record.put("name", "Product " + i);
+            record.put("display_name", "[P-" + i + "] Product " + i);
+            record.put("uom_name", "Units");
+            record.put("qty_available", 1250.0);
+            record.put("list_price", 10.5 + i);
+            record.put("lst_price", 10.5 + i);
+            record.put("standard_price", 8.0 + i);
+            record.put("active", true);
+            record.put("code", "P-" + i);
+            record.put("currency_id", 2);
+            record.put("type", "product");
+            record.put("x_concept_source", "CIEL");
+            record.put("x_concept_code", String.valueOf(70000 + i));
+            record.put("x_drug_strength", false);
+            record.put("create_date", "2024-06-01 10:15:30");
+            record.put("create_uid", 2);
+            record.put("write_date", "2024-06-01 10:15:30");
+            record.put("write_uid", 2);
+            records[i] = record;
+        }
+
+        xmlRpcResponse = BenchmarkData.xmlRpcResponse(records).getBytes(StandardCharsets.UTF_8);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("jsonrpc", "2.0");
+        response.put("id", 1);
+        response.put("result", records);
+        jsonRpcResponse = new ObjectMapper().writeValueAsBytes(response);
+
+        Map<String, String> types = new HashMap<>();
+        for (String field : new String[] {"id", "currency_id", "create_uid", "write_uid"}) {
+            types.put(field, "integer");
+        }
+        for (String field : new String[] {"qty_available", "list_price", "lst_price", "standard_price"}) {
+            types.put(field, "float");
+        }
+        for (String field : new String[] {"create_date", "write_date"}) {
+            types.put(field, "datetime");
+        }
+        for (String field :
+                new String[] {"name", "display_name", "uom_name", "code", "x_concept_source", "x_concept_code"}) {
+            types.put(field, "char");
+        }
+        types.putAll(Map.of("x_drug_strength", "char", "type", "selection", "active", "boolean"));
+        productFields = BenchmarkData.fields(types);
+        productReader = productService.modelReader();
+
+        xmlRpcConfig = new XmlRpcClientConfigImpl();
+        xmlRpcTypeFactory = new TypeFactoryImpl(new XmlRpcClient());
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public List<Product> xmlRpcRows() throws Exception {
+        XmlRpcResponseParser parser = new XmlRpcResponseParser(xmlRpcConfig, xmlRpcTypeFactory);
+        XMLReader reader = SAXParsers.newXMLReader();
+        reader.setContentHandler(parser);
+        reader.parse(new InputSource(new ByteArrayInputStream(xmlRpcResponse)));
+
+        Object[] records = (Object[]) parser.getResult();
+        List<Product> result = new ArrayList<>(records.length);
+        for (Object record : records) {
+            result.add(productService.mapRowToResource(new Row((HashMap<String, Object>) record, productFields)));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<Product> xmlRpcStreaming() throws Exception {
+        return XmlRpcCodec.readRecords(new ByteArrayInputStream(xmlRpcResponse), productReader);
+    }
+
+    @Benchmark
+    public List<Product> jsonRpcStreaming() throws Exception {
+        return JsonRpcCodec.readRecords(new ByteArrayInputStream(jsonRpcResponse), productReader);
+    }
+}
@@ -0,0 +1,16 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.benchmarks;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * The FHIR Odoo application, unchanged, for {@link ConcurrencyBenchmark} to boot and send its requests to.
+ */
+@SpringBootApplication(scanBasePackages = "com.ozonehis.fhir")
+public class BenchmarkApplication {}
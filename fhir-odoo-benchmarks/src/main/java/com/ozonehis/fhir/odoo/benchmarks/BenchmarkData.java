@@ -0,0 +1,116 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.benchmarks;
+
+import com.odoojava.api.Field;
+import com.odoojava.api.FieldCollection;
+import com.odoojava.api.Row;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds the Odoo rows and responses and sets the configuration used by the benchmarks.
+ */
+public final class BenchmarkData {
+
+    private BenchmarkData() {}
+
+    /**
+     * Builds a row the way the Odoo API does for an XML-RPC read result.
+     *
+     * @param values the field values keyed by field name
+     * @param types  the Odoo field types keyed by field name, e.g. {@code char} or {@code many2one}
+     * @return the row
+     */
+    public static Row row(Map<String, Object> values, Map<String, String> types) throws Exception {
+        return new Row(new HashMap<>(values), fields(types));
+    }
+
+    /**
+     * Builds the field metadata the Odoo API reads rows with.
+     *
+     * @param types the Odoo field types keyed by field name, e.g. {@code char} or {@code many2one}
+     * @return the fields
+     */
+    public static FieldCollection fields(Map<String, String> types) throws Exception {
+        FieldCollection fields = new FieldCollection();
+        for (Map.Entry<String, String> type : types.entrySet()) {
+            HashMap<String, Object> fieldDetails = new HashMap<>();
+            fieldDetails.put("type", type.getValue());
+            fields.add(new Field(type.getKey(), fieldDetails));
+        }
+        return fields;
+    }
+
+    /**
+     * Encodes an XML-RPC response the way Odoo does.
+     *
+     * @param result the result, made of strings, integers, doubles, booleans, arrays and maps
+     * @return the response
+     */
+    public static String xmlRpcResponse(Object result) {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+        xml.append("<methodResponse><params><param>");
+        appendValue(xml, result);
+        return xml.append("</param></params></methodResponse>").toString();
+    }
+
+    /**
+     * Sets a field that is injected by Spring at runtime, e.g. a {@code @Value} property.
+     *
+     * @param target    the object
+     * @param fieldName the name of the field
+     * @param value     the value
+     */
+    public static void setField(Object target, String fieldName, Object value) throws ReflectiveOperationException {
+        Class<?> type = target.getClass();
+        while (type != null) {
+            try {
+                java.lang.reflect.Field field = type.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                field.set(target, value);
+                return;
+            } catch (NoSuchFieldException e) {
+                type = type.getSuperclass();
+            }
+        }
+        throw new NoSuchFieldException(fieldName);
+    }
+
+    private static void appendValue(StringBuilder xml, Object value) {
+        xml.append("<value>");
+        if (value instanceof String text) {
+            xml.append("<string>")
+                    .append(text.replace("&", "&amp;").replace("<", "&lt;"))
+                    .append("</string>");
+        } else if (value instanceof Integer number) {
+            xml.append("<int>").append(number).append("</int>");
+        } else if (value instanceof Double number) {
+            xml.append("<double>").append(number).append("</double>");
+        } else if (value instanceof Boolean bool) {
+            xml.append("<boolean>").append(bool ? 1 : 0).append("</boolean>");
+        } else if (value instanceof Object[] array) {
+            xml.append("<array><data>");
+            for (Object item : array) {
+                appendValue(xml, item);
+            }
+            xml.append("</data></array>");
+        } else if (value instanceof Map<?, ?> map) {
+            xml.append("<struct>");
+            for (Map.Entry<?, ?> member : map.entrySet()) {
+                xml.append("<member><name>").append(member.getKey()).append("</name>");
+                appendValue(xml, member.getValue());
+                xml.append("</member>");
+            }
+            xml.append("</struct>");
+        } else {
+            throw new IllegalArgumentException("Unsupported XML-RPC value " + value);
+        }
+        xml.append("</value>");
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.benchmarks;
+
+import ca.uhn.fhir.context.FhirContext;
+import com.ozonehis.fhir.odoo.OdooConstants;
+import com.ozonehis.fhir.odoo.stub.OdooStubServer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.hl7.fhir.r4.model.Address;
+import org.hl7.fhir.r4.model.DateType;
+import org.hl7.fhir.r4.model.HumanName;
+import org.hl7.fhir.r4.model.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Measures how long a burst of concurrent FHIR requests takes end to end, with the requests handled by the servlet
+ * container's pool of platform threads or on virtual threads ({@code spring.threads.virtual.enabled}).
+ * <p>Every request is a {@code PUT /Patient/{id}} sent over HTTP to the {@code FhirOdooRestfulServlet} of the
+ * {@link BenchmarkApplication}. It is authenticated with a pooled session and fans its Odoo lookups out through the
+ * {@code OdooTaskExecutor}, before the partner is written. Odoo is an {@link OdooStubServer} answering every round
+ * trip after {@code latencyMs}, called over XML-RPC by the {@code PooledXmlRpcOdooTransport}. The first burst creates
+ * the partners, later ones update them. The idempotency guard is disabled so that unchanged Patients still reach Odoo.
+ * <p>The application is built for Java 17, where {@code spring.threads.virtual.enabled} has no effect, so the
+ * {@code virtual} mode fails the trial unless the benchmarks run on Java 21 or later.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrencyBenchmark {
+
+    private static final String DATABASE = "odoo";
+
+    private static final String USERNAME = "admin";
+
+    private static final String PASSWORD = "admin";
+
+    private static final String AUTHORIZATION = "Basic "
+            + Base64.getEncoder().encodeToString((USERNAME + ":" + PASSWORD).getBytes(StandardCharsets.UTF_8));
+
+    /** The facility the stub Odoo has a company for. */
+    private static final String FACILITY_ID = "facility-1";
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"100", "400", "1600"})
+    public int concurrentRequests;
+
+    @Param({"4"})
+    public int parallelism;
+
+    @Param({"20"})
+    public int latencyMs;
+
+    private OdooStubServer odoo;
+
+    private ConfigurableApplicationContext application;
+
+    private ExecutorService clientExecutor;
+
+    private HttpClient client;
+
+    private String baseUrl;
+
+    private List<String> patients;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean virtual = "virtual".equals(threads);
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads require Java 21 or later, running on Java "
+                    + Runtime.version().feature());
+        }
+
+        odoo = new OdooStubServer(DATABASE, USERNAME, PASSWORD).start();
+        int companyId = odoo.insert(OdooConstants.MODEL_COMPANY, Map.of("name", "Facility 1"));
+        odoo.insert(
+                OdooConstants.MODEL_EXTERNAL_IDENTIFIER,
+                Map.of(
+                        "name", FACILITY_ID,
+                        "module", "__fhir__",
+                        "model", OdooConstants.MODEL_COMPANY,
+                        "res_id", companyId));
+        odoo.insert(OdooConstants.MODEL_COUNTRY, Map.of("name", "Kenya", "code", "KE"));
+        odoo.setLatency(Duration.ofMillis(latencyMs));
+
+        // Every request and each of its parallel lookups holds a session of the same user and an Odoo connection
+        int connections = concurrentRequests * parallelism;
+        application = new SpringApplicationBuilder(BenchmarkApplication.class)
+                .properties(
+                        "spring.config.import=fhir-odoo.properties",
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "fhir.odoo.host=http://localhost",
+                        "fhir.odoo.port=" + odoo.getPort(),
+                        "fhir.odoo.database=" + DATABASE,
+                        "fhir.odoo.transport.type=xmlrpc",
+                        "fhir.odoo.executor.parallelism=" + parallelism,
+                        "fhir.odoo.session.pool.max-size=" + connections,
+                        "fhir.odoo.http.max-total=" + connections,
+                        "fhir.odoo.http.max-per-route=" + connections,
+                        "fhir.odoo.idempotency.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+        int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+        baseUrl = "http://127.0.0.1:" + port + "/odoo/fhir/R4/Patient/";
+
+        clientExecutor = Executors.newCachedThreadPool();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .build();
+
+        FhirContext fhirContext = FhirContext.forR4Cached();
+        patients = new ArrayList<>(concurrentRequests);
+        for (int i = 0; i < concurrentRequests; i++) {
+            patients.add(fhirContext.newJsonParser().encodeResourceToString(newPatient("patient-" + i)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (application != null) {
+            application.close();
+        }
+        if (odoo != null) {
+            odoo.close();
+        }
+        if (clientExecutor != null) {
+            clientExecutor.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public int burst() {
+        List<CompletableFuture<HttpResponse<String>>> requests = new ArrayList<>(concurrentRequests);
+        for (int i = 0; i < concurrentRequests; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "patient-" + i))
+                    .header("Authorization", AUTHORIZATION)
+                    .header("Content-Type", "application/fhir+json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(patients.get(i)))
+                    .build();
+            requests.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+
+        int bytes = 0;
+        for (CompletableFuture<HttpResponse<String>> request : requests) {
+            HttpResponse<String> response = request.join();
+            if (response.statusCode() >= 300) {
+                throw new IllegalStateException(
+                        "Request failed with status " + response.statusCode() + ": " + response.body());
+            }
+            bytes += response.body().length();
+        }
+        return bytes;
+    }
+
+    private static Patient newPatient(String id) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        patient.addIdentifier()
+                .setSystem(OdooConstants.IDENTIFIER_FACILITY_ID_SYSTEM)
+                .setValue(FACILITY_ID);
+        patient.addIdentifier().setSystem("http://example.org/patient-id").setValue(id);
+        patient.addName(new HumanName().setFamily("Doe").addGiven("Jane"));
+        patient.setBirthDateElement(new DateType("1990-01-01"));
+        patient.addAddress(new Address().setCity("Nairobi").setCountry("Kenya"));
+        return patient;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.benchmarks;
+
+import com.ozonehis.fhir.odoo.OdooConstants;
+import com.ozonehis.fhir.odoo.mappers.ChargeItemDefinitionMapper;
+import com.ozonehis.fhir.odoo.mappers.InventoryItemMapper;
+import com.ozonehis.fhir.odoo.mappers.MedicationMapper;
+import com.ozonehis.fhir.odoo.mappers.PatientMapper;
+import com.ozonehis.fhir.odoo.model.BaseOdooModel;
+import com.ozonehis.fhir.odoo.model.Country;
+import com.ozonehis.fhir.odoo.model.CountryState;
+import com.ozonehis.fhir.odoo.model.Currency;
+import com.ozonehis.fhir.odoo.model.ExtId;
+import com.ozonehis.fhir.odoo.model.Partner;
+import com.ozonehis.fhir.odoo.model.Product;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.hl7.fhir.r4.model.Address;
+import org.hl7.fhir.r4.model.ChargeItemDefinition;
+import org.hl7.fhir.r4.model.HumanName;
+import org.hl7.fhir.r4.model.Identifier;
+import org.hl7.fhir.r4.model.Medication;
+import org.hl7.fhir.r4.model.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmrs.fhir.InventoryItem;
+
+/**
+ * Measures the cost of mapping a single resource between FHIR and Odoo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class MapperBenchmark {
+
+    private final PatientMapper patientMapper = new PatientMapper<>();
+
+    private final ChargeItemDefinitionMapper chargeItemDefinitionMapper = new ChargeItemDefinitionMapper<>();
+
+    private final InventoryItemMapper inventoryItemMapper = new InventoryItemMapper<>();
+
+    private final MedicationMapper medicationMapper = new MedicationMapper();
+
+    private Map patientResources;
+
+    private Map productResources;
+
+    private Map<String, BaseOdooModel> medicationResources;
+
+    @Setup
+    public void setUp() {
+        Patient patient = new Patient();
+        patient.setId("0b3d5a64-8b5b-4f5e-9d0e-5f1f4c9a1f7e");
+        patient.addName(new HumanName().addGiven("John").setFamily("Doe"));
+        patient.addIdentifier(
+                new Identifier().setUse(Identifier.IdentifierUse.OFFICIAL).setValue("10001V"));
+        patient.setBirthDate(new Date(0));
+        patient.addAddress(new Address().setCity("Nairobi").setCountry("Kenya").setState("Nairobi"));
+
+        Country country = new Country();
+        country.setId(110);
+        country.setName("Kenya");
+        CountryState countryState = new CountryState();
+        countryState.setId(1230);
+        countryState.setName("Nairobi");
+        ExtId companyExtId = new ExtId();
+        companyExtId.setResId(1);
+
+        patientResources = new HashMap<>();
+        patientResources.put(OdooConstants.MODEL_FHIR_PATIENT, patient);
+        patientResources.put(OdooConstants.MODEL_COUNTRY, country);
+        patientResources.put(OdooConstants.MODEL_COUNTRY_STATE, countryState);
+        patientResources.put(OdooConstants.MODEL_COMPANY, companyExtId);
+
+        Product product = new Product();
+        product.setId(42);
+        product.setName("Paracetamol 500mg");
+        product.setDisplayName("[PARA500] Paracetamol 500mg");
+        product.setDescription("Paracetamol tablets");
+        product.setActive(true);
+        product.setType(OdooConstants.PRODUCT_TYPE_STORABLE);
+        product.setQuantityAvailable(1250.0);
+        product.setUomName("Units");
+        product.setStandardPrice(12.5);
+        product.setCurrencyId(2);
+        product.setConceptSource("CIEL");
+        product.setConceptCode("70116");
+        product.setDrugStrength("500mg");
+        product.setLastUpdatedOn(new Date());
+        ExtId productExtId = new ExtId();
+        productExtId.setName("71617AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA");
+        productExtId.setResId(42);
+        Currency currency = new Currency();
+        currency.setId(2);
+        currency.setName("USD");
+        currency.setSymbol("$");
+        currency.setCurrencyUnitLabel("Dollars");
+        currency.setCurrencySubunitLabel("Cents");
+
+        productResources = new HashMap<>();
+        productResources.put(OdooConstants.MODEL_PRODUCT, product);
+        productResources.put(OdooConstants.MODEL_EXTERNAL_IDENTIFIER, productExtId);
+        productResources.put(OdooConstants.MODEL_CURRENCY, currency);
+
+        medicationResources = new HashMap<>();
+        medicationResources.put(OdooConstants.MODEL_PRODUCT, product);
+        medicationResources.put(OdooConstants.MODEL_EXTERNAL_IDENTIFIER, productExtId);
+    }
+
+    @Benchmark
+    public Partner patientToOdoo() {
+        return (Partner) patientMapper.toOdoo(patientResources);
+    }
+
+    @Benchmark
+    public ChargeItemDefinition chargeItemDefinitionToFhir() {
+        return chargeItemDefinitionMapper.toFhir(productResources);
+    }
+
+    @Benchmark
+    public InventoryItem inventoryItemToFhir() {
+        return inventoryItemMapper.toFhir(productResources);
+    }
+
+    @Benchmark
+    public Medication medicationToFhir() {
+        return medicationMapper.toFhir(medicationResources);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.benchmarks;
+
+import com.ozonehis.fhir.odoo.model.BaseOdooModel;
+import com.ozonehis.fhir.odoo.model.Partner;
+import com.ozonehis.fhir.odoo.model.Product;
+import com.ozonehis.fhir.odoo.model.SaleOrder;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of looking up the Odoo field names of a model.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelFieldsBenchmark {
+
+    private final Product product = new Product();
+
+    @Benchmark
+    public String[] productFields() {
+        return product.fields();
+    }
+
+    @Benchmark
+    public String[] partnerFieldsOf() {
+        return BaseOdooModel.fieldsOf(Partner.class);
+    }
+
+    @Benchmark
+    public String[] saleOrderFieldsOf() {
+        return BaseOdooModel.fieldsOf(SaleOrder.class);
+    }
+}
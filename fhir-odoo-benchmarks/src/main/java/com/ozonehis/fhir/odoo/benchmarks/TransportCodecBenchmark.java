@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ozonehis.fhir.odoo.transport.JsonRpcCodec;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.xmlrpc.client.XmlRpcClient;
+import org.apache.xmlrpc.client.XmlRpcClientConfigImpl;
+import org.apache.xmlrpc.common.TypeFactoryImpl;
+import org.apache.xmlrpc.parser.XmlRpcResponseParser;
+import org.apache.xmlrpc.util.SAXParsers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+/**
+ * Compares decoding the same {@code search_read} response of {@code products} product rows sent over XML-RPC, with the
+ * parser of the XML-RPC client, and over JSON-RPC, with {@link JsonRpcCodec}. {@code TransportCodecBenchmarkTest}
+ * records the size of both payloads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransportCodecBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int products;
+
+    byte[] xmlRpcResponse;
+
+    byte[] jsonRpcResponse;
+
+    private XmlRpcClientConfigImpl xmlRpcConfig;
+
+    private TypeFactoryImpl xmlRpcTypeFactory;
+
+    @Setup
+    public void setUp() throws Exception {
+        Object[] records = new Object[products];
+        for (int i = 0; i < products; i++) {
+            Map<String, Object> record = new HashMap<>();
+            record.put("id", i + 1);
+            record.put("name", "Product " + i);
+            record.put("display_name", "[P-" + i + "] Product " + i);
+            record.put("default_code", "P-" + i);
+            record.put("list_price", 10.5 + i);
+            record.put("categ_id", new Object[] {3, "All / Drugs"});
+            record.put("uom_id", new Object[] {1, "Units"});
+            record.put("active", true);
+            record.put("description", false);
+            record.put("write_date", "2024-06-01 10:15:30");
+            records[i] = record;
+        }
+
+        xmlRpcResponse = BenchmarkData.xmlRpcResponse(records).getBytes(StandardCharsets.UTF_8);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("jsonrpc", "2.0");
+        response.put("id", 1);
+        response.put("result", records);
+        jsonRpcResponse = new ObjectMapper().writeValueAsBytes(response);
+
+        xmlRpcConfig = new XmlRpcClientConfigImpl();
+        xmlRpcTypeFactory = new TypeFactoryImpl(new XmlRpcClient());
+    }
+
+    @Benchmark
+    public Object decodeXmlRpc() throws Exception {
+        XmlRpcResponseParser parser = new XmlRpcResponseParser(xmlRpcConfig, xmlRpcTypeFactory);
+        XMLReader reader = SAXParsers.newXMLReader();
+        reader.setContentHandler(parser);
+        reader.parse(new InputSource(new ByteArrayInputStream(xmlRpcResponse)));
+        return parser.getResult();
+    }
+
+    @Benchmark
+    public Object decodeJsonRpc() throws Exception {
+        return JsonRpcCodec.readResult(new ByteArrayInputStream(jsonRpcResponse));
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.benchmarks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TransportCodecBenchmarkTest {
+
+    @Test
+    @DisplayName("setUp() encodes 100 products in 94608 bytes of XML-RPC and 22397 bytes of JSON-RPC")
+    void setUp_shouldBuildResponsesOfKnownSize() throws Exception {
+        TransportCodecBenchmark benchmark = new TransportCodecBenchmark();
+        benchmark.products = 100;
+
+        benchmark.setUp();
+
+        assertThat(benchmark.xmlRpcResponse).hasSize(94_608);
+        assertThat(benchmark.jsonRpcResponse).hasSize(22_397);
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates an {@code OdooModelMapper} named {@code <Model>OdooMapper} for every concrete subclass of
+ * {@code BaseOdooModel} compiled with it. The mappers read and write the fields annotated with {@code JsonProperty}
+ * through the Lombok accessors of the model, with a switch on the Odoo field name instead of reflection. Fields
+ * annotated with {@code OdooReadOnly} are read but never written.
+ */
+@SupportedAnnotationTypes(OdooModelProcessor.JSON_PROPERTY)
+public class OdooModelProcessor extends AbstractProcessor {
+
+    static final String JSON_PROPERTY = "com.fasterxml.jackson.annotation.JsonProperty";
+
+    static final String MODEL_PACKAGE = "com.ozonehis.fhir.odoo.model";
+
+    static final String BASE_MODEL = MODEL_PACKAGE + ".BaseOdooModel";
+
+    static final String MAPPER_SUFFIX = "OdooMapper";
+
+    static final String READ_ONLY = MODEL_PACKAGE + ".OdooReadOnly";
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement baseModel = processingEnv.getElementUtils().getTypeElement(BASE_MODEL);
+        if (baseModel == null) {
+            return false;
+        }
+
+        TypeMirror baseModelType = processingEnv.getTypeUtils().erasure(baseModel.asType());
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            if (type.getKind() == ElementKind.CLASS
+                    && !type.getModifiers().contains(Modifier.ABSTRACT)
+                    && processingEnv.getTypeUtils().isAssignable(type.asType(), baseModelType)
+                    && generated.add(type.getQualifiedName().toString())) {
+                generate(type);
+            }
+        }
+        // Lombok and the other processors still need to see JsonProperty
+        return false;
+    }
+
+    private void generate(TypeElement model) {
+        Map<String, VariableElement> fields = fieldsOf(model);
+        String packageName =
+                processingEnv.getElementUtils().getPackageOf(model).getQualifiedName().toString();
+        String modelName = model.getSimpleName().toString();
+        String mapperName = modelName + MAPPER_SUFFIX;
+
+        try (PrintWriter out = new PrintWriter(processingEnv
+                .getFiler()
+                .createSourceFile(packageName + "." + mapperName, model)
+                .openWriter())) {
+            out.println("package " + packageName + ";");
+            out.println();
+            if (!packageName.equals(MODEL_PACKAGE)) {
+                out.println("import " + MODEL_PACKAGE + ".OdooModelMapper;");
+                out.println("import " + MODEL_PACKAGE + ".OdooValues;");
+            }
+            out.println("import java.util.HashMap;");
+            out.println("import java.util.Map;");
+            out.println("import javax.annotation.processing.Generated;");
+            out.println();
+            out.println("/**");
+            out.println(" * Reads and writes the Odoo fields of {@link " + modelName + "}.");
+            out.println(" */");
+            out.println("@Generated(\"" + OdooModelProcessor.class.getName() + "\")");
+            out.println("public final class " + mapperName + " implements OdooModelMapper<" + modelName + "> {");
+            out.println();
+            out.println("    private static final String[] FIELDS = {");
+            for (String field : fields.keySet()) {
+                out.println("        \"" + field + "\",");
+            }
+            out.println("    };");
+            out.println();
+            out.println("    @Override");
+            out.println("    public " + modelName + " newModel() {");
+            out.println("        return new " + modelName + "();");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public String[] fields() {");
+            out.println("        return FIELDS.clone();");
+            out.println("    }");
+            out.println();
+            writeSet(out, modelName, fields);
+            out.println();
+            writeToMap(out, modelName, fields);
+            out.println();
+            writeToWritableMap(out, modelName, fields);
+            out.println("}");
+        } catch (IOException e) {
+            processingEnv
+                    .getMessager()
+                    .printMessage(Diagnostic.Kind.ERROR, "Cannot write " + mapperName + ": " + e.getMessage(), model);
+        }
+    }
+
+    private void writeSet(PrintWriter out, String modelName, Map<String, VariableElement> fields) {
+        out.println("    @Override");
+        out.println("    public void set(" + modelName + " model, String field, Object value) {");
+        out.println("        switch (field) {");
+        for (Map.Entry<String, VariableElement> entry : fields.entrySet()) {
+            VariableElement field = entry.getValue();
+            String setter = "model." + setterName(field);
+            out.println("            case \"" + entry.getKey() + "\" -> {");
+            String converter = converterOf(field.asType());
+            if (converter != null) {
+                out.println("                " + boxedName(field.asType()) + " converted = OdooValues." + converter
+                        + "(value);");
+                out.println("                if (converted != null) {");
+                out.println("                    " + setter + "(converted);");
+                out.println("                }");
+            } else if (isObject(field.asType())) {
+                out.println("                if (!OdooValues.isEmpty(value)) {");
+                out.println("                    " + setter + "(value);");
+                out.println("                }");
+            } else {
+                String typeName = erasedName(field.asType());
+                out.println("                if (value instanceof " + typeName + " converted) {");
+                out.println("                    " + setter + "(converted);");
+                out.println("                }");
+            }
+            out.println("            }");
+        }
+        out.println("            default -> {}");
+        out.println("        }");
+        out.println("    }");
+    }
+
+    private void writeToMap(PrintWriter out, String modelName, Map<String, VariableElement> fields) {
+        int capacity = (int) (fields.size() / 0.75f) + 1;
+        out.println("    @Override");
+        out.println("    public Map<String, Object> toMap(" + modelName + " model) {");
+        out.println("        Map<String, Object> map = new HashMap<>(" + capacity + ");");
+        for (Map.Entry<String, VariableElement> entry : fields.entrySet()) {
+            out.println("        map.put(\"" + entry.getKey() + "\", model." + getterName(entry.getValue()) + "());");
+        }
+        out.println("        return map;");
+        out.println("    }");
+    }
+
+    private void writeToWritableMap(PrintWriter out, String modelName, Map<String, VariableElement> fields) {
+        Map<String, VariableElement> writableFields = new LinkedHashMap<>(fields);
+        writableFields.values().removeIf(field -> annotationOf(field, READ_ONLY) != null);
+        int capacity = (int) (writableFields.size() / 0.75f) + 1;
+        out.println("    @Override");
+        out.println("    public Map<String, Object> toWritableMap(" + modelName + " model) {");
+        out.println("        Map<String, Object> map = new HashMap<>(" + capacity + ");");
+        boolean declared = false;
+        for (Map.Entry<String, VariableElement> entry : writableFields.entrySet()) {
+            String getter = "model." + getterName(entry.getValue()) + "()";
+            if (entry.getValue().asType().getKind().isPrimitive()) {
+                out.println("        map.put(\"" + entry.getKey() + "\", " + getter + ");");
+                continue;
+            }
+            out.println("        " + (declared ? "" : "Object ") + "value = " + getter + ";");
+            out.println("        if (value != null) {");
+            out.println("            map.put(\"" + entry.getKey() + "\", value);");
+            out.println("        }");
+            declared = true;
+        }
+        out.println("        return map;");
+        out.println("    }");
+    }
+
+    /**
+     * @return the fields annotated with {@code JsonProperty} keyed by Odoo field name, the fields of the model first
+     *     and those of its superclasses after them
+     */
+    private Map<String, VariableElement> fieldsOf(TypeElement model) {
+        Map<String, VariableElement> fields = new LinkedHashMap<>();
+        TypeElement current = model;
+        while (current != null) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if (field.getModifiers().contains(Modifier.STATIC)) {
+                    continue;
+                }
+                String name = jsonPropertyName(field);
+                if (name != null) {
+                    if (field.asType().getKind().isPrimitive() && converterOf(field.asType()) == null) {
+                        String message = "Unsupported Odoo field type " + field.asType();
+                        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, field);
+                    }
+                    fields.putIfAbsent(name, field);
+                }
+            }
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED
+                    ? (TypeElement) ((DeclaredType) superclass).asElement()
+                    : null;
+        }
+        return fields;
+    }
+
+    private static String jsonPropertyName(VariableElement field) {
+        AnnotationMirror annotation = annotationOf(field, JSON_PROPERTY);
+        if (annotation == null) {
+            return null;
+        }
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value :
+                annotation.getElementValues().entrySet()) {
+            if (value.getKey().getSimpleName().contentEquals("value")) {
+                String name = (String) value.getValue().getValue();
+                if (!name.isEmpty()) {
+                    return name;
+                }
+            }
+        }
+        // Like Jackson, an annotation without a name keeps the name of the field
+        return field.getSimpleName().toString();
+    }
+
+    private static AnnotationMirror annotationOf(VariableElement field, String annotationName) {
+        for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+            Element annotationType = annotation.getAnnotationType().asElement();
+            if (((TypeElement) annotationType).getQualifiedName().contentEquals(annotationName)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the {@code OdooValues} method converting values to the type, or null if the type is not converted
+     */
+    private static String converterOf(TypeMirror type) {
+        return switch (type.toString()) {
+            case "java.lang.String" -> "toString";
+            case "int", "java.lang.Integer" -> "toInteger";
+            case "double", "java.lang.Double" -> "toDouble";
+            case "boolean", "java.lang.Boolean" -> "toBoolean";
+            case "java.util.Date" -> "toDate";
+            default -> null;
+        };
+    }
+
+    private static String boxedName(TypeMirror type) {
+        return switch (type.getKind()) {
+            case INT -> "Integer";
+            case DOUBLE -> "Double";
+            case BOOLEAN -> "Boolean";
+            default -> type.toString();
+        };
+    }
+
+    private static boolean isObject(TypeMirror type) {
+        return type.toString().equals("java.lang.Object");
+    }
+
+    private String erasedName(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    /**
+     * @return the name of the setter Lombok generates for the field
+     */
+    private static String setterName(VariableElement field) {
+        String name = field.getSimpleName().toString();
+        if (isLombokBooleanPrefixed(field, name)) {
+            return "set" + name.substring(2);
+        }
+        return "set" + capitalize(name);
+    }
+
+    /**
+     * @return the name of the getter Lombok generates for the field
+     */
+    private static String getterName(VariableElement field) {
+        String name = field.getSimpleName().toString();
+        if (field.asType().getKind() == TypeKind.BOOLEAN) {
+            return isLombokBooleanPrefixed(field, name) ? name : "is" + capitalize(name);
+        }
+        return "get" + capitalize(name);
+    }
+
+    private static boolean isLombokBooleanPrefixed(VariableElement field, String name) {
+        return field.asType().getKind() == TypeKind.BOOLEAN
+                && name.length() > 2
+                && name.startsWith("is")
+                && Character.isUpperCase(name.charAt(2));
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+}
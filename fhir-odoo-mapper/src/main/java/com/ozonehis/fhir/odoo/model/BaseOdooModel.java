@@ -11,10 +11,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.io.Serial;
-import java.lang.reflect.Field;
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -27,46 +24,85 @@ public class BaseOdooModel implements OdooResource {
     @Serial
     private static final long serialVersionUID = 1L;
 
+    private static final ClassValue<OdooModelMapper<?>> MAPPERS = new ClassValue<>() {
+
+        @Override
+        protected OdooModelMapper<?> computeValue(Class<?> type) {
+            try {
+                Class<?> mapperType = Class.forName(type.getName() + "OdooMapper", true, type.getClassLoader());
+                return (OdooModelMapper<?>) mapperType.getDeclaredConstructor().newInstance();
+            } catch (ClassNotFoundException e) {
+                return null;
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot create the mapper of " + type.getName(), e);
+            }
+        }
+    };
+
+    @OdooReadOnly
     @JsonProperty("id")
     private int id;
 
     @JsonProperty("name")
     private String name;
 
+    @OdooReadOnly
     @JsonProperty("display_name")
     private String displayName;
 
+    @OdooReadOnly
     @JsonProperty("create_date")
     private Date createdOn;
 
+    @OdooReadOnly
     @JsonProperty("create_uid")
     private int createdBy;
 
+    @OdooReadOnly
     @JsonProperty("write_date")
     private Date lastUpdatedOn;
 
+    @OdooReadOnly
     @JsonProperty("write_uid")
     private int lastUpdatedBy;
 
     /**
-     * Retrieves the fields of the current class and its superclasses that are annotated with {@link JsonProperty}.
-     * This method uses reflection to gather all fields annotated with {@link JsonProperty} from the current class
-     * and its superclasses, and returns them as an array of field names.
+     * Retrieves the Odoo names of the fields of the current class and its superclasses that are annotated with
+     * {@link JsonProperty}.
      *
      * @return an array of field names annotated with {@link JsonProperty}
+     * @see #fieldsOf(Class)
      */
     public String[] fields() {
-        List<String> fields = new ArrayList<>();
-        Class<?> currentClass = getClass();
+        return fieldsOf(getClass());
+    }
+
+    /**
+     * Retrieves the Odoo names of the fields of a model class and its superclasses that are annotated with
+     * {@link JsonProperty}, as listed by the generated {@link OdooModelMapper} of the model. Classes without a mapper
+     * of their own, e.g. anonymous subclasses, get the fields of their closest superclass that has one.
+     *
+     * @param type the model class
+     * @return an array of field names annotated with {@link JsonProperty}
+     */
+    public static String[] fieldsOf(Class<? extends BaseOdooModel> type) {
+        Class<?> currentClass = type;
         while (currentClass != null) {
-            for (Field field : currentClass.getDeclaredFields()) {
-                if (field.isAnnotationPresent(JsonProperty.class)) {
-                    JsonProperty jsonProperty = field.getAnnotation(JsonProperty.class);
-                    fields.add(jsonProperty.value());
-                }
+            OdooModelMapper<?> mapper = MAPPERS.get(currentClass);
+            if (mapper != null) {
+                return mapper.fields();
             }
             currentClass = currentClass.getSuperclass();
         }
-        return fields.toArray(new String[0]);
+        throw new IllegalArgumentException("No Odoo mapper was generated for " + type.getName());
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T extends BaseOdooModel> OdooModelMapper<T> mapperOf(Class<T> type) {
+        OdooModelMapper<T> mapper = (OdooModelMapper<T>) MAPPERS.get(type);
+        if (mapper == null) {
+            throw new IllegalArgumentException("No Odoo mapper was generated for " + type.getName());
+        }
+        return mapper;
     }
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.model;
+
+import java.util.Map;
+
+/**
+ * Reads and writes the fields of a model annotated with {@link com.fasterxml.jackson.annotation.JsonProperty}. An
+ * implementation named {@code <Model>OdooMapper} is generated at compile time for every model by the processor of the
+ * {@code fhir-odoo-mapper-processor} module, so that new models get one without any code.
+ *
+ * @param <T> the model type
+ */
+public interface OdooModelMapper<T extends BaseOdooModel> extends OdooModelReader<T> {
+
+    /**
+     * @return the Odoo field names of the model, the fields of the model first and those of its superclasses after
+     *     them, as a new array
+     */
+    String[] fields();
+
+    /**
+     * Writes the fields of the model into a map keyed by Odoo field name.
+     *
+     * @param model the model
+     * @return the values of all fields, including null values
+     */
+    Map<String, Object> toMap(T model);
+
+    /**
+     * Writes the fields of the model Odoo lets clients write into a map keyed by Odoo field name, e.g. the values of a
+     * {@code create} or {@code write} call. Null fields and the fields Odoo maintains itself, such as the id and the
+     * audit fields, are left out.
+     *
+     * @param model the model
+     * @return the values of the non-null writable fields
+     */
+    Map<String, Object> toWritableMap(T model);
+
+    /**
+     * Gets the generated mapper of a model.
+     *
+     * @param type the model class
+     * @return the mapper
+     * @throws IllegalArgumentException if no mapper was generated for the model
+     */
+    static <T extends BaseOdooModel> OdooModelMapper<T> of(Class<T> type) {
+        return BaseOdooModel.mapperOf(type);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.model;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Sets the fields of a model from the values Odoo returned for a record, so that search results can be decoded
+ * straight into models without building a map or row per record first.
+ *
+ * @see OdooModelMapper
+ * @param <T> the model type
+ */
+public interface OdooModelReader<T> {
+
+    /**
+     * @return a new, empty model
+     */
+    T newModel();
+
+    /**
+     * Sets a field of the model from the value Odoo returned for it. Fields the model does not have and empty values,
+     * which Odoo returns as {@code false}, are ignored.
+     *
+     * @param model the model
+     * @param field the Odoo field name
+     * @param value the value as decoded from the response, see {@link OdooValues}
+     */
+    void set(T model, String field, Object value);
+
+    /**
+     * Reads a model from a record.
+     *
+     * @param record the values keyed by Odoo field name
+     * @return the model
+     */
+    default T read(Map<String, ?> record) {
+        T model = newModel();
+        record.forEach((field, value) -> set(model, field, value));
+        return model;
+    }
+
+    /**
+     * Returns a reader setting a field with the given setter, e.g. a field whose name is configured at runtime, and all
+     * other fields with this reader.
+     *
+     * @param field  the Odoo field name
+     * @param setter sets the non-empty values of the field
+     * @return the reader
+     */
+    default OdooModelReader<T> withField(String field, BiConsumer<T, Object> setter) {
+        OdooModelReader<T> delegate = this;
+        return new OdooModelReader<>() {
+
+            @Override
+            public T newModel() {
+                return delegate.newModel();
+            }
+
+            @Override
+            public void set(T model, String name, Object value) {
+                if (!name.equals(field)) {
+                    delegate.set(model, name, value);
+                } else if (!OdooValues.isEmpty(value)) {
+                    setter.accept(model, value);
+                }
+            }
+        };
+    }
+}
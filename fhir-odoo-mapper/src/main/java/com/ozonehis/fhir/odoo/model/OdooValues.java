@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+/**
+ * Converts the values Odoo returns for a field to the types of the model fields. Odoo returns empty fields as
+ * {@code false}, many2one fields as {@code [id, name]} and dates as strings in UTC.
+ */
+public final class OdooValues {
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private OdooValues() {}
+
+    /**
+     * @param value the value returned by Odoo
+     * @return whether the field is empty: null, {@code false} or an empty array
+     */
+    public static boolean isEmpty(Object value) {
+        return value == null || Boolean.FALSE.equals(value) || value instanceof Object[] array && array.length == 0;
+    }
+
+    /**
+     * @param value the value returned by Odoo
+     * @return the value as a string, the name of a many2one value, or null if empty
+     */
+    public static String toString(Object value) {
+        if (value instanceof String text) {
+            return text;
+        }
+        if (isEmpty(value)) {
+            return null;
+        }
+        if (value instanceof Object[] many2one) {
+            return many2one.length > 1 ? String.valueOf(many2one[1]) : null;
+        }
+        return value.toString();
+    }
+
+    /**
+     * @param value the value returned by Odoo
+     * @return the value as an integer, the id of a many2one value, or null if empty
+     */
+    public static Integer toInteger(Object value) {
+        if (value instanceof Integer number) {
+            return number;
+        }
+        if (value instanceof Number number) {
+            return number.intValue();
+        }
+        if (value instanceof Object[] many2one && many2one.length > 0 && many2one[0] instanceof Number id) {
+            return id.intValue();
+        }
+        return null;
+    }
+
+    /**
+     * @param value the value returned by Odoo
+     * @return the value as a double, or null if empty
+     */
+    public static Double toDouble(Object value) {
+        if (value instanceof Double number) {
+            return number;
+        }
+        return value instanceof Number number ? number.doubleValue() : null;
+    }
+
+    /**
+     * @param value the value returned by Odoo
+     * @return the value as a boolean, or null if not set
+     */
+    public static Boolean toBoolean(Object value) {
+        return value instanceof Boolean bool ? bool : null;
+    }
+
+    /**
+     * @param value the value returned by Odoo, a date or a {@code yyyy-MM-dd[ HH:mm:ss]} string in UTC
+     * @return the value as a date, or null if empty
+     */
+    public static Date toDate(Object value) {
+        if (value instanceof Date date) {
+            return date;
+        }
+        if (value instanceof String text && !text.isEmpty()) {
+            if (text.length() == 10) {
+                return Date.from(LocalDate.parse(text).atStartOfDay().toInstant(ZoneOffset.UTC));
+            }
+            return Date.from(LocalDateTime.parse(text, DATE_TIME).toInstant(ZoneOffset.UTC));
+        }
+        return null;
+    }
+}
@@ -38,6 +38,8 @@ public class SaleOrder extends BaseOdooModel {
     @JsonProperty("type_name")
     private String orderTypeName;
 
+    // One2many, Odoo writes it with commands rather than ids
+    @OdooReadOnly
     @JsonProperty("order_line")
     private Object orderLine;
 
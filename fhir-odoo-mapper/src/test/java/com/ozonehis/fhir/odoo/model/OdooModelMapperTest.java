@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class OdooModelMapperTest {
+
+    @Test
+    @DisplayName("Should set the annotated fields, including those of BaseOdooModel")
+    void shouldSetAnnotatedFields() {
+        Map<String, Object> record = new HashMap<>();
+        record.put("id", 7);
+        record.put("name", "Paracetamol");
+        record.put("list_price", 12);
+        record.put("currency_id", new Object[] {2, "USD"});
+        record.put("active", true);
+        record.put("create_date", "2024-06-01 10:15:30");
+        record.put("write_uid", new Object[] {3, "Admin"});
+        record.put("unknown_field", "ignored");
+
+        Product product = OdooModelMapper.of(Product.class).read(record);
+
+        assertEquals(7, product.getId());
+        assertEquals("Paracetamol", product.getName());
+        assertEquals(12.0, product.getListPrice());
+        assertEquals(2, product.getCurrencyId());
+        assertTrue(product.isActive());
+        assertEquals(Date.from(Instant.parse("2024-06-01T10:15:30Z")), product.getCreatedOn());
+        assertEquals(3, product.getLastUpdatedBy());
+    }
+
+    @Test
+    @DisplayName("Should leave fields that Odoo returned as false unset, except booleans")
+    void shouldLeaveEmptyFieldsUnset() {
+        Map<String, Object> record = new HashMap<>();
+        record.put("name", false);
+        record.put("res_id", false);
+        record.put("noupdate", false);
+        record.put("create_date", false);
+
+        ExtId extId = OdooModelMapper.of(ExtId.class).read(record);
+
+        assertNull(extId.getName());
+        assertEquals(0, extId.getResId());
+        assertFalse(extId.isUpdatable());
+        assertNull(extId.getCreatedOn());
+    }
+
+    @Test
+    @DisplayName("Should set a field with the given setter instead of the annotated field")
+    void shouldSetFieldWithGivenSetter() {
+        OdooModelReader<Partner> reader = OdooModelMapper.of(Partner.class)
+                .withField("x_dob", (partner, value) -> partner.setPartnerBirthDate(value.toString()));
+
+        Partner partner = reader.read(Map.of("x_dob", "1990-01-31", "city", "Nairobi", "x_customer_dob", false));
+
+        assertEquals("1990-01-31", partner.getPartnerBirthDate());
+        assertEquals("Nairobi", partner.getPartnerCity());
+    }
+
+    @Test
+    @DisplayName("Should list the Odoo fields of the model before those of BaseOdooModel")
+    void shouldListFields() {
+        assertArrayEquals(
+                new String[] {
+                    "code", "id", "name", "display_name", "create_date", "create_uid", "write_date", "write_uid"
+                },
+                OdooModelMapper.of(Country.class).fields());
+        assertArrayEquals(OdooModelMapper.of(Partner.class).fields(), BaseOdooModel.fieldsOf(Partner.class));
+    }
+
+    @Test
+    @DisplayName("Should write all fields into a map keyed by Odoo field name")
+    void shouldWriteFieldsToMap() {
+        SaleOrderLine saleOrderLine = new SaleOrderLine();
+        saleOrderLine.setSaleOrderLineOrderId(12);
+        saleOrderLine.setSaleOrderLineProductUomQty(2.0);
+        saleOrderLine.setName("Paracetamol");
+
+        Map<String, Object> map = OdooModelMapper.of(SaleOrderLine.class).toMap(saleOrderLine);
+
+        assertEquals(12, map.get("order_id"));
+        assertEquals(2.0, map.get("product_uom_qty"));
+        assertEquals("Paracetamol", map.get("name"));
+        assertEquals(0, map.get("company_id"));
+        assertTrue(map.containsKey("product_id"));
+        assertNull(map.get("product_id"));
+        assertEquals(Set.of(OdooModelMapper.of(SaleOrderLine.class).fields()), map.keySet());
+    }
+
+    @Test
+    @DisplayName("Should write only the non-null fields Odoo lets clients write")
+    void shouldWriteWritableFieldsToMap() {
+        SaleOrder saleOrder = new SaleOrder();
+        saleOrder.setId(5);
+        saleOrder.setName("SO001");
+        saleOrder.setDisplayName("SO001 Display");
+        saleOrder.setOrderState("draft");
+        saleOrder.setOrderLine(new Object[] {1, 2});
+        saleOrder.setCreatedOn(new Date());
+        saleOrder.setLastUpdatedBy(2);
+
+        Map<String, Object> map = OdooModelMapper.of(SaleOrder.class).toWritableMap(saleOrder);
+
+        assertEquals(Map.of("name", "SO001", "state", "draft", "partner_id", 0, "company_id", 0), map);
+    }
+}
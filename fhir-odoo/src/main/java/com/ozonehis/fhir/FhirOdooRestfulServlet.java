@@ -9,10 +9,13 @@ package com.ozonehis.fhir;
 
 import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.rest.api.EncodingEnum;
+import ca.uhn.fhir.rest.server.IPagingProvider;
 import ca.uhn.fhir.rest.server.IResourceProvider;
 import ca.uhn.fhir.rest.server.RestfulServer;
 import com.ozonehis.fhir.annotations.FhirOdooProvider;
+import com.ozonehis.fhir.odoo.cache.ReferenceDataOperationProvider;
 import com.ozonehis.fhir.odoo.security.BasicAuthenticationInterceptor;
+import com.ozonehis.fhir.odoo.transaction.BundleTransactionProvider;
 import java.util.Collection;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -23,13 +26,27 @@ public class FhirOdooRestfulServlet extends RestfulServer {
     @Autowired
     private BasicAuthenticationInterceptor basicAuthenticationInterceptor;
 
+    @Autowired
+    private ReferenceDataOperationProvider referenceDataOperationProvider;
+
+    @Autowired
+    private BundleTransactionProvider bundleTransactionProvider;
+
+    @Autowired
+    private IPagingProvider pagingProvider;
+
     @Override
     protected void initialize() {
         setFhirContext(FhirContext.forR4());
         setDefaultResponseEncoding(EncodingEnum.JSON);
+        setPagingProvider(pagingProvider);
 
         // Register the basic authentication interceptor
         registerInterceptor(basicAuthenticationInterceptor);
+
+        // Register the server level operations
+        registerProvider(referenceDataOperationProvider);
+        registerProvider(bundleTransactionProvider);
     }
 
     @Override
@@ -8,22 +8,53 @@
 package com.ozonehis.fhir.odoo;
 
 import com.odoojava.api.Session;
+import com.ozonehis.fhir.odoo.session.OdooCredentials;
 
+/**
+ * Holds the Odoo session borrowed for the request being processed by the current thread. Sessions are leased from the
+ * {@link com.ozonehis.fhir.odoo.session.OdooSessionPool} at the start of each request and cleared once it completes, so
+ * a session is never shared between concurrent requests.
+ */
 public class SessionHolder {
 
-    public Session odooSession;
+    private static final ThreadLocal<Session> ODOO_SESSION = new ThreadLocal<>();
 
-    private static final SessionHolder INSTANCE = new SessionHolder();
+    private static final ThreadLocal<OdooCredentials> ODOO_CREDENTIALS = new ThreadLocal<>();
 
     public static boolean isSessionActive() {
         return getOdooSession() != null && getOdooSession().getUserID() != 0;
     }
 
     public static void setOdooSession(Session session) {
-        INSTANCE.odooSession = session;
+        if (session == null) {
+            ODOO_SESSION.remove();
+        } else {
+            ODOO_SESSION.set(session);
+        }
     }
 
     public static Session getOdooSession() {
-        return INSTANCE.odooSession;
+        return ODOO_SESSION.get();
+    }
+
+    /**
+     * Sets the credentials the session of the current request was opened with, for work that outlives the request
+     * and borrows its own session later.
+     */
+    public static void setOdooCredentials(OdooCredentials credentials) {
+        if (credentials == null) {
+            ODOO_CREDENTIALS.remove();
+        } else {
+            ODOO_CREDENTIALS.set(credentials);
+        }
+    }
+
+    public static OdooCredentials getOdooCredentials() {
+        return ODOO_CREDENTIALS.get();
+    }
+
+    public static void clear() {
+        ODOO_SESSION.remove();
+        ODOO_CREDENTIALS.remove();
     }
 }
@@ -7,21 +7,40 @@
  */
 package com.ozonehis.fhir.odoo.api;
 
+import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
 import com.odoojava.api.FilterCollection;
 import com.odoojava.api.ObjectAdapter;
 import com.odoojava.api.OdooApiException;
 import com.odoojava.api.Row;
-import com.odoojava.api.RowCollection;
+import com.odoojava.api.Session;
 import com.ozonehis.fhir.odoo.SessionHolder;
+import com.ozonehis.fhir.odoo.model.OdooModelReader;
 import com.ozonehis.fhir.odoo.model.OdooResource;
+import com.ozonehis.fhir.odoo.session.ObjectAdapterCache;
+import com.ozonehis.fhir.odoo.session.OdooTaskExecutor;
+import com.ozonehis.fhir.odoo.transport.OdooRpcException;
+import com.ozonehis.fhir.odoo.transport.OdooSearch;
+import com.ozonehis.fhir.odoo.transport.OdooTransport;
+import com.ozonehis.fhir.odoo.transport.XmlRpcOdooTransport;
+import com.ozonehis.fhir.odoo.util.OdooUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.Nonnull;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.xmlrpc.XmlRpcException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
@@ -35,18 +54,54 @@ import org.springframework.stereotype.Component;
 public abstract class BaseOdooService<T extends OdooResource> implements OdooService<T> {
 
     /**
-     * Gets the ObjectAdapter for the Odoo object.
+     * Maximum number of values sent in a single "in [...]" domain, larger lists are split into several requests.
+     */
+    protected static final int MAX_IDS_PER_REQUEST = 500;
+
+    /**
+     * Fields Odoo maintains itself and drops from {@code write} calls, they are neither compared nor written by
+     * {@link #update(String, Map)}.
+     */
+    private static final Set<String> NON_WRITABLE_FIELDS =
+            Set.of("id", "display_name", "create_date", "create_uid", "write_date", "write_uid");
+
+    @Autowired
+    private ObjectAdapterCache objectAdapterCache;
+
+    @Autowired
+    private OdooTaskExecutor taskExecutor;
+
+    @Autowired(required = false)
+    private OdooTransport transport = new XmlRpcOdooTransport();
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    private volatile String[] fields;
+
+    /**
+     * Gets the ObjectAdapter for the Odoo object, backed by the session leased to the current request. Adapters are
+     * cached per session so their field metadata is only fetched from Odoo once.
      *
      * @return the ObjectAdapter
      */
     protected ObjectAdapter objectAdapter() {
         try {
-            return SessionHolder.getOdooSession().getObjectAdapter(modelName());
+            return objectAdapterCache.get(session(), modelName());
         } catch (XmlRpcException | OdooApiException e) {
             throw new RuntimeException(e);
         }
     }
 
+    private Session session() {
+        Session session = SessionHolder.getOdooSession();
+        if (session == null) {
+            throw new IllegalStateException("No Odoo session is bound to the current thread");
+        }
+
+        return session;
+    }
+
     /**
      * Gets the model name for the Odoo object.
      *
@@ -61,6 +116,40 @@ public abstract class BaseOdooService<T extends OdooResource> implements OdooSer
      */
     protected abstract String[] modelFields();
 
+    /**
+     * Gets the fields read by default, computed once from {@link #modelFields()}.
+     *
+     * @return an array of field names
+     */
+    protected String[] fields() {
+        String[] result = fields;
+        if (result == null) {
+            result = modelFields();
+            fields = result;
+        }
+        return result;
+    }
+
+    /**
+     * Gets the fields to read for a projection. The id is always read.
+     *
+     * @param projection the names of the fields the caller needs
+     * @return an array of field names
+     * @throws IllegalArgumentException if the projection contains a field that is not a field of the model
+     */
+    String[] projectedFields(Collection<String> projection) {
+        List<String> modelFields = List.of(fields());
+        Set<String> projectedFields = new LinkedHashSet<>();
+        projectedFields.add("id");
+        for (String field : projection) {
+            if (!modelFields.contains(field)) {
+                throw new IllegalArgumentException("Unknown field " + field + " for Odoo model " + modelName());
+            }
+            projectedFields.add(field);
+        }
+        return projectedFields.toArray(new String[0]);
+    }
+
     /**
      * Gets a resource by its ID.
      *
@@ -72,12 +161,11 @@ public abstract class BaseOdooService<T extends OdooResource> implements OdooSer
         try {
             FilterCollection filters = new FilterCollection();
             filters.add("id", "=", id);
-            RowCollection rows = objectAdapter().searchAndReadObject(filters, modelFields());
-            if (!rows.isEmpty()) {
-                // There should be only one row
-                Row row = rows.get(0);
-                T resource = mapRowToResource(row);
-                return Optional.of(resource);
+            ObjectAdapter objectAdapter = objectAdapter();
+            List<T> resources = searchRead(objectAdapter, new OdooSearch(modelName(), filters, fields()));
+            if (!resources.isEmpty()) {
+                // There should be only one resource
+                return Optional.of(resources.get(0));
             }
         } catch (Exception e) {
             throw new RuntimeException("Error while fetching Odoo resource with id " + id, e);
@@ -85,6 +173,67 @@ public abstract class BaseOdooService<T extends OdooResource> implements OdooSer
         return Optional.empty();
     }
 
+    /**
+     * @see OdooService#getByIds(Collection)
+     */
+    @Override
+    public Collection<T> getByIds(Collection<Integer> ids) {
+        return getByIds(ids, this::search);
+    }
+
+    /**
+     * @see OdooService#getByIds(Collection, Collection)
+     */
+    @Override
+    public Collection<T> getByIds(Collection<Integer> ids, Collection<String> fields) {
+        return getByIds(ids, filters -> search(filters, fields));
+    }
+
+    private Collection<T> getByIds(Collection<Integer> ids, Function<FilterCollection, Collection<T>> search) {
+        if (ids == null) {
+            return new ArrayList<>();
+        }
+
+        return searchInChunks(ids, search, chunk -> {
+            FilterCollection filters = new FilterCollection();
+            try {
+                filters.add("id", "in", chunk);
+            } catch (OdooApiException e) {
+                throw new RuntimeException("Error while fetching Odoo resources with ids " + chunk, e);
+            }
+            return filters;
+        });
+    }
+
+    /**
+     * Searches for resources matching any of the given values, e.g. with an "in [...]" domain. The distinct values are
+     * split into chunks of {@link #MAX_IDS_PER_REQUEST} and the chunks are searched in parallel.
+     *
+     * @param values       the values to search for
+     * @param chunkFilters builds the filters matching a chunk of values
+     * @return the resources matching any of the values
+     */
+    protected <V> Collection<T> searchInChunks(Collection<V> values, Function<List<V>, FilterCollection> chunkFilters) {
+        return searchInChunks(values, this::search, chunkFilters);
+    }
+
+    private <V> Collection<T> searchInChunks(
+            Collection<V> values,
+            Function<FilterCollection, Collection<T>> search,
+            Function<List<V>, FilterCollection> chunkFilters) {
+        List<V> distinctValues = new ArrayList<>(new LinkedHashSet<>(values));
+        List<Supplier<Collection<T>>> searches = new ArrayList<>();
+        for (int from = 0; from < distinctValues.size(); from += MAX_IDS_PER_REQUEST) {
+            int to = Math.min(from + MAX_IDS_PER_REQUEST, distinctValues.size());
+            FilterCollection filters = chunkFilters.apply(new ArrayList<>(distinctValues.subList(from, to)));
+            searches.add(() -> search.apply(filters));
+        }
+
+        List<T> resources = new ArrayList<>();
+        taskExecutor.invokeAll(searches).forEach(resources::addAll);
+        return resources;
+    }
+
     /**
      * Searches for resources based on the provided filters.
      *
@@ -93,94 +242,245 @@ public abstract class BaseOdooService<T extends OdooResource> implements OdooSer
      */
     @Override
     public Collection<T> search(FilterCollection filters) {
-        List<T> resources = new ArrayList<>();
+        return search(filters, fields());
+    }
+
+    /**
+     * Searches for resources, reading only the projected fields. Fields that are not read are left unset on the
+     * returned resources.
+     *
+     * @see OdooService#search(FilterCollection, Collection)
+     */
+    @Override
+    public Collection<T> search(FilterCollection filters, Collection<String> fields) {
+        return search(filters, projectedFields(fields));
+    }
+
+    private Collection<T> search(FilterCollection filters, String[] fields) {
         try {
-            RowCollection rows = objectAdapter().searchAndReadObject(filters, modelFields());
-            for (Row row : rows) {
-                T resource = mapRowToResource(row);
-                resources.add(resource);
-            }
+            ObjectAdapter objectAdapter = objectAdapter();
+            return searchRead(objectAdapter, new OdooSearch(modelName(), filters, fields));
         } catch (Exception e) {
             throw new RuntimeException("Error while searching Odoo resources", e);
         }
-        return resources;
     }
 
     /**
-     * @see OdooService#create(Map)
+     * @see OdooService#search(FilterCollection, int, int)
      */
     @Override
-    public int create(Map<String, Object> resource) {
+    public Collection<T> search(FilterCollection filters, int offset, int limit) {
         try {
             ObjectAdapter objectAdapter = objectAdapter();
-            Row newModel = objectAdapter.getNewRow(resource.keySet().toArray(new String[0]));
-            for (Map.Entry<String, Object> e : resource.entrySet()) {
-                newModel.put(e.getKey(), e.getValue());
-            }
+            return searchRead(objectAdapter, new OdooSearch(modelName(), filters, fields(), offset, limit, "id"));
+        } catch (Exception e) {
+            throw new RuntimeException("Error while searching Odoo resources", e);
+        }
+    }
 
-            objectAdapter.createObject(newModel);
-            return newModel.getID();
+    /**
+     * @see OdooService#count(FilterCollection)
+     */
+    @Override
+    public int count(FilterCollection filters) {
+        try {
+            ObjectAdapter objectAdapter = objectAdapter();
+            return timed("search_count", () -> transport.count(session(), objectAdapter, modelName(), filters));
         } catch (Exception e) {
+            throw new RuntimeException("Error while counting Odoo resources", e);
+        }
+    }
+
+    /**
+     * Creates the resource with a single {@code create} call sent through the transport, like
+     * {@link #createAll(List)}.
+     *
+     * @see OdooService#create(Map)
+     */
+    @Override
+    public int create(Map<String, Object> resource) {
+        try {
+            Object result = execute("create", new Object[] {resource});
+            return result instanceof Object[] createdIds ? (Integer) createdIds[0] : (Integer) result;
+        } catch (OdooRpcException e) {
             throw new RuntimeException("Encountered error while creating Odoo resource", e);
         }
     }
 
     /**
+     * Creates the resources with one {@code create} call per {@link #MAX_IDS_PER_REQUEST} resources, Odoo creates all
+     * records passed to a single call in one transaction.
+     *
+     * @see OdooService#createAll(List)
+     */
+    @Override
+    public List<Integer> createAll(List<Map<String, Object>> resources) {
+        List<Integer> ids = new ArrayList<>(resources.size());
+        for (int from = 0; from < resources.size(); from += MAX_IDS_PER_REQUEST) {
+            int to = Math.min(from + MAX_IDS_PER_REQUEST, resources.size());
+            List<Map<String, Object>> chunk = new ArrayList<>(resources.subList(from, to));
+            try {
+                Object result = execute("create", new Object[] {chunk});
+                if (result instanceof Object[] createdIds) {
+                    Arrays.stream(createdIds).map(Integer.class::cast).forEach(ids::add);
+                } else {
+                    ids.add((Integer) result);
+                }
+            } catch (OdooRpcException e) {
+                throw new RuntimeException("Encountered error while creating Odoo resources", e);
+            }
+        }
+
+        return ids;
+    }
+
+    /**
+     * Reads the fields of the given map from the existing row and only writes the fields whose value changed, the
+     * write is skipped when nothing changed. Every write bumps {@code write_date} and may post tracking messages in
+     * Odoo, even if it sets the values the row already has.
+     *
      * @see OdooService#update(String, Map)
      */
     @Override
+    @SuppressWarnings("unchecked")
     public int update(@Nonnull String id, Map<String, Object> resource) {
+        int rowId = Integer.parseInt(id);
+        Map<String, Object> values = writableValues(resource);
+        Object[] rows;
         try {
-            ObjectAdapter objectAdapter = objectAdapter();
-            FilterCollection filters = new FilterCollection();
-            filters.add("id", "=", id);
-            RowCollection rows = objectAdapter.searchAndReadObject(filters, modelFields());
+            rows = (Object[]) execute("read", new Object[] {new Object[] {rowId}, values.keySet().toArray()});
+        } catch (OdooRpcException e) {
+            throw toWriteException(id, "updating", e);
+        }
+        if (rows == null || rows.length == 0) {
+            throw new ResourceNotFoundException("Resource with id " + id + " not found");
+        }
 
-            if (rows.isEmpty()) {
-                throw new RuntimeException("Resource with id " + id + " not found");
-            }
+        write(rowId, OdooUtils.getChangedValues((Map<String, Object>) rows[0], values));
+        return rowId;
+    }
+
+    /**
+     * Compares the given map with the values the caller already read, e.g. with {@link #getById(String)}, and writes
+     * the changed fields with a single {@code write} call. Odoo reports a row that no longer exists as not found.
+     *
+     * @see OdooService#update(String, Map, Map)
+     */
+    @Override
+    public int update(@Nonnull String id, Map<String, Object> resource, Map<String, Object> current) {
+        int rowId = Integer.parseInt(id);
+        write(rowId, OdooUtils.getChangedValues(current, writableValues(resource)));
+        return rowId;
+    }
 
-            Row existingRow = rows.get(0);
+    private Map<String, Object> writableValues(Map<String, Object> resource) {
+        Map<String, Object> values = new LinkedHashMap<>(resource);
+        values.keySet().removeAll(NON_WRITABLE_FIELDS);
+        return values;
+    }
 
-            // Update the fields
-            for (Map.Entry<String, Object> e : resource.entrySet()) {
-                existingRow.put(e.getKey(), e.getValue());
-            }
+    private void write(int rowId, Map<String, Object> changes) {
+        if (changes.isEmpty()) {
+            log.debug("Skipping update of {} with id {}, no field changed", modelName(), rowId);
+            return;
+        }
 
-            objectAdapter.writeObject(existingRow, true);
-            return existingRow.getID();
-        } catch (Exception e) {
-            throw new RuntimeException("Encountered error while updating Odoo resource with id " + id, e);
+        log.debug("Updating fields {} of {} with id {}", changes.keySet(), modelName(), rowId);
+        try {
+            execute("write", new Object[] {new Object[] {rowId}, changes});
+        } catch (OdooRpcException e) {
+            throw toWriteException(String.valueOf(rowId), "updating", e);
         }
     }
 
     /**
+     * Unlinks the row with a single {@code unlink} call, without reading it first. Odoo versions that report a row that
+     * no longer exists fail with not found, recent versions treat it as deleted already.
+     *
      * @see OdooService#delete(String)
      */
     @Override
     public void delete(@Nonnull String id) {
         try {
-            ObjectAdapter objectAdapter = objectAdapter();
-            FilterCollection filters = new FilterCollection();
-            filters.add("id", "=", id);
-            RowCollection rows = objectAdapter.searchAndReadObject(filters, modelFields());
+            execute("unlink", new Object[] {new Object[] {Integer.parseInt(id)}});
+        } catch (OdooRpcException e) {
+            throw toWriteException(id, "deleting", e);
+        }
+    }
 
-            if (rows.isEmpty()) {
-                throw new RuntimeException("Resource with id " + id + " not found");
-            }
+    private RuntimeException toWriteException(String id, String operation, OdooRpcException e) {
+        String message = e.getMessage();
+        if (message != null && (message.contains("MissingError") || message.contains("does not exist"))) {
+            return new ResourceNotFoundException("Resource with id " + id + " not found");
+        }
+        return new RuntimeException("Encountered error while " + operation + " Odoo resource with id " + id, e);
+    }
 
-            Row rowToDelete = rows.get(0);
-            objectAdapter.unlinkObject(rowToDelete);
-        } catch (Exception e) {
-            throw new RuntimeException("Encountered error while deleting Odoo resource with id " + id, e);
+    /**
+     * Searches and reads resources, decoded straight into resources by the {@link #modelReader() model reader}.
+     */
+    private List<T> searchRead(ObjectAdapter objectAdapter, OdooSearch search) throws OdooRpcException {
+        Session session = session();
+        OdooModelReader<T> modelReader = modelReader();
+        return timed("search_read", () -> transport.searchRead(session, objectAdapter, search, modelReader));
+    }
+
+    private Object execute(String method, Object[] params) throws OdooRpcException {
+        Session session = session();
+        return timed(method, () -> transport.execute(session, modelName(), method, params));
+    }
+
+    /**
+     * Times a call to Odoo, recorded as the {@code fhir.odoo.rpc} timer tagged with the model, the Odoo method and
+     * whether the call succeeded.
+     *
+     * @param operation the Odoo method called
+     * @param call      the call
+     * @return the result of the call
+     */
+    private <R, E extends Exception> R timed(String operation, OdooCall<R, E> call) throws E {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            R result = call.call();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(Timer.builder("fhir.odoo.rpc")
+                    .description("Calls to Odoo")
+                    .tag("model", modelName())
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
         }
     }
 
+    @FunctionalInterface
+    private interface OdooCall<R, E extends Exception> {
+
+        R call() throws E;
+    }
+
     /**
-     * Maps a Row object to a resource.
+     * Maps a Row object to a resource with the {@link #modelReader() model reader}.
      *
      * @param row the Row object
      * @return the mapped resource
      */
-    protected abstract T mapRowToResource(Row row);
+    protected T mapRowToResource(Row row) {
+        OdooModelReader<T> modelReader = modelReader();
+        T resource = modelReader.newModel();
+        for (String field : fields()) {
+            modelReader.set(resource, field, row.get(field));
+        }
+        return resource;
+    }
+
+    /**
+     * Gets the reader setting the fields of the resources as the search results are decoded, without building a row
+     * per record first.
+     *
+     * @return the reader
+     */
+    protected abstract OdooModelReader<T> modelReader();
 }
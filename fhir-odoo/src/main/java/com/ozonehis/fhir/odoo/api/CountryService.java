@@ -8,21 +8,41 @@
 package com.ozonehis.fhir.odoo.api;
 
 import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_COUNTRY;
-import static com.ozonehis.fhir.odoo.util.OdooUtils.get;
 
 import com.odoojava.api.FilterCollection;
 import com.odoojava.api.OdooApiException;
-import com.odoojava.api.Row;
+import com.ozonehis.fhir.odoo.cache.CachedReferenceDataService;
+import com.ozonehis.fhir.odoo.cache.ReferenceDataCache;
+import com.ozonehis.fhir.odoo.cache.ReferenceDataCacheProperties;
+import com.ozonehis.fhir.odoo.model.BaseOdooModel;
 import com.ozonehis.fhir.odoo.model.Country;
+import com.ozonehis.fhir.odoo.model.OdooModelMapper;
+import com.ozonehis.fhir.odoo.model.OdooModelReader;
+import jakarta.annotation.PostConstruct;
 import java.util.Collection;
-import java.util.Date;
+import java.util.Map;
 import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Slf4j
 @Service
-public class CountryService extends BaseOdooService<Country> implements OdooService<Country> {
+public class CountryService extends BaseOdooService<Country>
+        implements OdooService<Country>, CachedReferenceDataService {
+
+    private static final OdooModelMapper<Country> MAPPER = OdooModelMapper.of(Country.class);
+
+    @Autowired
+    private ReferenceDataCacheProperties cacheProperties;
+
+    private ReferenceDataCache<String, Country> countriesByName;
+
+    @PostConstruct
+    void initCache() {
+        countriesByName =
+                new ReferenceDataCache<>(MODEL_COUNTRY, cacheProperties.getTtlMs(), cacheProperties.getMaxEntries());
+    }
 
     @Override
     protected String modelName() {
@@ -31,41 +51,41 @@ public class CountryService extends BaseOdooService<Country> implements OdooServ
 
     @Override
     protected String[] modelFields() {
-        return new Country().fields();
+        return BaseOdooModel.fieldsOf(Country.class);
     }
 
     @Override
-    protected Country mapRowToResource(Row row) {
-        Country country = new Country();
-        country.setId(get(row, "id"));
-        country.setDisplayName((String) row.get("display_name"));
-        country.setName((String) row.get("name"));
-        country.setCountryCode((String) row.get("code"));
-
-        // Audit fields
-        var createdOn = get(row, "create_date");
-        if (createdOn != null) {
-            country.setCreatedOn((Date) createdOn);
-        }
-        var createdBy = get(row, "create_uid");
-        if (createdBy != null) {
-            country.setCreatedBy((Integer) createdBy);
-        }
+    protected OdooModelReader<Country> modelReader() {
+        return MAPPER;
+    }
 
-        var lastUpdatedOn = get(row, "write_date");
-        if (lastUpdatedOn != null) {
-            country.setLastUpdatedOn((Date) lastUpdatedOn);
-        }
+    @Override
+    public String getCacheName() {
+        return MODEL_COUNTRY;
+    }
 
-        var lastUpdatedBy = get(row, "write_uid");
-        if (lastUpdatedBy != null) {
-            country.setLastUpdatedBy((Integer) lastUpdatedBy);
-        }
+    @Override
+    public int preloadCache() {
+        Map<String, Country> countries =
+                ReferenceDataCache.indexUnique(search(new FilterCollection()), Country::getName);
+        countriesByName.putAll(countries);
+        return countries.size();
+    }
 
-        return country;
+    @Override
+    public void clearCache() {
+        countriesByName.clear();
     }
 
     public Optional<Country> getByName(String name) {
+        if (!cacheProperties.isEnabled()) {
+            return findByName(name);
+        }
+
+        return countriesByName.get(name, this::findByName);
+    }
+
+    private Optional<Country> findByName(String name) {
         FilterCollection filters = new FilterCollection();
         try {
             filters.add("name", "=", name);
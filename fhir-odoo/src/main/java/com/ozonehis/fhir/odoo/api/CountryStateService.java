@@ -8,22 +8,42 @@
 package com.ozonehis.fhir.odoo.api;
 
 import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_COUNTRY_STATE;
-import static com.ozonehis.fhir.odoo.util.OdooUtils.get;
 
 import com.odoojava.api.FilterCollection;
 import com.odoojava.api.OdooApiException;
-import com.odoojava.api.Row;
 import com.ozonehis.fhir.odoo.OdooConstants;
+import com.ozonehis.fhir.odoo.cache.CachedReferenceDataService;
+import com.ozonehis.fhir.odoo.cache.ReferenceDataCache;
+import com.ozonehis.fhir.odoo.cache.ReferenceDataCacheProperties;
+import com.ozonehis.fhir.odoo.model.BaseOdooModel;
 import com.ozonehis.fhir.odoo.model.CountryState;
+import com.ozonehis.fhir.odoo.model.OdooModelMapper;
+import com.ozonehis.fhir.odoo.model.OdooModelReader;
+import jakarta.annotation.PostConstruct;
 import java.util.Collection;
-import java.util.Date;
+import java.util.Map;
 import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Slf4j
 @Service
-public class CountryStateService extends BaseOdooService<CountryState> implements OdooService<CountryState> {
+public class CountryStateService extends BaseOdooService<CountryState>
+        implements OdooService<CountryState>, CachedReferenceDataService {
+
+    private static final OdooModelMapper<CountryState> MAPPER = OdooModelMapper.of(CountryState.class);
+
+    @Autowired
+    private ReferenceDataCacheProperties cacheProperties;
+
+    private ReferenceDataCache<String, CountryState> countryStatesByName;
+
+    @PostConstruct
+    void initCache() {
+        countryStatesByName = new ReferenceDataCache<>(
+                MODEL_COUNTRY_STATE, cacheProperties.getTtlMs(), cacheProperties.getMaxEntries());
+    }
 
     @Override
     protected String modelName() {
@@ -32,41 +52,41 @@ public class CountryStateService extends BaseOdooService<CountryState> implement
 
     @Override
     protected String[] modelFields() {
-        return new CountryState().fields();
+        return BaseOdooModel.fieldsOf(CountryState.class);
     }
 
     @Override
-    protected CountryState mapRowToResource(Row row) {
-        CountryState countryState = new CountryState();
-        countryState.setId(get(row, "id"));
-        countryState.setDisplayName((String) row.get("display_name"));
-        countryState.setName((String) row.get("name"));
-        countryState.setCountryStateCode((String) row.get("code"));
-
-        // Audit fields
-        var createdOn = get(row, "create_date");
-        if (createdOn != null) {
-            countryState.setCreatedOn((Date) createdOn);
-        }
-        var createdBy = get(row, "create_uid");
-        if (createdBy != null) {
-            countryState.setCreatedBy((Integer) createdBy);
-        }
+    protected OdooModelReader<CountryState> modelReader() {
+        return MAPPER;
+    }
 
-        var lastUpdatedOn = get(row, "write_date");
-        if (lastUpdatedOn != null) {
-            countryState.setLastUpdatedOn((Date) lastUpdatedOn);
-        }
+    @Override
+    public String getCacheName() {
+        return MODEL_COUNTRY_STATE;
+    }
 
-        var lastUpdatedBy = get(row, "write_uid");
-        if (lastUpdatedBy != null) {
-            countryState.setLastUpdatedBy((Integer) lastUpdatedBy);
-        }
+    @Override
+    public int preloadCache() {
+        Map<String, CountryState> countryStates =
+                ReferenceDataCache.indexUnique(search(new FilterCollection()), CountryState::getName);
+        countryStatesByName.putAll(countryStates);
+        return countryStates.size();
+    }
 
-        return countryState;
+    @Override
+    public void clearCache() {
+        countryStatesByName.clear();
     }
 
     public Optional<CountryState> getByName(String name) {
+        if (!cacheProperties.isEnabled()) {
+            return findByName(name);
+        }
+
+        return countryStatesByName.get(name, this::findByName);
+    }
+
+    private Optional<CountryState> findByName(String name) {
         FilterCollection filters = new FilterCollection();
         try {
             filters.add("name", "=", name);
@@ -7,16 +7,38 @@
  */
 package com.ozonehis.fhir.odoo.api;
 
-import static com.ozonehis.fhir.odoo.util.OdooUtils.get;
-
-import com.odoojava.api.Row;
+import com.odoojava.api.FilterCollection;
 import com.ozonehis.fhir.odoo.OdooConstants;
+import com.ozonehis.fhir.odoo.cache.CachedReferenceDataService;
+import com.ozonehis.fhir.odoo.cache.ReferenceDataCache;
+import com.ozonehis.fhir.odoo.cache.ReferenceDataCacheProperties;
+import com.ozonehis.fhir.odoo.model.BaseOdooModel;
 import com.ozonehis.fhir.odoo.model.Currency;
-import java.util.Date;
+import com.ozonehis.fhir.odoo.model.OdooModelMapper;
+import com.ozonehis.fhir.odoo.model.OdooModelReader;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.PostConstruct;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Service
-public class CurrencyService extends BaseOdooService<Currency> implements OdooService<Currency> {
+public class CurrencyService extends BaseOdooService<Currency>
+        implements OdooService<Currency>, CachedReferenceDataService {
+
+    private static final OdooModelMapper<Currency> MAPPER = OdooModelMapper.of(Currency.class);
+
+    @Autowired
+    private ReferenceDataCacheProperties cacheProperties;
+
+    private ReferenceDataCache<String, Currency> currenciesById;
+
+    @PostConstruct
+    void initCache() {
+        currenciesById = new ReferenceDataCache<>(
+                OdooConstants.MODEL_CURRENCY, cacheProperties.getTtlMs(), cacheProperties.getMaxEntries());
+    }
 
     @Override
     protected String modelName() {
@@ -25,47 +47,38 @@ public class CurrencyService extends BaseOdooService<Currency> implements OdooSe
 
     @Override
     protected String[] modelFields() {
-        return new Currency().fields();
+        return BaseOdooModel.fieldsOf(Currency.class);
     }
 
     @Override
-    protected Currency mapRowToResource(Row row) {
-        Currency currency = new Currency();
-        var active = get(row, "active");
-        if (active != null) {
-            currency.setActive((boolean) active);
-        }
-        currency.setName(get(row, "name"));
-        currency.setSymbol(get(row, "symbol"));
-        currency.setDisplayName(get(row, "display_name"));
-        currency.setCurrencyUnitLabel(get(row, "currency_unit_label"));
-        currency.setCurrencySubunitLabel(get(row, "currency_subunit_label"));
+    protected OdooModelReader<Currency> modelReader() {
+        return MAPPER;
+    }
 
-        var decimalPlaces = get(row, "decimal_places");
-        if (decimalPlaces != null) {
-            currency.setDecimalPlaces((Integer) decimalPlaces);
+    @Override
+    public Optional<Currency> getById(@Nonnull String id) {
+        if (!cacheProperties.isEnabled()) {
+            return super.getById(id);
         }
 
-        // Audit fields
-        var createdOn = get(row, "create_date");
-        if (createdOn != null) {
-            currency.setCreatedOn((Date) createdOn);
-        }
-        var createdBy = get(row, "create_uid");
-        if (createdBy != null) {
-            currency.setCreatedBy((Integer) createdBy);
-        }
+        return currenciesById.get(id, super::getById);
+    }
 
-        var lastUpdatedOn = get(row, "write_date");
-        if (lastUpdatedOn != null) {
-            currency.setLastUpdatedOn((Date) lastUpdatedOn);
-        }
+    @Override
+    public String getCacheName() {
+        return OdooConstants.MODEL_CURRENCY;
+    }
 
-        var lastUpdatedBy = get(row, "write_uid");
-        if (lastUpdatedBy != null) {
-            currency.setLastUpdatedBy((Integer) lastUpdatedBy);
-        }
+    @Override
+    public int preloadCache() {
+        Map<String, Currency> currencies = ReferenceDataCache.indexUnique(
+                search(new FilterCollection()), currency -> String.valueOf(currency.getId()));
+        currenciesById.putAll(currencies);
+        return currencies.size();
+    }
 
-        return currency;
+    @Override
+    public void clearCache() {
+        currenciesById.clear();
     }
 }
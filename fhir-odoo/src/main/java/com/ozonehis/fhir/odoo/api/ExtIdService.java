@@ -7,24 +7,59 @@
  */
 package com.ozonehis.fhir.odoo.api;
 
-import static com.ozonehis.fhir.odoo.util.OdooUtils.get;
-
 import com.odoojava.api.FilterCollection;
 import com.odoojava.api.OdooApiException;
-import com.odoojava.api.Row;
+import com.odoojava.api.Session;
 import com.ozonehis.fhir.odoo.OdooConstants;
+import com.ozonehis.fhir.odoo.SessionHolder;
+import com.ozonehis.fhir.odoo.cache.CachedReferenceDataService;
+import com.ozonehis.fhir.odoo.cache.ExtIdCacheProperties;
+import com.ozonehis.fhir.odoo.cache.ReferenceDataCache;
+import com.ozonehis.fhir.odoo.model.BaseOdooModel;
 import com.ozonehis.fhir.odoo.model.ExtId;
+import com.ozonehis.fhir.odoo.model.OdooModelMapper;
+import com.ozonehis.fhir.odoo.model.OdooModelReader;
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+/**
+ * Reads and creates external identifiers ({@code ir.model.data}).
+ * <p>Looked up external identifiers are cached by name and by resource id. Every set of external identifiers read
+ * from Odoo, by the preload or by a lookup, is cached the same way: a key shared by several of them is left out so
+ * that ambiguous lookups still reach Odoo. The cache is kept per Odoo user, as record rules may let users see
+ * different resources. The {@code preload-models} are loaded for the user of the first authenticated request, other
+ * users read their external identifiers through on first use.
+ */
 @Slf4j
 @Service
-public class ExtIdService extends BaseOdooService<ExtId> implements OdooService<ExtId> {
+public class ExtIdService extends BaseOdooService<ExtId> implements OdooService<ExtId>, CachedReferenceDataService {
+
+    private static final OdooModelMapper<ExtId> MAPPER = OdooModelMapper.of(ExtId.class);
+
+    @Autowired
+    private ExtIdCacheProperties cacheProperties;
+
+    private ReferenceDataCache<NameKey, ExtId> extIdsByName;
+
+    private ReferenceDataCache<ResIdKey, ExtId> extIdsByResId;
+
+    @PostConstruct
+    void initCache() {
+        // External identifiers may be added by other systems at any time, so lookups that found nothing are not cached
+        long ttlMs = cacheProperties.getTtlMs();
+        int maxEntries = cacheProperties.getMaxEntries();
+        extIdsByName = new ReferenceDataCache<>(OdooConstants.MODEL_EXTERNAL_IDENTIFIER, ttlMs, maxEntries, false);
+        extIdsByResId = new ReferenceDataCache<>(OdooConstants.MODEL_EXTERNAL_IDENTIFIER, ttlMs, maxEntries, false);
+    }
 
     @Override
     protected String modelName() {
@@ -33,55 +68,12 @@ public class ExtIdService extends BaseOdooService<ExtId> implements OdooService<
 
     @Override
     protected String[] modelFields() {
-        return new ExtId().fields();
+        return BaseOdooModel.fieldsOf(ExtId.class);
     }
 
     @Override
-    protected ExtId mapRowToResource(Row row) {
-        ExtId extId = new ExtId();
-        extId.setModel((String) row.get("model"));
-        extId.setModule((String) row.get("module"));
-
-        var resId = get(row, "res_id");
-        if (resId != null) {
-            extId.setResId((Integer) resId);
-        }
-
-        var noupdate = get(row, "noupdate");
-        if (noupdate != null) {
-            extId.setUpdatable((boolean) noupdate);
-        }
-
-        extId.setReference((String) row.get("reference"));
-        extId.setCompleteName((String) row.get("complete_name"));
-        extId.setName((String) row.get("name"));
-        extId.setDisplayName((String) row.get("display_name"));
-
-        var id = get(row, "id");
-        if (id != null) {
-            extId.setId((Integer) row.get("id"));
-        }
-        // Audit fields
-        var createdOn = get(row, "create_date");
-        if (createdOn != null) {
-            extId.setCreatedOn((Date) createdOn);
-        }
-        var createdBy = get(row, "create_uid");
-        if (createdBy != null) {
-            extId.setCreatedBy((Integer) createdBy);
-        }
-
-        var lastUpdatedOn = get(row, "write_date");
-        if (lastUpdatedOn != null) {
-            extId.setLastUpdatedOn((Date) lastUpdatedOn);
-        }
-
-        var lastUpdatedBy = get(row, "write_uid");
-        if (lastUpdatedBy != null) {
-            extId.setLastUpdatedBy((Integer) lastUpdatedBy);
-        }
-
-        return extId;
+    protected OdooModelReader<ExtId> modelReader() {
+        return MAPPER;
     }
 
     /**
@@ -92,6 +84,21 @@ public class ExtIdService extends BaseOdooService<ExtId> implements OdooService<
      * @return the external identifier
      */
     public Optional<ExtId> getByNameAndModel(String name, String model) {
+        if (!cacheProperties.isEnabled()) {
+            return findByNameAndModel(name, model).stream().findFirst();
+        }
+
+        Optional<ExtId> cached = extIdsByName.getIfPresent(new NameKey(userId(), name, model));
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        Collection<ExtId> results = findByNameAndModel(name, model);
+        cacheUnique(results);
+        return results.stream().findFirst();
+    }
+
+    private Collection<ExtId> findByNameAndModel(String name, String model) {
         FilterCollection filters = new FilterCollection();
         try {
             filters.add("name", "=", name);
@@ -101,27 +108,58 @@ public class ExtIdService extends BaseOdooService<ExtId> implements OdooService<
                 log.warn("Multiple External Identifiers found for name: {} and model: {} ", name, model);
             }
 
-            return results.stream().findFirst();
+            return results;
         } catch (OdooApiException e) {
             throw new RuntimeException(e);
         }
     }
 
-    public Collection<ExtId> getResIdsByNameAndModel(List<String> name, String model) {
-        FilterCollection filters = new FilterCollection();
-        try {
-            name.forEach(n -> {
-                try {
-                    filters.add("name", "=", n);
-                } catch (OdooApiException e) {
-                    throw new RuntimeException(e);
-                }
-            });
-            filters.add("model", "=", model);
-            return this.search(filters);
-        } catch (OdooApiException e) {
-            throw new RuntimeException(e);
+    /**
+     * Gets the external identifiers with any of the given names for a model. Names are looked up in chunks with a
+     * {@code name in [...]} domain.
+     *
+     * @param names the names
+     * @param model the model
+     * @return the external identifiers found, names without an external identifier are left out
+     */
+    public Collection<ExtId> getResIdsByNameAndModel(List<String> names, String model) {
+        if (names.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        if (!cacheProperties.isEnabled()) {
+            return findResIdsByNameAndModel(names, model);
         }
+
+        int userId = userId();
+        List<ExtId> extIds = new ArrayList<>(names.size());
+        List<String> missingNames = new ArrayList<>();
+        for (String name : new LinkedHashSet<>(names)) {
+            extIdsByName
+                    .getIfPresent(new NameKey(userId, name, model))
+                    .ifPresentOrElse(extIds::add, () -> missingNames.add(name));
+        }
+
+        if (!missingNames.isEmpty()) {
+            Collection<ExtId> results = findResIdsByNameAndModel(missingNames, model);
+            cacheUnique(results);
+            extIds.addAll(results);
+        }
+
+        return extIds;
+    }
+
+    private Collection<ExtId> findResIdsByNameAndModel(List<String> names, String model) {
+        return searchInChunks(names, chunk -> {
+            FilterCollection filters = new FilterCollection();
+            try {
+                filters.add("name", "in", chunk);
+                filters.add("model", "=", model);
+            } catch (OdooApiException e) {
+                throw new RuntimeException(e);
+            }
+            return filters;
+        });
     }
 
     /**
@@ -132,6 +170,21 @@ public class ExtIdService extends BaseOdooService<ExtId> implements OdooService<
      * @return the external identifier
      */
     public Optional<ExtId> getByResourceIdAndModel(int resourceId, String model) {
+        if (!cacheProperties.isEnabled()) {
+            return findByResourceIdAndModel(resourceId, model).stream().findFirst();
+        }
+
+        Optional<ExtId> cached = extIdsByResId.getIfPresent(new ResIdKey(userId(), resourceId, model));
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        Collection<ExtId> results = findByResourceIdAndModel(resourceId, model);
+        cacheUnique(results);
+        return results.stream().findFirst();
+    }
+
+    private Collection<ExtId> findByResourceIdAndModel(int resourceId, String model) {
         FilterCollection filters = new FilterCollection();
         try {
             filters.add("res_id", "=", resourceId);
@@ -140,16 +193,59 @@ public class ExtIdService extends BaseOdooService<ExtId> implements OdooService<
             if (results.size() > 1) {
                 throw new RuntimeException(
                         "Multiple External Identifiers found for " + model + " with id " + resourceId);
-            } else if (results.size() == 1) {
-                return results.stream().findFirst();
             }
 
-            return Optional.empty();
+            return results;
         } catch (OdooApiException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Gets the external identifiers of several resources of a model. Resource ids are looked up in chunks with a
+     * {@code res_id in [...]} domain.
+     *
+     * @param resourceIds the resource ids
+     * @param model       the model
+     * @return the external identifiers keyed by resource id, resources without an external identifier are left out
+     */
+    public Map<Integer, ExtId> getByResourceIdsAndModel(Collection<Integer> resourceIds, String model) {
+        int userId = userId();
+        Map<Integer, ExtId> extIds = new HashMap<>();
+        List<Integer> missingResourceIds = new ArrayList<>();
+        for (Integer resourceId : new LinkedHashSet<>(resourceIds)) {
+            Optional<ExtId> cached = cacheProperties.isEnabled()
+                    ? extIdsByResId.getIfPresent(new ResIdKey(userId, resourceId, model))
+                    : Optional.empty();
+            cached.ifPresentOrElse(extId -> extIds.put(resourceId, extId), () -> missingResourceIds.add(resourceId));
+        }
+
+        if (missingResourceIds.isEmpty()) {
+            return extIds;
+        }
+
+        Collection<ExtId> results = searchInChunks(missingResourceIds, chunk -> {
+            FilterCollection filters = new FilterCollection();
+            try {
+                filters.add("res_id", "in", chunk);
+                filters.add("model", "=", model);
+            } catch (OdooApiException e) {
+                throw new RuntimeException(e);
+            }
+            return filters;
+        });
+        for (ExtId extId : results) {
+            if (extIds.putIfAbsent(extId.getResId(), extId) != null) {
+                log.warn("Multiple External Identifiers found for {} with id {}", model, extId.getResId());
+            }
+        }
+        if (cacheProperties.isEnabled()) {
+            cacheUnique(results);
+        }
+
+        return extIds;
+    }
+
     /**
      * Creates a new external identifier in the Odoo instance for the resource matching the specified model and id.
      *
@@ -168,6 +264,110 @@ public class ExtIdService extends BaseOdooService<ExtId> implements OdooService<
             log.debug("Successfully added external identifier, generated database id {}", id);
         }
 
+        if (cacheProperties.isEnabled()) {
+            // Drop whatever was cached for the name or resource so the next lookup reads the new row
+            int userId = userId();
+            extIdsByName.invalidate(new NameKey(userId, externalId, model));
+            extIdsByResId.invalidate(new ResIdKey(userId, resourceId, model));
+        }
+
         return id;
     }
+
+    /**
+     * Creates new external identifiers for several resources of a model with a single create call.
+     *
+     * @param model       the model name
+     * @param externalIds the external identifiers keyed by Odoo resource id
+     * @return the created external identifiers
+     */
+    public List<ExtId> createExternalIds(String model, Map<Integer, String> externalIds) {
+        if (externalIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Adding {} external identifiers in Odoo for {}", externalIds.size(), model);
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>(externalIds.size());
+        externalIds.forEach((resourceId, externalId) ->
+                rows.add(Map.of("model", model, "res_id", resourceId, "name", externalId)));
+        List<Integer> ids = this.createAll(rows);
+
+        List<ExtId> created = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            ExtId extId = new ExtId();
+            extId.setId(ids.get(i));
+            extId.setModel(model);
+            extId.setResId((Integer) rows.get(i).get("res_id"));
+            extId.setName((String) rows.get(i).get("name"));
+            created.add(extId);
+        }
+        if (cacheProperties.isEnabled()) {
+            cacheUnique(created);
+        }
+
+        return created;
+    }
+
+    @Override
+    public String getCacheName() {
+        return OdooConstants.MODEL_EXTERNAL_IDENTIFIER;
+    }
+
+    /**
+     * Loads the external identifiers of the configured {@code preload-models} in one request per model.
+     *
+     * @return the number of loaded external identifiers
+     */
+    @Override
+    public int preloadCache() {
+        if (!cacheProperties.isEnabled()) {
+            return 0;
+        }
+
+        int loaded = 0;
+        for (String model : cacheProperties.getPreloadModels()) {
+            FilterCollection filters = new FilterCollection();
+            try {
+                filters.add("model", "=", model);
+            } catch (OdooApiException e) {
+                throw new RuntimeException(e);
+            }
+
+            Collection<ExtId> extIds = this.search(filters);
+            cacheUnique(extIds);
+            loaded += extIds.size();
+        }
+
+        return loaded;
+    }
+
+    @Override
+    public void clearCache() {
+        extIdsByName.clear();
+        extIdsByResId.clear();
+    }
+
+    /**
+     * Caches external identifiers read from Odoo for the current user by name and by resource id, leaving out the
+     * names and resource ids shared by several of them.
+     */
+    private void cacheUnique(Collection<ExtId> extIds) {
+        int userId = userId();
+        ReferenceDataCache.indexUnique(extIds, extId -> new NameKey(userId, extId.getName(), extId.getModel()))
+                .forEach(extIdsByName::put);
+        ReferenceDataCache.indexUnique(extIds, extId -> new ResIdKey(userId, extId.getResId(), extId.getModel()))
+                .forEach(extIdsByResId::put);
+    }
+
+    private static int userId() {
+        Session session = SessionHolder.getOdooSession();
+        return session != null ? session.getUserID() : 0;
+    }
+
+    private record NameKey(int userId, String name, String model) {}
+
+    private record ResIdKey(int userId, int resId, String model) {}
 }
@@ -11,6 +11,7 @@ import com.odoojava.api.FilterCollection;
 import com.ozonehis.fhir.odoo.model.OdooResource;
 import jakarta.annotation.Nonnull;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -29,6 +30,23 @@ public interface OdooService<O extends OdooResource> {
      */
     Optional<O> getById(@Nonnull String id);
 
+    /**
+     * Get Odoo resources matching the given ids in as few round trips as possible.
+     *
+     * @param ids the ids
+     * @return the collection of {@link O}, ids with no matching resource are omitted
+     */
+    Collection<O> getByIds(Collection<Integer> ids);
+
+    /**
+     * Get Odoo resources matching the given ids, reading only the given fields.
+     *
+     * @param ids    the ids
+     * @param fields the fields to read, the id is always read
+     * @return the collection of {@link O}, ids with no matching resource are omitted
+     */
+    Collection<O> getByIds(Collection<Integer> ids, Collection<String> fields);
+
     /**
      * Search collection of {@link O}.
      *
@@ -37,6 +55,33 @@ public interface OdooService<O extends OdooResource> {
      */
     Collection<O> search(FilterCollection filters);
 
+    /**
+     * Search collection of {@link O}, reading only the given fields.
+     *
+     * @param filters the filter collection
+     * @param fields  the fields to read, the id is always read
+     * @return the collection of {@link O}
+     */
+    Collection<O> search(FilterCollection filters, Collection<String> fields);
+
+    /**
+     * Search a page of {@link O}, ordered by id.
+     *
+     * @param filters the filter collection
+     * @param offset  the number of matching resources to skip
+     * @param limit   the maximum number of resources to return
+     * @return the collection of {@link O}
+     */
+    Collection<O> search(FilterCollection filters, int offset, int limit);
+
+    /**
+     * Count the resources matching the filters.
+     *
+     * @param filters the filter collection
+     * @return the number of matching resources
+     */
+    int count(FilterCollection filters);
+
     /**
      * Creates a new resource in Odoo.
      *
@@ -45,6 +90,14 @@ public interface OdooService<O extends OdooResource> {
      */
     int create(Map<String, Object> resource);
 
+    /**
+     * Creates several new resources in Odoo in as few round trips as possible.
+     *
+     * @param resources the field names and values of each resource
+     * @return the generated row ids, in the order of the resources
+     */
+    List<Integer> createAll(List<Map<String, Object>> resources);
+
     /**
      * Updates an existing resource in Odoo.
      *
@@ -54,6 +107,17 @@ public interface OdooService<O extends OdooResource> {
      */
     int update(@Nonnull String id, Map<String, Object> resource);
 
+    /**
+     * Updates an existing resource in Odoo, comparing against values the caller already read instead of reading them
+     * again.
+     *
+     * @param id the id of the resource to update
+     * @param resource a map of field names and values to update
+     * @param current the current field values of the resource
+     * @return the row id of the updated resource
+     */
+    int update(@Nonnull String id, Map<String, Object> resource, Map<String, Object> current);
+
     /**
      * Deletes a resource from Odoo.
      *
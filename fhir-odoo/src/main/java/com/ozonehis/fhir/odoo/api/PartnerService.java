@@ -8,14 +8,14 @@
 package com.ozonehis.fhir.odoo.api;
 
 import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_PARTNER;
-import static com.ozonehis.fhir.odoo.util.OdooUtils.get;
+import static com.ozonehis.fhir.odoo.util.OdooUtils.renameField;
 
 import com.odoojava.api.FilterCollection;
 import com.odoojava.api.OdooApiException;
-import com.odoojava.api.Row;
+import com.ozonehis.fhir.odoo.model.OdooModelMapper;
+import com.ozonehis.fhir.odoo.model.OdooModelReader;
 import com.ozonehis.fhir.odoo.model.Partner;
 import java.util.Collection;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -27,114 +27,63 @@ import org.springframework.stereotype.Service;
 @Service
 public class PartnerService extends BaseOdooService<Partner> implements OdooService<Partner> {
 
+    private static final OdooModelMapper<Partner> MAPPER = OdooModelMapper.of(Partner.class);
+
     @Value("${odoo.partner.dob.field}")
     private String odooPartnerDobField;
 
     @Value("${odoo.partner.id.field}")
     private String odooPartnerIdField;
 
+    private volatile OdooModelReader<Partner> modelReader;
+
     @Override
     protected String modelName() {
         return MODEL_PARTNER;
     }
 
+    /**
+     * Reads the configured birth date and external id fields in place of the fields of the model.
+     */
     @Override
     protected String[] modelFields() {
-        return new Partner().fields();
+        String[] fields = MAPPER.fields();
+        for (int i = 0; i < fields.length; i++) {
+            if (odooPartnerDobField != null && "x_customer_dob".equals(fields[i])) {
+                fields[i] = odooPartnerDobField;
+            } else if (odooPartnerIdField != null && "x_external_identifier".equals(fields[i])) {
+                fields[i] = odooPartnerIdField;
+            }
+        }
+        return fields;
     }
 
+    /**
+     * The birth date and external id are read from the configured fields rather than the ones of the model.
+     */
     @Override
-    protected Partner mapRowToResource(Row row) {
-        Partner partner = new Partner();
-        partner.setPartnerRef((String) row.get("ref"));
-        partner.setPartnerType((String) row.get("type"));
-        partner.setPartnerStreet((String) row.get("street"));
-        partner.setPartnerStreet2((String) row.get("street2"));
-        partner.setPartnerCity((String) row.get("city"));
-        partner.setPartnerZip((String) row.get("zip"));
-        partner.setPartnerCountryId((Integer) row.get("country_id"));
-        partner.setPartnerStateId((Integer) row.get("state_id"));
-        partner.setCompanyId((int) row.get("company_id"));
-        partner.setPartnerActive((Boolean) row.get("active"));
-        partner.setPartnerComment((String) row.get("comment"));
-        partner.setPartnerBirthDate(
-                row.get(odooPartnerDobField) != null
-                        ? row.get(odooPartnerDobField).toString()
-                        : null);
-        partner.setPartnerExternalId((String) row.get(odooPartnerIdField));
-
-        partner.setName((String) row.get("name"));
-        partner.setDisplayName((String) row.get("display_name"));
-
-        var id = get(row, "id");
-        if (id != null) {
-            partner.setId((Integer) row.get("id"));
-        }
-        // Audit fields
-        var createdOn = get(row, "create_date");
-        if (createdOn != null) {
-            partner.setCreatedOn((Date) createdOn);
-        }
-        var createdBy = get(row, "create_uid");
-        if (createdBy != null) {
-            partner.setCreatedBy((Integer) createdBy);
+    protected OdooModelReader<Partner> modelReader() {
+        OdooModelReader<Partner> reader = modelReader;
+        if (reader == null) {
+            reader = MAPPER
+                    .withField(odooPartnerDobField, (partner, value) -> partner.setPartnerBirthDate(value.toString()))
+                    .withField(odooPartnerIdField, (partner, value) -> partner.setPartnerExternalId(value.toString()));
+            modelReader = reader;
         }
-
-        var lastUpdatedOn = get(row, "write_date");
-        if (lastUpdatedOn != null) {
-            partner.setLastUpdatedOn((Date) lastUpdatedOn);
-        }
-
-        var lastUpdatedBy = get(row, "write_uid");
-        if (lastUpdatedBy != null) {
-            partner.setLastUpdatedBy((Integer) lastUpdatedBy);
-        }
-
-        return partner;
+        return reader;
     }
 
+    /**
+     * Converts a partner to the values of a {@code create} or {@code write} call, with the non-null writable fields
+     * only. The birth date and external id are written to the configured fields.
+     *
+     * @param partner the partner
+     * @return the values keyed by Odoo field name
+     */
     public Map<String, Object> convertPartnerToMap(Partner partner) {
-        Map<String, Object> map = new HashMap<>();
-
-        map.put("ref", partner.getPartnerRef());
-        map.put("type", partner.getPartnerType());
-        map.put("street", partner.getPartnerStreet());
-        map.put("street2", partner.getPartnerStreet2());
-        map.put("city", partner.getPartnerCity());
-        map.put("zip", partner.getPartnerZip());
-        map.put("country_id", partner.getPartnerCountryId());
-        map.put("state_id", partner.getPartnerStateId());
-        map.put("active", partner.getPartnerActive());
-        map.put("comment", partner.getPartnerComment());
-        map.put("company_id", partner.getCompanyId());
-
-        map.put("name", partner.getName());
-        map.put("display_name", partner.getDisplayName());
-        map.put(odooPartnerDobField, partner.getPartnerBirthDate());
-        map.put(odooPartnerIdField, partner.getPartnerExternalId());
-
-        // ID field
-        if (partner.getId() != 0) {
-            map.put("id", partner.getId());
-        }
-
-        // Audit fields
-        if (partner.getCreatedOn() != null) {
-            map.put("create_date", partner.getCreatedOn());
-        }
-
-        if (partner.getCreatedBy() != 0) {
-            map.put("create_uid", partner.getCreatedBy());
-        }
-
-        if (partner.getLastUpdatedOn() != null) {
-            map.put("write_date", partner.getLastUpdatedOn());
-        }
-
-        if (partner.getLastUpdatedBy() != 0) {
-            map.put("write_uid", partner.getLastUpdatedBy());
-        }
-
+        Map<String, Object> map = MAPPER.toWritableMap(partner);
+        renameField(map, "x_customer_dob", odooPartnerDobField);
+        renameField(map, "x_external_identifier", odooPartnerIdField);
         return map;
     }
 
@@ -154,4 +103,31 @@ public class PartnerService extends BaseOdooService<Partner> implements OdooServ
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Gets the partners with the given refs, e.g. the FHIR Patient ids.
+     *
+     * @param refs the refs
+     * @return the partners keyed by ref, refs without a partner are absent
+     */
+    public Map<String, Partner> getByRefs(Collection<String> refs) {
+        Map<String, Partner> partners = new HashMap<>();
+        Collection<Partner> results = searchInChunks(refs, chunk -> {
+            FilterCollection filters = new FilterCollection();
+            try {
+                filters.add("ref", "in", chunk);
+            } catch (OdooApiException e) {
+                throw new RuntimeException(e);
+            }
+            return filters;
+        });
+        for (Partner partner : results) {
+            if (partners.putIfAbsent(partner.getPartnerRef(), partner) != null) {
+                throw new RuntimeException(
+                        "Multiple Partners found for " + MODEL_PARTNER + " with ref " + partner.getPartnerRef());
+            }
+        }
+
+        return partners;
+    }
 }
@@ -9,21 +9,25 @@ package com.ozonehis.fhir.odoo.api;
 
 import static com.ozonehis.fhir.odoo.OdooConstants.LOINC_SOURCE;
 import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_PRODUCT;
-import static com.ozonehis.fhir.odoo.util.OdooUtils.get;
 
 import com.odoojava.api.FilterCollection;
 import com.odoojava.api.OdooApiException;
-import com.odoojava.api.Row;
 import com.ozonehis.fhir.odoo.OdooConstants;
+import com.ozonehis.fhir.odoo.model.BaseOdooModel;
+import com.ozonehis.fhir.odoo.model.OdooModelMapper;
+import com.ozonehis.fhir.odoo.model.OdooModelReader;
 import com.ozonehis.fhir.odoo.model.Product;
 import java.util.Collection;
-import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import org.springframework.stereotype.Service;
 
 @Service
 public class ProductService extends BaseOdooService<Product> implements OdooService<Product> {
 
+    private static final OdooModelMapper<Product> MAPPER = OdooModelMapper.of(Product.class);
+
     @Override
     protected String modelName() {
         return OdooConstants.MODEL_PRODUCT;
@@ -31,60 +35,12 @@ public class ProductService extends BaseOdooService<Product> implements OdooServ
 
     @Override
     protected String[] modelFields() {
-        return new Product().fields();
+        return BaseOdooModel.fieldsOf(Product.class);
     }
 
     @Override
-    protected Product mapRowToResource(Row row) {
-        Product product = new Product();
-        product.setId(get(row, "id"));
-        product.setDisplayName((String) row.get("display_name"));
-        product.setName((String) row.get("name"));
-        product.setUomName((String) row.get("uom_name"));
-        product.setQuantityAvailable((Double) row.get("qty_available"));
-        product.setListPrice((Double) row.get("list_price"));
-        product.setPublicPrice((Double) row.get("lst_price"));
-        product.setStandardPrice((Double) row.get("standard_price"));
-        product.setConceptSource((String) row.get("x_concept_source"));
-        product.setConceptCode((String) row.get("x_concept_code"));
-        product.setDrugStrength((String) row.get("x_drug_strength"));
-
-        var type = row.get("type");
-        if (type != null) {
-            product.setType((String) row.get("type"));
-        }
-
-        var active = row.get("active");
-        if (active != null) {
-            product.setActive((boolean) row.get("active"));
-        }
-        product.setCode((String) row.get("code"));
-
-        var currencyId = row.get("currency_id");
-        if (currencyId != null) {
-            product.setCurrencyId((Integer) row.get("currency_id"));
-        }
-        // Audit fields
-        var createdOn = get(row, "create_date");
-        if (createdOn != null) {
-            product.setCreatedOn((Date) createdOn);
-        }
-        var createdBy = get(row, "create_uid");
-        if (createdBy != null) {
-            product.setCreatedBy((Integer) createdBy);
-        }
-
-        var lastUpdatedOn = get(row, "write_date");
-        if (lastUpdatedOn != null) {
-            product.setLastUpdatedOn((Date) lastUpdatedOn);
-        }
-
-        var lastUpdatedBy = get(row, "write_uid");
-        if (lastUpdatedBy != null) {
-            product.setLastUpdatedBy((Integer) lastUpdatedBy);
-        }
-
-        return product;
+    protected OdooModelReader<Product> modelReader() {
+        return MAPPER;
     }
 
     public Optional<Product> getByConceptCode(String conceptCode) {
@@ -105,4 +61,32 @@ public class ProductService extends BaseOdooService<Product> implements OdooServ
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Gets the products with the given LOINC concept codes.
+     *
+     * @param conceptCodes the concept codes
+     * @return the products keyed by concept code, concept codes without a product are absent
+     */
+    public Map<String, Product> getByConceptCodes(Collection<String> conceptCodes) {
+        Map<String, Product> products = new HashMap<>();
+        Collection<Product> results = searchInChunks(conceptCodes, chunk -> {
+            FilterCollection filters = new FilterCollection();
+            try {
+                filters.add("x_concept_code", "in", chunk);
+                filters.add("x_concept_source", "=", LOINC_SOURCE);
+            } catch (OdooApiException e) {
+                throw new RuntimeException(e);
+            }
+            return filters;
+        });
+        for (Product product : results) {
+            if (products.putIfAbsent(product.getConceptCode(), product) != null) {
+                throw new RuntimeException("Multiple Products found for " + MODEL_PRODUCT + " with concept code "
+                        + product.getConceptCode());
+            }
+        }
+
+        return products;
+    }
 }
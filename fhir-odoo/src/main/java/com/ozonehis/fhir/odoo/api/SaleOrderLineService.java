@@ -8,15 +8,14 @@
 package com.ozonehis.fhir.odoo.api;
 
 import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_SALE_ORDER_LINE;
-import static com.ozonehis.fhir.odoo.util.OdooUtils.get;
 
 import com.odoojava.api.FilterCollection;
 import com.odoojava.api.OdooApiException;
-import com.odoojava.api.Row;
+import com.ozonehis.fhir.odoo.model.BaseOdooModel;
+import com.ozonehis.fhir.odoo.model.OdooModelMapper;
+import com.ozonehis.fhir.odoo.model.OdooModelReader;
 import com.ozonehis.fhir.odoo.model.SaleOrderLine;
 import java.util.Collection;
-import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
@@ -26,6 +25,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class SaleOrderLineService extends BaseOdooService<SaleOrderLine> implements OdooService<SaleOrderLine> {
 
+    private static final OdooModelMapper<SaleOrderLine> MAPPER = OdooModelMapper.of(SaleOrderLine.class);
+
     @Override
     protected String modelName() {
         return MODEL_SALE_ORDER_LINE;
@@ -33,82 +34,23 @@ public class SaleOrderLineService extends BaseOdooService<SaleOrderLine> impleme
 
     @Override
     protected String[] modelFields() {
-        return new SaleOrderLine().fields();
+        return BaseOdooModel.fieldsOf(SaleOrderLine.class);
     }
 
     @Override
-    protected SaleOrderLine mapRowToResource(Row row) {
-        SaleOrderLine saleOrderLine = new SaleOrderLine();
-        saleOrderLine.setSaleOrderLineOrderId(row.get("order_id"));
-        saleOrderLine.setSaleOrderLineProductId(row.get("product_id"));
-        saleOrderLine.setSaleOrderLineProductUomQty((Double) row.get("product_uom_qty"));
-        saleOrderLine.setSaleOrderLineProductUom((int) row.get("product_uom"));
-        saleOrderLine.setCompanyId((int) row.get("company_id"));
-
-        saleOrderLine.setName((String) row.get("name"));
-        saleOrderLine.setDisplayName((String) row.get("display_name"));
-
-        var id = get(row, "id");
-        if (id != null) {
-            saleOrderLine.setId((Integer) row.get("id"));
-        }
-        // Audit fields
-        var createdOn = get(row, "create_date");
-        if (createdOn != null) {
-            saleOrderLine.setCreatedOn((Date) createdOn);
-        }
-        var createdBy = get(row, "create_uid");
-        if (createdBy != null) {
-            saleOrderLine.setCreatedBy((Integer) createdBy);
-        }
-
-        var lastUpdatedOn = get(row, "write_date");
-        if (lastUpdatedOn != null) {
-            saleOrderLine.setLastUpdatedOn((Date) lastUpdatedOn);
-        }
-
-        var lastUpdatedBy = get(row, "write_uid");
-        if (lastUpdatedBy != null) {
-            saleOrderLine.setLastUpdatedBy((Integer) lastUpdatedBy);
-        }
-
-        return saleOrderLine;
+    protected OdooModelReader<SaleOrderLine> modelReader() {
+        return MAPPER;
     }
 
+    /**
+     * Converts a sale order line to the values of a {@code create} or {@code write} call, with the non-null writable
+     * fields only.
+     *
+     * @param saleOrderLine the sale order line
+     * @return the values keyed by Odoo field name
+     */
     public Map<String, Object> convertSaleOrderLineToMap(SaleOrderLine saleOrderLine) {
-        Map<String, Object> map = new HashMap<>();
-
-        map.put("order_id", saleOrderLine.getSaleOrderLineOrderId());
-        map.put("product_id", saleOrderLine.getSaleOrderLineProductId());
-        map.put("product_uom_qty", saleOrderLine.getSaleOrderLineProductUomQty());
-        map.put("product_uom", saleOrderLine.getSaleOrderLineProductUom());
-        map.put("company_id", saleOrderLine.getCompanyId());
-
-        map.put("name", saleOrderLine.getName());
-        map.put("display_name", saleOrderLine.getDisplayName());
-
-        // ID field
-        if (saleOrderLine.getId() != 0) {
-            map.put("id", saleOrderLine.getId());
-        }
-
-        // Audit fields
-        if (saleOrderLine.getCreatedOn() != null) {
-            map.put("create_date", saleOrderLine.getCreatedOn());
-        }
-
-        if (saleOrderLine.getCreatedBy() != 0) {
-            map.put("create_uid", saleOrderLine.getCreatedBy());
-        }
-
-        if (saleOrderLine.getLastUpdatedOn() != null) {
-            map.put("write_date", saleOrderLine.getLastUpdatedOn());
-        }
-
-        if (saleOrderLine.getLastUpdatedBy() != 0) {
-            map.put("write_uid", saleOrderLine.getLastUpdatedBy());
-        }
-        return map;
+        return MAPPER.toWritableMap(saleOrderLine);
     }
 
     public Optional<SaleOrderLine> getBySaleOrderIdAndProductId(int saleOrderId, int productId) {
@@ -129,4 +71,20 @@ public class SaleOrderLineService extends BaseOdooService<SaleOrderLine> impleme
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Gets the lines of a sale order.
+     *
+     * @param saleOrderId the sale order id
+     * @return the sale order lines
+     */
+    public Collection<SaleOrderLine> getBySaleOrderId(int saleOrderId) {
+        FilterCollection filters = new FilterCollection();
+        try {
+            filters.add("order_id", "=", saleOrderId);
+            return this.search(filters);
+        } catch (OdooApiException e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
@@ -8,15 +8,14 @@
 package com.ozonehis.fhir.odoo.api;
 
 import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_SALE_ORDER;
-import static com.ozonehis.fhir.odoo.util.OdooUtils.get;
+import static com.ozonehis.fhir.odoo.util.OdooUtils.renameField;
 
 import com.odoojava.api.FilterCollection;
 import com.odoojava.api.OdooApiException;
-import com.odoojava.api.Row;
+import com.ozonehis.fhir.odoo.model.OdooModelMapper;
+import com.ozonehis.fhir.odoo.model.OdooModelReader;
 import com.ozonehis.fhir.odoo.model.SaleOrder;
 import java.util.Collection;
-import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
@@ -27,6 +26,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class SaleOrderService extends BaseOdooService<SaleOrder> implements OdooService<SaleOrder> {
 
+    private static final OdooModelMapper<SaleOrder> MAPPER = OdooModelMapper.of(SaleOrder.class);
+
     @Value("${odoo.partner.weight.field}")
     private String odooPartnerWeightField;
 
@@ -36,102 +37,60 @@ public class SaleOrderService extends BaseOdooService<SaleOrder> implements Odoo
     @Value("${odoo.partner.id.field}")
     private String odooPartnerIdField;
 
+    private volatile OdooModelReader<SaleOrder> modelReader;
+
     @Override
     protected String modelName() {
         return MODEL_SALE_ORDER;
     }
 
+    /**
+     * Reads the configured partner weight, birth date and external id fields in place of the fields of the model.
+     */
     @Override
     protected String[] modelFields() {
-        return new SaleOrder().fields();
+        String[] fields = MAPPER.fields();
+        for (int i = 0; i < fields.length; i++) {
+            if (odooPartnerWeightField != null && "x_customer_weight".equals(fields[i])) {
+                fields[i] = odooPartnerWeightField;
+            } else if (odooPartnerDobField != null && "x_customer_dob".equals(fields[i])) {
+                fields[i] = odooPartnerDobField;
+            } else if (odooPartnerIdField != null && "x_external_identifier".equals(fields[i])) {
+                fields[i] = odooPartnerIdField;
+            }
+        }
+        return fields;
     }
 
+    /**
+     * The partner weight, birth date and external id are read from the configured fields rather than the ones of the
+     * model.
+     */
     @Override
-    protected SaleOrder mapRowToResource(Row row) {
-        SaleOrder saleOrder = new SaleOrder();
-        saleOrder.setOrderClientOrderRef((String) row.get("client_order_ref"));
-        saleOrder.setOrderState((String) row.get("state"));
-        saleOrder.setOrderPartnerId((int) row.get("partner_id"));
-        saleOrder.setCompanyId((int) row.get("company_id"));
-        saleOrder.setOrderTypeName((String) row.get("type_name"));
-        Object orderLineValue = row.get("order_line");
-        saleOrder.setOrderLine(orderLineValue);
-
-        saleOrder.setPartnerWeight((String) row.get(odooPartnerWeightField));
-        saleOrder.setPartnerBirthDate(
-                row.get(odooPartnerDobField) != null
-                        ? row.get(odooPartnerDobField).toString()
-                        : null);
-        saleOrder.setOdooPartnerId((String) row.get(odooPartnerIdField));
-
-        saleOrder.setName((String) row.get("name"));
-        saleOrder.setDisplayName((String) row.get("display_name"));
-
-        var id = get(row, "id");
-        if (id != null) {
-            saleOrder.setId((Integer) row.get("id"));
+    protected OdooModelReader<SaleOrder> modelReader() {
+        OdooModelReader<SaleOrder> reader = modelReader;
+        if (reader == null) {
+            reader = MAPPER
+                    .withField(odooPartnerWeightField, (order, value) -> order.setPartnerWeight(value.toString()))
+                    .withField(odooPartnerDobField, (order, value) -> order.setPartnerBirthDate(value.toString()))
+                    .withField(odooPartnerIdField, (order, value) -> order.setOdooPartnerId(value.toString()));
+            modelReader = reader;
         }
-        // Audit fields
-        var createdOn = get(row, "create_date");
-        if (createdOn != null) {
-            saleOrder.setCreatedOn((Date) createdOn);
-        }
-        var createdBy = get(row, "create_uid");
-        if (createdBy != null) {
-            saleOrder.setCreatedBy((Integer) createdBy);
-        }
-
-        var lastUpdatedOn = get(row, "write_date");
-        if (lastUpdatedOn != null) {
-            saleOrder.setLastUpdatedOn((Date) lastUpdatedOn);
-        }
-
-        var lastUpdatedBy = get(row, "write_uid");
-        if (lastUpdatedBy != null) {
-            saleOrder.setLastUpdatedBy((Integer) lastUpdatedBy);
-        }
-
-        return saleOrder;
+        return reader;
     }
 
+    /**
+     * Converts a sale order to the values of a {@code create} or {@code write} call, with the non-null writable fields
+     * only. The partner weight, birth date and external id are written to the configured fields.
+     *
+     * @param saleOrder the sale order
+     * @return the values keyed by Odoo field name
+     */
     public Map<String, Object> convertSaleOrderToMap(SaleOrder saleOrder) {
-        Map<String, Object> map = new HashMap<>();
-
-        map.put("client_order_ref", saleOrder.getOrderClientOrderRef());
-        map.put("state", saleOrder.getOrderState());
-        map.put("partner_id", saleOrder.getOrderPartnerId());
-        map.put("company_id", saleOrder.getCompanyId());
-        map.put("type_name", saleOrder.getOrderTypeName());
-
-        map.put(odooPartnerWeightField, saleOrder.getPartnerWeight());
-        map.put(odooPartnerDobField, saleOrder.getPartnerBirthDate());
-        map.put(odooPartnerIdField, saleOrder.getOdooPartnerId());
-
-        map.put("name", saleOrder.getName());
-        map.put("display_name", saleOrder.getDisplayName());
-
-        // ID field
-        if (saleOrder.getId() != 0) {
-            map.put("id", saleOrder.getId());
-        }
-
-        // Audit fields
-        if (saleOrder.getCreatedOn() != null) {
-            map.put("create_date", saleOrder.getCreatedOn());
-        }
-
-        if (saleOrder.getCreatedBy() != 0) {
-            map.put("create_uid", saleOrder.getCreatedBy());
-        }
-
-        if (saleOrder.getLastUpdatedOn() != null) {
-            map.put("write_date", saleOrder.getLastUpdatedOn());
-        }
-
-        if (saleOrder.getLastUpdatedBy() != 0) {
-            map.put("write_uid", saleOrder.getLastUpdatedBy());
-        }
-
+        Map<String, Object> map = MAPPER.toWritableMap(saleOrder);
+        renameField(map, "x_customer_weight", odooPartnerWeightField);
+        renameField(map, "x_customer_dob", odooPartnerDobField);
+        renameField(map, "x_external_identifier", odooPartnerIdField);
         return map;
     }
 
@@ -0,0 +1,31 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.cache;
+
+/**
+ * Implemented by Odoo services that keep their reference data in a {@link ReferenceDataCache}.
+ */
+public interface CachedReferenceDataService {
+
+    /**
+     * @return the name identifying the cache, the Odoo model name
+     */
+    String getCacheName();
+
+    /**
+     * Loads every record of the model into the cache with a single search.
+     *
+     * @return the number of records loaded
+     */
+    int preloadCache();
+
+    /**
+     * Drops every cached entry.
+     */
+    void clearCache();
+}
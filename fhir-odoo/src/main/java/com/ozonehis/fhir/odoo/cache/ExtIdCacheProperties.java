@@ -0,0 +1,37 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.cache;
+
+import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_COMPANY;
+import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_PRODUCT;
+import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_PRODUCT_CATEGORY;
+
+import jakarta.validation.constraints.Positive;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@Validated
+@ConfigurationProperties("fhir.odoo.cache.ext-id")
+public class ExtIdCacheProperties {
+
+    /** Enables caching of external identifiers ({@code ir.model.data}). Defaults to {@code true}. */
+    private boolean enabled = true;
+
+    /** Time in milliseconds after which a cached external identifier is reloaded from Odoo. Defaults to 1 hour. */
+    @Positive private long ttlMs = 3_600_000L;
+
+    /** Maximum number of external identifiers kept per lookup direction, for all users. Defaults to 50000. */
+    @Positive private int maxEntries = 50_000;
+
+    /** Models whose external identifiers are loaded on the first authenticated request, for its user. */
+    private List<String> preloadModels = new ArrayList<>(List.of(MODEL_COMPANY, MODEL_PRODUCT_CATEGORY, MODEL_PRODUCT));
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL based read-through cache for Odoo reference data.
+ * <p>Misses, by default including lookups that found nothing, are loaded once and kept for {@code ttl-ms}. When more
+ * than {@code max-entries} keys are cached the least recently used ones are evicted.
+ *
+ * @param <K> the key type
+ * @param <V> the cached resource type
+ */
+public class ReferenceDataCache<K, V> {
+
+    private final String name;
+
+    private final long ttlNanos;
+
+    private final boolean cacheEmptyResults;
+
+    private final Map<K, Entry<V>> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    public ReferenceDataCache(String name, long ttlMs, int maxEntries) {
+        this(name, ttlMs, maxEntries, true);
+    }
+
+    public ReferenceDataCache(String name, long ttlMs, int maxEntries, boolean cacheEmptyResults) {
+        this.name = name;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.cacheEmptyResults = cacheEmptyResults;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Gets the value cached for the key, loading it with {@code loader} if it is missing or expired.
+     *
+     * @param key    the key
+     * @param loader loads the value from Odoo on a miss
+     * @return the cached or loaded value
+     */
+    public Optional<V> get(K key, Function<K, Optional<V>> loader) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && now - entry.expiresAtNanos() < 0) {
+                hits.incrementAndGet();
+                return entry.value();
+            }
+        }
+
+        // Load outside the lock, concurrent misses on the same key may load it more than once
+        misses.incrementAndGet();
+        Optional<V> value = loader.apply(key);
+        if (value.isPresent() || cacheEmptyResults) {
+            put(key, value);
+        }
+
+        return value;
+    }
+
+    /**
+     * Gets the value cached for the key without loading it.
+     *
+     * @param key the key
+     * @return the cached value, empty if the key is not cached, expired or cached as not found
+     */
+    public Optional<V> getIfPresent(K key) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && now - entry.expiresAtNanos() < 0) {
+                hits.incrementAndGet();
+                return entry.value();
+            }
+        }
+
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public void put(K key, V value) {
+        put(key, Optional.ofNullable(value));
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Caches the given values, typically the result of a bulk preload.
+     *
+     * @param values the values keyed by cache key
+     */
+    public void putAll(Map<K, V> values) {
+        values.forEach((key, value) -> put(key, Optional.ofNullable(value)));
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Indexes values by key, leaving out keys shared by several values so that ambiguous lookups still reach Odoo.
+     *
+     * @param values    the values
+     * @param keyMapper extracts the key of a value
+     * @return the values keyed by their unique keys
+     */
+    public static <K, V> Map<K, V> indexUnique(Collection<V> values, Function<V, K> keyMapper) {
+        Map<K, V> index = new HashMap<>();
+        Set<K> duplicates = new HashSet<>();
+        for (V value : values) {
+            K key = keyMapper.apply(value);
+            if (index.putIfAbsent(key, value) != null) {
+                duplicates.add(key);
+            }
+        }
+
+        duplicates.forEach(index::remove);
+        return index;
+    }
+
+    private void put(K key, Optional<V> value) {
+        Entry<V> entry = new Entry<>(value, System.nanoTime() + ttlNanos);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    private record Entry<V>(Optional<V> value, long expiresAtNanos) {}
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.cache;
+
+import java.util.List;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the {@link ReferenceDataCacheManager} and binds the {@code fhir.odoo.cache.*} properties.
+ */
+@Configuration
+@EnableConfigurationProperties({ReferenceDataCacheProperties.class, ExtIdCacheProperties.class})
+public class ReferenceDataCacheConfiguration {
+
+    @Bean
+    public ReferenceDataCacheManager referenceDataCacheManager(
+            List<CachedReferenceDataService> services, ReferenceDataCacheProperties properties) {
+        return new ReferenceDataCacheManager(services, properties);
+    }
+}
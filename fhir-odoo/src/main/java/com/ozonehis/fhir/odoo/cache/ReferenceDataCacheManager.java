@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.cache;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Preloads and refreshes the reference data caches of all {@link CachedReferenceDataService}s.
+ * <p>The facade has no Odoo credentials of its own, so the preload runs once with the session of the first
+ * authenticated request instead of at application startup.
+ */
+@Slf4j
+public class ReferenceDataCacheManager {
+
+    private final List<CachedReferenceDataService> services;
+
+    private final ReferenceDataCacheProperties properties;
+
+    private final AtomicBoolean preloaded = new AtomicBoolean();
+
+    public ReferenceDataCacheManager(
+            List<CachedReferenceDataService> services, ReferenceDataCacheProperties properties) {
+        this.services = services;
+        this.properties = properties;
+    }
+
+    /**
+     * Preloads the caches unless that was already done, must be called with an Odoo session bound to the thread.
+     */
+    public void preloadOnce() {
+        if (!properties.isEnabled() || !properties.isPreload() || !preloaded.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            Map<String, Integer> loaded = load();
+            log.info("Preloaded Odoo reference data {}", loaded);
+        } catch (RuntimeException e) {
+            // Lookups fall back to read-through, try again on the next request
+            preloaded.set(false);
+            log.warn("Failed to preload Odoo reference data: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Drops every cached entry and, when preloading is enabled, reloads the caches right away.
+     *
+     * @return the number of records loaded per cache
+     */
+    public Map<String, Integer> refresh() {
+        services.forEach(CachedReferenceDataService::clearCache);
+        if (properties.isEnabled() && properties.isPreload()) {
+            Map<String, Integer> loaded = load();
+            preloaded.set(true);
+            log.info("Refreshed Odoo reference data {}", loaded);
+            return loaded;
+        }
+
+        Map<String, Integer> cleared = new LinkedHashMap<>();
+        services.forEach(service -> cleared.put(service.getCacheName(), 0));
+        return cleared;
+    }
+
+    private Map<String, Integer> load() {
+        Map<String, Integer> loaded = new LinkedHashMap<>();
+        services.forEach(service -> loaded.put(service.getCacheName(), service.preloadCache()));
+        return loaded;
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.cache;
+
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@Validated
+@ConfigurationProperties("fhir.odoo.cache.reference-data")
+public class ReferenceDataCacheProperties {
+
+    /** Enables caching of countries, country states and currencies. Defaults to {@code true}. */
+    private boolean enabled = true;
+
+    /** Loads every country, country state and currency on the first authenticated request. Defaults to {@code true}. */
+    private boolean preload = true;
+
+    /** Time in milliseconds after which a cached entry is reloaded from Odoo. Defaults to 1 hour. */
+    @Positive private long ttlMs = 3_600_000L;
+
+    /** Maximum number of entries kept per reference data cache. Defaults to 10000. */
+    @Positive private int maxEntries = 10_000;
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.cache;
+
+import ca.uhn.fhir.rest.annotation.Operation;
+import org.hl7.fhir.r4.model.IntegerType;
+import org.hl7.fhir.r4.model.Parameters;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Server level {@code $refresh-reference-data} operation reloading the cached countries, country states, currencies
+ * and external identifiers, e.g. after they were changed in Odoo.
+ */
+@Component
+@SuppressWarnings("unused")
+public class ReferenceDataOperationProvider {
+
+    private final ReferenceDataCacheManager cacheManager;
+
+    @Autowired
+    public ReferenceDataOperationProvider(ReferenceDataCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Operation(name = "$refresh-reference-data", idempotent = false)
+    public Parameters refreshReferenceData() {
+        Parameters parameters = new Parameters();
+        cacheManager
+                .refresh()
+                .forEach((name, count) ->
+                        parameters.addParameter().setName(name).setValue(new IntegerType(count)));
+        return parameters;
+    }
+}
@@ -24,6 +24,8 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.ChargeItemDefinition;
@@ -35,6 +37,12 @@ import org.springframework.stereotype.Service;
 @SuppressWarnings("rawtypes, unchecked")
 public class ChargeItemDefinitionServiceImpl implements ChargeItemDefinitionService {
 
+    /**
+     * The product fields read by the {@link ChargeItemDefinitionMapper} and the currency used for the price.
+     */
+    private static final List<String> PRODUCT_FIELDS =
+            List.of("name", "description", "write_date", "active", "standard_price", "currency_id");
+
     private final ExtIdService extIdService;
 
     private final ProductService productService;
@@ -64,16 +72,19 @@ public class ChargeItemDefinitionServiceImpl implements ChargeItemDefinitionServ
 
         if (!codes.isEmpty()) {
             Collection<ExtId> extIds = extIdService.getResIdsByNameAndModel(codes, OdooConstants.MODEL_PRODUCT);
+            Map<Integer, Product> products = productService
+                    .getByIds(extIds.stream().map(ExtId::getResId).toList(), PRODUCT_FIELDS)
+                    .stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity(), (first, second) -> first));
             extIds.forEach(externalIdentifier -> {
-                Optional<Product> product = productService.getById(String.valueOf(externalIdentifier.getResId()));
-                if (product.isPresent() && product.get().isActive()) {
+                Product product = products.get(externalIdentifier.getResId());
+                if (product != null && product.isActive()) {
                     Map<String, OdooResource> resourceMap = new java.util.HashMap<>(Map.of(
                             OdooConstants.MODEL_PRODUCT,
-                            product.get(),
+                            product,
                             OdooConstants.MODEL_EXTERNAL_IDENTIFIER,
                             externalIdentifier));
-                    Optional<Currency> currency =
-                            currencyService.getById(String.valueOf(product.get().getCurrencyId()));
+                    Optional<Currency> currency = currencyService.getById(String.valueOf(product.getCurrencyId()));
                     currency.ifPresent(value -> resourceMap.put(OdooConstants.MODEL_CURRENCY, value));
 
                     bundle.addEntry().setResource(chargeItemDefinitionMapper.toFhir(resourceMap));
@@ -0,0 +1,32 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.idempotency;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Registers the {@link IdempotencyGuard} and binds the {@code fhir.odoo.idempotency} properties. Written versions are
+ * kept in memory, or in Redis when {@code fhir.odoo.idempotency.redis-enabled=true}.
+ */
+@Configuration
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyConfiguration {
+
+    @Bean
+    public IdempotencyGuard idempotencyGuard(
+            IdempotencyProperties properties, ObjectProvider<StringRedisTemplate> stringRedisTemplate) {
+        IdempotencyStore store = properties.isRedisEnabled()
+                ? new RedisIdempotencyStore(stringRedisTemplate.getObject(), properties)
+                : new InMemoryIdempotencyStore(properties);
+        return new IdempotencyGuard(store, properties);
+    }
+}
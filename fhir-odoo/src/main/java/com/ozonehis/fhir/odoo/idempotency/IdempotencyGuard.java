@@ -0,0 +1,155 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.idempotency;
+
+import ca.uhn.fhir.context.FhirContext;
+import com.odoojava.api.Session;
+import com.ozonehis.fhir.odoo.SessionHolder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import lombok.extern.slf4j.Slf4j;
+import org.hl7.fhir.r4.model.Resource;
+
+/**
+ * Short-circuits writes of a resource whose content is identical to the last version written for the same resource id,
+ * e.g. an upstream retrying a request that already succeeded.
+ * <p>Resources are keyed by Odoo user, type and id, and identified by a SHA-256 hash of their JSON encoding without
+ * {@code meta}, which changes with every resend. Only the last version written is remembered per key, so a resource
+ * changed and then changed back is written again. A version is remembered once it was written successfully.
+ */
+@Slf4j
+public class IdempotencyGuard {
+
+    private final IdempotencyStore store;
+
+    private final IdempotencyProperties properties;
+
+    private final FhirContext fhirContext = FhirContext.forR4Cached();
+
+    private final AtomicLong repeats = new AtomicLong();
+
+    public IdempotencyGuard(IdempotencyStore store, IdempotencyProperties properties) {
+        this.store = store;
+        this.properties = properties;
+    }
+
+    /**
+     * Writes the resource unless the same version was written last.
+     *
+     * @param resource the resource
+     * @param write    writes the resource to Odoo
+     * @return the result of {@code write}, or the resource itself if the write was skipped
+     */
+    public <T extends Resource> T write(T resource, UnaryOperator<T> write) {
+        if (!properties.isEnabled() || !resource.getIdElement().hasIdPart()) {
+            return write.apply(resource);
+        }
+
+        String key = key(resource);
+        String hash = hash(resource);
+        if (isRepeat(key, hash)) {
+            return resource;
+        }
+
+        T written = write.apply(resource);
+        store.put(key, hash);
+        return written;
+    }
+
+    /**
+     * Writes the resources that are not a repeat of the version written last.
+     *
+     * @param resources the resources
+     * @param writeAll  writes resources to Odoo, returning the failures keyed by index
+     * @return the failures keyed by the index in {@code resources}
+     */
+    public <T extends Resource> Map<Integer, RuntimeException> writeAll(
+            List<T> resources, Function<List<T>, Map<Integer, RuntimeException>> writeAll) {
+        if (!properties.isEnabled()) {
+            return writeAll.apply(resources);
+        }
+
+        List<Integer> indexes = new ArrayList<>();
+        List<T> pending = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        List<String> hashes = new ArrayList<>();
+        for (int i = 0; i < resources.size(); i++) {
+            T resource = resources.get(i);
+            String key = null;
+            String hash = null;
+            if (resource.getIdElement().hasIdPart()) {
+                key = key(resource);
+                hash = hash(resource);
+                if (isRepeat(key, hash)) {
+                    continue;
+                }
+            }
+            indexes.add(i);
+            pending.add(resource);
+            keys.add(key);
+            hashes.add(hash);
+        }
+        if (pending.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        Map<Integer, RuntimeException> pendingFailures = writeAll.apply(pending);
+        Map<Integer, RuntimeException> failures = new HashMap<>();
+        for (int i = 0; i < pending.size(); i++) {
+            RuntimeException failure = pendingFailures.get(i);
+            if (failure != null) {
+                failures.put(indexes.get(i), failure);
+            } else if (keys.get(i) != null) {
+                store.put(keys.get(i), hashes.get(i));
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * @return the number of writes skipped since startup
+     */
+    public long getRepeatCount() {
+        return repeats.get();
+    }
+
+    private boolean isRepeat(String key, String hash) {
+        if (store.get(key).filter(hash::equals).isPresent()) {
+            repeats.incrementAndGet();
+            log.debug("Skipping write of {}, its content did not change since it was last written", key);
+            return true;
+        }
+        return false;
+    }
+
+    private String key(Resource resource) {
+        Session session = SessionHolder.getOdooSession();
+        int userId = session != null ? session.getUserID() : 0;
+        return userId + ":" + resource.fhirType() + "/" + resource.getIdElement().getIdPart();
+    }
+
+    private String hash(Resource resource) {
+        Resource canonical = resource.copy();
+        canonical.setMeta(null);
+        byte[] json = fhirContext.newJsonParser().encodeResourceToString(canonical).getBytes(StandardCharsets.UTF_8);
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
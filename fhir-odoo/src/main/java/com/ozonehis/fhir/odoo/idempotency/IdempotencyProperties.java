@@ -0,0 +1,38 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.idempotency;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@Validated
+@ConfigurationProperties("fhir.odoo.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * Skips Patient and ServiceRequest writes whose content is identical to the last version written for the same
+     * resource id. Defaults to {@code true}.
+     */
+    private boolean enabled = true;
+
+    /** Time in milliseconds a written version is remembered. Defaults to 10 minutes. */
+    @Positive private long ttlMs = 600_000L;
+
+    /** Maximum number of resources remembered in memory, least recently used ones are dropped first. */
+    @Positive private int maxEntries = 10_000;
+
+    /** Keeps the written versions in Redis instead of memory so that repeats are detected across nodes. */
+    private boolean redisEnabled = false;
+
+    /** Prefix of the Redis keys. */
+    @NotBlank private String redisKeyPrefix = "fhir-odoo:idempotency:";
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.idempotency;
+
+import java.util.Optional;
+
+/**
+ * Remembers the content hash of the last version of each resource written to Odoo.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * @param key the resource key
+     * @return the content hash of the last version written, empty if it is unknown or expired
+     */
+    Optional<String> get(String key);
+
+    /**
+     * @param key  the resource key
+     * @param hash the content hash of the version written
+     */
+    void put(String key, String hash);
+}
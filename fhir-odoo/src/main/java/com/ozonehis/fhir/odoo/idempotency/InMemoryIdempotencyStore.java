@@ -0,0 +1,34 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.idempotency;
+
+import com.ozonehis.fhir.odoo.cache.ReferenceDataCache;
+import java.util.Optional;
+
+/**
+ * {@link IdempotencyStore} kept in a bounded LRU cache of this node.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final ReferenceDataCache<String, String> hashes;
+
+    public InMemoryIdempotencyStore(IdempotencyProperties properties) {
+        this.hashes =
+                new ReferenceDataCache<>("idempotency", properties.getTtlMs(), properties.getMaxEntries(), false);
+    }
+
+    @Override
+    public Optional<String> get(String key) {
+        return hashes.getIfPresent(key);
+    }
+
+    @Override
+    public void put(String key, String hash) {
+        hashes.put(key, hash);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.idempotency;
+
+import java.time.Duration;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * {@link IdempotencyStore} shared by all nodes through Redis. Redis being unavailable only costs the short-circuit:
+ * lookups then miss and the resource is written to Odoo again.
+ */
+@Slf4j
+public class RedisIdempotencyStore implements IdempotencyStore {
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final IdempotencyProperties properties;
+
+    public RedisIdempotencyStore(StringRedisTemplate stringRedisTemplate, IdempotencyProperties properties) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.properties = properties;
+    }
+
+    @Override
+    public Optional<String> get(String key) {
+        try {
+            return Optional.ofNullable(stringRedisTemplate.opsForValue().get(properties.getRedisKeyPrefix() + key));
+        } catch (DataAccessException e) {
+            log.warn("Unable to read idempotency key {} from Redis: {}", key, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void put(String key, String hash) {
+        try {
+            stringRedisTemplate
+                    .opsForValue()
+                    .set(properties.getRedisKeyPrefix() + key, hash, Duration.ofMillis(properties.getTtlMs()));
+        } catch (DataAccessException e) {
+            log.warn("Unable to write idempotency key {} to Redis: {}", key, e.getMessage());
+        }
+    }
+}
@@ -22,6 +22,8 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.hl7.fhir.r4.model.Bundle;
 import org.openmrs.fhir.InventoryItem;
@@ -33,6 +35,12 @@ import org.springframework.stereotype.Service;
 @SuppressWarnings("rawtypes, unchecked")
 public class InventoryItemServiceImpl implements InventoryItemService {
 
+    /**
+     * The product fields read by the {@link InventoryItemMapper} and the type used to filter storable products.
+     */
+    private static final List<String> PRODUCT_FIELDS =
+            List.of("name", "display_name", "description", "active", "type", "qty_available", "uom_name");
+
     private final ExtIdService extIdService;
 
     private final ProductService productService;
@@ -82,14 +90,18 @@ public class InventoryItemServiceImpl implements InventoryItemService {
 
         if (!codes.isEmpty()) {
             Collection<ExtId> extIds = extIdService.getResIdsByNameAndModel(codes, OdooConstants.MODEL_PRODUCT);
+            Map<Integer, Product> products = productService
+                    .getByIds(extIds.stream().map(ExtId::getResId).toList(), PRODUCT_FIELDS)
+                    .stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity(), (first, second) -> first));
             extIds.forEach(externalIdentifier -> {
-                Optional<Product> product = productService.getById(String.valueOf(externalIdentifier.getResId()));
-                if (product.isPresent()
-                        && product.get().isActive()
-                        && product.get().getType().equals(OdooConstants.PRODUCT_TYPE_STORABLE)) {
+                Product product = products.get(externalIdentifier.getResId());
+                if (product != null
+                        && product.isActive()
+                        && OdooConstants.PRODUCT_TYPE_STORABLE.equals(product.getType())) {
                     Map<String, OdooResource> resourceMap = Map.of(
                             OdooConstants.MODEL_PRODUCT,
-                            product.get(),
+                            product,
                             OdooConstants.MODEL_EXTERNAL_IDENTIFIER,
                             externalIdentifier);
                     bundle.addEntry().setResource(inventoryItemMapper.toFhir(resourceMap));
@@ -8,10 +8,10 @@
 package com.ozonehis.fhir.odoo.medication;
 
 import ca.uhn.fhir.rest.annotation.Search;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.server.IResourceProvider;
 import com.ozonehis.fhir.annotations.FhirOdooProvider;
 import org.hl7.fhir.instance.model.api.IBaseResource;
-import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.Medication;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -32,7 +32,7 @@ public class MedicationResourceProvider implements IResourceProvider {
     }
 
     @Search
-    public Bundle getAllMedications() {
-        return service.getAllMedications();
+    public IBundleProvider getAllMedications() {
+        return service.searchMedications();
     }
 }
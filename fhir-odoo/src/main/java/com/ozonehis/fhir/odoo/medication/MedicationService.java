@@ -7,8 +7,8 @@
  */
 package com.ozonehis.fhir.odoo.medication;
 
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import com.ozonehis.fhir.odoo.FhirService;
-import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.Medication;
 
 /**
@@ -17,9 +17,9 @@ import org.hl7.fhir.r4.model.Medication;
 public interface MedicationService extends FhirService<Medication> {
 
     /**
-     * Gets all medications.
+     * Searches all medications, reading only the requested page from Odoo.
      *
-     * @return Bundle of medications.
+     * @return the paged medications.
      */
-    Bundle getAllMedications();
+    IBundleProvider searchMedications();
 }
@@ -11,6 +11,7 @@ import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_EXTERNAL_IDENTIFIER;
 import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_PRODUCT;
 import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_PRODUCT_CATEGORY;
 
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import com.odoojava.api.FilterCollection;
 import com.odoojava.api.OdooApiException;
 import com.ozonehis.fhir.odoo.api.ExtIdService;
@@ -20,15 +21,17 @@ import com.ozonehis.fhir.odoo.medication.MedicationService;
 import com.ozonehis.fhir.odoo.model.BaseOdooModel;
 import com.ozonehis.fhir.odoo.model.ExtId;
 import com.ozonehis.fhir.odoo.model.Product;
+import com.ozonehis.fhir.odoo.paging.OdooPagedBundleProvider;
 import jakarta.annotation.Nonnull;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.Medication;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -59,11 +62,18 @@ public class MedicationServiceImpl implements MedicationService {
     }
 
     @Override
-    public Bundle getAllMedications() {
-        if (log.isDebugEnabled()) {
-            log.debug("Fetching all drug products from Odoo");
-        }
+    public IBundleProvider searchMedications() {
+        FilterCollection filter = drugProductsFilter();
+        return new OdooPagedBundleProvider(() -> productService.count(filter), (offset, limit) -> {
+            if (log.isDebugEnabled()) {
+                log.debug("Fetching drug products {} to {} from Odoo", offset, offset + limit);
+            }
+
+            return new ArrayList<>(toMedications(productService.search(filter, offset, limit)));
+        });
+    }
 
+    private FilterCollection drugProductsFilter() {
         FilterCollection filter = new FilterCollection();
         try {
             filter.add("categ_id", "=", getDrugsCategoryId());
@@ -72,34 +82,38 @@ public class MedicationServiceImpl implements MedicationService {
             throw new RuntimeException(e);
         }
 
-        Collection<Product> products = productService.search(filter);
+        return filter;
+    }
+
+    private List<Medication> toMedications(Collection<Product> products) {
         if (log.isDebugEnabled()) {
             log.debug("Loading product external ids");
         }
 
-        Bundle bundle = new Bundle();
-        products.forEach(product -> {
-            Optional<ExtId> extIdOptional = extIdService.getByResourceIdAndModel(product.getId(), MODEL_PRODUCT);
-            ExtId extId;
-            if (extIdOptional.isEmpty()) {
-                log.info("Adding new external id for product with id {}", product.getId());
-                final String identifier = UUID.randomUUID().toString();
-                extIdService.createExternalId(MODEL_PRODUCT, product.getId(), identifier);
-                if (log.isDebugEnabled()) {
-                    log.debug("Successfully added new external id for product with id {}", product.getId());
-                }
-
-                extId = new ExtId();
-                extId.setName(identifier);
-            } else {
-                extId = extIdOptional.get();
+        Map<Integer, ExtId> extIds = extIdService.getByResourceIdsAndModel(
+                products.stream().map(Product::getId).toList(), MODEL_PRODUCT);
+        Map<Integer, String> missingExtIds = new LinkedHashMap<>();
+        products.stream()
+                .filter(product -> !extIds.containsKey(product.getId()))
+                .forEach(product -> missingExtIds.put(product.getId(), UUID.randomUUID().toString()));
+        if (!missingExtIds.isEmpty()) {
+            log.info("Adding new external ids for products with ids {}", missingExtIds.keySet());
+            extIdService
+                    .createExternalIds(MODEL_PRODUCT, missingExtIds)
+                    .forEach(extId -> extIds.put(extId.getResId(), extId));
+            if (log.isDebugEnabled()) {
+                log.debug("Successfully added {} new product external ids", missingExtIds.size());
             }
+        }
 
-            Map<String, BaseOdooModel> resourceMap = Map.of(MODEL_PRODUCT, product, MODEL_EXTERNAL_IDENTIFIER, extId);
-            bundle.addEntry().setResource(mapper.toFhir(resourceMap));
-        });
-
-        return bundle;
+        return products.stream()
+                .map(product -> {
+                    ExtId extId = extIds.get(product.getId());
+                    Map<String, BaseOdooModel> resourceMap =
+                            Map.of(MODEL_PRODUCT, product, MODEL_EXTERNAL_IDENTIFIER, extId);
+                    return mapper.toFhir(resourceMap);
+                })
+                .toList();
     }
 
     @Override
@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.metrics;
+
+import com.ozonehis.fhir.odoo.lock.DistributedLockManager;
+import com.ozonehis.fhir.odoo.lock.LockAcquisitionException;
+import com.ozonehis.fhir.odoo.lock.LockPurpose;
+import com.ozonehis.fhir.odoo.lock.RedisUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Records how long callers wait for a lock and how long they hold it, around any {@link DistributedLockManager}.
+ * <ul>
+ *   <li>{@code fhir.odoo.lock.acquire}: time until the lock was acquired or given up, tagged with the purpose and the
+ *   outcome, one of {@code acquired}, {@code busy}, {@code timeout} and {@code unavailable}.</li>
+ *   <li>{@code fhir.odoo.lock.held}: time the action ran under the lock, tagged with the purpose.</li>
+ * </ul>
+ */
+public class MeteredDistributedLockManager implements DistributedLockManager {
+
+    private final DistributedLockManager delegate;
+
+    private final MeterRegistry meterRegistry;
+
+    public MeteredDistributedLockManager(DistributedLockManager delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public <T> T executeWithLock(LockPurpose purpose, String lockKey, Supplier<T> action) {
+        long start = System.nanoTime();
+        AtomicLong acquiredAt = new AtomicLong();
+        try {
+            return delegate.executeWithLock(purpose, lockKey, held(purpose, start, acquiredAt, action));
+        } catch (LockAcquisitionException e) {
+            recordFailedAcquire(purpose, start, acquiredAt, "timeout");
+            throw e;
+        } catch (RedisUnavailableException e) {
+            recordFailedAcquire(purpose, start, acquiredAt, "unavailable");
+            throw e;
+        }
+    }
+
+    @Override
+    public <T> Optional<T> tryWithLock(LockPurpose purpose, String lockKey, Supplier<T> action) {
+        long start = System.nanoTime();
+        AtomicLong acquiredAt = new AtomicLong();
+        Optional<T> result;
+        try {
+            result = delegate.tryWithLock(purpose, lockKey, held(purpose, start, acquiredAt, action));
+        } catch (RedisUnavailableException e) {
+            recordFailedAcquire(purpose, start, acquiredAt, "unavailable");
+            throw e;
+        }
+        recordFailedAcquire(purpose, start, acquiredAt, "busy");
+        return result;
+    }
+
+    private <T> Supplier<T> held(LockPurpose purpose, long start, AtomicLong acquiredAt, Supplier<T> action) {
+        return () -> {
+            long acquired = System.nanoTime();
+            acquiredAt.set(acquired);
+            acquireTimer(purpose, "acquired").record(acquired - start, TimeUnit.NANOSECONDS);
+            try {
+                return action.get();
+            } finally {
+                Timer.builder("fhir.odoo.lock.held")
+                        .description("Time actions run while holding a distributed lock")
+                        .tag("purpose", purpose.name())
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - acquired, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    /**
+     * Records a failed acquisition, unless the lock was acquired and the failure came from the action itself.
+     */
+    private void recordFailedAcquire(LockPurpose purpose, long start, AtomicLong acquiredAt, String outcome) {
+        if (acquiredAt.get() == 0) {
+            acquireTimer(purpose, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer acquireTimer(LockPurpose purpose, String outcome) {
+        return Timer.builder("fhir.odoo.lock.acquire")
+                .description("Time spent waiting for a distributed lock")
+                .tag("purpose", purpose.name())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.metrics;
+
+import com.ozonehis.fhir.odoo.lock.DistributedLockManager;
+import com.ozonehis.fhir.odoo.mappers.ToFhirMapping;
+import com.ozonehis.fhir.odoo.mappers.ToOdooMapping;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * Instruments the {@link DistributedLockManager} with a {@link MeteredDistributedLockManager} and times the
+ * {@code toFhir} and {@code toOdoo} calls of the mappers as the {@code fhir.odoo.mapping} timer, tagged with the
+ * mapper, the operation and the outcome. The Odoo calls themselves are timed by the Odoo services.
+ * <p>Without a {@link MeterRegistry} bean, e.g. when the application does not include the actuator, meters are
+ * registered with the global registry and are dropped unless a registry is added to it.
+ */
+public class MetricsBeanPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    private volatile MeterRegistry meterRegistry;
+
+    public MetricsBeanPostProcessor(ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.meterRegistryProvider = meterRegistryProvider;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DistributedLockManager lockManager
+                && !(bean instanceof MeteredDistributedLockManager)) {
+            return new MeteredDistributedLockManager(lockManager, meterRegistry());
+        }
+        if (bean instanceof ToFhirMapping<?, ?> || bean instanceof ToOdooMapping<?, ?>) {
+            return timeMappings(bean);
+        }
+        return bean;
+    }
+
+    private Object timeMappings(Object mapper) {
+        String mapperName = AopUtils.getTargetClass(mapper).getSimpleName();
+        ProxyFactory proxyFactory = new ProxyFactory(mapper);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+            Method method = invocation.getMethod();
+            if (!isMapping(method)) {
+                return invocation.proceed();
+            }
+
+            MeterRegistry registry = meterRegistry();
+            Timer.Sample sample = Timer.start(registry);
+            String outcome = "error";
+            try {
+                Object result = invocation.proceed();
+                outcome = "success";
+                return result;
+            } finally {
+                sample.stop(Timer.builder("fhir.odoo.mapping")
+                        .description("Mapping between FHIR resources and Odoo records")
+                        .tag("mapper", mapperName)
+                        .tag("operation", method.getName())
+                        .tag("outcome", outcome)
+                        .register(registry));
+            }
+        });
+        return proxyFactory.getProxy(mapper.getClass().getClassLoader());
+    }
+
+    private static boolean isMapping(Method method) {
+        return method.getParameterCount() == 1
+                && ("toFhir".equals(method.getName()) || "toOdoo".equals(method.getName()));
+    }
+
+    private MeterRegistry meterRegistry() {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null) {
+            registry = meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+            meterRegistry = registry;
+        }
+        return registry;
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the {@link MetricsBeanPostProcessor}, which instruments the distributed lock and the mappers. Exposing
+ * the meters, e.g. through the actuator Prometheus endpoint, is left to the application.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public static MetricsBeanPostProcessor metricsBeanPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new MetricsBeanPostProcessor(meterRegistry);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.paging;
+
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
+import jakarta.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.IntSupplier;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.instance.model.api.IPrimitiveType;
+import org.hl7.fhir.r4.model.InstantType;
+
+/**
+ * Search result that reads a single page from Odoo per request with an offset and limit, so neither the first page nor
+ * any later page depends on the total number of matching records.
+ * <p>Instances hold no Odoo session, pages requested through the paging provider are read with the session of the
+ * request asking for them.
+ */
+public class OdooPagedBundleProvider implements IBundleProvider {
+
+    private final IntSupplier counter;
+
+    private final PageLoader pageLoader;
+
+    private final InstantType published = InstantType.now();
+
+    private volatile Integer size;
+
+    /**
+     * @param counter    counts the matching records
+     * @param pageLoader reads and maps a page of the matching records
+     */
+    public OdooPagedBundleProvider(IntSupplier counter, PageLoader pageLoader) {
+        this.counter = counter;
+        this.pageLoader = pageLoader;
+    }
+
+    @Override
+    public IPrimitiveType<Date> getPublished() {
+        return published;
+    }
+
+    @Nonnull
+    @Override
+    public List<IBaseResource> getResources(int fromIndex, int toIndex) {
+        if (toIndex <= fromIndex) {
+            return new ArrayList<>();
+        }
+
+        return pageLoader.load(fromIndex, toIndex - fromIndex);
+    }
+
+    @Override
+    public String getUuid() {
+        return null;
+    }
+
+    @Override
+    public Integer preferredPageSize() {
+        return null;
+    }
+
+    @Override
+    public Integer size() {
+        if (size == null) {
+            size = counter.getAsInt();
+        }
+
+        return size;
+    }
+
+    /**
+     * Reads a page of records from Odoo and maps them to FHIR resources.
+     */
+    @FunctionalInterface
+    public interface PageLoader {
+
+        /**
+         * @param offset the number of records to skip
+         * @param limit  the maximum number of records to read
+         * @return the FHIR resources of the page
+         */
+        List<IBaseResource> load(int offset, int limit);
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.paging;
+
+import ca.uhn.fhir.rest.server.FifoMemoryPagingProvider;
+import ca.uhn.fhir.rest.server.IPagingProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the {@link IPagingProvider} of the FHIR server and binds its {@code fhir.odoo.paging} properties.
+ */
+@Configuration
+@EnableConfigurationProperties(PagingProperties.class)
+public class PagingConfiguration {
+
+    @Bean
+    public IPagingProvider fhirOdooPagingProvider(PagingProperties properties) {
+        FifoMemoryPagingProvider pagingProvider = new FifoMemoryPagingProvider(properties.getMaxSearches());
+        pagingProvider.setDefaultPageSize(properties.getDefaultPageSize());
+        pagingProvider.setMaximumPageSize(properties.getMaxPageSize());
+        return pagingProvider;
+    }
+}
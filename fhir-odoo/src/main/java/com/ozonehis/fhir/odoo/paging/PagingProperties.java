@@ -0,0 +1,28 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.paging;
+
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@Validated
+@ConfigurationProperties("fhir.odoo.paging")
+public class PagingProperties {
+
+    /** Number of resources per page when the client does not send {@code _count}. Defaults to 50. */
+    @Positive private int defaultPageSize = 50;
+
+    /** Upper bound for {@code _count}. Defaults to 500. */
+    @Positive private int maxPageSize = 500;
+
+    /** Number of searches kept for paging, the oldest search is dropped first. Defaults to 100. */
+    @Positive private int maxSearches = 100;
+}
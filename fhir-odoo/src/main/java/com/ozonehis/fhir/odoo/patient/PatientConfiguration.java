@@ -0,0 +1,29 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.patient;
+
+import com.ozonehis.fhir.odoo.idempotency.IdempotencyGuard;
+import com.ozonehis.fhir.odoo.patient.impl.IdempotentPatientService;
+import com.ozonehis.fhir.odoo.patient.impl.PatientServiceImpl;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Puts the {@link IdempotencyGuard} in front of the {@link PatientServiceImpl}.
+ */
+@Configuration
+public class PatientConfiguration {
+
+    @Bean
+    @Primary
+    public PatientService idempotentPatientService(
+            PatientServiceImpl patientService, IdempotencyGuard idempotencyGuard) {
+        return new IdempotentPatientService(patientService, idempotencyGuard);
+    }
+}
@@ -8,6 +8,8 @@
 package com.ozonehis.fhir.odoo.patient;
 
 import com.ozonehis.fhir.odoo.FhirService;
+import java.util.List;
+import java.util.Map;
 import org.hl7.fhir.r4.model.Patient;
 
 public interface PatientService extends FhirService<Patient> {
@@ -18,4 +20,13 @@ public interface PatientService extends FhirService<Patient> {
      * @param patient Patient FHIR resource
      */
     Patient create(Patient patient);
+
+    /**
+     * Create or update Partners for several FHIR Patients, e.g. the entries of a batch Bundle. The existing partners
+     * and companies are looked up once and new partners are created in bulk.
+     *
+     * @param patients Patient FHIR resources
+     * @return the failure of each Patient that could not be processed, keyed by its index in {@code patients}
+     */
+    Map<Integer, RuntimeException> createAll(List<Patient> patients);
 }
@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.patient.impl;
+
+import com.ozonehis.fhir.odoo.idempotency.IdempotencyGuard;
+import com.ozonehis.fhir.odoo.patient.PatientService;
+import jakarta.annotation.Nonnull;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.hl7.fhir.r4.model.Patient;
+
+/**
+ * Skips writing Patients whose content did not change since they were last written, see {@link IdempotencyGuard}.
+ */
+public class IdempotentPatientService implements PatientService {
+
+    private final PatientService delegate;
+
+    private final IdempotencyGuard idempotencyGuard;
+
+    public IdempotentPatientService(PatientService delegate, IdempotencyGuard idempotencyGuard) {
+        this.delegate = delegate;
+        this.idempotencyGuard = idempotencyGuard;
+    }
+
+    @Override
+    public Patient create(Patient patient) {
+        return idempotencyGuard.write(patient, delegate::create);
+    }
+
+    @Override
+    public Map<Integer, RuntimeException> createAll(List<Patient> patients) {
+        return idempotencyGuard.writeAll(patients, delegate::createAll);
+    }
+
+    @Override
+    public Optional<Patient> getById(@Nonnull String id) {
+        return delegate.getById(id);
+    }
+}
@@ -15,17 +15,26 @@ import com.ozonehis.fhir.odoo.api.CountryStateService;
 import com.ozonehis.fhir.odoo.api.ExtIdService;
 import com.ozonehis.fhir.odoo.api.PartnerService;
 import com.ozonehis.fhir.odoo.mappers.PatientMapper;
+import com.ozonehis.fhir.odoo.model.Country;
+import com.ozonehis.fhir.odoo.model.CountryState;
 import com.ozonehis.fhir.odoo.model.ExtId;
 import com.ozonehis.fhir.odoo.model.Partner;
 import com.ozonehis.fhir.odoo.patient.PatientService;
+import com.ozonehis.fhir.odoo.session.OdooTaskExecutor;
 import jakarta.annotation.Nonnull;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
+import org.hl7.fhir.r4.model.Address;
 import org.hl7.fhir.r4.model.Identifier;
 import org.hl7.fhir.r4.model.Patient;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -46,26 +55,43 @@ public class PatientServiceImpl implements PatientService {
 
     private final ExtIdService extIdService;
 
+    private final OdooTaskExecutor taskExecutor;
+
     @Autowired
     public PatientServiceImpl(
             CountryService countryService,
             CountryStateService countryStateService,
             PartnerService partnerService,
             PatientMapper patientMapper,
-            ExtIdService extIdService) {
+            ExtIdService extIdService,
+            OdooTaskExecutor taskExecutor) {
         this.countryService = countryService;
         this.countryStateService = countryStateService;
         this.partnerService = partnerService;
         this.patientMapper = patientMapper;
         this.extIdService = extIdService;
+        this.taskExecutor = taskExecutor;
     }
 
     @Override
     public Patient create(Patient patient) {
         validatePatient(patient);
+        String facilityId = getFacilityId(patient);
+        Optional<Address> address = getAddress(patient);
+
+        // The lookups do not depend on each other, run them in parallel
+        List<Object> lookups = taskExecutor.invokeAll(List.<Supplier<Object>>of(
+                () -> getCompanyExtId(facilityId),
+                () -> address.flatMap(value -> countryService.getByName(value.getCountry())),
+                () -> address.flatMap(value -> countryStateService.getByName(value.getState())),
+                () -> partnerService.getByRef(patient.getIdPart())));
 
-        Map<String, Object> resourceMap = buildResourceMap(patient);
-        Partner partner = patientMapper.toOdoo(resourceMap);
+        ExtId company = (ExtId) lookups.get(0);
+        Optional<Country> country = (Optional<Country>) lookups.get(1);
+        Optional<CountryState> countryState = (Optional<CountryState>) lookups.get(2);
+        Optional<Partner> existingPartner = (Optional<Partner>) lookups.get(3);
+
+        Partner partner = patientMapper.toOdoo(buildResourceMap(patient, company, country, countryState));
 
         if (partner == null) {
             log.error("Unable to map Patient to Partner, required data missing {}", patient.getIdPart());
@@ -73,7 +99,7 @@ public class PatientServiceImpl implements PatientService {
         }
 
         Map<String, Object> partnerMap = partnerService.convertPartnerToMap(partner);
-        int partnerId = createOrUpdatePartner(patient.getIdPart(), partnerMap);
+        int partnerId = createOrUpdatePartner(patient.getIdPart(), existingPartner, partnerMap);
 
         if (partnerId == 0) {
             log.error("Failed to persist Partner in Odoo");
@@ -83,6 +109,100 @@ public class PatientServiceImpl implements PatientService {
         return patient;
     }
 
+    @Override
+    public Map<Integer, RuntimeException> createAll(List<Patient> patients) {
+        Map<Integer, RuntimeException> failures = new HashMap<>();
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < patients.size(); i++) {
+            try {
+                validatePatient(patients.get(i));
+                getFacilityId(patients.get(i));
+                indexes.add(i);
+            } catch (RuntimeException e) {
+                failures.put(i, e);
+            }
+        }
+
+        if (indexes.isEmpty()) {
+            return failures;
+        }
+
+        List<Object> bulkLookups = taskExecutor.invokeAll(List.<Supplier<Object>>of(
+                () -> extIdService.getResIdsByNameAndModel(
+                        indexes.stream()
+                                .map(i -> getFacilityId(patients.get(i)))
+                                .distinct()
+                                .toList(),
+                        OdooConstants.MODEL_COMPANY),
+                () -> partnerService.getByRefs(
+                        indexes.stream().map(i -> patients.get(i).getIdPart()).collect(Collectors.toSet()))));
+        Map<String, ExtId> companies = new HashMap<>();
+        ((Collection<ExtId>) bulkLookups.get(0)).forEach(extId -> companies.putIfAbsent(extId.getName(), extId));
+        Map<String, Partner> existingPartners = (Map<String, Partner>) bulkLookups.get(1);
+
+        // Partners to create keyed by ref, a Patient repeated in the batch is created once with its last version
+        Map<String, Map<String, Object>> newPartners = new LinkedHashMap<>();
+        Map<String, List<Integer>> newPartnerIndexes = new HashMap<>();
+        for (Integer index : indexes) {
+            Patient patient = patients.get(index);
+            try {
+                Map<String, Object> partnerMap = toPartnerMap(patient, companies);
+                Partner existingPartner = existingPartners.get(patient.getIdPart());
+                if (existingPartner != null) {
+                    log.info("Partner with reference {} already exists, updating", patient.getIdPart());
+                    Map<String, Object> currentPartnerMap = partnerService.convertPartnerToMap(existingPartner);
+                    int partnerId = partnerService.update(
+                            String.valueOf(existingPartner.getId()), partnerMap, currentPartnerMap);
+                    if (partnerId == 0) {
+                        log.error("Failed to persist Partner in Odoo");
+                        throw new InvalidRequestException("Unable to persist Partner in Odoo");
+                    }
+                } else {
+                    newPartners.put(patient.getIdPart(), partnerMap);
+                    newPartnerIndexes
+                            .computeIfAbsent(patient.getIdPart(), k -> new ArrayList<>())
+                            .add(index);
+                }
+            } catch (RuntimeException e) {
+                failures.put(index, e);
+            }
+        }
+
+        if (!newPartners.isEmpty()) {
+            try {
+                log.info("Creating new Partners with references {}", newPartners.keySet());
+                partnerService.createAll(new ArrayList<>(newPartners.values()));
+            } catch (RuntimeException e) {
+                log.error("Failed to persist Partners in Odoo");
+                newPartnerIndexes.values().forEach(refIndexes -> refIndexes.forEach(i -> failures.put(i, e)));
+            }
+        }
+
+        return failures;
+    }
+
+    private Map<String, Object> toPartnerMap(Patient patient, Map<String, ExtId> companies) {
+        String facilityId = getFacilityId(patient);
+        ExtId company = companies.get(facilityId);
+        if (company == null) {
+            log.error("Missing company mapping in Odoo with facility id {}", facilityId);
+            throw new UnprocessableEntityException("Missing company mapping in Odoo");
+        }
+
+        // Countries and country states are reference data served from the cache
+        Optional<Address> address = getAddress(patient);
+        Partner partner = patientMapper.toOdoo(buildResourceMap(
+                patient,
+                company,
+                address.flatMap(value -> countryService.getByName(value.getCountry())),
+                address.flatMap(value -> countryStateService.getByName(value.getState()))));
+        if (partner == null) {
+            log.error("Unable to map Patient to Partner, required data missing {}", patient.getIdPart());
+            throw new UnprocessableEntityException("Required fields missing in Patient payload");
+        }
+        return partnerService.convertPartnerToMap(partner);
+    }
+
     private void validatePatient(Patient patient) {
         if (patient == null || !patient.hasId()) {
             log.error("Patient ID is missing");
@@ -94,31 +214,31 @@ public class PatientServiceImpl implements PatientService {
         }
     }
 
-    private Map<String, Object> buildResourceMap(Patient patient) {
+    private Map<String, Object> buildResourceMap(
+            Patient patient, ExtId company, Optional<Country> country, Optional<CountryState> countryState) {
         Map<String, Object> resourceMap = new HashMap<>();
         resourceMap.put(OdooConstants.MODEL_FHIR_PATIENT, patient);
-        resourceMap.put(OdooConstants.MODEL_COMPANY, getCompanyExtId(getFacilityId(patient)));
+        resourceMap.put(OdooConstants.MODEL_COMPANY, company);
+        country.ifPresent(value -> resourceMap.put(OdooConstants.MODEL_COUNTRY, value));
+        countryState.ifPresent(value -> resourceMap.put(OdooConstants.MODEL_COUNTRY_STATE, value));
+        return resourceMap;
+    }
 
-        Stream.ofNullable(patient.getAddress())
+    private Optional<Address> getAddress(Patient patient) {
+        return Stream.ofNullable(patient.getAddress())
                 .flatMap(Collection::stream)
-                .findFirst()
-                .ifPresent(address -> {
-                    countryService
-                            .getByName(address.getCountry())
-                            .ifPresent(value -> resourceMap.put(OdooConstants.MODEL_COUNTRY, value));
-                    countryStateService
-                            .getByName(address.getState())
-                            .ifPresent(value -> resourceMap.put(OdooConstants.MODEL_COUNTRY_STATE, value));
-                });
-        return resourceMap;
+                .findFirst();
     }
 
-    private int createOrUpdatePartner(String patientRef, Map<String, Object> partnerMap) {
-        Partner existingPartner = partnerService.getByRef(patientRef).orElse(null);
+    private int createOrUpdatePartner(String patientRef, Optional<Partner> existing, Map<String, Object> partnerMap) {
+        Partner existingPartner = existing.orElse(null);
 
         if (existingPartner != null) {
             log.info("Partner with reference {} already exists, updating", patientRef);
-            return partnerService.update(String.valueOf(existingPartner.getId()), partnerMap);
+            return partnerService.update(
+                    String.valueOf(existingPartner.getId()),
+                    partnerMap,
+                    partnerService.convertPartnerToMap(existingPartner));
         } else {
             log.info("Creating new Partner with reference {}", patientRef);
             return partnerService.create(partnerMap);
@@ -10,13 +10,18 @@ package com.ozonehis.fhir.odoo.security;
 import ca.uhn.fhir.interceptor.api.Hook;
 import ca.uhn.fhir.interceptor.api.Interceptor;
 import ca.uhn.fhir.interceptor.api.Pointcut;
-import com.odoojava.api.Session;
-import com.ozonehis.fhir.FhirOdooConfig;
+import ca.uhn.fhir.rest.server.exceptions.BaseServerResponseException;
+import ca.uhn.fhir.rest.server.servlet.ServletRequestDetails;
 import com.ozonehis.fhir.odoo.SessionHolder;
+import com.ozonehis.fhir.odoo.cache.ReferenceDataCacheManager;
+import com.ozonehis.fhir.odoo.session.OdooCredentials;
+import com.ozonehis.fhir.odoo.session.OdooSessionPool;
+import com.ozonehis.fhir.odoo.session.OdooSessionPoolExhaustedException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.Base64;
+import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -27,14 +32,20 @@ import org.springframework.stereotype.Component;
 @Interceptor
 public class BasicAuthenticationInterceptor {
 
+    private static final String SESSION_LEASE_ATTRIBUTE = BasicAuthenticationInterceptor.class.getName() + ".lease";
+
+    private static final String FAILURE_ATTRIBUTE = BasicAuthenticationInterceptor.class.getName() + ".failure";
+
+    @Autowired
+    private OdooSessionPool odooSessionPool;
+
     @Autowired
-    private FhirOdooConfig fhirOdooConfig;
+    private ReferenceDataCacheManager referenceDataCacheManager;
 
     @Hook(Pointcut.SERVER_INCOMING_REQUEST_PRE_PROCESSED)
     public boolean authenticate(HttpServletRequest request, HttpServletResponse response) throws IOException {
-        if ((request.getRequestURI().contains("/.well-known")
-                        || request.getRequestURI().endsWith("/metadata"))
-                || SessionHolder.isSessionActive()) {
+        if (request.getRequestURI().contains("/.well-known")
+                || request.getRequestURI().endsWith("/metadata")) {
             return true;
         } else {
             // Extract the Authorization header
@@ -45,7 +56,7 @@ public class BasicAuthenticationInterceptor {
             }
 
             // Extract the credentials
-            String[] credentials = new String(Base64.getDecoder().decode(authHeader.substring(6))).split(":");
+            String[] credentials = new String(Base64.getDecoder().decode(authHeader.substring(6))).split(":", 2);
             if (credentials.length < 2) {
                 response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid credentials format");
                 return false;
@@ -53,8 +64,22 @@ public class BasicAuthenticationInterceptor {
             String username = credentials[0];
             String password = credentials[1];
 
-            // Authenticate the user
-            if (authenticateWithUsernameAndPassword(username, password)) {
+            // Authenticate the user by borrowing a pooled session opened with the same credentials
+            OdooCredentials odooCredentials = new OdooCredentials(username, password);
+            Optional<OdooSessionPool.Lease> lease;
+            try {
+                lease = odooSessionPool.borrow(odooCredentials);
+            } catch (OdooSessionPoolExhaustedException e) {
+                log.warn(e.getMessage());
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "No Odoo session available");
+                return false;
+            }
+
+            if (lease.isPresent()) {
+                request.setAttribute(SESSION_LEASE_ATTRIBUTE, lease.get());
+                SessionHolder.setOdooSession(lease.get().getSession());
+                SessionHolder.setOdooCredentials(odooCredentials);
+                referenceDataCacheManager.preloadOnce();
                 return true;
             } else {
                 response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid credentials");
@@ -63,23 +88,24 @@ public class BasicAuthenticationInterceptor {
         }
     }
 
-    private boolean authenticateWithUsernameAndPassword(String username, String password) {
-        Session odooSession = new Session(
-                fhirOdooConfig.getRPCProtocol(),
-                fhirOdooConfig.getOdooHostName(),
-                Integer.parseInt(fhirOdooConfig.getOdooPort()),
-                fhirOdooConfig.getOdooDatabase(),
-                username,
-                password);
-        try {
-            odooSession.startSession();
-            if (odooSession.getUserID() != 0) {
-                SessionHolder.setOdooSession(odooSession);
-                return true;
-            }
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+    /**
+     * Remembers the exception the request failed with, so that {@link #releaseSession(ServletRequestDetails)} discards
+     * the session if it failed calling Odoo.
+     */
+    @Hook(Pointcut.SERVER_PRE_PROCESS_OUTGOING_EXCEPTION)
+    public BaseServerResponseException recordFailure(HttpServletRequest request, Throwable exception) {
+        request.setAttribute(FAILURE_ATTRIBUTE, exception);
+        // Keep the exception as it is
+        return null;
+    }
+
+    @Hook(Pointcut.SERVER_PROCESSING_COMPLETED)
+    public void releaseSession(ServletRequestDetails requestDetails) {
+        SessionHolder.clear();
+        HttpServletRequest request = requestDetails.getServletRequest();
+        if (request != null && request.getAttribute(SESSION_LEASE_ATTRIBUTE) instanceof OdooSessionPool.Lease lease) {
+            request.removeAttribute(SESSION_LEASE_ATTRIBUTE);
+            lease.close((Throwable) request.getAttribute(FAILURE_ATTRIBUTE));
         }
-        return false;
     }
 }
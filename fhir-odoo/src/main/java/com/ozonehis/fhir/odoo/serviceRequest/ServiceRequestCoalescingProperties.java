@@ -0,0 +1,32 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.serviceRequest;
+
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@Validated
+@ConfigurationProperties("fhir.odoo.service-request.coalescing")
+public class ServiceRequestCoalescingProperties {
+
+    /**
+     * Whether active ServiceRequests of the same requisition are collected and written together. Every active
+     * ServiceRequest then waits up to {@code window-ms} for others to join it. Defaults to false.
+     */
+    private boolean enabled = false;
+
+    /** How long the first ServiceRequest of a requisition waits for others to join it (ms). Defaults to 25. */
+    @PositiveOrZero private long windowMs = 25L;
+
+    /** Number of ServiceRequests after which a requisition is written without waiting for the window to end. */
+    @Positive private int maxBatchSize = 100;
+}
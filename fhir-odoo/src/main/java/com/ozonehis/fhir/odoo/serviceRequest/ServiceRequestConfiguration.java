@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.serviceRequest;
+
+import com.ozonehis.fhir.odoo.idempotency.IdempotencyGuard;
+import com.ozonehis.fhir.odoo.serviceRequest.impl.CoalescingServiceRequestService;
+import com.ozonehis.fhir.odoo.serviceRequest.impl.IdempotentServiceRequestService;
+import com.ozonehis.fhir.odoo.serviceRequest.impl.ServiceRequestServiceImpl;
+import com.ozonehis.fhir.odoo.serviceRequest.ingest.ServiceRequestIngestProperties;
+import com.ozonehis.fhir.odoo.serviceRequest.ingest.ServiceRequestIngestQueue;
+import com.ozonehis.fhir.odoo.session.OdooSessionPool;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Puts the {@link IdempotencyGuard} and the requisition coalescing stage in front of the
+ * {@link ServiceRequestServiceImpl}, registers the {@link ServiceRequestIngestQueue} and binds the
+ * {@code fhir.odoo.service-request.*} properties.
+ */
+@Configuration
+@EnableConfigurationProperties({ServiceRequestCoalescingProperties.class, ServiceRequestIngestProperties.class})
+public class ServiceRequestConfiguration {
+
+    @Bean
+    public CoalescingServiceRequestService coalescingServiceRequestService(
+            ServiceRequestServiceImpl serviceRequestService, ServiceRequestCoalescingProperties properties) {
+        return new CoalescingServiceRequestService(serviceRequestService, properties);
+    }
+
+    @Bean
+    @Primary
+    public ServiceRequestService idempotentServiceRequestService(
+            CoalescingServiceRequestService serviceRequestService, IdempotencyGuard idempotencyGuard) {
+        return new IdempotentServiceRequestService(serviceRequestService, idempotencyGuard);
+    }
+
+    @Bean
+    public ServiceRequestIngestQueue serviceRequestIngestQueue(
+            ServiceRequestService serviceRequestService,
+            OdooSessionPool sessionPool,
+            ServiceRequestIngestProperties properties) {
+        return new ServiceRequestIngestQueue(serviceRequestService, sessionPool, properties);
+    }
+}
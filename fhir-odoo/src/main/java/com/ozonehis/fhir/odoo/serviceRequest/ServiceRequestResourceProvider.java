@@ -9,25 +9,43 @@ package com.ozonehis.fhir.odoo.serviceRequest;
 
 import ca.uhn.fhir.rest.annotation.Create;
 import ca.uhn.fhir.rest.annotation.IdParam;
+import ca.uhn.fhir.rest.annotation.Operation;
+import ca.uhn.fhir.rest.annotation.OperationParam;
 import ca.uhn.fhir.rest.annotation.ResourceParam;
 import ca.uhn.fhir.rest.annotation.Update;
 import ca.uhn.fhir.rest.api.MethodOutcome;
 import ca.uhn.fhir.rest.server.IResourceProvider;
+import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
 import com.ozonehis.fhir.annotations.FhirOdooProvider;
+import com.ozonehis.fhir.odoo.serviceRequest.ingest.IngestStatus;
+import com.ozonehis.fhir.odoo.serviceRequest.ingest.ServiceRequestIngestQueue;
+import java.util.List;
+import java.util.Map;
 import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.CodeType;
 import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.IntegerType;
+import org.hl7.fhir.r4.model.OperationOutcome;
+import org.hl7.fhir.r4.model.Parameters;
 import org.hl7.fhir.r4.model.ServiceRequest;
+import org.hl7.fhir.r4.model.StringType;
 import org.springframework.beans.factory.annotation.Autowired;
 
 @FhirOdooProvider
 @SuppressWarnings("unused")
 public class ServiceRequestResourceProvider implements IResourceProvider {
 
+    private static final String INGEST_STATUS_OPERATION = "$ingest-status";
+
     private final ServiceRequestService serviceRequestService;
 
+    private final ServiceRequestIngestQueue ingestQueue;
+
     @Autowired
-    public ServiceRequestResourceProvider(ServiceRequestService serviceRequestService) {
+    public ServiceRequestResourceProvider(
+            ServiceRequestService serviceRequestService, ServiceRequestIngestQueue ingestQueue) {
         this.serviceRequestService = serviceRequestService;
+        this.ingestQueue = ingestQueue;
     }
 
     @Override
@@ -37,6 +55,10 @@ public class ServiceRequestResourceProvider implements IResourceProvider {
 
     @Create
     public MethodOutcome createServiceRequest(@ResourceParam ServiceRequest serviceRequest) {
+        if (ingestQueue.isEnabled()) {
+            return accept(serviceRequest);
+        }
+
         ServiceRequest createdServiceRequest = serviceRequestService.create(serviceRequest);
         MethodOutcome outcome = new MethodOutcome();
         outcome.setId(new IdType("ServiceRequest", createdServiceRequest.getIdPart()));
@@ -46,10 +68,52 @@ public class ServiceRequestResourceProvider implements IResourceProvider {
 
     @Update
     public MethodOutcome update(@IdParam IdType idType, @ResourceParam ServiceRequest serviceRequest) {
+        if (ingestQueue.isEnabled()) {
+            return accept(serviceRequest);
+        }
+
         ServiceRequest updatedServiceRequest = serviceRequestService.create(serviceRequest);
         MethodOutcome outcome = new MethodOutcome();
         outcome.setId(idType);
         outcome.setResource(updatedServiceRequest);
         return outcome;
     }
+
+    /**
+     * Returns the processing status of a ServiceRequest accepted for asynchronous ingestion.
+     */
+    @Operation(name = INGEST_STATUS_OPERATION, idempotent = true)
+    public Parameters ingestStatus(@OperationParam(name = "handle", min = 1) StringType handle) {
+        IngestStatus status = ingestQueue
+                .getStatus(handle.getValue())
+                .orElseThrow(() -> new ResourceNotFoundException("Unknown ingest handle " + handle.getValue()));
+
+        Parameters parameters = new Parameters();
+        parameters.addParameter().setName("handle").setValue(handle);
+        parameters.addParameter().setName("status").setValue(new CodeType(status.state().name().toLowerCase()));
+        parameters.addParameter().setName("attempts").setValue(new IntegerType(status.attempts()));
+        if (status.message() != null) {
+            parameters.addParameter().setName("message").setValue(new StringType(status.message()));
+        }
+        return parameters;
+    }
+
+    private MethodOutcome accept(ServiceRequest serviceRequest) {
+        String handle = ingestQueue.accept(serviceRequest);
+
+        OperationOutcome operationOutcome = new OperationOutcome();
+        operationOutcome
+                .addIssue()
+                .setSeverity(OperationOutcome.IssueSeverity.INFORMATION)
+                .setCode(OperationOutcome.IssueType.INFORMATIONAL)
+                .setDiagnostics("ServiceRequest accepted for asynchronous processing with handle " + handle);
+
+        MethodOutcome outcome = new MethodOutcome();
+        outcome.setId(new IdType("ServiceRequest", serviceRequest.getIdPart()));
+        outcome.setOperationOutcome(operationOutcome);
+        outcome.setResponseStatusCode(202);
+        outcome.setResponseHeaders(Map.of(
+                "Content-Location", List.of("ServiceRequest/" + INGEST_STATUS_OPERATION + "?handle=" + handle)));
+        return outcome;
+    }
 }
@@ -8,6 +8,8 @@
 package com.ozonehis.fhir.odoo.serviceRequest;
 
 import com.ozonehis.fhir.odoo.FhirService;
+import java.util.List;
+import java.util.Map;
 import org.hl7.fhir.r4.model.ServiceRequest;
 
 public interface ServiceRequestService extends FhirService<ServiceRequest> {
@@ -18,4 +20,14 @@ public interface ServiceRequestService extends FhirService<ServiceRequest> {
      * @param serviceRequest ServiceRequest FHIR resource
      */
     ServiceRequest create(ServiceRequest serviceRequest);
+
+    /**
+     * Create SaleOrders and SaleOrderLines for several FHIR ServiceRequests, e.g. the entries of a batch Bundle. The
+     * partners, products and companies the ServiceRequests share are looked up once and the SaleOrderLines of each
+     * requisition are created in bulk.
+     *
+     * @param serviceRequests ServiceRequest FHIR resources
+     * @return the failure of each ServiceRequest that could not be processed, keyed by its index in the list
+     */
+    Map<Integer, RuntimeException> createAll(List<ServiceRequest> serviceRequests);
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.serviceRequest.impl;
+
+import com.odoojava.api.Session;
+import com.ozonehis.fhir.odoo.SessionHolder;
+import com.ozonehis.fhir.odoo.serviceRequest.ServiceRequestCoalescingProperties;
+import com.ozonehis.fhir.odoo.serviceRequest.ServiceRequestService;
+import jakarta.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.hl7.fhir.r4.model.ServiceRequest;
+
+/**
+ * Collects the active ServiceRequests of a requisition that arrive within a short window and writes them with a single
+ * {@link ServiceRequestService#createAll(List)} call, i.e. one lock acquisition, one sale order lookup and one create
+ * call for all sale order lines of the requisition.
+ * <p>
+ * The first ServiceRequest of a requisition leads the batch: its request thread waits for the window to end, or for
+ * the batch to fill up, and writes the batch with its own Odoo session. Later ServiceRequests of the requisition wait
+ * for the outcome of their entry. Batches are kept per Odoo user so that records are never written on behalf of
+ * another user. A ServiceRequest no other one joined within the window is written with
+ * {@link ServiceRequestService#create(ServiceRequest)}, exactly as without coalescing. Other ServiceRequests are passed
+ * on to the delegate unchanged.
+ */
+@Slf4j
+public class CoalescingServiceRequestService implements ServiceRequestService {
+
+    private final ServiceRequestService delegate;
+
+    private final ServiceRequestCoalescingProperties properties;
+
+    private final Map<BatchKey, Batch> batches = new HashMap<>();
+
+    public CoalescingServiceRequestService(
+            ServiceRequestService delegate, ServiceRequestCoalescingProperties properties) {
+        this.delegate = delegate;
+        this.properties = properties;
+    }
+
+    @Override
+    public ServiceRequest create(ServiceRequest serviceRequest) {
+        if (!properties.isEnabled()
+                || !serviceRequest.hasRequisition()
+                || !ServiceRequest.ServiceRequestStatus.ACTIVE.equals(serviceRequest.getStatus())) {
+            return delegate.create(serviceRequest);
+        }
+
+        Session session = SessionHolder.getOdooSession();
+        BatchKey key = new BatchKey(
+                session != null ? session.getUserID() : 0,
+                serviceRequest.getRequisition().getValue());
+        BatchEntry entry = new BatchEntry(serviceRequest, new CompletableFuture<>());
+        Batch batch;
+        boolean leader;
+        synchronized (batches) {
+            batch = batches.get(key);
+            leader = batch == null;
+            if (leader) {
+                batch = new Batch();
+                batches.put(key, batch);
+            }
+            batch.entries.add(entry);
+            if (batch.entries.size() >= properties.getMaxBatchSize()) {
+                batches.remove(key);
+                batch.full.countDown();
+            }
+        }
+
+        if (leader) {
+            write(key, batch);
+        }
+
+        try {
+            entry.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return serviceRequest;
+    }
+
+    @Override
+    public Map<Integer, RuntimeException> createAll(List<ServiceRequest> serviceRequests) {
+        return delegate.createAll(serviceRequests);
+    }
+
+    @Override
+    public Optional<ServiceRequest> getById(@Nonnull String id) {
+        return delegate.getById(id);
+    }
+
+    private void write(BatchKey key, Batch batch) {
+        List<BatchEntry> entries = new ArrayList<>();
+        try {
+            if (!batch.full.await(properties.getWindowMs(), TimeUnit.MILLISECONDS)) {
+                synchronized (batches) {
+                    batches.remove(key, batch);
+                }
+            }
+            synchronized (batches) {
+                entries.addAll(batch.entries);
+            }
+
+            if (entries.size() == 1) {
+                delegate.create(entries.get(0).serviceRequest());
+                entries.get(0).result().complete(null);
+                return;
+            }
+
+            log.debug("Writing {} ServiceRequests of requisition {}", entries.size(), key.requisition());
+            Map<Integer, RuntimeException> failures =
+                    delegate.createAll(entries.stream().map(BatchEntry::serviceRequest).toList());
+            for (int i = 0; i < entries.size(); i++) {
+                RuntimeException failure = failures.get(i);
+                if (failure != null) {
+                    entries.get(i).result().completeExceptionally(failure);
+                } else {
+                    entries.get(i).result().complete(null);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(key, batch, entries, new RuntimeException("Interrupted while collecting ServiceRequests", e));
+        } catch (RuntimeException e) {
+            fail(key, batch, entries, e);
+        }
+    }
+
+    private void fail(BatchKey key, Batch batch, List<BatchEntry> entries, RuntimeException failure) {
+        synchronized (batches) {
+            batches.remove(key, batch);
+            if (entries.isEmpty()) {
+                entries.addAll(batch.entries);
+            }
+        }
+        entries.forEach(entry -> entry.result().completeExceptionally(failure));
+    }
+
+    private record BatchKey(int userId, String requisition) {}
+
+    private record BatchEntry(ServiceRequest serviceRequest, CompletableFuture<Void> result) {}
+
+    private static class Batch {
+
+        private final List<BatchEntry> entries = new ArrayList<>();
+
+        private final CountDownLatch full = new CountDownLatch(1);
+    }
+}
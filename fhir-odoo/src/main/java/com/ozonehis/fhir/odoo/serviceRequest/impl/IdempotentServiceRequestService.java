@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.serviceRequest.impl;
+
+import com.ozonehis.fhir.odoo.idempotency.IdempotencyGuard;
+import com.ozonehis.fhir.odoo.serviceRequest.ServiceRequestService;
+import jakarta.annotation.Nonnull;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.hl7.fhir.r4.model.ServiceRequest;
+
+/**
+ * Skips writing ServiceRequests whose content did not change since they were last written, see
+ * {@link IdempotencyGuard}. Sits in front of the requisition coalescing stage so that repeats never hold up a batch.
+ */
+public class IdempotentServiceRequestService implements ServiceRequestService {
+
+    private final ServiceRequestService delegate;
+
+    private final IdempotencyGuard idempotencyGuard;
+
+    public IdempotentServiceRequestService(ServiceRequestService delegate, IdempotencyGuard idempotencyGuard) {
+        this.delegate = delegate;
+        this.idempotencyGuard = idempotencyGuard;
+    }
+
+    @Override
+    public ServiceRequest create(ServiceRequest serviceRequest) {
+        return idempotencyGuard.write(serviceRequest, delegate::create);
+    }
+
+    @Override
+    public Map<Integer, RuntimeException> createAll(List<ServiceRequest> serviceRequests) {
+        return idempotencyGuard.writeAll(serviceRequests, delegate::createAll);
+    }
+
+    @Override
+    public Optional<ServiceRequest> getById(@Nonnull String id) {
+        return delegate.getById(id);
+    }
+}
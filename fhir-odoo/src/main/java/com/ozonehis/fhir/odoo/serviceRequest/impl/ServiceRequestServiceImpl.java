@@ -27,12 +27,21 @@ import com.ozonehis.fhir.odoo.model.Product;
 import com.ozonehis.fhir.odoo.model.SaleOrder;
 import com.ozonehis.fhir.odoo.model.SaleOrderLine;
 import com.ozonehis.fhir.odoo.serviceRequest.ServiceRequestService;
+import com.ozonehis.fhir.odoo.session.OdooTaskExecutor;
+import com.ozonehis.fhir.odoo.util.OdooUtils;
 import jakarta.annotation.Nonnull;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.hl7.fhir.r4.model.Identifier;
 import org.hl7.fhir.r4.model.ServiceRequest;
@@ -60,6 +69,8 @@ public class ServiceRequestServiceImpl implements ServiceRequestService {
 
     private final DistributedLockManager distributedLockManager;
 
+    private final OdooTaskExecutor taskExecutor;
+
     @Autowired
     public ServiceRequestServiceImpl(
             SaleOrderService saleOrderService,
@@ -69,7 +80,8 @@ public class ServiceRequestServiceImpl implements ServiceRequestService {
             PartnerService partnerService,
             ProductService productService,
             ExtIdService extIdService,
-            DistributedLockManager distributedLockManager) {
+            DistributedLockManager distributedLockManager,
+            OdooTaskExecutor taskExecutor) {
         this.saleOrderService = saleOrderService;
         this.saleOrderLineService = saleOrderLineService;
         this.saleOrderLineMapper = saleOrderLineMapper;
@@ -78,6 +90,7 @@ public class ServiceRequestServiceImpl implements ServiceRequestService {
         this.productService = productService;
         this.extIdService = extIdService;
         this.distributedLockManager = distributedLockManager;
+        this.taskExecutor = taskExecutor;
     }
 
     @Override
@@ -90,8 +103,18 @@ public class ServiceRequestServiceImpl implements ServiceRequestService {
         if (serviceRequest.getStatus().equals(ServiceRequest.ServiceRequestStatus.ACTIVE)) {
             String requisitionId = serviceRequest.getRequisition().getValue();
             distributedLockManager.executeWithLock(LockPurpose.SERVICE_REQUEST_REQUISITION, requisitionId, () -> {
-                SaleOrder saleOrder = createSaleOrder(serviceRequest);
-                createSaleOrderLine(serviceRequest, saleOrder);
+                // The lookups do not depend on each other, run them in parallel
+                List<Object> lookups = taskExecutor.invokeAll(List.<Supplier<Object>>of(
+                        () -> getCompanyExtId(getFacilityId(serviceRequest)),
+                        () -> partnerService.getByRef(getPatientRef(serviceRequest)),
+                        () -> saleOrderService.getByName(requisitionId),
+                        () -> productService.getByConceptCode(getProductCode(serviceRequest))));
+                ExtId company = (ExtId) lookups.get(0);
+                Partner partner = getPartner(getPatientRef(serviceRequest), (Optional<Partner>) lookups.get(1));
+
+                SaleOrder saleOrder =
+                        createSaleOrder(serviceRequest, company, partner, (Optional<SaleOrder>) lookups.get(2));
+                createSaleOrderLine(serviceRequest, company, saleOrder, (Optional<Product>) lookups.get(3));
             });
         } else if (serviceRequest.getStatus().equals(ServiceRequest.ServiceRequestStatus.REVOKED)
                 || serviceRequest.getStatus().equals(ServiceRequest.ServiceRequestStatus.ENTEREDINERROR)) {
@@ -109,17 +132,135 @@ public class ServiceRequestServiceImpl implements ServiceRequestService {
         return serviceRequest;
     }
 
-    private SaleOrder createSaleOrder(ServiceRequest serviceRequest) {
-        Map<String, Object> resourceMap = new HashMap<>();
-        resourceMap.put(OdooConstants.MODEL_FHIR_SERVICE_REQUEST, serviceRequest);
-        resourceMap.put(OdooConstants.MODEL_COMPANY, getCompanyExtId(getFacilityId(serviceRequest)));
+    @Override
+    public Map<Integer, RuntimeException> createAll(List<ServiceRequest> serviceRequests) {
+        Map<Integer, RuntimeException> failures = new HashMap<>();
+        Map<String, List<Integer>> requisitions = new LinkedHashMap<>();
+        for (int i = 0; i < serviceRequests.size(); i++) {
+            ServiceRequest serviceRequest = serviceRequests.get(i);
+            try {
+                if (serviceRequest.hasRequisition()
+                        && ServiceRequest.ServiceRequestStatus.ACTIVE.equals(serviceRequest.getStatus())) {
+                    getFacilityId(serviceRequest);
+                    getPatientRef(serviceRequest);
+                    getProductCode(serviceRequest);
+                    requisitions
+                            .computeIfAbsent(serviceRequest.getRequisition().getValue(), k -> new ArrayList<>())
+                            .add(i);
+                } else {
+                    create(serviceRequest);
+                }
+            } catch (RuntimeException e) {
+                failures.put(i, e);
+            }
+        }
 
-        String patientIdReference = serviceRequest.getSubject().getReference().split("/")[1];
-        Partner partner = partnerService.getByRef(patientIdReference).orElse(null);
-        if (partner == null) {
-            log.error("Partner with id {} doesn't exists in Odoo", patientIdReference);
-            throw new UnprocessableEntityException("Partner doesn't exists in Odoo");
+        if (requisitions.isEmpty()) {
+            return failures;
+        }
+
+        List<ServiceRequest> active = requisitions.values().stream()
+                .flatMap(List::stream)
+                .map(serviceRequests::get)
+                .toList();
+        List<Object> bulkLookups = taskExecutor.invokeAll(List.<Supplier<Object>>of(
+                () -> extIdService.getResIdsByNameAndModel(
+                        active.stream().map(this::getFacilityId).distinct().toList(), OdooConstants.MODEL_COMPANY),
+                () -> partnerService.getByRefs(
+                        active.stream().map(this::getPatientRef).collect(Collectors.toSet())),
+                () -> productService.getByConceptCodes(
+                        active.stream().map(this::getProductCode).collect(Collectors.toSet()))));
+        Map<String, ExtId> companies = new HashMap<>();
+        ((Collection<ExtId>) bulkLookups.get(0)).forEach(extId -> companies.putIfAbsent(extId.getName(), extId));
+        Map<String, Partner> partners = (Map<String, Partner>) bulkLookups.get(1);
+        Map<String, Product> products = (Map<String, Product>) bulkLookups.get(2);
+
+        requisitions.forEach((requisitionId, indexes) -> {
+            Map<Integer, ServiceRequestLookup> lookups = new LinkedHashMap<>();
+            for (Integer index : indexes) {
+                ServiceRequest serviceRequest = serviceRequests.get(index);
+                try {
+                    lookups.put(
+                            index,
+                            new ServiceRequestLookup(
+                                    serviceRequest,
+                                    getCompanyExtId(getFacilityId(serviceRequest), companies),
+                                    getPartner(getPatientRef(serviceRequest), partners),
+                                    getProduct(getProductCode(serviceRequest), products)));
+                } catch (RuntimeException e) {
+                    failures.put(index, e);
+                }
+            }
+            if (lookups.isEmpty()) {
+                return;
+            }
+
+            try {
+                distributedLockManager.executeWithLock(
+                        LockPurpose.SERVICE_REQUEST_REQUISITION,
+                        requisitionId,
+                        () -> createSaleOrderWithLines(lookups, failures));
+            } catch (RuntimeException e) {
+                lookups.keySet().forEach(index -> failures.putIfAbsent(index, e));
+            }
+        });
+
+        return failures;
+    }
+
+    /**
+     * Creates the sale order of a requisition if it does not exist yet and adds one line per service request to it
+     * with a single create call.
+     */
+    private void createSaleOrderWithLines(
+            Map<Integer, ServiceRequestLookup> lookups, Map<Integer, RuntimeException> failures) {
+        ServiceRequestLookup first = lookups.values().iterator().next();
+        SaleOrder saleOrder = createSaleOrder(
+                first.serviceRequest(),
+                first.company(),
+                first.partner(),
+                saleOrderService.getByName(first.serviceRequest().getRequisition().getValue()));
+
+        Set<Integer> productIds = new HashSet<>();
+        saleOrderLineService.getBySaleOrderId(saleOrder.getId()).stream()
+                .map(saleOrderLine -> OdooUtils.getId(saleOrderLine.getSaleOrderLineProductId()))
+                .forEach(productIds::add);
+
+        List<Integer> indexes = new ArrayList<>();
+        List<Map<String, Object>> saleOrderLineMaps = new ArrayList<>();
+        lookups.forEach((index, lookup) -> {
+            try {
+                if (!productIds.add(lookup.product().getId())) {
+                    log.warn(
+                            "Sale order line already exists for product {} in Odoo",
+                            lookup.product().getConceptCode());
+                    throw new UnprocessableEntityException("Sale order line already exists in Odoo");
+                }
+                saleOrderLineMaps.add(toSaleOrderLineMap(
+                        lookup.serviceRequest(), lookup.company(), saleOrder, lookup.product()));
+                indexes.add(index);
+            } catch (RuntimeException e) {
+                failures.put(index, e);
+            }
+        });
+        if (saleOrderLineMaps.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<Integer> ids = saleOrderLineService.createAll(saleOrderLineMaps);
+            log.info("Created sale order lines with ids {} for sale order with id {}", ids, saleOrder.getId());
+        } catch (RuntimeException e) {
+            log.error("Unable to create saleOrderLines in Odoo");
+            indexes.forEach(index -> failures.put(index, e));
         }
+    }
+
+    private SaleOrder createSaleOrder(
+            ServiceRequest serviceRequest, ExtId company, Partner partner, Optional<SaleOrder> existing) {
+        Map<String, Object> resourceMap = new HashMap<>();
+        resourceMap.put(OdooConstants.MODEL_FHIR_SERVICE_REQUEST, serviceRequest);
+        resourceMap.put(OdooConstants.MODEL_COMPANY, company);
         resourceMap.put(OdooConstants.MODEL_PARTNER, partner);
         SaleOrder saleOrder = saleOrderMapper.toOdoo(resourceMap);
 
@@ -130,9 +271,7 @@ public class ServiceRequestServiceImpl implements ServiceRequestService {
 
         Map<String, Object> saleOrderMap = saleOrderService.convertSaleOrderToMap(saleOrder);
 
-        SaleOrder existingSaleOrder = saleOrderService
-                .getByName(serviceRequest.getRequisition().getValue())
-                .orElse(null);
+        SaleOrder existingSaleOrder = existing.orElse(null);
         if (existingSaleOrder != null) {
             log.info(
                     "Sale order already exists with id {} and ref {}",
@@ -152,12 +291,10 @@ public class ServiceRequestServiceImpl implements ServiceRequestService {
         return saleOrder;
     }
 
-    private SaleOrderLine createSaleOrderLine(ServiceRequest serviceRequest, SaleOrder saleOrder) {
-        Map<String, Object> resourceMap = new HashMap<>();
-        resourceMap.put(OdooConstants.MODEL_COMPANY, getCompanyExtId(getFacilityId(serviceRequest)));
-
+    private void createSaleOrderLine(
+            ServiceRequest serviceRequest, ExtId company, SaleOrder saleOrder, Optional<Product> productLookup) {
         String productCode = getProductCode(serviceRequest);
-        Product product = productService.getByConceptCode(productCode).orElse(null);
+        Product product = productLookup.orElse(null);
         if (product == null) {
             log.error("Product with concept code {} doesn't exists in Odoo", productCode);
             throw new UnprocessableEntityException("Product doesn't exists in Odoo");
@@ -171,27 +308,58 @@ public class ServiceRequestServiceImpl implements ServiceRequestService {
             throw new UnprocessableEntityException("Sale order line already exists in Odoo");
         }
 
+        Map<String, Object> saleOrderLineMap = toSaleOrderLineMap(serviceRequest, company, saleOrder, product);
+
+        int id = saleOrderLineService.create(saleOrderLineMap);
+        if (id == 0) {
+            log.error("Unable to create saleOrderLine in Odoo");
+            throw new InvalidRequestException("Unable to create saleOrderLine in Odoo");
+        }
+        log.info("Created sale order line with id {}", id);
+    }
+
+    private Map<String, Object> toSaleOrderLineMap(
+            ServiceRequest serviceRequest, ExtId company, SaleOrder saleOrder, Product product) {
+        Map<String, Object> resourceMap = new HashMap<>();
+        resourceMap.put(OdooConstants.MODEL_COMPANY, company);
         resourceMap.put(OdooConstants.MODEL_FHIR_SERVICE_REQUEST, serviceRequest);
         resourceMap.put(OdooConstants.MODEL_SALE_ORDER, saleOrder);
         resourceMap.put(OdooConstants.MODEL_PRODUCT, product);
 
-        saleOrderLine = saleOrderLineMapper.toOdoo(resourceMap);
+        SaleOrderLine saleOrderLine = saleOrderLineMapper.toOdoo(resourceMap);
 
         if (saleOrderLine == null) {
             log.error("Unable to create saleOrderLine in Odoo because required ServiceRequest data is missing");
             throw new UnprocessableEntityException("Fields missing in ServiceRequest payload");
         }
 
-        Map<String, Object> saleOrderLineMap = saleOrderLineService.convertSaleOrderLineToMap(saleOrderLine);
+        return saleOrderLineService.convertSaleOrderLineToMap(saleOrderLine);
+    }
 
-        int id = saleOrderLineService.create(saleOrderLineMap);
-        if (id == 0) {
-            log.error("Unable to create saleOrderLine in Odoo");
-            throw new InvalidRequestException("Unable to create saleOrderLine in Odoo");
+    private String getPatientRef(ServiceRequest serviceRequest) {
+        return serviceRequest.getSubject().getReference().split("/")[1];
+    }
+
+    private Partner getPartner(String patientRef, Map<String, Partner> partners) {
+        return getPartner(patientRef, Optional.ofNullable(partners.get(patientRef)));
+    }
+
+    private Partner getPartner(String patientRef, Optional<Partner> partnerLookup) {
+        Partner partner = partnerLookup.orElse(null);
+        if (partner == null) {
+            log.error("Partner with id {} doesn't exists in Odoo", patientRef);
+            throw new UnprocessableEntityException("Partner doesn't exists in Odoo");
         }
-        log.info("Created sale order line with id {}", saleOrderLine.getId());
+        return partner;
+    }
 
-        return saleOrderLine;
+    private Product getProduct(String productCode, Map<String, Product> products) {
+        Product product = products.get(productCode);
+        if (product == null) {
+            log.error("Product with concept code {} doesn't exists in Odoo", productCode);
+            throw new UnprocessableEntityException("Product doesn't exists in Odoo");
+        }
+        return product;
     }
 
     private String getProductCode(ServiceRequest serviceRequest) {
@@ -232,10 +400,12 @@ public class ServiceRequestServiceImpl implements ServiceRequestService {
             return;
         }
 
+        Map<String, Object> currentSaleOrderMap = saleOrderService.convertSaleOrderToMap(existingSaleOrder);
         existingSaleOrder.setOrderState("cancel");
 
         Map<String, Object> saleOrderMap = saleOrderService.convertSaleOrderToMap(existingSaleOrder);
-        int id = saleOrderService.update(String.valueOf(existingSaleOrder.getId()), saleOrderMap);
+        int id = saleOrderService.update(
+                String.valueOf(existingSaleOrder.getId()), saleOrderMap, currentSaleOrderMap);
         if (id == 0) {
             log.error("Unable to cancel sale order {} in Odoo", existingSaleOrder.getName());
             throw new InvalidRequestException("Unable to cancel sale order in Odoo");
@@ -287,6 +457,15 @@ public class ServiceRequestServiceImpl implements ServiceRequestService {
         throw new UnprocessableEntityException("Missing company mapping in Odoo");
     }
 
+    private ExtId getCompanyExtId(String facilityId, Map<String, ExtId> companies) {
+        ExtId company = companies.get(facilityId);
+        if (company == null) {
+            log.error("Missing company mapping in Odoo with facility id {}", facilityId);
+            throw new UnprocessableEntityException("Missing company mapping in Odoo");
+        }
+        return company;
+    }
+
     private String getFacilityId(ServiceRequest serviceRequest) {
         for (Identifier identifier : serviceRequest.getIdentifier()) {
             if (identifier.getSystem().equals(OdooConstants.IDENTIFIER_FACILITY_ID_SYSTEM)) {
@@ -305,4 +484,7 @@ public class ServiceRequestServiceImpl implements ServiceRequestService {
     public Optional<ServiceRequest> getById(@Nonnull String id) {
         throw new UnsupportedOperationException("Not yet implemented");
     }
+
+    private record ServiceRequestLookup(
+            ServiceRequest serviceRequest, ExtId company, Partner partner, Product product) {}
 }
@@ -0,0 +1,30 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.serviceRequest.ingest;
+
+/**
+ * The processing status of a ServiceRequest accepted for asynchronous ingestion.
+ *
+ * @param state    the processing state
+ * @param attempts the number of attempts made to write the ServiceRequest to Odoo
+ * @param message  the reason of the last failure, or null
+ */
+public record IngestStatus(State state, int attempts, String message) {
+
+    public enum State {
+        QUEUED,
+        PROCESSING,
+        RETRYING,
+        COMPLETED,
+        FAILED;
+
+        public boolean isFinished() {
+            return this == COMPLETED || this == FAILED;
+        }
+    }
+}
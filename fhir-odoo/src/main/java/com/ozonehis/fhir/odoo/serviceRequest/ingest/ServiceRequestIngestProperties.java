@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.serviceRequest.ingest;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@Validated
+@ConfigurationProperties("fhir.odoo.service-request.async")
+public class ServiceRequestIngestProperties {
+
+    /**
+     * Whether ServiceRequests are journaled and answered with 202 Accepted, then written to Odoo in the background.
+     * Defaults to false.
+     */
+    private boolean enabled = false;
+
+    /** Path of the append-only journal holding the ServiceRequests that were not written to Odoo yet. */
+    @NotBlank private String journalPath = "data/service-request.journal";
+
+    /** Number of threads writing journaled ServiceRequests to Odoo. Defaults to 2. */
+    @Positive private int workers = 2;
+
+    /** Number of attempts to write a ServiceRequest before it is marked as failed. Defaults to 5. */
+    @Positive private int maxAttempts = 5;
+
+    /** Delay before the first retry in milliseconds, doubled for each further retry. Defaults to 1s. */
+    @Positive private long retryBackoffMs = 1_000L;
+
+    /**
+     * How long a ServiceRequest journaled before a restart waits for its user to send another request, whose
+     * credentials it is written with, before it is marked as failed. Defaults to 24h.
+     */
+    @Positive private long credentialsWaitMs = 86_400_000L;
+
+    /** Number of finished ServiceRequests whose status is kept for status requests. Defaults to 10000. */
+    @Positive private int maxFinishedStatuses = 10_000;
+}
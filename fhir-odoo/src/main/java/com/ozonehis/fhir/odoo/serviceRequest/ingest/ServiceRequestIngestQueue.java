@@ -0,0 +1,274 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.serviceRequest.ingest;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.rest.server.exceptions.BaseServerResponseException;
+import com.ozonehis.fhir.odoo.SessionHolder;
+import com.ozonehis.fhir.odoo.serviceRequest.ServiceRequestService;
+import com.ozonehis.fhir.odoo.session.OdooCredentials;
+import com.ozonehis.fhir.odoo.session.OdooSessionPool;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.hl7.fhir.r4.model.ServiceRequest;
+
+/**
+ * Write-behind queue for ServiceRequests. An accepted ServiceRequest is appended to the
+ * {@link ServiceRequestJournal} and the caller is answered right away, a pool of workers then writes it to Odoo with
+ * a session borrowed for the user who sent it, retrying with an exponential backoff.
+ * <p>
+ * Credentials are never journaled: they are kept in memory per user, so after a restart the journaled ServiceRequests
+ * of a user are written once that user sends another request, or fail if none arrives within
+ * {@code credentials-wait-ms}. Failures reported by the FHIR layer with a 4xx status, e.g. a missing product, are not
+ * retried. The status of a ServiceRequest is only reported to the user who sent it.
+ */
+@Slf4j
+public class ServiceRequestIngestQueue {
+
+    private final ServiceRequestService serviceRequestService;
+
+    private final OdooSessionPool sessionPool;
+
+    private final ServiceRequestIngestProperties properties;
+
+    private final FhirContext fhirContext = FhirContext.forR4Cached();
+
+    private final Map<String, OdooCredentials> credentialsByUser = new ConcurrentHashMap<>();
+
+    private final Map<String, OwnedStatus> pendingStatuses = new ConcurrentHashMap<>();
+
+    private final Map<String, OwnedStatus> finishedStatuses;
+
+    private final Map<String, Long> waitingForCredentialsSince = new ConcurrentHashMap<>();
+
+    private ServiceRequestJournal journal;
+
+    private ScheduledExecutorService workers;
+
+    public ServiceRequestIngestQueue(
+            ServiceRequestService serviceRequestService,
+            OdooSessionPool sessionPool,
+            ServiceRequestIngestProperties properties) {
+        this.serviceRequestService = serviceRequestService;
+        this.sessionPool = sessionPool;
+        this.properties = properties;
+        this.finishedStatuses = new LinkedHashMap<>() {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, OwnedStatus> eldest) {
+                return size() > properties.getMaxFinishedStatuses();
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        journal = new ServiceRequestJournal(Path.of(properties.getJournalPath()));
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = Executors.newScheduledThreadPool(properties.getWorkers(), runnable -> {
+            Thread thread = new Thread(runnable, "service-request-ingest-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        var entries = journal.open();
+        entries.forEach(entry -> submit(entry, 1, 0L));
+        log.info("Started ServiceRequest ingestion with {} journaled ServiceRequests", entries.size());
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Journals a ServiceRequest to be written to Odoo by the workers, with the credentials of the current request.
+     *
+     * @param serviceRequest the ServiceRequest
+     * @return the handle to look up the processing status with
+     */
+    public String accept(ServiceRequest serviceRequest) {
+        OdooCredentials credentials = SessionHolder.getOdooCredentials();
+        if (credentials == null) {
+            throw new IllegalStateException("No Odoo credentials bound to the current request");
+        }
+        credentialsByUser.put(credentials.username(), credentials);
+
+        ServiceRequestJournal.Entry entry = new ServiceRequestJournal.Entry(
+                UUID.randomUUID().toString(),
+                credentials.username(),
+                fhirContext.newJsonParser().encodeResourceToString(serviceRequest));
+        try {
+            journal.append(entry);
+        } catch (IOException e) {
+            throw new RuntimeException("Error while journaling ServiceRequest " + serviceRequest.getIdPart(), e);
+        }
+
+        submit(entry, 1, 0L);
+        return entry.handle();
+    }
+
+    /**
+     * @param handle the handle returned by {@link #accept(ServiceRequest)}
+     * @return the processing status, or empty if the handle is unknown, belongs to another user or its status was
+     *     dropped
+     */
+    public Optional<IngestStatus> getStatus(String handle) {
+        OdooCredentials credentials = SessionHolder.getOdooCredentials();
+        if (credentials == null) {
+            return Optional.empty();
+        }
+        credentialsByUser.put(credentials.username(), credentials);
+
+        OwnedStatus status = pendingStatuses.get(handle);
+        if (status == null) {
+            synchronized (finishedStatuses) {
+                status = finishedStatuses.get(handle);
+            }
+        }
+        // Do not tell other users whether the handle exists
+        return Optional.ofNullable(status)
+                .filter(owned -> owned.username().equals(credentials.username()))
+                .map(OwnedStatus::status);
+    }
+
+    private void submit(ServiceRequestJournal.Entry entry, int attempt, long delayMs) {
+        IngestStatus.State state = attempt == 1 ? IngestStatus.State.QUEUED : IngestStatus.State.RETRYING;
+        OwnedStatus previous = pendingStatuses.get(entry.handle());
+        setPending(entry, new IngestStatus(state, attempt - 1, previous != null ? previous.status().message() : null));
+        workers.schedule(() -> process(entry, attempt), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void process(ServiceRequestJournal.Entry entry, int attempt) {
+        OdooCredentials credentials = credentialsByUser.get(entry.username());
+        if (credentials == null) {
+            // Journaled before a restart, wait for the user to authenticate again, but not forever
+            long now = System.nanoTime();
+            long since = waitingForCredentialsSince.computeIfAbsent(entry.handle(), handle -> now);
+            if (now - since >= TimeUnit.MILLISECONDS.toNanos(properties.getCredentialsWaitMs())) {
+                log.error(
+                        "Giving up on ServiceRequest with handle {}, {} sent no request within {} ms",
+                        entry.handle(),
+                        entry.username(),
+                        properties.getCredentialsWaitMs());
+                finish(
+                        entry,
+                        IngestStatus.State.FAILED,
+                        attempt - 1,
+                        "No credentials of " + entry.username() + " to write the ServiceRequest with");
+                return;
+            }
+
+            submit(entry, attempt, properties.getRetryBackoffMs());
+            return;
+        }
+        waitingForCredentialsSince.remove(entry.handle());
+
+        setPending(entry, new IngestStatus(IngestStatus.State.PROCESSING, attempt, null));
+        try {
+            Optional<OdooSessionPool.Lease> lease = sessionPool.borrow(credentials);
+            if (lease.isEmpty()) {
+                credentialsByUser.remove(entry.username(), credentials);
+                finish(entry, IngestStatus.State.FAILED, attempt, "Invalid credentials for " + entry.username());
+                return;
+            }
+
+            OdooSessionPool.Lease borrowed = lease.get();
+            RuntimeException failure = null;
+            try {
+                SessionHolder.setOdooSession(borrowed.getSession());
+                SessionHolder.setOdooCredentials(credentials);
+                ServiceRequest serviceRequest =
+                        fhirContext.newJsonParser().parseResource(ServiceRequest.class, entry.resource());
+                serviceRequestService.create(serviceRequest);
+            } catch (RuntimeException e) {
+                failure = e;
+                throw e;
+            } finally {
+                SessionHolder.clear();
+                borrowed.close(failure);
+            }
+            finish(entry, IngestStatus.State.COMPLETED, attempt, null);
+        } catch (BaseServerResponseException e) {
+            if (e.getStatusCode() >= 400 && e.getStatusCode() < 500) {
+                finish(entry, IngestStatus.State.FAILED, attempt, e.getMessage());
+            } else {
+                retry(entry, attempt, e);
+            }
+        } catch (RuntimeException e) {
+            retry(entry, attempt, e);
+        }
+    }
+
+    private void retry(ServiceRequestJournal.Entry entry, int attempt, RuntimeException failure) {
+        if (attempt >= properties.getMaxAttempts()) {
+            log.error("Giving up on ServiceRequest with handle {} after {} attempts", entry.handle(), attempt, failure);
+            finish(entry, IngestStatus.State.FAILED, attempt, failure.getMessage());
+            return;
+        }
+
+        long delayMs = properties.getRetryBackoffMs() << Math.min(attempt - 1, 16);
+        log.warn(
+                "Attempt {} to write ServiceRequest with handle {} failed, retrying in {} ms",
+                attempt,
+                entry.handle(),
+                delayMs,
+                failure);
+        setPending(entry, new IngestStatus(IngestStatus.State.RETRYING, attempt, failure.getMessage()));
+        workers.schedule(() -> process(entry, attempt + 1), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void finish(ServiceRequestJournal.Entry entry, IngestStatus.State state, int attempts, String message) {
+        try {
+            journal.complete(entry.handle(), state);
+        } catch (IOException e) {
+            log.error("Error while completing ServiceRequest with handle {} in journal", entry.handle(), e);
+        }
+
+        synchronized (finishedStatuses) {
+            finishedStatuses.put(
+                    entry.handle(), new OwnedStatus(entry.username(), new IngestStatus(state, attempts, message)));
+        }
+        pendingStatuses.remove(entry.handle());
+        waitingForCredentialsSince.remove(entry.handle());
+    }
+
+    private void setPending(ServiceRequestJournal.Entry entry, IngestStatus status) {
+        pendingStatuses.put(entry.handle(), new OwnedStatus(entry.username(), status));
+    }
+
+    /**
+     * A status together with the user who sent the ServiceRequest.
+     */
+    private record OwnedStatus(String username, IngestStatus status) {}
+}
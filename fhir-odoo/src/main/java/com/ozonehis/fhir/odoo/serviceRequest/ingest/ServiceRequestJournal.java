@@ -0,0 +1,212 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.serviceRequest.ingest;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only journal of the ServiceRequests accepted for asynchronous ingestion. Each accepted ServiceRequest is
+ * appended as one record and made durable before {@link #append(Entry)} returns; once it was written to Odoo, or
+ * failed for good, a completion record is appended. Records are tab separated lines with base64 encoded values.
+ * <p>
+ * Appends are group committed: a writer only calls {@code fsync} if no other writer already forced its record to
+ * disk, so concurrent appends share one {@code fsync}. The journal is truncated whenever no entry is pending and
+ * compacted to the pending entries when it is opened.
+ */
+@Slf4j
+public class ServiceRequestJournal implements Closeable {
+
+    private static final String ACCEPTED = "A";
+
+    private static final String COMPLETED = "C";
+
+    private final Path path;
+
+    private final Object writeLock = new Object();
+
+    private final Object forceLock = new Object();
+
+    private final Set<String> pending = new HashSet<>();
+
+    private FileChannel channel;
+
+    private volatile long writtenPosition;
+
+    private long forcedPosition;
+
+    /**
+     * A journaled ServiceRequest.
+     *
+     * @param handle   the status handle returned to the client
+     * @param username the Odoo user who sent the ServiceRequest
+     * @param resource the ServiceRequest encoded as JSON
+     */
+    public record Entry(String handle, String username, String resource) {}
+
+    public ServiceRequestJournal(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Opens the journal and compacts it to the entries that were accepted but not completed.
+     *
+     * @return the pending entries in the order they were accepted
+     */
+    public List<Entry> open() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        if (Files.exists(path)) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split("\t");
+                    try {
+                        if (fields.length == 4 && ACCEPTED.equals(fields[0])) {
+                            entries.put(fields[1], new Entry(fields[1], decode(fields[2]), decode(fields[3])));
+                        } else if (fields.length >= 2 && COMPLETED.equals(fields[0])) {
+                            entries.remove(fields[1]);
+                        } else {
+                            log.warn("Skipping malformed record in journal {}", path);
+                        }
+                    } catch (IllegalArgumentException e) {
+                        // A record torn by a crash while it was being written, it was never acknowledged
+                        log.warn("Skipping malformed record in journal {}", path);
+                    }
+                }
+            }
+        }
+
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        try (FileChannel out = FileChannel.open(
+                compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Entry entry : entries.values()) {
+                write(out, accepted(entry));
+            }
+            out.force(true);
+        }
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        synchronized (writeLock) {
+            channel = FileChannel.open(path, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+            pending.clear();
+            pending.addAll(entries.keySet());
+            writtenPosition = channel.size();
+        }
+        synchronized (forceLock) {
+            forcedPosition = writtenPosition;
+        }
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * Appends an accepted ServiceRequest, the record is on disk when this method returns.
+     */
+    public void append(Entry entry) throws IOException {
+        long position;
+        synchronized (writeLock) {
+            write(channel, accepted(entry));
+            pending.add(entry.handle());
+            writtenPosition = channel.position();
+            position = writtenPosition;
+        }
+
+        synchronized (forceLock) {
+            if (forcedPosition < position) {
+                long target = writtenPosition;
+                channel.force(false);
+                forcedPosition = target;
+            }
+        }
+    }
+
+    /**
+     * Marks an entry as completed. The completion record is made durable with the next append, if the process stops
+     * before that the entry is written to Odoo again after a restart.
+     */
+    public void complete(String handle, IngestStatus.State state) throws IOException {
+        synchronized (writeLock) {
+            if (!pending.remove(handle)) {
+                return;
+            }
+
+            if (pending.isEmpty()) {
+                synchronized (forceLock) {
+                    channel.truncate(0L);
+                    channel.position(0L);
+                    channel.force(false);
+                    writtenPosition = 0L;
+                    forcedPosition = 0L;
+                }
+            } else {
+                write(channel, COMPLETED + "\t" + handle + "\t" + state + "\n");
+                writtenPosition = channel.position();
+            }
+        }
+    }
+
+    /**
+     * @return the number of accepted entries that were not completed yet
+     */
+    public int pendingCount() {
+        synchronized (writeLock) {
+            return pending.size();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writeLock) {
+            if (channel != null) {
+                channel.force(false);
+                channel.close();
+            }
+        }
+    }
+
+    private static String accepted(Entry entry) {
+        return ACCEPTED + "\t" + entry.handle() + "\t" + encode(entry.username()) + "\t" + encode(entry.resource())
+                + "\n";
+    }
+
+    private static void write(FileChannel channel, String record) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(record.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static String encode(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String value) {
+        return new String(Base64.getDecoder().decode(value), StandardCharsets.UTF_8);
+    }
+}
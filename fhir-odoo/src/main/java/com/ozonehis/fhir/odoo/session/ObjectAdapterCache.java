@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.session;
+
+import com.odoojava.api.ObjectAdapter;
+import com.odoojava.api.OdooApiException;
+import com.odoojava.api.Session;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.xmlrpc.XmlRpcException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caches {@link ObjectAdapter} instances per session and model.
+ * <p>Constructing an adapter fetches the model's field metadata from Odoo, which costs several round trips. Adapters
+ * hold on to the session they were created with, so they are cached per session and dropped by
+ * {@link OdooSessionPool} when it discards that session.
+ * <p>Concurrent first lookups of a model wait for a single construction instead of each fetching the metadata. No
+ * monitor is held while Odoo is called, so waiting virtual threads do not pin their carrier thread.
+ * <p>The lookup and construction counts are reported by {@link ObjectAdapterCacheMetricsBinder}.
+ */
+@Component
+public class ObjectAdapterCache {
+
+    private final ConcurrentMap<Session, ConcurrentMap<String, CompletableFuture<ObjectAdapter>>> adapters =
+            new ConcurrentHashMap<>();
+
+    private final AtomicLong lookups = new AtomicLong();
+
+    private final AtomicLong constructions = new AtomicLong();
+
+    /**
+     * Gets the adapter for the given model, creating it on first use with the session.
+     *
+     * @param session   the session
+     * @param modelName the Odoo model name
+     * @return the adapter
+     */
+    public ObjectAdapter get(Session session, String modelName) throws XmlRpcException, OdooApiException {
+        lookups.incrementAndGet();
+        ConcurrentMap<String, CompletableFuture<ObjectAdapter>> sessionAdapters =
+                adapters.computeIfAbsent(session, s -> new ConcurrentHashMap<>());
+        CompletableFuture<ObjectAdapter> adapter = sessionAdapters.get(modelName);
+        if (adapter == null) {
+            CompletableFuture<ObjectAdapter> construction = new CompletableFuture<>();
+            adapter = sessionAdapters.putIfAbsent(modelName, construction);
+            if (adapter == null) {
+                return construct(session, modelName, sessionAdapters, construction);
+            }
+        }
+
+        try {
+            return adapter.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof XmlRpcException xmlRpcException) {
+                throw xmlRpcException;
+            }
+            if (e.getCause() instanceof OdooApiException odooApiException) {
+                throw odooApiException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private ObjectAdapter construct(
+            Session session,
+            String modelName,
+            ConcurrentMap<String, CompletableFuture<ObjectAdapter>> sessionAdapters,
+            CompletableFuture<ObjectAdapter> construction)
+            throws XmlRpcException, OdooApiException {
+        try {
+            ObjectAdapter adapter = session.getObjectAdapter(modelName);
+            constructions.incrementAndGet();
+            construction.complete(adapter);
+            return adapter;
+        } catch (XmlRpcException | OdooApiException | RuntimeException e) {
+            // Let the next lookup try again instead of caching the failure
+            sessionAdapters.remove(modelName, construction);
+            construction.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Drops the adapters created with the given session.
+     *
+     * @param session the session
+     */
+    public void invalidate(Session session) {
+        adapters.remove(session);
+    }
+
+    /**
+     * Drops all cached adapters.
+     */
+    public void clear() {
+        adapters.clear();
+    }
+
+    /**
+     * @return the number of adapter lookups since startup
+     */
+    long getLookupCount() {
+        return lookups.get();
+    }
+
+    /**
+     * @return the number of adapters constructed since startup, each costing round trips to Odoo
+     */
+    long getConstructionCount() {
+        return constructions.get();
+    }
+}
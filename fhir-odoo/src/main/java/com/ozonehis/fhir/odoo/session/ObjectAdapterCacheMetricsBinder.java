@@ -0,0 +1,40 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.session;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Reports how well the {@link ObjectAdapterCache} saves Odoo round trips.
+ * <ul>
+ *   <li>{@code fhir.odoo.object.adapter.lookups}: adapter lookups since startup.</li>
+ *   <li>{@code fhir.odoo.object.adapter.constructions}: adapters constructed since startup, each fetching the field
+ *   metadata of a model from Odoo.</li>
+ * </ul>
+ */
+public class ObjectAdapterCacheMetricsBinder implements MeterBinder {
+
+    private final ObjectAdapterCache cache;
+
+    public ObjectAdapterCacheMetricsBinder(ObjectAdapterCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("fhir.odoo.object.adapter.lookups", cache, ObjectAdapterCache::getLookupCount)
+                .description("Odoo object adapter lookups")
+                .register(registry);
+        FunctionCounter.builder(
+                        "fhir.odoo.object.adapter.constructions", cache, ObjectAdapterCache::getConstructionCount)
+                .description("Odoo object adapters constructed, each fetching the model's field metadata")
+                .register(registry);
+    }
+}
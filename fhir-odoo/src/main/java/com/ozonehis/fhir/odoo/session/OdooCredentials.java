@@ -0,0 +1,31 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.session;
+
+import java.util.Objects;
+
+/**
+ * Credentials used to open an Odoo session. Pooled sessions are keyed by the full credentials so that a session opened
+ * with one password is never handed out to a caller presenting a different one.
+ *
+ * @param username the Odoo login
+ * @param password the Odoo password
+ */
+public record OdooCredentials(String username, String password) {
+
+    public OdooCredentials {
+        Objects.requireNonNull(username, "username must not be null");
+        Objects.requireNonNull(password, "password must not be null");
+    }
+
+    @Override
+    public String toString() {
+        // Never expose the password in logs
+        return "OdooCredentials[username=" + username + "]";
+    }
+}
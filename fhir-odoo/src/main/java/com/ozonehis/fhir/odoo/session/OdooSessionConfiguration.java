@@ -0,0 +1,59 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.session;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Registers the {@link OdooSessionPool} and the {@link OdooTaskExecutor} and binds their properties. The pool and its
+ * {@link ObjectAdapterCache} report their state through {@link OdooSessionPoolMetricsBinder} and
+ * {@link ObjectAdapterCacheMetricsBinder}.
+ * <p>The {@link OdooTaskExecutor} follows {@code spring.threads.virtual.enabled}, which also moves the servlet request
+ * handling to virtual threads. The project is compiled for Java 17, which has no virtual threads, so both only switch
+ * over when the application runs on Java 21 or later; on Java 17 the setting is ignored with a warning.
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties({OdooSessionPoolProperties.class, OdooTaskExecutorProperties.class})
+public class OdooSessionConfiguration {
+
+    @Bean
+    public OdooSessionPool odooSessionPool(
+            OdooSessionFactory sessionFactory,
+            OdooSessionPoolProperties properties,
+            ObjectAdapterCache objectAdapterCache,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        OdooSessionPool pool = new OdooSessionPool(sessionFactory, properties, objectAdapterCache);
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        new OdooSessionPoolMetricsBinder(pool).bindTo(registry);
+        new ObjectAdapterCacheMetricsBinder(objectAdapterCache).bindTo(registry);
+        return pool;
+    }
+
+    @Bean
+    public OdooTaskExecutor odooTaskExecutor(
+            OdooTaskExecutorProperties properties, OdooSessionPool sessionPool, Environment environment) {
+        boolean virtualThreads = Threading.VIRTUAL.isActive(environment);
+        if (!virtualThreads && environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+            log.warn(
+                    "Virtual threads are enabled but not supported by Java {}, using platform threads",
+                    JavaVersion.getJavaVersion());
+        }
+
+        return new OdooTaskExecutor(properties, virtualThreads, sessionPool);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.session;
+
+import com.odoojava.api.Session;
+import com.ozonehis.fhir.FhirOdooConfig;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Opens and validates Odoo sessions for the {@link OdooSessionPool}.
+ */
+@Slf4j
+@Component
+public class OdooSessionFactory {
+
+    private final FhirOdooConfig fhirOdooConfig;
+
+    @Autowired
+    public OdooSessionFactory(FhirOdooConfig fhirOdooConfig) {
+        this.fhirOdooConfig = fhirOdooConfig;
+    }
+
+    /**
+     * Opens a new session and logs in with the given credentials.
+     *
+     * @param credentials the credentials
+     * @return the started session, or empty if Odoo rejected the credentials
+     */
+    public Optional<Session> openSession(OdooCredentials credentials) {
+        Session session = new Session(
+                fhirOdooConfig.getRPCProtocol(),
+                fhirOdooConfig.getOdooHostName(),
+                Integer.parseInt(fhirOdooConfig.getOdooPort()),
+                fhirOdooConfig.getOdooDatabase(),
+                credentials.username(),
+                credentials.password());
+        try {
+            session.startSession();
+        } catch (Exception e) {
+            throw new RuntimeException("Error while opening Odoo session for user " + credentials.username(), e);
+        }
+
+        return session.getUserID() != 0 ? Optional.of(session) : Optional.empty();
+    }
+
+    /**
+     * Checks that a previously opened session is still usable by making a lightweight call to Odoo.
+     *
+     * @param session the session
+     * @return true if the session is still valid, otherwise false
+     */
+    public boolean isValid(Session session) {
+        if (session.getUserID() == 0) {
+            return false;
+        }
+
+        try {
+            session.executeCommand("res.users", "context_get", new Object[] {});
+            return true;
+        } catch (Exception e) {
+            log.debug("Odoo session validation failed: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,390 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.session;
+
+import com.odoojava.api.Session;
+import com.ozonehis.fhir.odoo.transport.OdooRpcException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.xmlrpc.XmlRpcException;
+
+/**
+ * Pool of authenticated Odoo sessions keyed by {@link OdooCredentials}.
+ * <p>Each borrowed session is used by exactly one thread until its {@link Lease} is closed, so concurrent FHIR requests
+ * no longer share (and overwrite) a single global session. Per user the pool:
+ * <ul>
+ *   <li>caps the number of open sessions at {@code max-size}, callers wait up to {@code max-wait-ms} for a free
+ *   one;</li>
+ *   <li>hands out the most recently returned session first to keep connections warm;</li>
+ *   <li>validates sessions that have been idle longer than {@code validation-interval-ms} before handing them out;</li>
+ *   <li>evicts sessions idle longer than {@code idle-timeout-ms} in the background while keeping {@code min-idle}.</li>
+ * </ul>
+ * <p>Pools of credentials Odoo rejected are discarded straight away so that failed logins do not accumulate.
+ */
+@Slf4j
+public class OdooSessionPool {
+
+    private final OdooSessionFactory sessionFactory;
+
+    private final OdooSessionPoolProperties properties;
+
+    private final ObjectAdapterCache objectAdapterCache;
+
+    private final ConcurrentMap<OdooCredentials, UserPool> pools = new ConcurrentHashMap<>();
+
+    private final AtomicLong created = new AtomicLong();
+
+    private final AtomicLong destroyed = new AtomicLong();
+
+    private final AtomicLong borrows = new AtomicLong();
+
+    private final AtomicLong validationFailures = new AtomicLong();
+
+    private final AtomicLong waitTimeouts = new AtomicLong();
+
+    private final ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "odoo-session-pool-evictor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OdooSessionPool(
+            OdooSessionFactory sessionFactory,
+            OdooSessionPoolProperties properties,
+            ObjectAdapterCache objectAdapterCache) {
+        this.sessionFactory = sessionFactory;
+        this.properties = properties;
+        this.objectAdapterCache = objectAdapterCache;
+    }
+
+    @PostConstruct
+    void startEvictor() {
+        long interval = properties.getEvictionIntervalMs();
+        evictor.scheduleWithFixedDelay(this::evict, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        log.debug("Shutting down Odoo session pool evictor.");
+        evictor.shutdownNow();
+        pools.clear();
+        objectAdapterCache.clear();
+    }
+
+    /**
+     * Borrows a session for the given credentials, opening a new one if no idle session is available.
+     *
+     * @param credentials the credentials
+     * @return a lease on the session, or empty if Odoo rejected the credentials
+     * @throws OdooSessionPoolExhaustedException if no session became available within {@code max-wait-ms}
+     */
+    public Optional<Lease> borrow(OdooCredentials credentials) {
+        return borrow(credentials, true);
+    }
+
+    /**
+     * Borrows a session for the given credentials like {@link #borrow(OdooCredentials)}, but without waiting if the
+     * user already holds {@code max-size} sessions.
+     *
+     * @param credentials the credentials
+     * @return a lease on the session, or empty if no session is available right away or Odoo rejected the credentials
+     */
+    public Optional<Lease> tryBorrow(OdooCredentials credentials) {
+        return borrow(credentials, false);
+    }
+
+    private Optional<Lease> borrow(OdooCredentials credentials, boolean wait) {
+        Objects.requireNonNull(credentials, "credentials must not be null");
+        while (true) {
+            UserPool pool = pools.computeIfAbsent(credentials, UserPool::new);
+            if (wait) {
+                acquirePermit(pool);
+            } else if (!tryAcquirePermit(pool)) {
+                return Optional.empty();
+            }
+
+            if (pool.retired) {
+                // The pool was discarded while we were waiting, retry against its replacement
+                pool.permits.release();
+                continue;
+            }
+
+            try {
+                Session session = takeIdleSession(pool);
+                if (session == null) {
+                    Optional<Session> opened = sessionFactory.openSession(credentials);
+                    if (opened.isEmpty()) {
+                        pool.permits.release();
+                        retireIfUnused(pool);
+                        return Optional.empty();
+                    }
+
+                    session = opened.get();
+                    pool.size.incrementAndGet();
+                    created.incrementAndGet();
+                    log.debug("Opened new Odoo session for {}", credentials);
+                }
+
+                borrows.incrementAndGet();
+                return Optional.of(new Lease(pool, session));
+            } catch (RuntimeException e) {
+                pool.permits.release();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @return a snapshot of the pool state and counters
+     */
+    public OdooSessionPoolMetrics metrics() {
+        int total = 0;
+        int idle = 0;
+        int borrowed = 0;
+        for (UserPool pool : pools.values()) {
+            total += pool.size.get();
+            idle += pool.idle.size();
+            borrowed += properties.getMaxSize() - pool.permits.availablePermits();
+        }
+
+        return new OdooSessionPoolMetrics(
+                pools.size(),
+                total,
+                idle,
+                borrowed,
+                created.get(),
+                destroyed.get(),
+                borrows.get(),
+                validationFailures.get(),
+                waitTimeouts.get());
+    }
+
+    /**
+     * Closes sessions that have been idle for longer than {@code idle-timeout-ms}, tops each pool back up to
+     * {@code min-idle} and discards pools without any session.
+     */
+    void evict() {
+        long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(properties.getIdleTimeoutMs());
+        for (UserPool pool : pools.values()) {
+            try {
+                long now = System.nanoTime();
+                while (pool.idle.size() > properties.getMinIdle()) {
+                    PooledSession oldest = pool.idle.peekLast();
+                    if (oldest == null || now - oldest.lastUsedNanos() < idleTimeoutNanos) {
+                        break;
+                    }
+
+                    if (pool.idle.removeLastOccurrence(oldest)) {
+                        destroy(pool, oldest.session());
+                    }
+                }
+
+                while (!pool.retired
+                        && pool.idle.size() < properties.getMinIdle()
+                        && pool.size.get() < properties.getMaxSize()) {
+                    // Open sessions under a permit like borrow() does, so concurrent borrowers cannot push the pool
+                    // past max-size
+                    if (!tryAcquirePermit(pool)) {
+                        break;
+                    }
+
+                    try {
+                        if (pool.retired) {
+                            break;
+                        }
+
+                        Optional<Session> opened = sessionFactory.openSession(pool.credentials);
+                        if (opened.isEmpty()) {
+                            break;
+                        }
+
+                        pool.size.incrementAndGet();
+                        created.incrementAndGet();
+                        pool.idle.offerLast(new PooledSession(opened.get(), System.nanoTime()));
+                    } finally {
+                        pool.permits.release();
+                    }
+                }
+
+                retireIfUnused(pool);
+            } catch (RuntimeException e) {
+                log.warn("Failed to evict idle Odoo sessions for {}: {}", pool.credentials, e.getMessage());
+            }
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Odoo session pool state after eviction: {}", metrics());
+        }
+    }
+
+    private void acquirePermit(UserPool pool) {
+        try {
+            if (!pool.permits.tryAcquire(properties.getMaxWaitMs(), TimeUnit.MILLISECONDS)) {
+                waitTimeouts.incrementAndGet();
+                throw new OdooSessionPoolExhaustedException("Timed out after " + properties.getMaxWaitMs()
+                        + "ms waiting for an Odoo session for " + pool.credentials);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OdooSessionPoolExhaustedException(
+                    "Interrupted while waiting for an Odoo session for " + pool.credentials, e);
+        }
+    }
+
+    private boolean tryAcquirePermit(UserPool pool) {
+        try {
+            // Unlike tryAcquire(), a zero timeout honours the fairness of the semaphore, so callers waiting in
+            // borrow() are not overtaken
+            return pool.permits.tryAcquire(0, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Session takeIdleSession(UserPool pool) {
+        long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(properties.getIdleTimeoutMs());
+        long validationIntervalNanos = TimeUnit.MILLISECONDS.toNanos(properties.getValidationIntervalMs());
+        PooledSession pooled;
+        while ((pooled = pool.idle.pollFirst()) != null) {
+            long idleNanos = System.nanoTime() - pooled.lastUsedNanos();
+            if (idleNanos >= idleTimeoutNanos) {
+                destroy(pool, pooled.session());
+                continue;
+            }
+
+            if (idleNanos >= validationIntervalNanos && !sessionFactory.isValid(pooled.session())) {
+                validationFailures.incrementAndGet();
+                destroy(pool, pooled.session());
+                continue;
+            }
+
+            return pooled.session();
+        }
+
+        return null;
+    }
+
+    private void destroy(UserPool pool, Session session) {
+        // odoo-java-api sessions hold no server side resources that need to be released explicitly
+        objectAdapterCache.invalidate(session);
+        pool.size.decrementAndGet();
+        destroyed.incrementAndGet();
+    }
+
+    private void retireIfUnused(UserPool pool) {
+        if (pool.size.get() == 0 && pool.permits.tryAcquire(properties.getMaxSize())) {
+            // Holding every permit guarantees no borrower is using this pool
+            if (pool.size.get() == 0) {
+                pool.retired = true;
+                pools.remove(pool.credentials, pool);
+            }
+
+            pool.permits.release(properties.getMaxSize());
+        }
+    }
+
+    /**
+     * A borrowed session. Closing the lease returns the session to the pool, it must not be used afterwards.
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final UserPool pool;
+
+        private final Session session;
+
+        private final AtomicBoolean returned = new AtomicBoolean();
+
+        private Lease(UserPool pool, Session session) {
+            this.pool = pool;
+            this.session = session;
+        }
+
+        public Session getSession() {
+            return session;
+        }
+
+        /**
+         * Discards the session instead of returning it to the pool, e.g. after it failed with a transport error.
+         */
+        public void invalidate() {
+            if (returned.compareAndSet(false, true)) {
+                destroy(pool, session);
+                pool.permits.release();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (returned.compareAndSet(false, true)) {
+                pool.idle.offerFirst(new PooledSession(session, System.nanoTime()));
+                pool.permits.release();
+            }
+        }
+
+        /**
+         * Returns the session to the pool, unless the work done with it failed calling Odoo: a session that saw an
+         * {@link OdooRpcException} or {@link XmlRpcException}, e.g. a transport or authentication error, is discarded.
+         *
+         * @param failure the exception the work failed with, {@code null} if it succeeded
+         */
+        public void close(Throwable failure) {
+            if (isOdooCallFailure(failure)) {
+                log.debug(
+                        "Discarding Odoo session for {} after a failed call: {}",
+                        pool.credentials,
+                        failure.getMessage());
+                invalidate();
+            } else {
+                close();
+            }
+        }
+    }
+
+    private static boolean isOdooCallFailure(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OdooRpcException || cause instanceof XmlRpcException) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private record PooledSession(Session session, long lastUsedNanos) {}
+
+    private final class UserPool {
+
+        private final OdooCredentials credentials;
+
+        private final Semaphore permits = new Semaphore(properties.getMaxSize(), true);
+
+        private final ConcurrentLinkedDeque<PooledSession> idle = new ConcurrentLinkedDeque<>();
+
+        private final AtomicInteger size = new AtomicInteger();
+
+        private volatile boolean retired;
+
+        private UserPool(OdooCredentials credentials) {
+            this.credentials = credentials;
+        }
+    }
+}
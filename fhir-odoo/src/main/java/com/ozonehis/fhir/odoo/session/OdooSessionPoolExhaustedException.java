@@ -0,0 +1,23 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.session;
+
+/**
+ * Thrown when no Odoo session becomes available for a user within the configured
+ * {@code fhir.odoo.session.pool.max-wait-ms}.
+ */
+public class OdooSessionPoolExhaustedException extends RuntimeException {
+
+    public OdooSessionPoolExhaustedException(String message) {
+        super(message);
+    }
+
+    public OdooSessionPoolExhaustedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.session;
+
+/**
+ * Point-in-time snapshot of the {@link OdooSessionPool} state.
+ *
+ * @param users              the number of users with a pool
+ * @param totalSessions      the number of open sessions, borrowed or idle
+ * @param idleSessions       the number of idle sessions
+ * @param borrowedSessions   the number of sessions currently borrowed
+ * @param created            the number of sessions opened since startup
+ * @param destroyed          the number of sessions discarded since startup
+ * @param borrows            the number of successful borrows since startup
+ * @param validationFailures the number of idle sessions that failed validation since startup
+ * @param waitTimeouts       the number of borrows that timed out waiting for a session since startup
+ */
+public record OdooSessionPoolMetrics(
+        int users,
+        int totalSessions,
+        int idleSessions,
+        int borrowedSessions,
+        long created,
+        long destroyed,
+        long borrows,
+        long validationFailures,
+        long waitTimeouts) {}
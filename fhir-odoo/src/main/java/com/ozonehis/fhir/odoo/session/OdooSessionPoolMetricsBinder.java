@@ -0,0 +1,68 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.session;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Reports the {@link OdooSessionPool#metrics() state of the session pool}.
+ * <ul>
+ *   <li>{@code fhir.odoo.session.pool.users}: users with a pool.</li>
+ *   <li>{@code fhir.odoo.session.pool.sessions}: open sessions, tagged with the state, {@code idle} or
+ *   {@code borrowed}.</li>
+ *   <li>{@code fhir.odoo.session.pool.created}, {@code .destroyed}, {@code .borrows}, {@code .validation.failures} and
+ *   {@code .wait.timeouts}: counters since startup.</li>
+ * </ul>
+ */
+public class OdooSessionPoolMetricsBinder implements MeterBinder {
+
+    private final OdooSessionPool pool;
+
+    public OdooSessionPoolMetricsBinder(OdooSessionPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("fhir.odoo.session.pool.users", pool, p -> p.metrics().users())
+                .description("Odoo users with a session pool")
+                .register(registry);
+        Gauge.builder("fhir.odoo.session.pool.sessions", pool, p -> p.metrics().idleSessions())
+                .description("Open Odoo sessions")
+                .tag("state", "idle")
+                .register(registry);
+        Gauge.builder("fhir.odoo.session.pool.sessions", pool, p -> p.metrics().borrowedSessions())
+                .description("Open Odoo sessions")
+                .tag("state", "borrowed")
+                .register(registry);
+        counter(registry, "created", "Odoo sessions opened", p -> p.metrics().created());
+        counter(registry, "destroyed", "Odoo sessions discarded", p -> p.metrics().destroyed());
+        counter(registry, "borrows", "Odoo sessions borrowed", p -> p.metrics().borrows());
+        counter(
+                registry,
+                "validation.failures",
+                "Idle Odoo sessions that failed validation",
+                p -> p.metrics().validationFailures());
+        counter(
+                registry,
+                "wait.timeouts",
+                "Borrows that timed out waiting for an Odoo session",
+                p -> p.metrics().waitTimeouts());
+    }
+
+    private void counter(
+            MeterRegistry registry, String name, String description, ToDoubleFunction<OdooSessionPool> count) {
+        FunctionCounter.builder("fhir.odoo.session.pool." + name, pool, count)
+                .description(description)
+                .register(registry);
+    }
+}
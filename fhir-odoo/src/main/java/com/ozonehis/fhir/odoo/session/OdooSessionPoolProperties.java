@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.session;
+
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@Validated
+@ConfigurationProperties("fhir.odoo.session.pool")
+public class OdooSessionPoolProperties {
+
+    /** Minimum number of idle sessions kept open per user once that user has authenticated. Defaults to 0. */
+    @PositiveOrZero private int minIdle = 0;
+
+    /** Maximum number of sessions (borrowed and idle) per user. Defaults to 8. */
+    @Positive private int maxSize = 8;
+
+    /** Maximum time in milliseconds to wait for a session when all sessions of a user are borrowed. Defaults to 5s. */
+    @Positive private long maxWaitMs = 5_000L;
+
+    /** Idle sessions unused for longer than this many milliseconds are evicted. Defaults to 5 minutes. */
+    @Positive private long idleTimeoutMs = 300_000L;
+
+    /** Interval in milliseconds between runs of the idle session evictor. Defaults to 1 minute. */
+    @Positive private long evictionIntervalMs = 60_000L;
+
+    /**
+     * Sessions idle for longer than this many milliseconds are validated with a round trip to Odoo before they are handed
+     * out. Defaults to 30 seconds.
+     */
+    @PositiveOrZero private long validationIntervalMs = 30_000L;
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.session;
+
+import com.ozonehis.fhir.odoo.SessionHolder;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+/**
+ * Runs independent Odoo requests of a single FHIR request in parallel.
+ * <p>A session from the {@link OdooSessionPool} is used by exactly one thread, so every task dispatched to a worker
+ * borrows its own session for the caller's credentials and returns it once the task completes. The caller runs the
+ * first task itself. Any task for which no worker or no session is free right away also runs on the caller, with the
+ * caller's session, so fan-outs never queue behind other FHIR requests. Tasks started from a worker thread run inline
+ * so nested fan-outs cannot exhaust the pool.
+ * <p>The number of tasks of one {@link #invokeAll(List)} running at the same time is limited to {@code parallelism} to
+ * keep a single FHIR request from flooding Odoo. The workers are shared by all FHIR requests: in platform thread mode
+ * at most {@code max-workers} of them run at the same time, in virtual thread mode every task gets its own virtual
+ * thread, so blocking XML-RPC calls do not hold on to a platform thread.
+ */
+@Slf4j
+public class OdooTaskExecutor {
+
+    private static final ThreadLocal<Boolean> WORKER = ThreadLocal.withInitial(() -> false);
+
+    private final ExecutorService executor;
+
+    private final int parallelism;
+
+    private final boolean virtualThreads;
+
+    private final OdooSessionPool sessionPool;
+
+    public OdooTaskExecutor(OdooTaskExecutorProperties properties, OdooSessionPool sessionPool) {
+        this(properties, false, sessionPool);
+    }
+
+    /**
+     * @param properties     the executor properties
+     * @param virtualThreads whether tasks run on virtual threads, requires Java 21 or later
+     * @param sessionPool    the pool the workers borrow their sessions from
+     */
+    public OdooTaskExecutor(
+            OdooTaskExecutorProperties properties, boolean virtualThreads, OdooSessionPool sessionPool) {
+        this.parallelism = properties.getParallelism();
+        this.virtualThreads = virtualThreads && parallelism > 1;
+        this.sessionPool = sessionPool;
+        if (parallelism <= 1) {
+            this.executor = null;
+        } else if (virtualThreads) {
+            // Thread per task, idle virtual threads are not kept around
+            this.executor = new ThreadPoolExecutor(
+                    0,
+                    Integer.MAX_VALUE,
+                    0L,
+                    TimeUnit.MILLISECONDS,
+                    new SynchronousQueue<>(),
+                    new VirtualThreadTaskExecutor("odoo-task-").getVirtualThreadFactory());
+        } else {
+            // No queue, a task is only accepted while one of the workers shared by all FHIR requests is free
+            AtomicInteger threadCount = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(
+                    0, properties.getMaxWorkers(), 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "odoo-task-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+    }
+
+    /**
+     * @return whether tasks run on virtual threads
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor == null) {
+            return;
+        }
+
+        log.debug("Shutting down Odoo task executor.");
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(2, TimeUnit.SECONDS)) {
+                log.warn("Odoo task executor did not terminate within 2 seconds.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs the tasks and waits for all of them to complete.
+     *
+     * @param tasks the tasks
+     * @return the task results, in the order of the tasks
+     * @throws RuntimeException the first exception thrown by a task, once all dispatched tasks have completed
+     */
+    public <R> List<R> invokeAll(List<Supplier<R>> tasks) {
+        OdooCredentials credentials = SessionHolder.getOdooCredentials();
+        if (executor == null || credentials == null || tasks.size() < 2 || WORKER.get()) {
+            return tasks.stream().map(Supplier::get).toList();
+        }
+
+        // The caller runs one task itself
+        Semaphore permits = new Semaphore(parallelism - 1);
+        List<CompletableFuture<R>> futures = new ArrayList<>(tasks.size() - 1);
+        List<R> results = new ArrayList<>(Collections.nCopies(tasks.size(), null));
+        RuntimeException failure = null;
+        try {
+            for (Supplier<R> task : tasks.subList(1, tasks.size())) {
+                futures.add(dispatch(credentials, permits, task));
+            }
+
+            results.set(0, tasks.get(0).get());
+            for (int i = 0; i < futures.size(); i++) {
+                if (futures.get(i) == null) {
+                    results.set(i + 1, tasks.get(i + 1).get());
+                }
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+
+        // Wait for every dispatched task, even after a failure, so none outlives the call
+        for (int i = 0; i < futures.size(); i++) {
+            CompletableFuture<R> future = futures.get(i);
+            if (future == null) {
+                continue;
+            }
+
+            try {
+                results.set(i + 1, future.join());
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException runtimeException
+                            ? runtimeException
+                            : new RuntimeException(e.getCause());
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+
+        return results;
+    }
+
+    /**
+     * Hands the task to a worker with a session of its own.
+     *
+     * @return the future of the task, or {@code null} if no worker or no session is free and the caller has to run it
+     */
+    private <R> CompletableFuture<R> dispatch(OdooCredentials credentials, Semaphore permits, Supplier<R> task) {
+        if (!permits.tryAcquire()) {
+            return null;
+        }
+
+        Optional<OdooSessionPool.Lease> lease = Optional.empty();
+        try {
+            lease = sessionPool.tryBorrow(credentials);
+            if (lease.isPresent()) {
+                CompletableFuture<R> future = new CompletableFuture<>();
+                OdooSessionPool.Lease workerLease = lease.get();
+                executor.execute(() -> runAsWorker(workerLease, credentials, permits, task, future));
+                return future;
+            }
+        } catch (RejectedExecutionException e) {
+            log.debug("No Odoo task worker available, running the task on the request thread");
+            lease.ifPresent(OdooSessionPool.Lease::close);
+        }
+
+        permits.release();
+        return null;
+    }
+
+    private static <R> void runAsWorker(
+            OdooSessionPool.Lease lease,
+            OdooCredentials credentials,
+            Semaphore permits,
+            Supplier<R> task,
+            CompletableFuture<R> future) {
+        WORKER.set(true);
+        SessionHolder.setOdooSession(lease.getSession());
+        SessionHolder.setOdooCredentials(credentials);
+        Throwable failure = null;
+        try {
+            future.complete(task.get());
+        } catch (Throwable e) {
+            failure = e;
+            future.completeExceptionally(e);
+        } finally {
+            SessionHolder.clear();
+            WORKER.remove();
+            lease.close(failure);
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.session;
+
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@Validated
+@ConfigurationProperties("fhir.odoo.executor")
+public class OdooTaskExecutorProperties {
+
+    /**
+     * Maximum number of Odoo requests a single FHIR request dispatches in parallel, e.g. the chunks of a large bulk
+     * lookup. {@code 1} runs everything on the request thread. Defaults to 4.
+     * <p>Every request beyond the first borrows a session of the user from the session pool, so it only runs in
+     * parallel while the user has fewer than {@code fhir.odoo.session.pool.max-size} sessions borrowed.
+     */
+    @Positive private int parallelism = 4;
+
+    /**
+     * Maximum number of worker threads running dispatched Odoo requests, shared by all FHIR requests. Requests for
+     * which no worker is free run on the request thread. Not used with virtual threads, where every dispatched request
+     * gets a virtual thread of its own. Defaults to 32.
+     */
+    @Positive private int maxWorkers = 32;
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.transaction;
+
+import ca.uhn.fhir.rest.annotation.Transaction;
+import ca.uhn.fhir.rest.annotation.TransactionParam;
+import ca.uhn.fhir.rest.server.exceptions.BaseServerResponseException;
+import ca.uhn.fhir.rest.server.exceptions.InvalidRequestException;
+import com.ozonehis.fhir.odoo.patient.PatientService;
+import com.ozonehis.fhir.odoo.serviceRequest.ServiceRequestService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.OperationOutcome;
+import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Resource;
+import org.hl7.fhir.r4.model.ServiceRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Server level batch and transaction Bundle handler. The Patient and ServiceRequest entries are grouped by resource
+ * type and each group is handed to its service at once, so the Odoo records shared by the entries are looked up once
+ * and new records are created in bulk. Patients are processed before ServiceRequests, which reference them.
+ * <p>
+ * Odoo offers no transaction spanning several calls, so a transaction Bundle is processed like a batch that stops at
+ * the first failing group: the failure is returned as the response, records created by earlier groups are kept.
+ */
+@Slf4j
+@Component
+@SuppressWarnings("unused")
+public class BundleTransactionProvider {
+
+    private final PatientService patientService;
+
+    private final ServiceRequestService serviceRequestService;
+
+    @Autowired
+    public BundleTransactionProvider(PatientService patientService, ServiceRequestService serviceRequestService) {
+        this.patientService = patientService;
+        this.serviceRequestService = serviceRequestService;
+    }
+
+    @Transaction
+    public Bundle transaction(@TransactionParam Bundle bundle) {
+        boolean transaction = bundle.getType() == Bundle.BundleType.TRANSACTION;
+        if (!transaction && bundle.getType() != Bundle.BundleType.BATCH) {
+            throw new InvalidRequestException("Bundle type must be batch or transaction");
+        }
+
+        List<Bundle.BundleEntryComponent> entries = bundle.getEntry();
+        Map<Integer, RuntimeException> failures = new HashMap<>();
+        List<Integer> patients = new ArrayList<>();
+        List<Integer> serviceRequests = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            Bundle.BundleEntryComponent entry = entries.get(i);
+            Bundle.HTTPVerb method = entry.getRequest().getMethod();
+            if (method != Bundle.HTTPVerb.POST && method != Bundle.HTTPVerb.PUT) {
+                failures.put(i, new InvalidRequestException("Unsupported request method " + method + " in entry " + i));
+            } else if (entry.getResource() instanceof Patient) {
+                patients.add(i);
+            } else if (entry.getResource() instanceof ServiceRequest) {
+                serviceRequests.add(i);
+            } else {
+                failures.put(i, new InvalidRequestException("Unsupported resource in entry " + i));
+            }
+        }
+
+        throwFirstFailure(transaction, failures);
+        createAll(entries, patients, Patient.class, patientService::createAll, failures);
+        throwFirstFailure(transaction, failures);
+        createAll(entries, serviceRequests, ServiceRequest.class, serviceRequestService::createAll, failures);
+        throwFirstFailure(transaction, failures);
+
+        log.info("Processed {} Bundle with {} entries, {} failed", bundle.getType(), entries.size(), failures.size());
+        Bundle response = new Bundle();
+        response.setType(transaction ? Bundle.BundleType.TRANSACTIONRESPONSE : Bundle.BundleType.BATCHRESPONSE);
+        for (int i = 0; i < entries.size(); i++) {
+            response.addEntry().setResponse(toResponse(entries.get(i), failures.get(i)));
+        }
+        return response;
+    }
+
+    private <R extends Resource> void createAll(
+            List<Bundle.BundleEntryComponent> entries,
+            List<Integer> indexes,
+            Class<R> type,
+            Function<List<R>, Map<Integer, RuntimeException>> createAll,
+            Map<Integer, RuntimeException> failures) {
+        if (indexes.isEmpty()) {
+            return;
+        }
+
+        List<R> resources = new ArrayList<>(indexes.size());
+        indexes.forEach(index -> resources.add(type.cast(entries.get(index).getResource())));
+        try {
+            createAll.apply(resources).forEach((position, e) -> failures.put(indexes.get(position), e));
+        } catch (RuntimeException e) {
+            log.error("Unable to process {} entries of Bundle", type.getSimpleName(), e);
+            indexes.forEach(index -> failures.put(index, e));
+        }
+    }
+
+    private void throwFirstFailure(boolean transaction, Map<Integer, RuntimeException> failures) {
+        if (transaction && !failures.isEmpty()) {
+            throw failures.get(failures.keySet().stream().min(Integer::compare).orElseThrow());
+        }
+    }
+
+    private Bundle.BundleEntryResponseComponent toResponse(
+            Bundle.BundleEntryComponent entry, RuntimeException failure) {
+        Bundle.BundleEntryResponseComponent response = new Bundle.BundleEntryResponseComponent();
+        if (failure == null) {
+            Resource resource = entry.getResource();
+            response.setStatus(entry.getRequest().getMethod() == Bundle.HTTPVerb.POST ? "201 Created" : "200 OK");
+            response.setLocation(resource.fhirType() + "/" + resource.getIdElement().getIdPart());
+            return response;
+        }
+
+        int status = failure instanceof BaseServerResponseException e ? e.getStatusCode() : 500;
+        OperationOutcome outcome = new OperationOutcome();
+        outcome.addIssue()
+                .setSeverity(OperationOutcome.IssueSeverity.ERROR)
+                .setCode(OperationOutcome.IssueType.PROCESSING)
+                .setDiagnostics(failure.getMessage());
+        response.setStatus(String.valueOf(status));
+        response.setOutcome(outcome);
+        return response;
+    }
+}
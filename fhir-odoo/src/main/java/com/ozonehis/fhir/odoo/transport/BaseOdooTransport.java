@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.transport;
+
+import com.odoojava.api.FieldCollection;
+import com.odoojava.api.FilterCollection;
+import com.odoojava.api.ObjectAdapter;
+import com.odoojava.api.Row;
+import com.odoojava.api.Session;
+import com.ozonehis.fhir.odoo.SessionHolder;
+import com.ozonehis.fhir.odoo.model.OdooModelReader;
+import com.ozonehis.fhir.odoo.session.OdooCredentials;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+
+/**
+ * Base class for transports calling {@code execute_kw} of the Odoo {@code object} service over a pooled HTTP client,
+ * instead of through the client of the {@link Session}.
+ * <p>These calls are stateless, every call is authenticated with the user id of the session and the password of the
+ * {@link SessionHolder#getOdooCredentials() credentials} bound to the current thread. Searches are read with a single
+ * {@code search_read} call and turned into rows with the field metadata of the {@link ObjectAdapter}, or decoded
+ * straight into models.
+ */
+public abstract class BaseOdooTransport implements OdooTransport {
+
+    private final URI endpoint;
+
+    private final String database;
+
+    private final CloseableHttpClient httpClient;
+
+    /**
+     * @param endpoint   the endpoint of Odoo the calls are posted to
+     * @param database   the Odoo database
+     * @param httpClient the pooled client the calls are sent with
+     */
+    protected BaseOdooTransport(URI endpoint, String database, CloseableHttpClient httpClient) {
+        this.endpoint = endpoint;
+        this.database = database;
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public Object execute(Session session, String model, String method, Object[] args) throws OdooRpcException {
+        return executeKw(params(session, model, method, args, Map.of()));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Row> searchRead(Session session, ObjectAdapter objectAdapter, OdooSearch search)
+            throws OdooRpcException {
+        Object[] records = (Object[]) executeKw(searchReadParams(session, search));
+        try {
+            FieldCollection fields = objectAdapter.getFields(search.fields());
+            List<Row> rows = new ArrayList<>(records.length);
+            for (Object record : records) {
+                rows.add(new Row((HashMap<String, Object>) record, fields));
+            }
+            return rows;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new OdooRpcException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public <T> List<T> searchRead(
+            Session session, ObjectAdapter objectAdapter, OdooSearch search, OdooModelReader<T> reader)
+            throws OdooRpcException {
+        return executeKw(searchReadParams(session, search), reader);
+    }
+
+    @Override
+    public int count(Session session, ObjectAdapter objectAdapter, String model, FilterCollection filters)
+            throws OdooRpcException {
+        Object[] args = new Object[] {filters.getFilters()};
+        return ((Number) executeKw(params(session, model, "search_count", args, Map.of()))).intValue();
+    }
+
+    /**
+     * Calls {@code execute_kw} of the Odoo {@code object} service.
+     *
+     * @param params the database, user id, password, model, method, positional and keyword arguments
+     * @return the result of the call
+     * @throws OdooRpcException if the call failed
+     */
+    protected abstract Object executeKw(Object[] params) throws OdooRpcException;
+
+    /**
+     * Calls {@code execute_kw} of the Odoo {@code object} service for a method returning records, decoding the records
+     * straight into models.
+     *
+     * @param params the database, user id, password, model, method, positional and keyword arguments
+     * @param reader sets the fields of the records on the models
+     * @return the models read
+     * @throws OdooRpcException if the call failed
+     */
+    protected abstract <T> List<T> executeKw(Object[] params, OdooModelReader<T> reader) throws OdooRpcException;
+
+    /**
+     * Posts a call to the endpoint and reads the response.
+     *
+     * @param body        the encoded call
+     * @param contentType the content type of the call
+     * @param reader      decodes the response
+     * @return the decoded response
+     * @throws OdooRpcException if the call failed
+     */
+    protected <R> R post(byte[] body, ContentType contentType, ResponseReader<R> reader) throws OdooRpcException {
+        HttpPost request = new HttpPost(endpoint);
+        request.setEntity(new ByteArrayEntity(body, contentType));
+        // Closing the content stream reads the rest of the response, so that the connection goes back to the pool
+        try (ClassicHttpResponse response = httpClient.executeOpen(null, request, null);
+                InputStream in = response.getEntity().getContent()) {
+            if (response.getCode() != 200) {
+                throw new OdooRpcException("Odoo responded with HTTP status " + response.getCode());
+            }
+            return reader.read(in);
+        } catch (IOException e) {
+            throw new OdooRpcException("Error while calling Odoo at " + endpoint + ": " + e.getMessage(), e);
+        }
+    }
+
+    private Object[] searchReadParams(Session session, OdooSearch search) {
+        Map<String, Object> kwargs = new LinkedHashMap<>();
+        kwargs.put("fields", search.fields());
+        if (search.offset() > 0) {
+            kwargs.put("offset", search.offset());
+        }
+        if (search.limit() > 0) {
+            kwargs.put("limit", search.limit());
+        }
+        if (search.order() != null) {
+            kwargs.put("order", search.order());
+        }
+        return params(session, search.model(), "search_read", new Object[] {search.filters().getFilters()}, kwargs);
+    }
+
+    private Object[] params(Session session, String model, String method, Object[] args, Map<String, Object> kwargs) {
+        OdooCredentials credentials = SessionHolder.getOdooCredentials();
+        if (credentials == null) {
+            throw new IllegalStateException("No Odoo credentials are bound to the current thread");
+        }
+
+        return new Object[] {database, session.getUserID(), credentials.password(), model, method, args, kwargs};
+    }
+
+    /**
+     * Decodes the response of a call.
+     */
+    @FunctionalInterface
+    protected interface ResponseReader<R> {
+
+        R read(InputStream in) throws IOException, OdooRpcException;
+    }
+}
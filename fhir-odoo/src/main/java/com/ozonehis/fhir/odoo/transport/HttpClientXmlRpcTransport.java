@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.transport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.xmlrpc.XmlRpcException;
+import org.apache.xmlrpc.XmlRpcRequest;
+import org.apache.xmlrpc.client.XmlRpcClient;
+import org.apache.xmlrpc.client.XmlRpcClientException;
+import org.apache.xmlrpc.client.XmlRpcHttpClientConfig;
+import org.apache.xmlrpc.client.XmlRpcHttpTransport;
+import org.apache.xmlrpc.client.XmlRpcHttpTransportException;
+import org.apache.xmlrpc.common.XmlRpcStreamRequestConfig;
+import org.apache.xmlrpc.util.HttpUtil;
+import org.xml.sax.SAXException;
+
+/**
+ * Sends a single XML-RPC call with an Apache HttpClient 5 client. A new transport is created for every call.
+ */
+class HttpClientXmlRpcTransport extends XmlRpcHttpTransport {
+
+    private static final String USER_AGENT_SUFFIX = " (Apache HttpClient 5 Transport)";
+
+    private final CloseableHttpClient httpClient;
+
+    private final Map<String, String> headers = new LinkedHashMap<>();
+
+    private XmlRpcHttpClientConfig config;
+
+    private ClassicHttpResponse response;
+
+    HttpClientXmlRpcTransport(XmlRpcClient client, CloseableHttpClient httpClient) {
+        super(client, USER_AGENT + USER_AGENT_SUFFIX);
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public Object sendRequest(XmlRpcRequest request) throws XmlRpcException {
+        config = (XmlRpcHttpClientConfig) request.getConfig();
+        return super.sendRequest(request);
+    }
+
+    @Override
+    protected void setRequestHeader(String header, String value) {
+        headers.put(header, value);
+    }
+
+    @Override
+    protected boolean isUsingByteArrayOutput(XmlRpcHttpClientConfig config) {
+        // The request is always buffered by writeRequest, HttpClient sets the content length
+        return false;
+    }
+
+    @Override
+    protected void writeRequest(ReqWriter writer) throws XmlRpcException, IOException, SAXException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+        writer.write(body);
+
+        HttpPost request;
+        try {
+            request = new HttpPost(config.getServerURL().toURI());
+        } catch (URISyntaxException e) {
+            throw new XmlRpcClientException("Invalid Odoo endpoint " + config.getServerURL(), e);
+        }
+        headers.forEach(request::setHeader);
+        request.setEntity(new ByteArrayEntity(body.toByteArray(), ContentType.TEXT_XML));
+        response = httpClient.executeOpen(null, request, null);
+        if (response.getCode() < 200 || response.getCode() > 299) {
+            throw new XmlRpcHttpTransportException(response.getCode(), response.getReasonPhrase());
+        }
+    }
+
+    @Override
+    protected boolean isResponseGzipCompressed(XmlRpcStreamRequestConfig config) {
+        Header encoding = response.getFirstHeader("Content-Encoding");
+        return encoding != null && HttpUtil.isUsingGzipEncoding(encoding.getValue());
+    }
+
+    @Override
+    protected InputStream getInputStream() throws XmlRpcException {
+        try {
+            return response.getEntity().getContent();
+        } catch (IOException e) {
+            throw new XmlRpcClientException("Error while reading the Odoo response", e);
+        }
+    }
+
+    @Override
+    protected void close() throws XmlRpcClientException {
+        if (response == null) {
+            return;
+        }
+
+        // Reads the rest of the response, so that the connection goes back to the pool
+        try (ClassicHttpResponse closed = response) {
+            EntityUtils.consume(closed.getEntity());
+        } catch (IOException e) {
+            throw new XmlRpcClientException("Error while closing the Odoo response", e);
+        } finally {
+            response = null;
+        }
+    }
+}
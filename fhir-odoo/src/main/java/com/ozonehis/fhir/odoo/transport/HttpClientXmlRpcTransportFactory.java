@@ -0,0 +1,31 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.transport;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.xmlrpc.client.XmlRpcClient;
+import org.apache.xmlrpc.client.XmlRpcTransport;
+import org.apache.xmlrpc.client.XmlRpcTransportFactoryImpl;
+
+/**
+ * Sends the calls of an {@link XmlRpcClient} with an Apache HttpClient 5 client.
+ */
+class HttpClientXmlRpcTransportFactory extends XmlRpcTransportFactoryImpl {
+
+    private final CloseableHttpClient httpClient;
+
+    HttpClientXmlRpcTransportFactory(XmlRpcClient client, CloseableHttpClient httpClient) {
+        super(client);
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public XmlRpcTransport getTransport() {
+        return new HttpClientXmlRpcTransport(getClient(), httpClient);
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.transport;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.ozonehis.fhir.odoo.model.OdooModelReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes Odoo JSON-RPC calls and decodes their responses with the streaming Jackson API, without building a JSON
+ * tree first. Results are decoded into the same types the XML-RPC client returns: structs as {@link HashMap}, arrays
+ * as {@code Object[]}, integers as {@link Integer} and floats as {@link Double}, so that rows and results can be
+ * handled the same way whichever transport read them.
+ */
+public final class JsonRpcCodec {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final DateTimeFormatter ODOO_DATE_TIME =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneOffset.UTC);
+
+    private JsonRpcCodec() {}
+
+    /**
+     * Writes a JSON-RPC call of an Odoo service method.
+     *
+     * @param out     the stream to write to, left open
+     * @param id      the id of the call
+     * @param service the Odoo service, e.g. {@code object}
+     * @param method  the service method, e.g. {@code execute_kw}
+     * @param args    the arguments of the service method
+     */
+    public static void writeCall(OutputStream out, long id, String service, String method, Object[] args)
+            throws IOException {
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("jsonrpc", "2.0");
+            generator.writeStringField("method", "call");
+            generator.writeNumberField("id", id);
+            generator.writeObjectFieldStart("params");
+            generator.writeStringField("service", service);
+            generator.writeStringField("method", method);
+            generator.writeFieldName("args");
+            writeValue(generator, args);
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Reads a JSON-RPC response.
+     *
+     * @param in the stream to read from
+     * @return the result of the call
+     * @throws OdooRpcException if Odoo responded with an error
+     * @throws IOException      if the response is not a JSON-RPC response
+     */
+    public static Object readResult(InputStream in) throws IOException, OdooRpcException {
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON-RPC response object");
+            }
+
+            Object result = null;
+            Object error = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if ("result".equals(name)) {
+                    result = readValue(parser, token);
+                } else if ("error".equals(name)) {
+                    error = readValue(parser, token);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            if (error != null) {
+                throw new OdooRpcException(errorMessage(error));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Reads a JSON-RPC response whose result is an array of records, e.g. of {@code search_read}, setting the fields of
+     * each record on a model as they are read.
+     *
+     * @param in     the stream to read from
+     * @param reader sets the fields of the records on the models
+     * @return the models, in the order of the records
+     * @throws OdooRpcException if Odoo responded with an error
+     * @throws IOException      if the response is not an array of records
+     */
+    public static <T> List<T> readRecords(InputStream in, OdooModelReader<T> reader)
+            throws IOException, OdooRpcException {
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON-RPC response object");
+            }
+
+            List<T> models = null;
+            Object error = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if ("result".equals(name) && token == JsonToken.START_ARRAY) {
+                    models = readModels(parser, reader);
+                } else if ("error".equals(name)) {
+                    error = readValue(parser, token);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            if (error != null) {
+                throw new OdooRpcException(errorMessage(error));
+            }
+            if (models == null) {
+                throw new IOException("Expected an array of records as JSON-RPC result");
+            }
+            return models;
+        }
+    }
+
+    private static <T> List<T> readModels(JsonParser parser, OdooModelReader<T> reader) throws IOException {
+        List<T> models = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+            T model = reader.newModel();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                reader.set(model, field, readValue(parser, parser.nextToken()));
+            }
+            models.add(model);
+        }
+        if (token != JsonToken.END_ARRAY) {
+            throw new IOException("Expected a record but got " + token);
+        }
+        return models;
+    }
+
+    private static Object readValue(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case START_OBJECT -> {
+                HashMap<String, Object> struct = new HashMap<>();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    struct.put(name, readValue(parser, parser.nextToken()));
+                }
+                return struct;
+            }
+            case START_ARRAY -> {
+                List<Object> items = new ArrayList<>();
+                JsonToken item;
+                while ((item = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    items.add(readValue(parser, item));
+                }
+                return items.toArray();
+            }
+            case VALUE_STRING -> {
+                return parser.getText();
+            }
+            case VALUE_NUMBER_INT -> {
+                if (parser.getNumberType() == JsonParser.NumberType.INT) {
+                    return parser.getIntValue();
+                }
+                return parser.getLongValue();
+            }
+            case VALUE_NUMBER_FLOAT -> {
+                return parser.getDoubleValue();
+            }
+            case VALUE_TRUE -> {
+                return Boolean.TRUE;
+            }
+            case VALUE_FALSE -> {
+                return Boolean.FALSE;
+            }
+            case VALUE_NULL -> {
+                return null;
+            }
+            default -> throw new IOException("Unexpected JSON token " + token);
+        }
+    }
+
+    private static void writeValue(JsonGenerator generator, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof String text) {
+            generator.writeString(text);
+        } else if (value instanceof Boolean bool) {
+            generator.writeBoolean(bool);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+            generator.writeNumber(((Number) value).longValue());
+        } else if (value instanceof BigDecimal decimal) {
+            generator.writeNumber(decimal);
+        } else if (value instanceof Number number) {
+            generator.writeNumber(number.doubleValue());
+        } else if (value instanceof Date date) {
+            generator.writeString(ODOO_DATE_TIME.format(date.toInstant()));
+        } else if (value instanceof Map<?, ?> map) {
+            generator.writeStartObject();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                generator.writeFieldName(String.valueOf(entry.getKey()));
+                writeValue(generator, entry.getValue());
+            }
+            generator.writeEndObject();
+        } else if (value instanceof Object[] array) {
+            generator.writeStartArray();
+            for (Object item : array) {
+                writeValue(generator, item);
+            }
+            generator.writeEndArray();
+        } else if (value instanceof Collection<?> collection) {
+            generator.writeStartArray();
+            for (Object item : collection) {
+                writeValue(generator, item);
+            }
+            generator.writeEndArray();
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+
+    /**
+     * @return the Odoo exception and its message, e.g. {@code odoo.exceptions.MissingError: Record does not exist}
+     */
+    private static String errorMessage(Object error) {
+        if (error instanceof Map<?, ?> struct) {
+            if (struct.get("data") instanceof Map<?, ?> data && data.get("message") != null) {
+                return data.get("name") + ": " + data.get("message");
+            }
+            if (struct.get("message") != null) {
+                return String.valueOf(struct.get("message"));
+            }
+        }
+        return String.valueOf(error);
+    }
+}
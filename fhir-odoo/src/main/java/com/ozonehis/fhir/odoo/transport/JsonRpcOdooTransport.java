@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.transport;
+
+import com.ozonehis.fhir.odoo.model.OdooModelReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.ContentType;
+
+/**
+ * Calls Odoo through its {@code /jsonrpc} endpoint. JSON responses are a fraction of the size of the equivalent
+ * XML-RPC responses and are decoded as they stream in, see {@link JsonRpcCodec}, which mostly pays off for large
+ * {@code search_read} results.
+ */
+public class JsonRpcOdooTransport extends BaseOdooTransport {
+
+    private final AtomicLong nextId = new AtomicLong();
+
+    /**
+     * @param endpoint   the {@code /jsonrpc} endpoint of Odoo
+     * @param database   the Odoo database
+     * @param httpClient the pooled client the calls are sent with
+     */
+    public JsonRpcOdooTransport(URI endpoint, String database, CloseableHttpClient httpClient) {
+        super(endpoint, database, httpClient);
+    }
+
+    @Override
+    protected Object executeKw(Object[] params) throws OdooRpcException {
+        return post(encode(params), ContentType.APPLICATION_JSON, JsonRpcCodec::readResult);
+    }
+
+    @Override
+    protected <T> List<T> executeKw(Object[] params, OdooModelReader<T> reader) throws OdooRpcException {
+        return post(encode(params), ContentType.APPLICATION_JSON, in -> JsonRpcCodec.readRecords(in, reader));
+    }
+
+    private byte[] encode(Object[] params) throws OdooRpcException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(512);
+        try {
+            JsonRpcCodec.writeCall(body, nextId.incrementAndGet(), "object", "execute_kw", params);
+        } catch (IOException e) {
+            throw new OdooRpcException("Error while encoding the Odoo call: " + e.getMessage(), e);
+        }
+        return body.toByteArray();
+    }
+}
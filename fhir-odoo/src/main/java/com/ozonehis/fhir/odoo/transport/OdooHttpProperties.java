@@ -0,0 +1,43 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.transport;
+
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@Validated
+@ConfigurationProperties("fhir.odoo.http")
+public class OdooHttpProperties {
+
+    /** Maximum number of open connections to Odoo. */
+    @Positive private int maxTotal = 64;
+
+    /** Maximum number of open connections per Odoo host and port. */
+    @Positive private int maxPerRoute = 32;
+
+    /** Time in milliseconds to wait for a connection to Odoo to be established. Defaults to 5 seconds. */
+    @Positive private long connectTimeoutMs = 5_000L;
+
+    /** Time in milliseconds to wait for Odoo to respond to a call. Defaults to 60 seconds. */
+    @Positive private long readTimeoutMs = 60_000L;
+
+    /** Time in milliseconds to wait for a free connection when all of them are in use. Defaults to 5 seconds. */
+    @Positive private long poolTimeoutMs = 5_000L;
+
+    /** Connections idle for longer than this are closed, in milliseconds. Defaults to 30 seconds. */
+    @Positive private long idleTimeoutMs = 30_000L;
+
+    /**
+     * Connections idle for longer than this are checked before being reused, in milliseconds, so that calls are not
+     * sent over connections Odoo or a proxy already closed. Defaults to 2 seconds.
+     */
+    @Positive private long validateAfterInactivityMs = 2_000L;
+}
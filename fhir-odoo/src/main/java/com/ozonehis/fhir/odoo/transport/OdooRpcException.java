@@ -0,0 +1,23 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.transport;
+
+/**
+ * Thrown when a call to Odoo fails, e.g. with an Odoo fault or an I/O error. The message carries the Odoo error, so
+ * that callers can recognize e.g. a {@code MissingError}, whichever {@link OdooTransport} made the call.
+ */
+public class OdooRpcException extends Exception {
+
+    public OdooRpcException(String message) {
+        super(message);
+    }
+
+    public OdooRpcException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
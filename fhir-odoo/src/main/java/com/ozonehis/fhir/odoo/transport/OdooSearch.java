@@ -0,0 +1,31 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.transport;
+
+import com.odoojava.api.FilterCollection;
+
+/**
+ * A {@code search_read} call.
+ *
+ * @param model   the Odoo model
+ * @param filters the domain
+ * @param fields  the fields to read
+ * @param offset  the number of records to skip, 0 to start at the first record
+ * @param limit   the maximum number of records to read, 0 to read all of them
+ * @param order   the sort order, e.g. {@code id}, or null for the default order of the model
+ */
+public record OdooSearch(String model, FilterCollection filters, String[] fields, int offset, int limit, String order) {
+
+    public OdooSearch(String model, FilterCollection filters, String[] fields) {
+        this(model, filters, fields, 0, 0, null);
+    }
+
+    boolean isPaged() {
+        return offset > 0 || limit > 0 || order != null;
+    }
+}
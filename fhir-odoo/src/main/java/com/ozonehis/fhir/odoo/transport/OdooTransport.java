@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.transport;
+
+import com.odoojava.api.FilterCollection;
+import com.odoojava.api.ObjectAdapter;
+import com.odoojava.api.Row;
+import com.odoojava.api.Session;
+import com.ozonehis.fhir.odoo.model.OdooModelReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Carries the calls of the Odoo services to Odoo. The session is always logged in with XML-RPC, the transport only
+ * decides how the model methods are called.
+ *
+ * @see XmlRpcOdooTransport
+ * @see PooledXmlRpcOdooTransport
+ * @see JsonRpcOdooTransport
+ */
+public interface OdooTransport {
+
+    /**
+     * Calls a method of an Odoo model as the user of the session.
+     *
+     * @param session the session
+     * @param model   the Odoo model
+     * @param method  the method, e.g. {@code write}
+     * @param args    the positional arguments of the method
+     * @return the result, with structs as maps, arrays as {@code Object[]} and empty values as {@code false}
+     * @throws OdooRpcException if the call failed
+     */
+    Object execute(Session session, String model, String method, Object[] args) throws OdooRpcException;
+
+    /**
+     * Searches and reads records.
+     *
+     * @param session       the session
+     * @param objectAdapter the adapter of the model, providing the field metadata
+     * @param search        the search
+     * @return the rows read
+     * @throws OdooRpcException if the call failed
+     */
+    List<Row> searchRead(Session session, ObjectAdapter objectAdapter, OdooSearch search) throws OdooRpcException;
+
+    /**
+     * Searches and reads records into models. Transports decoding the response themselves set the fields as the
+     * response is decoded, without building a row per record first, by default the rows read are copied.
+     *
+     * @param session       the session
+     * @param objectAdapter the adapter of the model, providing the field metadata
+     * @param search        the search
+     * @param reader        sets the fields of the records on the models
+     * @return the models read
+     * @throws OdooRpcException if the call failed
+     */
+    default <T> List<T> searchRead(
+            Session session, ObjectAdapter objectAdapter, OdooSearch search, OdooModelReader<T> reader)
+            throws OdooRpcException {
+        List<Row> rows = searchRead(session, objectAdapter, search);
+        List<T> models = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            T model = reader.newModel();
+            for (String field : search.fields()) {
+                reader.set(model, field, row.get(field));
+            }
+            models.add(model);
+        }
+        return models;
+    }
+
+    /**
+     * Counts the records matching the filters.
+     *
+     * @param session       the session
+     * @param objectAdapter the adapter of the model
+     * @param model         the Odoo model
+     * @param filters       the domain
+     * @return the number of matching records
+     * @throws OdooRpcException if the call failed
+     */
+    int count(Session session, ObjectAdapter objectAdapter, String model, FilterCollection filters)
+            throws OdooRpcException;
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.transport;
+
+import com.odoojava.api.OdooXmlRpcProxy;
+import com.ozonehis.fhir.FhirOdooConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import java.net.URI;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the {@link OdooTransport} used for Odoo model calls, XML-RPC unless
+ * {@code fhir.odoo.transport.type=jsonrpc}, and the pooled HTTP client both transports send their calls with.
+ * <p>The connection pool is configured with the {@code fhir.odoo.http} properties and reports its utilization as the
+ * {@code httpcomponents.httpclient.pool.*} meters tagged with {@code httpclient=odoo}.
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties({OdooTransportProperties.class, OdooHttpProperties.class})
+public class OdooTransportConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager odooConnectionManager(
+            OdooHttpProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxTotal())
+                .setMaxConnPerRoute(properties.getMaxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(properties.getConnectTimeoutMs()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(properties.getReadTimeoutMs()))
+                        .setValidateAfterInactivity(TimeValue.ofMilliseconds(properties.getValidateAfterInactivityMs()))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "odoo")
+                .bindTo(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient odooHttpClient(
+            PoolingHttpClientConnectionManager odooConnectionManager, OdooHttpProperties properties) {
+        return HttpClients.custom()
+                .setConnectionManager(odooConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(properties.getPoolTimeoutMs()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(properties.getReadTimeoutMs()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(properties.getIdleTimeoutMs()))
+                .build();
+    }
+
+    @Bean
+    public OdooTransport odooTransport(
+            OdooTransportProperties properties, FhirOdooConfig fhirOdooConfig, CloseableHttpClient odooHttpClient) {
+        String scheme = fhirOdooConfig.getRPCProtocol() == OdooXmlRpcProxy.RPCProtocol.RPC_HTTPS ? "https" : "http";
+        String baseUrl = scheme + "://" + fhirOdooConfig.getOdooHostName() + ":" + fhirOdooConfig.getOdooPort();
+        if (properties.getType() == OdooTransportProperties.Type.JSONRPC) {
+            log.info("Calling Odoo models through JSON-RPC at {}", baseUrl);
+            return new JsonRpcOdooTransport(
+                    URI.create(baseUrl + "/jsonrpc"), fhirOdooConfig.getOdooDatabase(), odooHttpClient);
+        }
+
+        return new PooledXmlRpcOdooTransport(
+                URI.create(baseUrl + "/xmlrpc/2/object"), fhirOdooConfig.getOdooDatabase(), odooHttpClient);
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.transport;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@Validated
+@ConfigurationProperties("fhir.odoo.transport")
+public class OdooTransportProperties {
+
+    /**
+     * Protocol used for Odoo model calls. Authentication always uses XML-RPC. Defaults to {@link Type#XMLRPC}.
+     */
+    @NotNull private Type type = Type.XMLRPC;
+
+    public enum Type {
+        /** Calls Odoo through {@code /xmlrpc/2/object}. */
+        XMLRPC,
+        /** Calls Odoo through {@code /jsonrpc}. */
+        JSONRPC
+    }
+}
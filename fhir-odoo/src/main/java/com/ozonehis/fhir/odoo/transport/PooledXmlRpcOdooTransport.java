@@ -0,0 +1,73 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.transport;
+
+import com.ozonehis.fhir.odoo.model.OdooModelReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.util.List;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.xmlrpc.XmlRpcException;
+import org.apache.xmlrpc.client.XmlRpcClient;
+import org.apache.xmlrpc.client.XmlRpcClientConfigImpl;
+
+/**
+ * Calls Odoo through its {@code /xmlrpc/2/object} endpoint with the pooled HTTP client, so that calls reuse open
+ * connections instead of each opening its own one like the client of the session does.
+ */
+public class PooledXmlRpcOdooTransport extends BaseOdooTransport {
+
+    private final XmlRpcClient client;
+
+    /**
+     * @param endpoint   the {@code /xmlrpc/2/object} endpoint of Odoo
+     * @param database   the Odoo database
+     * @param httpClient the pooled client the calls are sent with
+     */
+    public PooledXmlRpcOdooTransport(URI endpoint, String database, CloseableHttpClient httpClient) {
+        super(endpoint, database, httpClient);
+        XmlRpcClientConfigImpl config = new XmlRpcClientConfigImpl();
+        try {
+            config.setServerURL(endpoint.toURL());
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Invalid Odoo endpoint " + endpoint, e);
+        }
+        // Odoo does not support the Apache XML-RPC extensions
+        config.setEnabledForExtensions(false);
+        client = new XmlRpcClient();
+        client.setConfig(config);
+        client.setTransportFactory(new HttpClientXmlRpcTransportFactory(client, httpClient));
+    }
+
+    @Override
+    protected Object executeKw(Object[] params) throws OdooRpcException {
+        try {
+            return client.execute("execute_kw", params);
+        } catch (XmlRpcException e) {
+            throw new OdooRpcException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Decodes the records with {@link XmlRpcCodec} as they stream in, the XML-RPC client would parse the whole
+     * response into maps first.
+     */
+    @Override
+    protected <T> List<T> executeKw(Object[] params, OdooModelReader<T> reader) throws OdooRpcException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+        try {
+            XmlRpcCodec.writeCall(body, "execute_kw", params);
+        } catch (IOException e) {
+            throw new OdooRpcException("Error while encoding the Odoo call: " + e.getMessage(), e);
+        }
+        return post(body.toByteArray(), ContentType.TEXT_XML, in -> XmlRpcCodec.readRecords(in, reader));
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.transport;
+
+import com.ozonehis.fhir.odoo.model.OdooModelReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Encodes Odoo XML-RPC calls and decodes {@code search_read} responses with StAX, setting the fields of each record on
+ * a model as they are read instead of parsing the whole response into maps first. Values are decoded into the same
+ * types as by {@link JsonRpcCodec}.
+ */
+public final class XmlRpcCodec {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    private static final DateTimeFormatter ODOO_DATE_TIME =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneOffset.UTC);
+
+    private static final DateTimeFormatter XML_RPC_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HH:mm:ss");
+
+    private XmlRpcCodec() {}
+
+    /**
+     * Writes an XML-RPC call. Dates are written the way Odoo expects them, as {@code yyyy-MM-dd HH:mm:ss} strings in
+     * UTC.
+     *
+     * @param out        the stream to write to, left open
+     * @param methodName the method, e.g. {@code execute_kw}
+     * @param params     the parameters of the method
+     */
+    public static void writeCall(OutputStream out, String methodName, Object[] params) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?><methodCall><methodName>");
+        writeText(writer, methodName);
+        writer.write("</methodName><params>");
+        for (Object param : params) {
+            writer.write("<param>");
+            writeValue(writer, param);
+            writer.write("</param>");
+        }
+        writer.write("</params></methodCall>");
+        writer.flush();
+    }
+
+    /**
+     * Reads an XML-RPC response whose result is an array of records, e.g. of {@code search_read}.
+     *
+     * @param in     the stream to read from
+     * @param reader sets the fields of the records on the models
+     * @return the models, in the order of the records
+     * @throws OdooRpcException if Odoo responded with a fault
+     * @throws IOException      if the response is not an array of records
+     */
+    public static <T> List<T> readRecords(InputStream in, OdooModelReader<T> reader)
+            throws IOException, OdooRpcException {
+        try {
+            XMLStreamReader xml = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                expect(xml, xml.nextTag(), "methodResponse");
+                xml.nextTag();
+                if ("fault".equals(xml.getLocalName())) {
+                    expect(xml, xml.nextTag(), "value");
+                    throw new OdooRpcException(faultMessage(readValue(xml)));
+                }
+                expect(xml, XMLStreamConstants.START_ELEMENT, "params");
+                expect(xml, xml.nextTag(), "param");
+                expect(xml, xml.nextTag(), "value");
+                expect(xml, xml.nextTag(), "array");
+                expect(xml, xml.nextTag(), "data");
+
+                List<T> models = new ArrayList<>();
+                while (xml.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                    expect(xml, xml.nextTag(), "struct");
+                    T model = reader.newModel();
+                    while (xml.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                        expect(xml, xml.nextTag(), "name");
+                        String field = xml.getElementText();
+                        expect(xml, xml.nextTag(), "value");
+                        reader.set(model, field, readValue(xml));
+                        xml.nextTag();
+                    }
+                    // The end of the struct, then of the value
+                    xml.nextTag();
+                    models.add(model);
+                }
+                return models;
+            } finally {
+                xml.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid XML-RPC response: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads a value, starting at the start and ending at the end of its {@code value} element.
+     */
+    private static Object readValue(XMLStreamReader xml) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        while (true) {
+            switch (xml.next()) {
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE -> {
+                    text.append(xml.getText());
+                }
+                case XMLStreamConstants.START_ELEMENT -> {
+                    Object value = readTypedValue(xml);
+                    xml.nextTag();
+                    return value;
+                }
+                case XMLStreamConstants.END_ELEMENT -> {
+                    // An untyped value is a string
+                    return text.toString();
+                }
+                default -> {}
+            }
+        }
+    }
+
+    /**
+     * Reads a typed value, starting at the start and ending at the end of its type element.
+     */
+    private static Object readTypedValue(XMLStreamReader xml) throws XMLStreamException {
+        String type = xml.getLocalName();
+        switch (type) {
+            case "string" -> {
+                return xml.getElementText();
+            }
+            case "int", "i4" -> {
+                return Integer.valueOf(xml.getElementText().trim());
+            }
+            case "i8" -> {
+                return Long.valueOf(xml.getElementText().trim());
+            }
+            case "double" -> {
+                return Double.valueOf(xml.getElementText().trim());
+            }
+            case "boolean" -> {
+                return "1".equals(xml.getElementText().trim());
+            }
+            case "nil" -> {
+                xml.getElementText();
+                return null;
+            }
+            case "base64" -> {
+                return Base64.getMimeDecoder().decode(xml.getElementText().trim());
+            }
+            case "dateTime.iso8601" -> {
+                // Odoo returns dates as strings, other servers are read in the default time zone like by the client
+                LocalDateTime dateTime = LocalDateTime.parse(xml.getElementText().trim(), XML_RPC_DATE_TIME);
+                return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+            }
+            case "array" -> {
+                expect(xml, xml.nextTag(), "data");
+                List<Object> items = new ArrayList<>();
+                while (xml.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                    items.add(readValue(xml));
+                }
+                xml.nextTag();
+                return items.toArray();
+            }
+            case "struct" -> {
+                HashMap<String, Object> struct = new HashMap<>();
+                while (xml.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                    expect(xml, xml.nextTag(), "name");
+                    String name = xml.getElementText();
+                    expect(xml, xml.nextTag(), "value");
+                    struct.put(name, readValue(xml));
+                    xml.nextTag();
+                }
+                return struct;
+            }
+            default -> throw new XMLStreamException("Unsupported XML-RPC type " + type, xml.getLocation());
+        }
+    }
+
+    private static void writeValue(Writer writer, Object value) throws IOException {
+        writer.write("<value>");
+        if (value == null) {
+            writer.write("<nil/>");
+        } else if (value instanceof String text) {
+            writer.write("<string>");
+            writeText(writer, text);
+            writer.write("</string>");
+        } else if (value instanceof Boolean bool) {
+            writer.write(bool ? "<boolean>1</boolean>" : "<boolean>0</boolean>");
+        } else if (value instanceof Integer || value instanceof Short) {
+            writer.write("<int>" + value + "</int>");
+        } else if (value instanceof Long) {
+            writer.write("<i8>" + value + "</i8>");
+        } else if (value instanceof BigDecimal decimal) {
+            writer.write("<double>" + decimal.toPlainString() + "</double>");
+        } else if (value instanceof Number number) {
+            writer.write("<double>" + number.doubleValue() + "</double>");
+        } else if (value instanceof Date date) {
+            writer.write("<string>" + ODOO_DATE_TIME.format(date.toInstant()) + "</string>");
+        } else if (value instanceof Map<?, ?> map) {
+            writer.write("<struct>");
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writer.write("<member><name>");
+                writeText(writer, String.valueOf(entry.getKey()));
+                writer.write("</name>");
+                writeValue(writer, entry.getValue());
+                writer.write("</member>");
+            }
+            writer.write("</struct>");
+        } else if (value instanceof Object[] array) {
+            writer.write("<array><data>");
+            for (Object item : array) {
+                writeValue(writer, item);
+            }
+            writer.write("</data></array>");
+        } else if (value instanceof Collection<?> collection) {
+            writer.write("<array><data>");
+            for (Object item : collection) {
+                writeValue(writer, item);
+            }
+            writer.write("</data></array>");
+        } else {
+            writer.write("<string>");
+            writeText(writer, value.toString());
+            writer.write("</string>");
+        }
+        writer.write("</value>");
+    }
+
+    private static void writeText(Writer writer, String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> writer.write("&amp;");
+                case '<' -> writer.write("&lt;");
+                case '>' -> writer.write("&gt;");
+                default -> writer.write(c);
+            }
+        }
+    }
+
+    private static void expect(XMLStreamReader xml, int event, String localName) throws XMLStreamException {
+        if (event != XMLStreamConstants.START_ELEMENT || !localName.equals(xml.getLocalName())) {
+            throw new XMLStreamException("Expected element " + localName, xml.getLocation());
+        }
+    }
+
+    /**
+     * @return the fault string of an XML-RPC fault
+     */
+    private static String faultMessage(Object fault) {
+        if (fault instanceof Map<?, ?> struct && struct.get("faultString") != null) {
+            return String.valueOf(struct.get("faultString"));
+        }
+        return String.valueOf(fault);
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.transport;
+
+import com.odoojava.api.FilterCollection;
+import com.odoojava.api.ObjectAdapter;
+import com.odoojava.api.Row;
+import com.odoojava.api.RowCollection;
+import com.odoojava.api.Session;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.xmlrpc.XmlRpcException;
+
+/**
+ * Calls Odoo through the XML-RPC client of the session, used by services created without a configured transport.
+ * Searches read through the {@link ObjectAdapter}, which checks the filters and fields against the field metadata of
+ * the model.
+ */
+public class XmlRpcOdooTransport implements OdooTransport {
+
+    @Override
+    public Object execute(Session session, String model, String method, Object[] args) throws OdooRpcException {
+        try {
+            return session.executeCommand(model, method, args);
+        } catch (XmlRpcException e) {
+            throw new OdooRpcException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<Row> searchRead(Session session, ObjectAdapter objectAdapter, OdooSearch search)
+            throws OdooRpcException {
+        try {
+            RowCollection rows = search.isPaged()
+                    ? objectAdapter.searchAndReadObject(
+                            search.filters(), search.fields(), search.offset(), search.limit(), search.order())
+                    : objectAdapter.searchAndReadObject(search.filters(), search.fields());
+            List<Row> result = new ArrayList<>();
+            for (Row row : rows) {
+                result.add(row);
+            }
+            return result;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new OdooRpcException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int count(Session session, ObjectAdapter objectAdapter, String model, FilterCollection filters)
+            throws OdooRpcException {
+        try {
+            return objectAdapter.getObjectCount(filters);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new OdooRpcException(e.getMessage(), e);
+        }
+    }
+}
@@ -8,6 +8,11 @@
 package com.ozonehis.fhir.odoo.util;
 
 import com.odoojava.api.Row;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 
 @SuppressWarnings("unchecked")
 public class OdooUtils {
@@ -37,4 +42,78 @@ public class OdooUtils {
     public static <T> T get(Row row, String key) {
         return (T) row.get(key);
     }
+
+    /**
+     * Utility method to get the id of a many2one value, which Odoo returns either as the id or as {@code [id, name]}.
+     *
+     * @param value the many2one value
+     * @return the id, or null if the value is not set
+     */
+    public static Integer getId(Object value) {
+        if (value instanceof Object[] array) {
+            return array.length > 0 ? (Integer) array[0] : null;
+        }
+        return value instanceof Integer id ? id : null;
+    }
+
+    /**
+     * Utility method to move a value to another field, e.g. from the field of a model to the configured name of a
+     * custom Odoo field.
+     *
+     * @param values   the field names and values
+     * @param field    the field to move
+     * @param newField the field to move the value to, or null to leave the value in place
+     */
+    public static void renameField(Map<String, Object> values, String field, String newField) {
+        if (newField != null && !newField.equals(field) && values.containsKey(field)) {
+            values.put(newField, values.remove(field));
+        }
+    }
+
+    /**
+     * Utility method to get the values that differ from the current values of an Odoo record, the values to send in a
+     * {@code write} call. Values missing from the current record count as changed.
+     *
+     * @param current the current values, as read from Odoo
+     * @param updated the new values
+     * @return the changed values, with null replaced by {@code false} as XML-RPC cannot send null
+     * @see #isSameValue(Object, Object)
+     */
+    public static Map<String, Object> getChangedValues(Map<String, Object> current, Map<String, Object> updated) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        updated.forEach((field, value) -> {
+            if (!current.containsKey(field) || !isSameValue(current.get(field), value)) {
+                changes.put(field, value != null ? value : Boolean.FALSE);
+            }
+        });
+        return changes;
+    }
+
+    /**
+     * Utility method to compare a value read from Odoo with a value to write. Odoo reads empty fields as {@code false}
+     * and many2one fields as {@code [id, name]}, while they are written as null and as the id.
+     *
+     * @param current the value read from Odoo
+     * @param updated the value to write
+     * @return whether writing the value would leave the field unchanged
+     */
+    public static boolean isSameValue(Object current, Object updated) {
+        if (isEmpty(current) || isEmpty(updated)) {
+            return isEmpty(current) && isEmpty(updated);
+        }
+        if (current instanceof Object[] many2one && !(updated instanceof Object[])) {
+            return many2one.length == 2 && Objects.equals(getId(many2one), updated);
+        }
+        if (current instanceof Object[] currentArray && updated instanceof Object[] updatedArray) {
+            return Arrays.deepEquals(currentArray, updatedArray);
+        }
+        if (current instanceof Number currentNumber && updated instanceof Number updatedNumber) {
+            return new BigDecimal(currentNumber.toString()).compareTo(new BigDecimal(updatedNumber.toString())) == 0;
+        }
+        return current.equals(updated);
+    }
+
+    private static boolean isEmpty(Object value) {
+        return value == null || Boolean.FALSE.equals(value);
+    }
 }
@@ -15,6 +15,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import com.odoojava.api.Session;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -65,4 +66,17 @@ class SessionHolderTest {
 
         assertNull(SessionHolder.getOdooSession());
     }
+
+    @Test
+    void shouldNotShareTheSessionBetweenThreads() throws InterruptedException {
+        SessionHolder.setOdooSession(mockSession);
+        AtomicReference<Session> otherThreadSession = new AtomicReference<>(mockSession);
+
+        Thread thread = new Thread(() -> otherThreadSession.set(SessionHolder.getOdooSession()));
+        thread.start();
+        thread.join();
+
+        assertNull(otherThreadSession.get());
+        assertEquals(mockSession, SessionHolder.getOdooSession());
+    }
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.api;
+
+import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_PARTNER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import com.odoojava.api.Session;
+import com.ozonehis.fhir.odoo.SessionHolder;
+import com.ozonehis.fhir.odoo.transport.OdooRpcException;
+import com.ozonehis.fhir.odoo.transport.OdooTransport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class BaseOdooServiceCreateTest {
+
+    private OdooTransport transport;
+
+    private Session session;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PartnerService partnerService;
+
+    @BeforeEach
+    void setUp() {
+        transport = mock(OdooTransport.class);
+        session = mock(Session.class);
+        SessionHolder.setOdooSession(session);
+
+        meterRegistry = new SimpleMeterRegistry();
+        partnerService = new PartnerService();
+        ReflectionTestUtils.setField(partnerService, "transport", transport);
+        ReflectionTestUtils.setField(partnerService, "meterRegistry", meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SessionHolder.clear();
+    }
+
+    @Test
+    @DisplayName("create() should send one create call through the transport and return the new id")
+    void create_shouldCreateThroughTransport() throws Exception {
+        Map<String, Object> resource = Map.of("name", "Alice", "ref", "P-1");
+        when(transport.execute(eq(session), eq(MODEL_PARTNER), eq("create"), any())).thenReturn(42);
+
+        assertThat(partnerService.create(resource)).isEqualTo(42);
+
+        verify(transport).execute(eq(session), eq(MODEL_PARTNER), eq("create"), argThat(args -> args[0] == resource));
+        verifyNoMoreInteractions(transport);
+        assertThat(meterRegistry
+                        .get("fhir.odoo.rpc")
+                        .tags("model", MODEL_PARTNER, "operation", "create", "outcome", "success")
+                        .timer()
+                        .count())
+                .isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("create() should accept the new id wrapped in a list")
+    void create_shouldAcceptIdList() throws Exception {
+        when(transport.execute(eq(session), eq(MODEL_PARTNER), eq("create"), any()))
+                .thenReturn(new Object[] {42});
+
+        assertThat(partnerService.create(Map.of("name", "Alice"))).isEqualTo(42);
+    }
+
+    @Test
+    @DisplayName("create() should fail when the transport fails")
+    void create_shouldFailWhenTransportFails() throws Exception {
+        when(transport.execute(eq(session), eq(MODEL_PARTNER), eq("create"), any()))
+                .thenThrow(new OdooRpcException("Odoo is down"));
+
+        assertThatThrownBy(() -> partnerService.create(Map.of("name", "Alice")))
+                .isInstanceOf(RuntimeException.class)
+                .hasRootCauseMessage("Odoo is down");
+    }
+
+    @Test
+    @DisplayName("createAll() should send the resources through the transport with one create call")
+    void createAll_shouldCreateThroughTransport() throws Exception {
+        List<Map<String, Object>> resources = List.of(Map.of("name", "Alice"), Map.of("name", "Bob"));
+        when(transport.execute(eq(session), eq(MODEL_PARTNER), eq("create"), any()))
+                .thenReturn(new Object[] {42, 43});
+
+        assertThat(partnerService.createAll(resources)).containsExactly(42, 43);
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.api;
+
+import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_PARTNER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
+import com.odoojava.api.OdooXmlRpcProxy;
+import com.odoojava.api.Session;
+import com.ozonehis.fhir.odoo.SessionHolder;
+import com.ozonehis.fhir.odoo.stub.OdooStubServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class BaseOdooServiceUpdateTest {
+
+    private OdooStubServer server;
+
+    private PartnerService partnerService;
+
+    private int partnerId;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new OdooStubServer("odoo", "admin", "secret").start();
+        Session session = new Session(
+                OdooXmlRpcProxy.RPCProtocol.RPC_HTTP, "localhost", server.getPort(), "odoo", "admin", "secret");
+        session.startSession();
+        SessionHolder.setOdooSession(session);
+
+        meterRegistry = new SimpleMeterRegistry();
+        partnerService = new PartnerService();
+        ReflectionTestUtils.setField(partnerService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(partnerService, "odooPartnerDobField", "x_dob");
+        ReflectionTestUtils.setField(partnerService, "odooPartnerIdField", "x_external_id");
+
+        Map<String, Object> partner = new HashMap<>();
+        partner.put("name", "Alice");
+        partner.put("ref", "P-1");
+        partner.put("city", "Nairobi");
+        partner.put("country_id", new Object[] {5, "Kenya"});
+        partner.put("active", true);
+        partnerId = server.insert(MODEL_PARTNER, partner);
+        server.resetCallCounts();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SessionHolder.clear();
+        server.close();
+    }
+
+    @Test
+    @DisplayName("update() should not write when no field changed")
+    void update_shouldSkipWriteWhenNothingChanged() {
+        Map<String, Object> resource = new HashMap<>();
+        resource.put("id", partnerId);
+        resource.put("name", "Alice");
+        resource.put("ref", "P-1");
+        resource.put("city", "Nairobi");
+        resource.put("country_id", 5);
+        resource.put("active", true);
+        resource.put("street", null);
+
+        assertThat(partnerService.update(String.valueOf(partnerId), resource)).isEqualTo(partnerId);
+
+        assertThat(server.getCallCount(MODEL_PARTNER, "read")).isEqualTo(1L);
+        assertThat(server.getCallCount(MODEL_PARTNER, "write")).isZero();
+    }
+
+    @Test
+    @DisplayName("update() should write only the changed fields")
+    void update_shouldWriteOnlyChangedFields() {
+        Map<String, Object> resource = new HashMap<>();
+        resource.put("name", "Alice");
+        resource.put("city", "Mombasa");
+        resource.put("country_id", 5);
+        resource.put("write_date", "2024-01-01 00:00:00");
+
+        partnerService.update(String.valueOf(partnerId), resource);
+
+        assertThat(server.getCallCount(MODEL_PARTNER, "write")).isEqualTo(1L);
+        assertThat(server.get(MODEL_PARTNER, partnerId))
+                .containsEntry("city", "Mombasa")
+                .containsEntry("name", "Alice")
+                .doesNotContainKey("write_date");
+        assertThat(meterRegistry
+                        .get("fhir.odoo.rpc")
+                        .tags("model", MODEL_PARTNER, "operation", "write", "outcome", "success")
+                        .timer()
+                        .count())
+                .isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("update() should fail when the resource does not exist")
+    void update_shouldFailWhenResourceDoesNotExist() {
+        assertThatThrownBy(() -> partnerService.update("999", Map.of("name", "Bob")))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("999");
+        assertThat(server.getCallCount(MODEL_PARTNER, "write")).isZero();
+    }
+
+    @Test
+    @DisplayName("update() should write the changed fields without reading when the current values are known")
+    void update_shouldWriteWithoutReadingWhenCurrentValuesAreKnown() {
+        Map<String, Object> current = Map.of("id", partnerId, "name", "Alice", "ref", "P-1", "city", "Nairobi");
+        Map<String, Object> resource = new HashMap<>(current);
+        resource.put("city", "Mombasa");
+
+        assertThat(partnerService.update(String.valueOf(partnerId), resource, current)).isEqualTo(partnerId);
+
+        assertThat(server.getCallCount(MODEL_PARTNER, "read")).isZero();
+        assertThat(server.getCallCount(MODEL_PARTNER, "write")).isEqualTo(1L);
+        assertThat(server.get(MODEL_PARTNER, partnerId))
+                .containsEntry("city", "Mombasa")
+                .containsEntry("name", "Alice");
+    }
+
+    @Test
+    @DisplayName("update() should report a resource deleted since it was read as not found")
+    void update_shouldFailWithNotFoundWhenResourceWasDeleted() {
+        assertThatThrownBy(() -> partnerService.update("999", Map.of("name", "Bob"), Map.of("name", "Alice")))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("999");
+    }
+
+    @Test
+    @DisplayName("delete() should unlink the resource with a single call")
+    void delete_shouldUnlinkWithoutReading() {
+        partnerService.delete(String.valueOf(partnerId));
+
+        assertThat(server.getCallCount(MODEL_PARTNER, "unlink")).isEqualTo(1L);
+        assertThat(server.getCallCount(MODEL_PARTNER, "search_read")).isZero();
+        assertThat(server.getAll(MODEL_PARTNER)).isEmpty();
+    }
+}
@@ -12,21 +12,54 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
 
+import com.odoojava.api.FilterCollection;
 import com.odoojava.api.Row;
+import com.odoojava.api.Session;
+import com.ozonehis.fhir.odoo.SessionHolder;
+import com.ozonehis.fhir.odoo.cache.ExtIdCacheProperties;
 import com.ozonehis.fhir.odoo.model.ExtId;
+import com.ozonehis.fhir.odoo.session.OdooSessionPool;
+import com.ozonehis.fhir.odoo.session.OdooTaskExecutor;
+import com.ozonehis.fhir.odoo.session.OdooTaskExecutorProperties;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
+import org.mockito.Spy;
 
 class ExtIdServiceTest {
 
+    private static final String MODEL = "product.product";
+
+    @Spy
+    private ExtIdCacheProperties cacheProperties = new ExtIdCacheProperties();
+
+    @Spy
+    private OdooTaskExecutor taskExecutor =
+            new OdooTaskExecutor(new OdooTaskExecutorProperties(), mock(OdooSessionPool.class));
+
     @InjectMocks
     private ExtIdService extIdService;
 
@@ -35,6 +68,7 @@ class ExtIdServiceTest {
     @BeforeEach
     void setUp() {
         mockCloser = openMocks(this);
+        extIdService.initCache();
     }
 
     @AfterAll
@@ -113,4 +147,190 @@ class ExtIdServiceTest {
         assertNull(extId.getLastUpdatedOn());
         assertEquals(0, extId.getLastUpdatedBy());
     }
+
+    @Test
+    @DisplayName("should serve repeated lookups in both directions from the cache")
+    void shouldCacheLookupsInBothDirections() {
+        ExtIdService service = spy(extIdService);
+        doReturn(List.of(extId("drug-uuid", 7))).when(service).search(any(FilterCollection.class));
+
+        assertEquals(7, service.getByNameAndModel("drug-uuid", MODEL).orElseThrow().getResId());
+        assertEquals(7, service.getByNameAndModel("drug-uuid", MODEL).orElseThrow().getResId());
+        assertEquals("drug-uuid", service.getByResourceIdAndModel(7, MODEL).orElseThrow().getName());
+        assertEquals(
+                7,
+                service.getResIdsByNameAndModel(List.of("drug-uuid"), MODEL)
+                        .iterator()
+                        .next()
+                        .getResId());
+
+        verify(service, times(1)).search(any(FilterCollection.class));
+    }
+
+    @Test
+    @DisplayName("should not cache lookups that found nothing")
+    void shouldNotCacheMissingExtIds() {
+        ExtIdService service = spy(extIdService);
+        doReturn(Collections.emptyList()).when(service).search(any(FilterCollection.class));
+
+        assertTrue(service.getByNameAndModel("drug-uuid", MODEL).isEmpty());
+        assertTrue(service.getByNameAndModel("drug-uuid", MODEL).isEmpty());
+
+        verify(service, times(2)).search(any(FilterCollection.class));
+    }
+
+    @Test
+    @DisplayName("should invalidate cached lookups when an external identifier is created")
+    void shouldInvalidateCacheOnCreateExternalId() {
+        ExtIdService service = spy(extIdService);
+        doReturn(List.of(extId("old-uuid", 7))).when(service).search(any(FilterCollection.class));
+        doReturn(11).when(service).create(anyMap());
+
+        service.getByResourceIdAndModel(7, MODEL);
+        assertEquals(11, service.createExternalId(MODEL, 7, "new-uuid"));
+        doReturn(List.of(extId("new-uuid", 7))).when(service).search(any(FilterCollection.class));
+
+        assertEquals("new-uuid", service.getByResourceIdAndModel(7, MODEL).orElseThrow().getName());
+        verify(service, times(2)).search(any(FilterCollection.class));
+    }
+
+    @Test
+    @DisplayName("should not cache when caching is disabled")
+    void shouldBypassCacheWhenDisabled() {
+        cacheProperties.setEnabled(false);
+        ExtIdService service = spy(extIdService);
+        doReturn(List.of(extId("drug-uuid", 7))).when(service).search(any(FilterCollection.class));
+
+        service.getByNameAndModel("drug-uuid", MODEL);
+        service.getByNameAndModel("drug-uuid", MODEL);
+
+        verify(service, times(2)).search(any(FilterCollection.class));
+    }
+
+    @Test
+    @DisplayName("should look up names with chunked name in [...] queries")
+    void shouldLookUpNamesInChunks() {
+        ExtIdService service = spy(extIdService);
+        ArgumentCaptor<FilterCollection> filtersCaptor = ArgumentCaptor.forClass(FilterCollection.class);
+        doReturn(List.of(extId("drug-uuid", 7))).when(service).search(filtersCaptor.capture());
+        List<String> names = IntStream.rangeClosed(1, BaseOdooService.MAX_IDS_PER_REQUEST * 2 + 1)
+                .mapToObj(i -> "code-" + i)
+                .toList();
+
+        Collection<ExtId> extIds = service.getResIdsByNameAndModel(names, MODEL);
+
+        assertEquals(3, extIds.size());
+        List<FilterCollection> filters = filtersCaptor.getAllValues();
+        assertEquals(3, filters.size());
+        Set<Object> requestedNames = filters.stream()
+                .map(filter -> (Object[]) filter.getFilters()[0])
+                .peek(nameFilter -> assertEquals("name", nameFilter[0]))
+                .peek(nameFilter -> assertEquals("in", nameFilter[1]))
+                .flatMap(nameFilter -> ((List<?>) nameFilter[2]).stream())
+                .collect(Collectors.toSet());
+        assertEquals(Set.copyOf(names), requestedNames);
+        filters.forEach(filter ->
+                assertEquals(List.of("model", "=", MODEL), List.of((Object[]) filter.getFilters()[1])));
+    }
+
+    @Test
+    @DisplayName("should only query names that are not cached")
+    void shouldOnlyQueryNamesThatAreNotCached() {
+        ExtIdService service = spy(extIdService);
+        ArgumentCaptor<FilterCollection> filtersCaptor = ArgumentCaptor.forClass(FilterCollection.class);
+        doReturn(List.of(extId("cached-uuid", 7))).when(service).search(filtersCaptor.capture());
+        service.getByNameAndModel("cached-uuid", MODEL);
+
+        service.getResIdsByNameAndModel(List.of("cached-uuid", "other-uuid"), MODEL);
+
+        Object[] nameFilter = (Object[]) filtersCaptor.getValue().getFilters()[0];
+        assertEquals(List.of("other-uuid"), nameFilter[2]);
+    }
+
+    @Test
+    @DisplayName("should read the external identifiers of several resources with one res_id in [...] query")
+    void shouldGetExtIdsByResourceIdsInOneQuery() {
+        ExtIdService service = spy(extIdService);
+        ArgumentCaptor<FilterCollection> filtersCaptor = ArgumentCaptor.forClass(FilterCollection.class);
+        doReturn(List.of(extId("uuid-1", 1), extId("uuid-2", 2))).when(service).search(filtersCaptor.capture());
+
+        Map<Integer, ExtId> extIds = service.getByResourceIdsAndModel(List.of(1, 2, 3), MODEL);
+
+        assertEquals(Set.of(1, 2), extIds.keySet());
+        assertEquals("uuid-2", extIds.get(2).getName());
+        Object[] resIdFilter = (Object[]) filtersCaptor.getValue().getFilters()[0];
+        assertEquals("res_id", resIdFilter[0]);
+        assertEquals("in", resIdFilter[1]);
+        assertEquals(List.of(1, 2, 3), resIdFilter[2]);
+        assertEquals("uuid-1", service.getByResourceIdAndModel(1, MODEL).orElseThrow().getName());
+        verify(service, times(1)).search(any(FilterCollection.class));
+    }
+
+    @Test
+    @DisplayName("should create several external identifiers with one create call")
+    void shouldCreateExtIdsInOneCall() {
+        ExtIdService service = spy(extIdService);
+        doReturn(List.of(11, 12)).when(service).createAll(anyList());
+        Map<Integer, String> externalIds = new LinkedHashMap<>();
+        externalIds.put(1, "uuid-1");
+        externalIds.put(2, "uuid-2");
+
+        List<ExtId> created = service.createExternalIds(MODEL, externalIds);
+
+        assertEquals(2, created.size());
+        assertEquals(12, created.get(1).getId());
+        assertEquals(2, created.get(1).getResId());
+        assertEquals("uuid-2", created.get(1).getName());
+        assertEquals("uuid-1", service.getByResourceIdAndModel(1, MODEL).orElseThrow().getName());
+        verify(service, times(1)).createAll(anyList());
+        verify(service, times(0)).search(any(FilterCollection.class));
+    }
+
+    @Test
+    @DisplayName("should not cache names shared by several external identifiers read by name")
+    void shouldNotCacheAmbiguousNamesReadByName() {
+        ExtIdService service = spy(extIdService);
+        doReturn(List.of(extId("drug-uuid", 7), extId("drug-uuid", 8), extId("other-uuid", 9)))
+                .when(service)
+                .search(any(FilterCollection.class));
+
+        assertEquals(3, service.getResIdsByNameAndModel(List.of("drug-uuid", "other-uuid"), MODEL).size());
+        assertEquals(1, service.getResIdsByNameAndModel(List.of("other-uuid"), MODEL).size());
+        assertEquals("drug-uuid", service.getByResourceIdAndModel(8, MODEL).orElseThrow().getName());
+        verify(service, times(1)).search(any(FilterCollection.class));
+
+        service.getByNameAndModel("drug-uuid", MODEL);
+        verify(service, times(2)).search(any(FilterCollection.class));
+    }
+
+    @Test
+    @DisplayName("should cache external identifiers per Odoo user")
+    void shouldCacheExtIdsPerUser() {
+        ExtIdService service = spy(extIdService);
+        doReturn(List.of(extId("drug-uuid", 7))).when(service).search(any(FilterCollection.class));
+        Session admin = mock(Session.class);
+        when(admin.getUserID()).thenReturn(2);
+        Session nurse = mock(Session.class);
+        when(nurse.getUserID()).thenReturn(3);
+
+        try {
+            SessionHolder.setOdooSession(admin);
+            service.getByNameAndModel("drug-uuid", MODEL);
+            service.getByNameAndModel("drug-uuid", MODEL);
+            SessionHolder.setOdooSession(nurse);
+            service.getByNameAndModel("drug-uuid", MODEL);
+        } finally {
+            SessionHolder.clear();
+        }
+
+        verify(service, times(2)).search(any(FilterCollection.class));
+    }
+
+    private static ExtId extId(String name, int resId) {
+        ExtId extId = new ExtId();
+        extId.setName(name);
+        extId.setModel(MODEL);
+        extId.setResId(resId);
+        return extId;
+    }
 }
@@ -8,6 +8,7 @@
 package com.ozonehis.fhir.odoo.api;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -173,7 +174,6 @@ class PartnerServiceTest {
         Map<String, Object> map = partnerService.convertPartnerToMap(partner);
 
         assertNotNull(map);
-        assertEquals(1, map.get("id"));
         assertEquals("REF-001", map.get("ref"));
         assertEquals("contact", map.get("type"));
         assertEquals("123 Main St", map.get("street"));
@@ -185,26 +185,27 @@ class PartnerServiceTest {
         assertTrue((Boolean) map.get("active"));
         assertEquals("100000Y", map.get("comment"));
         assertEquals("John Doe", map.get("name"));
-        assertEquals("John Doe", map.get("display_name"));
         assertEquals("1990-01-01", map.get("x_dob"));
         assertEquals("100000Y", map.get("x_external_id"));
-        assertEquals(createdOn, map.get("create_date"));
-        assertEquals(1, map.get("create_uid"));
-        assertEquals(lastUpdatedOn, map.get("write_date"));
-        assertEquals(2, map.get("write_uid"));
+        assertFalse(map.containsKey("x_customer_dob"));
+        assertFalse(map.containsKey("x_external_identifier"));
+        assertFalse(map.containsKey("id"));
+        assertFalse(map.containsKey("display_name"));
+        assertFalse(map.containsKey("create_date"));
+        assertFalse(map.containsKey("create_uid"));
+        assertFalse(map.containsKey("write_date"));
+        assertFalse(map.containsKey("write_uid"));
     }
 
     @Test
-    @DisplayName("should convert partner to map")
-    void shouldConvertPartnerToMapWithoutIdWhenIdIsZero() {
+    @DisplayName("should leave null fields out of the partner map")
+    void shouldConvertPartnerToMapWithoutNullFields() {
         Partner partner = new Partner();
         partner.setId(1);
         partner.setName("Test Partner");
 
         Map<String, Object> map = partnerService.convertPartnerToMap(partner);
 
-        assertNotNull(map);
-        assertTrue(map.containsKey("id"));
-        assertEquals("Test Partner", map.get("name"));
+        assertEquals(Map.of("name", "Test Partner", "company_id", 0), map);
     }
 }
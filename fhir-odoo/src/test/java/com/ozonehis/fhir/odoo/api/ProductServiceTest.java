@@ -11,22 +11,43 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
 
+import com.odoojava.api.FilterCollection;
 import com.odoojava.api.Row;
 import com.ozonehis.fhir.odoo.model.Product;
+import com.ozonehis.fhir.odoo.session.OdooSessionPool;
+import com.ozonehis.fhir.odoo.session.OdooTaskExecutor;
+import com.ozonehis.fhir.odoo.session.OdooTaskExecutorProperties;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
+import org.mockito.Spy;
 
 class ProductServiceTest {
 
+    @Spy
+    private OdooTaskExecutor taskExecutor = new OdooTaskExecutor(sequentialExecution(), mock(OdooSessionPool.class));
+
     @InjectMocks
     private ProductService productService;
 
@@ -128,4 +149,67 @@ class ProductServiceTest {
         assertNull(product.getLastUpdatedOn());
         assertEquals(0, product.getLastUpdatedBy());
     }
+
+    @Test
+    @DisplayName("should fetch products by ids in chunks")
+    void shouldFetchProductsByIdsInChunks() {
+        ProductService service = spy(productService);
+        ArgumentCaptor<FilterCollection> filtersCaptor = ArgumentCaptor.forClass(FilterCollection.class);
+        doReturn(List.of(new Product())).when(service).search(filtersCaptor.capture());
+        List<Integer> ids = IntStream.rangeClosed(1, BaseOdooService.MAX_IDS_PER_REQUEST + 1)
+                .boxed()
+                .toList();
+
+        Collection<Product> products = service.getByIds(ids);
+
+        assertEquals(2, products.size());
+        List<FilterCollection> filters = filtersCaptor.getAllValues();
+        assertEquals(2, filters.size());
+        Object[] firstChunk = (Object[]) filters.get(0).getFilters()[0];
+        assertEquals("id", firstChunk[0]);
+        assertEquals("in", firstChunk[1]);
+        assertEquals(ids.subList(0, BaseOdooService.MAX_IDS_PER_REQUEST), firstChunk[2]);
+        Object[] secondChunk = (Object[]) filters.get(1).getFilters()[0];
+        assertEquals(List.of(BaseOdooService.MAX_IDS_PER_REQUEST + 1), secondChunk[2]);
+    }
+
+    @Test
+    @DisplayName("should not query Odoo when no ids are provided")
+    void shouldNotQueryOdooWhenNoIdsAreProvided() {
+        ProductService service = spy(productService);
+
+        Collection<Product> products = service.getByIds(Collections.emptyList());
+
+        assertTrue(products.isEmpty());
+        verify(service, never()).search(any());
+    }
+
+    @Test
+    @DisplayName("should compute the model fields once")
+    void shouldComputeModelFieldsOnce() {
+        ProductService service = spy(productService);
+
+        assertSame(service.fields(), service.fields());
+        verify(service, times(1)).modelFields();
+    }
+
+    @Test
+    @DisplayName("should always read the id with projected fields")
+    void shouldAlwaysReadIdWithProjectedFields() {
+        String[] fields = productService.projectedFields(List.of("name", "qty_available"));
+
+        assertEquals(List.of("id", "name", "qty_available"), List.of(fields));
+    }
+
+    @Test
+    @DisplayName("should reject projected fields that are not product fields")
+    void shouldRejectUnknownProjectedFields() {
+        assertThrows(IllegalArgumentException.class, () -> productService.projectedFields(List.of("unknown_field")));
+    }
+
+    private static OdooTaskExecutorProperties sequentialExecution() {
+        OdooTaskExecutorProperties properties = new OdooTaskExecutorProperties();
+        properties.setParallelism(1);
+        return properties;
+    }
 }
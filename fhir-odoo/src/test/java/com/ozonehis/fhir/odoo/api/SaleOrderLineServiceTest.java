@@ -8,6 +8,7 @@
 package com.ozonehis.fhir.odoo.api;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.mock;
@@ -130,16 +131,16 @@ class SaleOrderLineServiceTest {
         Map<String, Object> map = saleOrderLineService.convertSaleOrderLineToMap(saleOrderLine);
 
         assertNotNull(map);
-        assertEquals(1, map.get("id"));
         assertEquals(100, map.get("order_id"));
         assertEquals(50, map.get("product_id"));
         assertEquals(3.0, map.get("product_uom_qty"));
         assertEquals(1, map.get("product_uom"));
         assertEquals("Test Product", map.get("name"));
-        assertEquals("Test Product Display", map.get("display_name"));
-        assertEquals(createdOn, map.get("create_date"));
-        assertEquals(10, map.get("create_uid"));
-        assertEquals(lastUpdatedOn, map.get("write_date"));
-        assertEquals(20, map.get("write_uid"));
+        assertFalse(map.containsKey("id"));
+        assertFalse(map.containsKey("display_name"));
+        assertFalse(map.containsKey("create_date"));
+        assertFalse(map.containsKey("create_uid"));
+        assertFalse(map.containsKey("write_date"));
+        assertFalse(map.containsKey("write_uid"));
     }
 }
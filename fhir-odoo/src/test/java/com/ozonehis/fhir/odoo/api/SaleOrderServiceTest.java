@@ -8,6 +8,7 @@
 package com.ozonehis.fhir.odoo.api;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.mock;
@@ -176,7 +177,6 @@ class SaleOrderServiceTest {
         Map<String, Object> map = saleOrderService.convertSaleOrderToMap(saleOrder);
 
         assertNotNull(map);
-        assertEquals(1, map.get("id"));
         assertEquals("REF-001", map.get("client_order_ref"));
         assertEquals("draft", map.get("state"));
         assertEquals(100, map.get("partner_id"));
@@ -185,10 +185,11 @@ class SaleOrderServiceTest {
         assertEquals("1990-01-01", map.get("x_customer_dob"));
         assertEquals("EXT-001", map.get("x_external_identifier"));
         assertEquals("SO001", map.get("name"));
-        assertEquals("SO001 Display", map.get("display_name"));
-        assertEquals(createdOn, map.get("create_date"));
-        assertEquals(10, map.get("create_uid"));
-        assertEquals(lastUpdatedOn, map.get("write_date"));
-        assertEquals(20, map.get("write_uid"));
+        assertFalse(map.containsKey("id"));
+        assertFalse(map.containsKey("display_name"));
+        assertFalse(map.containsKey("create_date"));
+        assertFalse(map.containsKey("create_uid"));
+        assertFalse(map.containsKey("write_date"));
+        assertFalse(map.containsKey("write_uid"));
     }
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ReferenceDataCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<String, Optional<String>> loader = key -> {
+        loads.incrementAndGet();
+        return key.startsWith("missing") ? Optional.empty() : Optional.of(key.toUpperCase());
+    };
+
+    @Test
+    @DisplayName("get() loads a key once and serves later lookups from the cache")
+    void get_shouldLoadOnceAndThenHit() {
+        ReferenceDataCache<String, String> cache = new ReferenceDataCache<>("test", 60_000, 10);
+
+        assertThat(cache.get("kenya", loader)).contains("KENYA");
+        assertThat(cache.get("kenya", loader)).contains("KENYA");
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1L);
+        assertThat(cache.getHitCount()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("get() caches lookups that found nothing")
+    void get_shouldCacheNegativeLookups() {
+        ReferenceDataCache<String, String> cache = new ReferenceDataCache<>("test", 60_000, 10);
+
+        assertThat(cache.get("missing", loader)).isEmpty();
+        assertThat(cache.get("missing", loader)).isEmpty();
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("get() reloads entries once their TTL has passed")
+    void get_shouldReloadExpiredEntries() throws InterruptedException {
+        ReferenceDataCache<String, String> cache = new ReferenceDataCache<>("test", 1, 10);
+
+        cache.get("kenya", loader);
+        Thread.sleep(5);
+        cache.get("kenya", loader);
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("The cache evicts the least recently used entry when full")
+    void get_shouldEvictLeastRecentlyUsedEntry() {
+        ReferenceDataCache<String, String> cache = new ReferenceDataCache<>("test", 60_000, 2);
+
+        cache.get("a", loader);
+        cache.get("b", loader);
+        cache.get("a", loader);
+        cache.get("c", loader);
+
+        assertThat(cache.size()).isEqualTo(2);
+        cache.get("a", loader);
+        assertThat(loads.get()).isEqualTo(3);
+        cache.get("b", loader);
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("putAll() preloads entries and clear() drops them")
+    void putAll_shouldPreloadEntries() {
+        ReferenceDataCache<String, String> cache = new ReferenceDataCache<>("test", 60_000, 10);
+
+        cache.putAll(Map.of("kenya", "Kenya"));
+        assertThat(cache.get("kenya", loader)).contains("Kenya");
+        assertThat(loads.get()).isZero();
+
+        cache.clear();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.get("kenya", loader)).contains("KENYA");
+    }
+
+    @Test
+    @DisplayName("indexUnique() leaves out keys shared by several values")
+    void indexUnique_shouldSkipDuplicateKeys() {
+        Map<Character, String> index =
+                ReferenceDataCache.indexUnique(List.of("kenya", "kampala", "uganda"), value -> value.charAt(0));
+
+        assertThat(index).containsOnlyKeys('u').containsEntry('u', "uganda");
+    }
+}
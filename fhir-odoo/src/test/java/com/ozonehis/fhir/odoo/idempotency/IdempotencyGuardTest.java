@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class IdempotencyGuardTest {
+
+    private IdempotencyProperties properties;
+
+    private IdempotencyGuard idempotencyGuard;
+
+    private final List<String> written = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        properties = new IdempotencyProperties();
+        idempotencyGuard = new IdempotencyGuard(new InMemoryIdempotencyStore(properties), properties);
+    }
+
+    @Test
+    @DisplayName("Should skip writing a resource identical to the version written last")
+    void write_shouldSkipRepeatedResource() {
+        idempotencyGuard.write(patient("p1", "Doe"), this::record);
+        Patient repeat = patient("p1", "Doe");
+        repeat.getMeta().setLastUpdated(new Date());
+
+        Patient result = idempotencyGuard.write(repeat, this::record);
+
+        assertThat(result).isSameAs(repeat);
+        assertThat(written).containsExactly("Doe");
+        assertThat(idempotencyGuard.getRepeatCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should write a resource again after it changed, including a change back to an earlier version")
+    void write_shouldWriteChangedResource() {
+        idempotencyGuard.write(patient("p1", "Doe"), this::record);
+        idempotencyGuard.write(patient("p1", "Smith"), this::record);
+        idempotencyGuard.write(patient("p1", "Doe"), this::record);
+        idempotencyGuard.write(patient("p2", "Doe"), this::record);
+
+        assertThat(written).containsExactly("Doe", "Smith", "Doe", "Doe");
+        assertThat(idempotencyGuard.getRepeatCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not remember a resource whose write failed")
+    void write_shouldNotRememberFailedWrite() {
+        assertThatThrownBy(() -> idempotencyGuard.write(patient("p1", "Doe"), patient -> {
+                    throw new RuntimeException("Odoo unavailable");
+                }))
+                .hasMessage("Odoo unavailable");
+
+        idempotencyGuard.write(patient("p1", "Doe"), this::record);
+
+        assertThat(written).containsExactly("Doe");
+    }
+
+    @Test
+    @DisplayName("Should always write resources when disabled or without an id")
+    void write_shouldPassThroughWhenDisabledOrWithoutId() {
+        idempotencyGuard.write(patient(null, "Doe"), this::record);
+        idempotencyGuard.write(patient(null, "Doe"), this::record);
+        properties.setEnabled(false);
+        idempotencyGuard.write(patient("p1", "Smith"), this::record);
+        idempotencyGuard.write(patient("p1", "Smith"), this::record);
+
+        assertThat(written).containsExactly("Doe", "Doe", "Smith", "Smith");
+    }
+
+    @Test
+    @DisplayName("Should write only new resources of a batch and report failures at their original index")
+    void writeAll_shouldSkipRepeatsAndRemapFailures() {
+        idempotencyGuard.write(patient("p1", "Doe"), this::record);
+        idempotencyGuard.write(patient("p2", "Roe"), this::record);
+        written.clear();
+        List<Patient> patients = List.of(
+                patient("p1", "Doe"), patient("p2", "Moe"), patient("p3", "Poe"), patient("p4", "Zoe"));
+
+        Map<Integer, RuntimeException> failures = idempotencyGuard.writeAll(patients, pending -> {
+            pending.forEach(this::record);
+            return Map.of(1, new RuntimeException("Failed"));
+        });
+
+        assertThat(written).containsExactly("Moe", "Poe", "Zoe");
+        assertThat(failures).containsOnlyKeys(2);
+
+        written.clear();
+        idempotencyGuard.writeAll(patients, pending -> {
+            pending.forEach(this::record);
+            return Map.of();
+        });
+
+        assertThat(written).containsExactly("Poe");
+    }
+
+    private Patient record(Patient patient) {
+        written.add(patient.getNameFirstRep().getFamily());
+        return patient;
+    }
+
+    private static Patient patient(String id, String family) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        patient.addName().setFamily(family);
+        return patient;
+    }
+}
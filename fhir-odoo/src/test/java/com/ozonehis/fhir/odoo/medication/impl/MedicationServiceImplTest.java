@@ -13,17 +13,23 @@ import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_PRODUCT;
 import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_PRODUCT_CATEGORY;
 import static java.util.Optional.of;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import com.odoojava.api.FilterCollection;
 import com.ozonehis.fhir.odoo.api.ExtIdService;
 import com.ozonehis.fhir.odoo.api.ProductService;
 import com.ozonehis.fhir.odoo.mappers.MedicationMapper;
 import com.ozonehis.fhir.odoo.model.ExtId;
 import com.ozonehis.fhir.odoo.model.Product;
+import java.util.HashMap;
 import java.util.List;
-import org.hl7.fhir.r4.model.Bundle;
+import java.util.Map;
+import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.r4.model.Extension;
 import org.hl7.fhir.r4.model.Medication;
 import org.junit.jupiter.api.BeforeEach;
@@ -63,7 +69,7 @@ public class MedicationServiceImplTest {
     }
 
     @Test
-    public void getAllMedications_shouldReturnAllMedications() {
+    public void searchMedications_shouldReturnDrugProducts() {
         final String externalId1 = "uuid-1";
         final String externalId2 = "uuid-2";
         Product drug1 = new Product();
@@ -78,14 +84,12 @@ public class MedicationServiceImplTest {
         extId1.setName(externalId1);
         ExtId extId2 = new ExtId();
         extId2.setName(externalId2);
-        when(mockExtIdService.getByResourceIdAndModel(drug1.getId(), MODEL_PRODUCT))
-                .thenReturn(of(extId1));
-        when(mockExtIdService.getByResourceIdAndModel(drug2.getId(), MODEL_PRODUCT))
-                .thenReturn(of(extId2));
+        when(mockExtIdService.getByResourceIdsAndModel(List.of(drug1.getId(), drug2.getId()), MODEL_PRODUCT))
+                .thenReturn(new HashMap<>(Map.of(drug1.getId(), extId1, drug2.getId(), extId2)));
         ArgumentCaptor<FilterCollection> collArgCaptor = ArgumentCaptor.forClass(FilterCollection.class);
-        when(mockProductService.search(collArgCaptor.capture())).thenReturn(List.of(drug1, drug2));
+        when(mockProductService.search(collArgCaptor.capture(), eq(0), eq(2))).thenReturn(List.of(drug1, drug2));
 
-        Bundle bundle = service.getAllMedications();
+        List<IBaseResource> medications = service.searchMedications().getResources(0, 2);
 
         Object[] filter1 = (Object[]) collArgCaptor.getValue().getFilters()[0];
         Object[] filter2 = (Object[]) collArgCaptor.getValue().getFilters()[1];
@@ -97,36 +101,70 @@ public class MedicationServiceImplTest {
         assertEquals("active", filter2[0]);
         assertEquals("in", filter2[1]);
         assertEquals(List.of(true, false), filter2[2]);
-        assertEquals(2, bundle.getEntry().size());
-        Medication med1 = (Medication) bundle.getEntry().get(0).getResource();
+        assertEquals(2, medications.size());
+        Medication med1 = (Medication) medications.get(0);
         assertEquals(externalId1, med1.getIdElement().getIdPart());
         final Extension medExt1 = med1.getExtensionByUrl(FHIR_OPENMRS_FHIR_EXT_MEDICINE);
         assertEquals(drug1.getName(), medExt1.getExtensionString(FHIR_OPENMRS_EXT_DRUG_NAME));
-        Medication med2 = (Medication) bundle.getEntry().get(1).getResource();
+        Medication med2 = (Medication) medications.get(1);
         assertEquals(externalId2, med2.getIdElement().getIdPart());
         final Extension medExt12 = med2.getExtensionByUrl(FHIR_OPENMRS_FHIR_EXT_MEDICINE);
         assertEquals(drug2.getName(), medExt12.getExtensionString(FHIR_OPENMRS_EXT_DRUG_NAME));
+        verify(mockExtIdService, never()).createExternalIds(eq(MODEL_PRODUCT), anyMap());
     }
 
     @Test
-    public void getAllMedications_shouldAddExternalIdForDrugIfMissing() {
+    public void searchMedications_shouldAddExternalIdForDrugIfMissing() {
         final Integer id = 1;
         Product drug = new Product();
         drug.setId(id);
         drug.setName("Tylenol");
         drug.setActive(true);
-        ArgumentCaptor<String> argCaptor = ArgumentCaptor.forClass(String.class);
-        when(mockExtIdService.createExternalId(eq(MODEL_PRODUCT), eq(id), argCaptor.capture()))
-                .thenReturn(23);
-        when(mockProductService.search(ArgumentMatchers.any(FilterCollection.class)))
+        ArgumentCaptor<Map<Integer, String>> argCaptor = ArgumentCaptor.forClass(Map.class);
+        when(mockExtIdService.getByResourceIdsAndModel(List.of(id), MODEL_PRODUCT))
+                .thenReturn(new HashMap<>());
+        when(mockExtIdService.createExternalIds(eq(MODEL_PRODUCT), argCaptor.capture()))
+                .thenAnswer(invocation -> {
+                    ExtId extId = new ExtId();
+                    extId.setId(23);
+                    extId.setResId(id);
+                    extId.setName(argCaptor.getValue().get(id));
+                    return List.of(extId);
+                });
+        when(mockProductService.search(ArgumentMatchers.any(FilterCollection.class), eq(0), eq(1)))
                 .thenReturn(List.of(drug));
 
-        Bundle bundle = service.getAllMedications();
+        List<IBaseResource> medications = service.searchMedications().getResources(0, 1);
 
-        assertEquals(1, bundle.getEntry().size());
-        Medication med = (Medication) bundle.getEntry().get(0).getResource();
-        assertEquals(argCaptor.getValue(), med.getIdElement().getIdPart());
+        assertEquals(1, medications.size());
+        assertEquals(1, argCaptor.getValue().size());
+        Medication med = (Medication) medications.get(0);
+        assertEquals(argCaptor.getValue().get(id), med.getIdElement().getIdPart());
         final Extension medExt = med.getExtensionByUrl(FHIR_OPENMRS_FHIR_EXT_MEDICINE);
         assertEquals(drug.getName(), medExt.getExtensionString(FHIR_OPENMRS_EXT_DRUG_NAME));
     }
+
+    @Test
+    public void searchMedications_shouldOnlyReadTheRequestedPage() {
+        Product drug = new Product();
+        drug.setId(11);
+        drug.setName("Tylenol");
+        drug.setActive(true);
+        ExtId extId = new ExtId();
+        extId.setName("uuid-11");
+        when(mockProductService.count(ArgumentMatchers.any(FilterCollection.class)))
+                .thenReturn(5000);
+        when(mockProductService.search(ArgumentMatchers.any(FilterCollection.class), eq(10), eq(1)))
+                .thenReturn(List.of(drug));
+        when(mockExtIdService.getByResourceIdsAndModel(List.of(drug.getId()), MODEL_PRODUCT))
+                .thenReturn(new HashMap<>(Map.of(drug.getId(), extId)));
+
+        IBundleProvider results = service.searchMedications();
+
+        assertEquals(5000, results.size());
+        List<IBaseResource> page = results.getResources(10, 11);
+        assertEquals(1, page.size());
+        assertEquals("uuid-11", page.get(0).getIdElement().getIdPart());
+        verify(mockProductService, never()).search(ArgumentMatchers.any(FilterCollection.class));
+    }
 }
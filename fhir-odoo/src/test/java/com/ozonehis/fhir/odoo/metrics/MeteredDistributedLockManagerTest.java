@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.metrics;
+
+import static com.ozonehis.fhir.odoo.lock.LockPurpose.SERVICE_REQUEST_REQUISITION;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.ozonehis.fhir.odoo.lock.DistributedLockManager;
+import com.ozonehis.fhir.odoo.lock.LockAcquisitionException;
+import com.ozonehis.fhir.odoo.lock.NoOpDistributedLockManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class MeteredDistributedLockManagerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Should time the wait for the lock and the action run under it")
+    void executeWithLock_shouldRecordAcquireAndHold() {
+        DistributedLockManager lockManager =
+                new MeteredDistributedLockManager(new NoOpDistributedLockManager(), meterRegistry);
+
+        assertThat(lockManager.executeWithLock(SERVICE_REQUEST_REQUISITION, "REQ-1", () -> "done"))
+                .isEqualTo("done");
+
+        assertThat(acquireCount("acquired")).isEqualTo(1);
+        assertThat(meterRegistry
+                        .get("fhir.odoo.lock.held")
+                        .tag("purpose", "SERVICE_REQUEST_REQUISITION")
+                        .timer()
+                        .count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should record a timed out acquisition, but not a failure of the action")
+    void executeWithLock_shouldRecordTimeout() {
+        DistributedLockManager delegate = mock(DistributedLockManager.class);
+        when(delegate.executeWithLock(eq(SERVICE_REQUEST_REQUISITION), eq("REQ-1"), any(Supplier.class)))
+                .thenThrow(new LockAcquisitionException("Timed out"));
+        DistributedLockManager lockManager = new MeteredDistributedLockManager(delegate, meterRegistry);
+        DistributedLockManager noOpLockManager =
+                new MeteredDistributedLockManager(new NoOpDistributedLockManager(), meterRegistry);
+
+        assertThatThrownBy(() -> lockManager.executeWithLock(SERVICE_REQUEST_REQUISITION, "REQ-1", () -> "done"))
+                .isInstanceOf(LockAcquisitionException.class);
+        assertThatThrownBy(() -> noOpLockManager.executeWithLock(SERVICE_REQUEST_REQUISITION, "REQ-2", () -> {
+                    throw new LockAcquisitionException("Nested lock timed out");
+                }))
+                .isInstanceOf(LockAcquisitionException.class);
+
+        assertThat(acquireCount("timeout")).isEqualTo(1);
+        assertThat(acquireCount("acquired")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should record a lock held by another owner as busy")
+    void tryWithLock_shouldRecordBusy() {
+        DistributedLockManager delegate = mock(DistributedLockManager.class);
+        when(delegate.tryWithLock(eq(SERVICE_REQUEST_REQUISITION), eq("REQ-1"), any()))
+                .thenReturn(Optional.empty());
+        DistributedLockManager lockManager = new MeteredDistributedLockManager(delegate, meterRegistry);
+
+        assertThat(lockManager.tryWithLock(SERVICE_REQUEST_REQUISITION, "REQ-1", () -> "done"))
+                .isEmpty();
+
+        assertThat(acquireCount("busy")).isEqualTo(1);
+        assertThat(meterRegistry.find("fhir.odoo.lock.held").timer()).isNull();
+    }
+
+    private long acquireCount(String outcome) {
+        return meterRegistry
+                .get("fhir.odoo.lock.acquire")
+                .tag("purpose", "SERVICE_REQUEST_REQUISITION")
+                .tag("outcome", outcome)
+                .timer()
+                .count();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ozonehis.fhir.odoo.lock.DistributedLockManager;
+import com.ozonehis.fhir.odoo.lock.LockPurpose;
+import com.ozonehis.fhir.odoo.lock.NoOpDistributedLockManager;
+import com.ozonehis.fhir.odoo.mappers.ToFhirMapping;
+import com.ozonehis.fhir.odoo.model.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Map;
+import org.hl7.fhir.r4.model.Medication;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+class MetricsBeanPostProcessorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private MetricsBeanPostProcessor postProcessor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", meterRegistry);
+        postProcessor = new MetricsBeanPostProcessor(beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+
+    @Test
+    @DisplayName("Should time mapper calls, keeping the mapper type")
+    @SuppressWarnings("unchecked")
+    void postProcessAfterInitialization_shouldTimeMappings() {
+        Object bean = postProcessor.postProcessAfterInitialization(new TestMapper(), "testMapper");
+
+        assertThat(bean).isInstanceOf(TestMapper.class);
+        TestMapper mapper = (TestMapper) bean;
+        assertThat(mapper.toFhir(Map.of())).isNotNull();
+        assertThatThrownBy(() -> mapper.toFhir(null)).isInstanceOf(NullPointerException.class);
+        mapper.describe();
+
+        assertThat(mappingCount("success")).isEqualTo(1);
+        assertThat(mappingCount("error")).isEqualTo(1);
+        assertThat(meterRegistry.find("fhir.odoo.mapping").timers()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should instrument the distributed lock manager once")
+    void postProcessAfterInitialization_shouldMeterLockManager() {
+        Object bean = postProcessor.postProcessAfterInitialization(new NoOpDistributedLockManager(), "lockManager");
+
+        assertThat(bean).isInstanceOf(MeteredDistributedLockManager.class);
+        assertThat(postProcessor.postProcessAfterInitialization(bean, "lockManager")).isSameAs(bean);
+        assertThat(postProcessor.postProcessAfterInitialization("other", "other")).isEqualTo("other");
+        ((DistributedLockManager) bean)
+                .executeWithLock(LockPurpose.SERVICE_REQUEST_REQUISITION, "REQ-1", () -> 1);
+
+        assertThat(meterRegistry.find("fhir.odoo.lock.acquire").timers()).hasSize(1);
+    }
+
+    private long mappingCount(String outcome) {
+        return meterRegistry
+                .get("fhir.odoo.mapping")
+                .tag("mapper", "TestMapper")
+                .tag("operation", "toFhir")
+                .tag("outcome", outcome)
+                .timer()
+                .count();
+    }
+
+    static class TestMapper implements ToFhirMapping<Product, Medication> {
+
+        @Override
+        public Medication toFhir(Map<String, Product> odooResource) {
+            Medication medication = new Medication();
+            medication.setId(String.valueOf(odooResource.size()));
+            return medication;
+        }
+
+        String describe() {
+            return "test";
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.paging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Medication;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class OdooPagedBundleProviderTest {
+
+    @Test
+    @DisplayName("getResources() reads the requested range with an offset and limit")
+    void getResources_shouldLoadRequestedRange() {
+        List<int[]> requests = new ArrayList<>();
+        OdooPagedBundleProvider provider = new OdooPagedBundleProvider(() -> 100, (offset, limit) -> {
+            requests.add(new int[] {offset, limit});
+            List<IBaseResource> page = new ArrayList<>();
+            for (int i = 0; i < limit; i++) {
+                page.add(new Medication());
+            }
+            return page;
+        });
+
+        assertThat(provider.getResources(20, 30)).hasSize(10);
+        assertThat(requests).containsExactly(new int[] {20, 10});
+    }
+
+    @Test
+    @DisplayName("getResources() does not read from Odoo for an empty range")
+    void getResources_shouldNotLoadEmptyRange() {
+        AtomicInteger loads = new AtomicInteger();
+        OdooPagedBundleProvider provider = new OdooPagedBundleProvider(() -> 0, (offset, limit) -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+
+        assertThat(provider.getResources(0, 0)).isEmpty();
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("size() counts the matching records once")
+    void size_shouldCountOnce() {
+        AtomicInteger counts = new AtomicInteger();
+        OdooPagedBundleProvider provider = new OdooPagedBundleProvider(
+                () -> {
+                    counts.incrementAndGet();
+                    return 42;
+                },
+                (offset, limit) -> List.of());
+
+        assertThat(provider.size()).isEqualTo(42);
+        assertThat(provider.size()).isEqualTo(42);
+        assertThat(counts).hasValue(1);
+    }
+}
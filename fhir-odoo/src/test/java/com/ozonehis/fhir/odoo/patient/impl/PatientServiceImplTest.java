@@ -7,8 +7,10 @@
  */
 package com.ozonehis.fhir.odoo.patient.impl;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -24,10 +26,16 @@ import com.ozonehis.fhir.odoo.model.Country;
 import com.ozonehis.fhir.odoo.model.CountryState;
 import com.ozonehis.fhir.odoo.model.ExtId;
 import com.ozonehis.fhir.odoo.model.Partner;
+import com.ozonehis.fhir.odoo.session.OdooSessionPool;
+import com.ozonehis.fhir.odoo.session.OdooSessionUsage;
+import com.ozonehis.fhir.odoo.session.OdooTaskExecutor;
+import com.ozonehis.fhir.odoo.session.OdooTaskExecutorProperties;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import org.hl7.fhir.r4.model.Address;
 import org.hl7.fhir.r4.model.Identifier;
 import org.hl7.fhir.r4.model.Patient;
@@ -58,12 +66,26 @@ class PatientServiceImplTest {
     @Mock
     private ExtIdService extIdService;
 
+    @Mock
+    private OdooSessionPool sessionPool;
+
     private PatientServiceImpl patientService;
 
     @BeforeEach
     void setUp() {
         patientService = new PatientServiceImpl(
-                countryService, countryStateService, partnerService, patientMapper, extIdService);
+                countryService,
+                countryStateService,
+                partnerService,
+                patientMapper,
+                extIdService,
+                new OdooTaskExecutor(sequentialExecution(), sessionPool));
+    }
+
+    private static OdooTaskExecutorProperties sequentialExecution() {
+        OdooTaskExecutorProperties properties = new OdooTaskExecutorProperties();
+        properties.setParallelism(1);
+        return properties;
     }
 
     private void addFacilityIdentifier(Patient patient, String facilityId) {
@@ -217,9 +239,95 @@ class PatientServiceImplTest {
         Assertions.assertThrows(InvalidRequestException.class, () -> patientService.create(patient));
     }
 
+    @Test
+    @DisplayName("create() should never use an Odoo session from two threads when concurrent requests fan out")
+    void create_shouldNotShareSessionsBetweenThreadsOfConcurrentRequests() throws Exception {
+        OdooSessionPool pool = OdooSessionUsage.newSessionPool(4);
+        patientService = new PatientServiceImpl(
+                countryService,
+                countryStateService,
+                partnerService,
+                patientMapper,
+                extIdService,
+                new OdooTaskExecutor(new OdooTaskExecutorProperties(), pool));
+        Patient patient = new Patient();
+        patient.setId("123");
+        addFacilityIdentifier(patient, "facility-1");
+        Address address = new Address();
+        address.setCountry("United States");
+        address.setState("California");
+        patient.addAddress(address);
+        Partner partner = new Partner();
+        Map<String, Object> partnerMap = Map.of("name", "Test Partner");
+        ExtId companyExtId = new ExtId();
+        companyExtId.setResId(1);
+
+        OdooSessionUsage sessions = new OdooSessionUsage();
+        when(extIdService.getResIdsByNameAndModel(Collections.singletonList("facility-1"), OdooConstants.MODEL_COMPANY))
+                .thenAnswer(sessions.returning(Collections.singletonList(companyExtId)));
+        when(countryService.getByName("United States")).thenAnswer(sessions.returning(Optional.of(new Country())));
+        when(countryStateService.getByName("California"))
+                .thenAnswer(sessions.returning(Optional.of(new CountryState())));
+        when(partnerService.getByRef("123")).thenAnswer(sessions.returning(Optional.empty()));
+        when(patientMapper.toOdoo(any())).thenReturn(partner);
+        when(partnerService.convertPartnerToMap(partner)).thenReturn(partnerMap);
+        when(partnerService.create(partnerMap)).thenAnswer(sessions.returning(100));
+
+        OdooSessionUsage.runConcurrently(pool, 2, 20, () -> patientService.create(patient));
+
+        assertThat(sessions.getSharedSessions()).isEmpty();
+        // Both requests ran some lookups on worker sessions
+        assertThat(sessions.getUsedSessions()).hasSizeGreaterThan(2);
+    }
+
     @Test
     @DisplayName("Should throw UnsupportedOperationException when getById is called")
     void getById_shouldThrowUnsupportedOperationException() {
         Assertions.assertThrows(UnsupportedOperationException.class, () -> patientService.getById("123"));
     }
+
+    @Test
+    @DisplayName("createAll() should look up partners once, update existing and create new partners in bulk")
+    void createAll_shouldUpdateExistingAndCreateNewPartnersInBulk() {
+        Patient existing = new Patient();
+        existing.setId("p-1");
+        addFacilityIdentifier(existing, "facility-1");
+        Patient created = new Patient();
+        created.setId("p-2");
+        addFacilityIdentifier(created, "facility-1");
+        Patient invalid = new Patient();
+
+        ExtId companyExtId = new ExtId();
+        companyExtId.setName("facility-1");
+        companyExtId.setResId(1);
+        Partner existingPartner = new Partner();
+        existingPartner.setId(10);
+        Map<String, Object> currentPartnerMap = Map.of("id", 10, "ref", "p-1");
+        Map<String, Object> existingPartnerMap = Map.of("ref", "p-1");
+        Map<String, Object> createdPartnerMap = Map.of("ref", "p-2");
+        Partner mappedExisting = new Partner();
+        mappedExisting.setPartnerRef("p-1");
+        Partner mappedCreated = new Partner();
+        mappedCreated.setPartnerRef("p-2");
+
+        when(extIdService.getResIdsByNameAndModel(List.of("facility-1"), OdooConstants.MODEL_COMPANY))
+                .thenReturn(List.of(companyExtId));
+        when(partnerService.getByRefs(Set.of("p-1", "p-2"))).thenReturn(Map.of("p-1", existingPartner));
+        when(patientMapper.toOdoo(any())).thenReturn(mappedExisting, mappedCreated);
+        when(partnerService.convertPartnerToMap(mappedExisting)).thenReturn(existingPartnerMap);
+        when(partnerService.convertPartnerToMap(mappedCreated)).thenReturn(createdPartnerMap);
+        when(partnerService.convertPartnerToMap(existingPartner)).thenReturn(currentPartnerMap);
+        when(partnerService.update("10", existingPartnerMap, currentPartnerMap)).thenReturn(10);
+        when(partnerService.createAll(List.of(createdPartnerMap))).thenReturn(List.of(11));
+
+        Map<Integer, RuntimeException> failures = patientService.createAll(List.of(existing, created, invalid));
+
+        assertThat(failures).containsOnlyKeys(2);
+        assertThat(failures.get(2)).isInstanceOf(UnprocessableEntityException.class);
+        verify(partnerService).update("10", existingPartnerMap, currentPartnerMap);
+        verify(partnerService, never()).update(any(), any());
+        verify(partnerService).createAll(List.of(createdPartnerMap));
+        verify(partnerService, never()).getByRef(any());
+        verify(partnerService, never()).create(any());
+    }
 }
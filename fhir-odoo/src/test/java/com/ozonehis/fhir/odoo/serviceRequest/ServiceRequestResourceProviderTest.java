@@ -9,12 +9,23 @@ package com.ozonehis.fhir.odoo.serviceRequest;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
 
 import ca.uhn.fhir.rest.api.MethodOutcome;
+import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
+import com.ozonehis.fhir.odoo.serviceRequest.ingest.IngestStatus;
+import com.ozonehis.fhir.odoo.serviceRequest.ingest.ServiceRequestIngestQueue;
+import java.util.List;
+import java.util.Optional;
 import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Parameters;
 import org.hl7.fhir.r4.model.ServiceRequest;
+import org.hl7.fhir.r4.model.StringType;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -27,6 +38,9 @@ class ServiceRequestResourceProviderTest {
     @Mock
     private ServiceRequestService serviceRequestService;
 
+    @Mock
+    private ServiceRequestIngestQueue ingestQueue;
+
     @InjectMocks
     private ServiceRequestResourceProvider serviceRequestResourceProvider;
 
@@ -90,4 +104,47 @@ class ServiceRequestResourceProviderTest {
         assertEquals("456", outcome.getId().getIdPart());
         assertEquals(updatedServiceRequest, outcome.getResource());
     }
+
+    @Test
+    @DisplayName("Should accept serviceRequest for asynchronous ingestion when the ingest queue is enabled")
+    void createServiceRequest_shouldReturnAcceptedWhenIngestQueueIsEnabled() {
+        ServiceRequest inputServiceRequest = new ServiceRequest();
+        inputServiceRequest.setId("123");
+
+        when(ingestQueue.isEnabled()).thenReturn(true);
+        when(ingestQueue.accept(inputServiceRequest)).thenReturn("handle-1");
+
+        MethodOutcome outcome = serviceRequestResourceProvider.createServiceRequest(inputServiceRequest);
+
+        assertEquals(202, outcome.getResponseStatusCode());
+        assertEquals("123", outcome.getId().getIdPart());
+        assertEquals(
+                List.of("ServiceRequest/$ingest-status?handle=handle-1"),
+                outcome.getResponseHeaders().get("Content-Location"));
+        assertNotNull(outcome.getOperationOutcome());
+        verify(serviceRequestService, never()).create(any());
+    }
+
+    @Test
+    @DisplayName("Should return the ingest status of an accepted serviceRequest")
+    void ingestStatus_shouldReturnStatusParameters() {
+        when(ingestQueue.getStatus("handle-1"))
+                .thenReturn(Optional.of(new IngestStatus(IngestStatus.State.RETRYING, 2, "Odoo unavailable")));
+
+        Parameters parameters = serviceRequestResourceProvider.ingestStatus(new StringType("handle-1"));
+
+        assertEquals("retrying", parameters.getParameter("status").getValue().primitiveValue());
+        assertEquals("2", parameters.getParameter("attempts").getValue().primitiveValue());
+        assertEquals("Odoo unavailable", parameters.getParameter("message").getValue().primitiveValue());
+    }
+
+    @Test
+    @DisplayName("Should throw ResourceNotFoundException for an unknown ingest handle")
+    void ingestStatus_shouldThrowResourceNotFoundExceptionForUnknownHandle() {
+        when(ingestQueue.getStatus("unknown")).thenReturn(Optional.empty());
+
+        assertThrows(
+                ResourceNotFoundException.class,
+                () -> serviceRequestResourceProvider.ingestStatus(new StringType("unknown")));
+    }
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.serviceRequest.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ca.uhn.fhir.rest.server.exceptions.UnprocessableEntityException;
+import com.ozonehis.fhir.odoo.serviceRequest.ServiceRequestCoalescingProperties;
+import com.ozonehis.fhir.odoo.serviceRequest.ServiceRequestService;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.hl7.fhir.r4.model.Identifier;
+import org.hl7.fhir.r4.model.ServiceRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("unchecked")
+class CoalescingServiceRequestServiceTest {
+
+    @Mock
+    private ServiceRequestService delegate;
+
+    private ServiceRequestCoalescingProperties properties;
+
+    private CoalescingServiceRequestService service;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ServiceRequestCoalescingProperties();
+        properties.setEnabled(true);
+        properties.setWindowMs(5000L);
+        properties.setMaxBatchSize(2);
+        service = new CoalescingServiceRequestService(delegate, properties);
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should write the ServiceRequests of a requisition with one createAll call")
+    void create_shouldWriteServiceRequestsOfRequisitionTogether() throws Exception {
+        ServiceRequest first = serviceRequest("sr-1", "REQ-001");
+        ServiceRequest second = serviceRequest("sr-2", "REQ-001");
+        when(delegate.createAll(anyList())).thenReturn(Map.of());
+
+        Future<ServiceRequest> firstResult = executor.submit(() -> service.create(first));
+        Future<ServiceRequest> secondResult = executor.submit(() -> service.create(second));
+
+        assertThat(firstResult.get(5, TimeUnit.SECONDS)).isSameAs(first);
+        assertThat(secondResult.get(5, TimeUnit.SECONDS)).isSameAs(second);
+        ArgumentCaptor<List<ServiceRequest>> batch = ArgumentCaptor.forClass(List.class);
+        verify(delegate, times(1)).createAll(batch.capture());
+        assertThat(batch.getValue()).containsExactlyInAnyOrder(first, second);
+        verify(delegate, never()).create(first);
+    }
+
+    @Test
+    @DisplayName("Should fail only the ServiceRequest whose entry failed")
+    void create_shouldPropagateEntryFailureToItsCaller() throws Exception {
+        ServiceRequest first = serviceRequest("sr-1", "REQ-001");
+        ServiceRequest second = serviceRequest("sr-2", "REQ-001");
+        when(delegate.createAll(anyList())).thenAnswer(invocation -> {
+            List<ServiceRequest> batch = invocation.getArgument(0);
+            return Map.of(
+                    batch.indexOf(second), new UnprocessableEntityException("Product doesn't exists in Odoo"));
+        });
+
+        Future<ServiceRequest> firstResult = executor.submit(() -> service.create(first));
+        Future<ServiceRequest> secondResult = executor.submit(() -> service.create(second));
+
+        assertThat(firstResult.get(5, TimeUnit.SECONDS)).isSameAs(first);
+        assertThatThrownBy(() -> secondResult.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(UnprocessableEntityException.class)
+                .hasMessageContaining("Product doesn't exists in Odoo");
+    }
+
+    @Test
+    @DisplayName("Should write a ServiceRequest no other one joined with create() once the window ends")
+    void create_shouldWriteLoneServiceRequestLikeWithoutCoalescing() {
+        properties.setWindowMs(10L);
+        ServiceRequest serviceRequest = serviceRequest("sr-1", "REQ-001");
+        when(delegate.create(serviceRequest)).thenReturn(serviceRequest);
+
+        assertThat(service.create(serviceRequest)).isSameAs(serviceRequest);
+        verify(delegate).create(serviceRequest);
+        verify(delegate, never()).createAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Should propagate the failure of a lone ServiceRequest like without coalescing")
+    void create_shouldPropagateLoneServiceRequestFailure() {
+        properties.setWindowMs(10L);
+        ServiceRequest serviceRequest = serviceRequest("sr-1", "REQ-001");
+        when(delegate.create(serviceRequest))
+                .thenThrow(new UnprocessableEntityException("Product doesn't exists in Odoo"));
+
+        assertThatThrownBy(() -> service.create(serviceRequest))
+                .isInstanceOf(UnprocessableEntityException.class)
+                .hasMessageContaining("Product doesn't exists in Odoo");
+    }
+
+    @Test
+    @DisplayName("Should pass ServiceRequests that are not active on to the delegate")
+    void create_shouldPassInactiveServiceRequestsOn() {
+        ServiceRequest serviceRequest = serviceRequest("sr-1", "REQ-001");
+        serviceRequest.setStatus(ServiceRequest.ServiceRequestStatus.REVOKED);
+        when(delegate.create(serviceRequest)).thenReturn(serviceRequest);
+
+        service.create(serviceRequest);
+
+        verify(delegate).create(serviceRequest);
+        verify(delegate, never()).createAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Should pass every ServiceRequest on to the delegate as coalescing is disabled by default")
+    void create_shouldPassServiceRequestsOnWhenDisabled() {
+        properties = new ServiceRequestCoalescingProperties();
+        service = new CoalescingServiceRequestService(delegate, properties);
+        ServiceRequest serviceRequest = serviceRequest("sr-1", "REQ-001");
+        when(delegate.create(serviceRequest)).thenReturn(serviceRequest);
+
+        service.create(serviceRequest);
+
+        verify(delegate).create(serviceRequest);
+        verify(delegate, never()).createAll(anyList());
+    }
+
+    private ServiceRequest serviceRequest(String id, String requisition) {
+        ServiceRequest serviceRequest = new ServiceRequest();
+        serviceRequest.setId(id);
+        serviceRequest.setRequisition(new Identifier().setValue(requisition));
+        serviceRequest.setStatus(ServiceRequest.ServiceRequestStatus.ACTIVE);
+        return serviceRequest;
+    }
+}
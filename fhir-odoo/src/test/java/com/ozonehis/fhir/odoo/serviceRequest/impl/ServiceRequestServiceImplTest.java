@@ -8,6 +8,7 @@
 package com.ozonehis.fhir.odoo.serviceRequest.impl;
 
 import static com.ozonehis.fhir.odoo.OdooConstants.LOINC_SOURCE;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
@@ -37,14 +38,21 @@ import com.ozonehis.fhir.odoo.model.Partner;
 import com.ozonehis.fhir.odoo.model.Product;
 import com.ozonehis.fhir.odoo.model.SaleOrder;
 import com.ozonehis.fhir.odoo.model.SaleOrderLine;
+import com.ozonehis.fhir.odoo.session.OdooSessionPool;
+import com.ozonehis.fhir.odoo.session.OdooSessionUsage;
+import com.ozonehis.fhir.odoo.session.OdooTaskExecutor;
+import com.ozonehis.fhir.odoo.session.OdooTaskExecutorProperties;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -93,6 +101,9 @@ class ServiceRequestServiceImplTest {
     @Mock
     private DistributedLockManager distributedLockManager;
 
+    @Mock
+    private OdooSessionPool sessionPool;
+
     private ServiceRequestServiceImpl serviceRequestService;
 
     @BeforeEach
@@ -105,7 +116,8 @@ class ServiceRequestServiceImplTest {
                 partnerService,
                 productService,
                 extIdService,
-                distributedLockManager);
+                distributedLockManager,
+                new OdooTaskExecutor(sequentialExecution(), sessionPool));
         lenient()
                 .doAnswer(invocation -> {
                     Runnable action = invocation.getArgument(2);
@@ -400,7 +412,8 @@ class ServiceRequestServiceImplTest {
                 partnerService,
                 productService,
                 extIdService,
-                sharedDistributedLockManager);
+                sharedDistributedLockManager,
+                new OdooTaskExecutor(sequentialExecution(), sessionPool));
         ServiceRequestServiceImpl secondInstance = new ServiceRequestServiceImpl(
                 saleOrderService,
                 saleOrderLineService,
@@ -409,7 +422,8 @@ class ServiceRequestServiceImplTest {
                 partnerService,
                 productService,
                 extIdService,
-                sharedDistributedLockManager);
+                sharedDistributedLockManager,
+                new OdooTaskExecutor(sequentialExecution(), sessionPool));
 
         ServiceRequest serviceRequestOne =
                 createServiceRequest("concurrency-001", "REQ-CONCURRENT-001", "Patient/777", "CBC", "26464-8");
@@ -515,12 +529,16 @@ class ServiceRequestServiceImplTest {
         Map<String, Object> saleOrderMap = new HashMap<>();
         saleOrderMap.put("client_order_ref", "revoked-001");
         saleOrderMap.put("state", "cancel");
+        Map<String, Object> currentSaleOrderMap = new HashMap<>();
+        currentSaleOrderMap.put("client_order_ref", "revoked-001");
+        currentSaleOrderMap.put("state", "draft");
 
         when(saleOrderService.getByName("REQ-REVOKED-001")).thenReturn(Optional.of(existingSaleOrder));
         when(productService.getByConceptCode("26464-8")).thenReturn(Optional.of(product));
         when(saleOrderLineService.getBySaleOrderIdAndProductId(400, 80)).thenReturn(Optional.of(saleOrderLine));
-        when(saleOrderService.convertSaleOrderToMap(existingSaleOrder)).thenReturn(saleOrderMap);
-        when(saleOrderService.update("400", saleOrderMap)).thenReturn(400);
+        when(saleOrderService.convertSaleOrderToMap(existingSaleOrder))
+                .thenReturn(currentSaleOrderMap, saleOrderMap);
+        when(saleOrderService.update("400", saleOrderMap, currentSaleOrderMap)).thenReturn(400);
 
         ServiceRequest result = serviceRequestService.create(serviceRequest);
 
@@ -529,8 +547,8 @@ class ServiceRequestServiceImplTest {
         verify(productService).getByConceptCode("26464-8");
         verify(saleOrderLineService).getBySaleOrderIdAndProductId(400, 80);
         verify(saleOrderLineService).delete("500");
-        verify(saleOrderService).convertSaleOrderToMap(existingSaleOrder);
-        verify(saleOrderService).update("400", saleOrderMap);
+        verify(saleOrderService, times(2)).convertSaleOrderToMap(existingSaleOrder);
+        verify(saleOrderService).update("400", saleOrderMap, currentSaleOrderMap);
     }
 
     @Test
@@ -656,19 +674,202 @@ class ServiceRequestServiceImplTest {
         Map<String, Object> saleOrderMap = new HashMap<>();
         saleOrderMap.put("client_order_ref", "revoked-006");
         saleOrderMap.put("state", "cancel");
+        Map<String, Object> currentSaleOrderMap = new HashMap<>();
+        currentSaleOrderMap.put("client_order_ref", "revoked-006");
+        currentSaleOrderMap.put("state", "draft");
 
         when(saleOrderService.getByName("REQ-REVOKED-006")).thenReturn(Optional.of(existingSaleOrder));
         when(productService.getByConceptCode("26464-8")).thenReturn(Optional.of(product));
         when(saleOrderLineService.getBySaleOrderIdAndProductId(408, 86)).thenReturn(Optional.of(saleOrderLine));
-        when(saleOrderService.convertSaleOrderToMap(existingSaleOrder)).thenReturn(saleOrderMap);
-        when(saleOrderService.update("408", saleOrderMap)).thenReturn(0); // Update fails
+        when(saleOrderService.convertSaleOrderToMap(existingSaleOrder))
+                .thenReturn(currentSaleOrderMap, saleOrderMap);
+        when(saleOrderService.update("408", saleOrderMap, currentSaleOrderMap)).thenReturn(0); // Update fails
 
         assertThrows(InvalidRequestException.class, () -> serviceRequestService.create(serviceRequest));
         verify(saleOrderService, times(2)).getByName("REQ-REVOKED-006");
         verify(productService).getByConceptCode("26464-8");
         verify(saleOrderLineService).getBySaleOrderIdAndProductId(408, 86);
         verify(saleOrderLineService).delete("506");
-        verify(saleOrderService).update("408", saleOrderMap);
+        verify(saleOrderService).update("408", saleOrderMap, currentSaleOrderMap);
+    }
+
+    @Test
+    @DisplayName("createAll() should create one sale order and its sale order lines in bulk per requisition")
+    void createAll_shouldCreateSaleOrderAndSaleOrderLinesInBulkPerRequisition() {
+        ServiceRequest bloodTest = createServiceRequest(
+                "7b968d19-7324-43d7-af3a-e5ab5ff100ff", "REQ-001", "Patient/123", "Blood Test", "26464-8");
+        ServiceRequest urineTest = createServiceRequest(
+                "da981cff-b3ef-4032-9082-a296e17e7e70", "REQ-001", "Patient/123", "Urine Test", "5778-6");
+        ServiceRequest existingLine = createServiceRequest(
+                "0b3d5a64-8b5b-4f5e-9d0e-5f1f4c9a1f7e", "REQ-001", "Patient/123", "X-Ray", "24648-8");
+        ServiceRequest unknownProduct = createServiceRequest(
+                "5a3c1f2e-6d4b-4a8e-9f0c-1b2d3e4f5a6b", "REQ-001", "Patient/123", "Unknown", "00000-0");
+
+        ExtId companyExtId = new ExtId();
+        companyExtId.setName("facility-1");
+        companyExtId.setResId(1);
+        Partner partner = new Partner();
+        partner.setId(100);
+        Product bloodTestProduct = new Product();
+        bloodTestProduct.setId(50);
+        bloodTestProduct.setConceptCode("26464-8");
+        Product urineTestProduct = new Product();
+        urineTestProduct.setId(51);
+        urineTestProduct.setConceptCode("5778-6");
+        Product xRayProduct = new Product();
+        xRayProduct.setId(52);
+        xRayProduct.setConceptCode("24648-8");
+        SaleOrder saleOrder = new SaleOrder();
+        saleOrder.setId(200);
+        SaleOrderLine xRayLine = new SaleOrderLine();
+        xRayLine.setSaleOrderLineProductId(new Object[] {52, "X-Ray"});
+        SaleOrderLine saleOrderLine = new SaleOrderLine();
+        Map<String, Object> saleOrderMap = Map.of("client_order_ref", "REQ-001");
+        Map<String, Object> saleOrderLineMap = Map.of("order_id", 200);
+
+        when(extIdService.getResIdsByNameAndModel(List.of("facility-1"), OdooConstants.MODEL_COMPANY))
+                .thenReturn(List.of(companyExtId));
+        when(partnerService.getByRefs(Set.of("123"))).thenReturn(Map.of("123", partner));
+        when(productService.getByConceptCodes(Set.of("26464-8", "5778-6", "24648-8", "00000-0")))
+                .thenReturn(Map.of(
+                        "26464-8", bloodTestProduct, "5778-6", urineTestProduct, "24648-8", xRayProduct));
+        when(saleOrderMapper.toOdoo(any())).thenReturn(saleOrder);
+        when(saleOrderService.convertSaleOrderToMap(saleOrder)).thenReturn(saleOrderMap);
+        when(saleOrderService.getByName("REQ-001")).thenReturn(Optional.empty());
+        when(saleOrderService.create(saleOrderMap)).thenReturn(200);
+        when(saleOrderLineService.getBySaleOrderId(200)).thenReturn(List.of(xRayLine));
+        when(saleOrderLineMapper.toOdoo(any())).thenReturn(saleOrderLine);
+        when(saleOrderLineService.convertSaleOrderLineToMap(saleOrderLine)).thenReturn(saleOrderLineMap);
+        when(saleOrderLineService.createAll(List.of(saleOrderLineMap, saleOrderLineMap)))
+                .thenReturn(List.of(300, 301));
+
+        Map<Integer, RuntimeException> failures =
+                serviceRequestService.createAll(List.of(bloodTest, urineTest, existingLine, unknownProduct));
+
+        assertThat(failures).containsOnlyKeys(2, 3);
+        assertThat(failures.values()).allMatch(UnprocessableEntityException.class::isInstance);
+        verify(saleOrderService, times(1)).create(saleOrderMap);
+        verify(saleOrderLineService).createAll(List.of(saleOrderLineMap, saleOrderLineMap));
+        verify(saleOrderLineService, never()).create(any());
+        verify(partnerService, never()).getByRef(anyString());
+        verify(productService, never()).getByConceptCode(anyString());
+        verify(distributedLockManager)
+                .executeWithLock(eq(LockPurpose.SERVICE_REQUEST_REQUISITION), eq("REQ-001"), any(Runnable.class));
+    }
+
+    @Test
+    @DisplayName("create() should run the company, partner, sale order and product lookups in parallel")
+    void create_shouldRunIndependentLookupsInParallel() throws Exception {
+        OdooSessionPool pool = OdooSessionUsage.newSessionPool(4);
+        serviceRequestService = new ServiceRequestServiceImpl(
+                saleOrderService,
+                saleOrderLineService,
+                saleOrderLineMapper,
+                saleOrderMapper,
+                partnerService,
+                productService,
+                extIdService,
+                distributedLockManager,
+                new OdooTaskExecutor(new OdooTaskExecutorProperties(), pool));
+        ServiceRequest serviceRequest =
+                createServiceRequest("parallel-001", "REQ-PARALLEL-001", "Patient/123", "Blood Test", "26464-8");
+
+        Partner partner = new Partner();
+        partner.setId(100);
+        Product product = new Product();
+        product.setId(50);
+        product.setConceptCode("26464-8");
+        SaleOrder existingSaleOrder = new SaleOrder();
+        existingSaleOrder.setId(200);
+        SaleOrderLine saleOrderLine = new SaleOrderLine();
+        Map<String, Object> saleOrderLineMap = Map.of("order_id", 200);
+        ExtId companyExtId = new ExtId();
+        companyExtId.setResId(1);
+
+        // Every lookup waits for the other three, so they only complete when they run at the same time
+        CyclicBarrier allLookupsStarted = new CyclicBarrier(4);
+        when(extIdService.getResIdsByNameAndModel(Collections.singletonList("facility-1"), OdooConstants.MODEL_COMPANY))
+                .thenAnswer(invocation -> {
+                    allLookupsStarted.await(5, TimeUnit.SECONDS);
+                    return Collections.singletonList(companyExtId);
+                });
+        when(partnerService.getByRef("123")).thenAnswer(invocation -> {
+            allLookupsStarted.await(5, TimeUnit.SECONDS);
+            return Optional.of(partner);
+        });
+        when(saleOrderService.getByName("REQ-PARALLEL-001")).thenAnswer(invocation -> {
+            allLookupsStarted.await(5, TimeUnit.SECONDS);
+            return Optional.of(existingSaleOrder);
+        });
+        when(productService.getByConceptCode("26464-8")).thenAnswer(invocation -> {
+            allLookupsStarted.await(5, TimeUnit.SECONDS);
+            return Optional.of(product);
+        });
+        when(saleOrderMapper.toOdoo(any())).thenReturn(new SaleOrder());
+        when(saleOrderLineService.getBySaleOrderIdAndProductId(200, 50)).thenReturn(Optional.empty());
+        when(saleOrderLineMapper.toOdoo(any())).thenReturn(saleOrderLine);
+        when(saleOrderLineService.convertSaleOrderLineToMap(saleOrderLine)).thenReturn(saleOrderLineMap);
+        when(saleOrderLineService.create(saleOrderLineMap)).thenReturn(300);
+
+        OdooSessionUsage.runConcurrently(pool, 1, 1, () -> assertNotNull(serviceRequestService.create(serviceRequest)));
+        verify(saleOrderService, never()).create(any());
+        verify(saleOrderLineService).create(saleOrderLineMap);
+    }
+
+    @Test
+    @DisplayName("create() should never use an Odoo session from two threads when concurrent requests fan out")
+    void create_shouldNotShareSessionsBetweenThreadsOfConcurrentRequests() throws Exception {
+        OdooSessionPool pool = OdooSessionUsage.newSessionPool(4);
+        serviceRequestService = new ServiceRequestServiceImpl(
+                saleOrderService,
+                saleOrderLineService,
+                saleOrderLineMapper,
+                saleOrderMapper,
+                partnerService,
+                productService,
+                extIdService,
+                distributedLockManager,
+                new OdooTaskExecutor(new OdooTaskExecutorProperties(), pool));
+        ServiceRequest serviceRequest =
+                createServiceRequest("concurrent-001", "REQ-CONCURRENT-001", "Patient/123", "Blood Test", "26464-8");
+
+        Partner partner = new Partner();
+        partner.setId(100);
+        Product product = new Product();
+        product.setId(50);
+        SaleOrderLine saleOrderLine = new SaleOrderLine();
+        Map<String, Object> saleOrderMap = Map.of("name", "REQ-CONCURRENT-001");
+        Map<String, Object> saleOrderLineMap = Map.of("order_id", 200);
+        ExtId companyExtId = new ExtId();
+        companyExtId.setResId(1);
+
+        OdooSessionUsage sessions = new OdooSessionUsage();
+        when(extIdService.getResIdsByNameAndModel(Collections.singletonList("facility-1"), OdooConstants.MODEL_COMPANY))
+                .thenAnswer(sessions.returning(Collections.singletonList(companyExtId)));
+        when(partnerService.getByRef("123")).thenAnswer(sessions.returning(Optional.of(partner)));
+        when(saleOrderService.getByName("REQ-CONCURRENT-001")).thenAnswer(sessions.returning(Optional.empty()));
+        when(productService.getByConceptCode("26464-8")).thenAnswer(sessions.returning(Optional.of(product)));
+        when(saleOrderMapper.toOdoo(any())).thenAnswer(invocation -> new SaleOrder());
+        when(saleOrderService.convertSaleOrderToMap(any())).thenReturn(saleOrderMap);
+        when(saleOrderService.create(saleOrderMap)).thenAnswer(sessions.returning(200));
+        when(saleOrderLineService.getBySaleOrderIdAndProductId(200, 50))
+                .thenAnswer(sessions.returning(Optional.empty()));
+        when(saleOrderLineMapper.toOdoo(any())).thenReturn(saleOrderLine);
+        when(saleOrderLineService.convertSaleOrderLineToMap(saleOrderLine)).thenReturn(saleOrderLineMap);
+        when(saleOrderLineService.create(saleOrderLineMap)).thenAnswer(sessions.returning(300));
+
+        OdooSessionUsage.runConcurrently(pool, 2, 20, () -> serviceRequestService.create(serviceRequest));
+
+        assertThat(sessions.getSharedSessions()).isEmpty();
+        // Both requests ran some lookups on worker sessions
+        assertThat(sessions.getUsedSessions()).hasSizeGreaterThan(2);
+        verify(saleOrderService, times(40)).create(saleOrderMap);
+    }
+
+    private static OdooTaskExecutorProperties sequentialExecution() {
+        OdooTaskExecutorProperties properties = new OdooTaskExecutorProperties();
+        properties.setParallelism(1);
+        return properties;
     }
 
     private void addFacilityIdentifier(ServiceRequest serviceRequest, String facilityId) {
@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.serviceRequest.ingest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.ozonehis.fhir.odoo.SessionHolder;
+import com.ozonehis.fhir.odoo.serviceRequest.ServiceRequestService;
+import com.ozonehis.fhir.odoo.session.OdooCredentials;
+import com.ozonehis.fhir.odoo.session.OdooSessionPool;
+import com.ozonehis.fhir.odoo.session.OdooSessionUsage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import org.hl7.fhir.r4.model.ServiceRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceRequestIngestQueueTest {
+
+    private static final OdooCredentials NURSE = new OdooCredentials("nurse", "secret");
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private ServiceRequestService serviceRequestService;
+
+    @Mock
+    private OdooSessionPool sessionPool;
+
+    private ServiceRequestIngestProperties properties;
+
+    private ServiceRequestIngestQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ServiceRequestIngestProperties();
+        properties.setEnabled(true);
+        properties.setJournalPath(directory.resolve("service-request.journal").toString());
+        properties.setRetryBackoffMs(10L);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        SessionHolder.clear();
+        if (queue != null) {
+            queue.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("getStatus() should only report the status to the user who sent the ServiceRequest")
+    void getStatus_shouldOnlyReportStatusToOwner() throws Exception {
+        startQueue(OdooSessionUsage.newSessionPool(1));
+        SessionHolder.setOdooCredentials(OdooSessionUsage.CREDENTIALS);
+        String handle = queue.accept(new ServiceRequest());
+
+        IngestStatus status = awaitStatus(handle, IngestStatus.State.COMPLETED);
+        SessionHolder.setOdooCredentials(NURSE);
+
+        assertThat(status.attempts()).isEqualTo(1);
+        verify(serviceRequestService).create(any());
+        assertThat(queue.getStatus(handle)).isEmpty();
+        SessionHolder.clear();
+        assertThat(queue.getStatus(handle)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A journaled ServiceRequest should fail when its user sends no request within credentials-wait-ms")
+    void process_shouldFailJournaledEntryWhenUserDoesNotReturn() throws Exception {
+        properties.setCredentialsWaitMs(50L);
+        try (ServiceRequestJournal journal = new ServiceRequestJournal(Path.of(properties.getJournalPath()))) {
+            journal.open();
+            journal.append(new ServiceRequestJournal.Entry("h1", "admin", "{\"resourceType\":\"ServiceRequest\"}"));
+        }
+        startQueue(sessionPool);
+
+        Thread.sleep(200L);
+        SessionHolder.setOdooCredentials(OdooSessionUsage.CREDENTIALS);
+        IngestStatus status = awaitStatus("h1", IngestStatus.State.FAILED);
+
+        assertThat(status.message()).contains("admin");
+        verify(sessionPool, never()).borrow(any());
+        verify(serviceRequestService, never()).create(any());
+    }
+
+    private void startQueue(OdooSessionPool pool) throws IOException {
+        queue = new ServiceRequestIngestQueue(serviceRequestService, pool, properties);
+        queue.start();
+    }
+
+    private IngestStatus awaitStatus(String handle, IngestStatus.State state) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            Optional<IngestStatus> status = queue.getStatus(handle);
+            if (status.isPresent() && status.get().state() == state) {
+                return status.get();
+            }
+            Thread.sleep(10L);
+        }
+        throw new AssertionError("ServiceRequest " + handle + " did not reach " + state);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.serviceRequest.ingest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ServiceRequestJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should replay accepted entries that were not completed")
+    void open_shouldReplayPendingEntries() throws IOException {
+        Path path = directory.resolve("service-request.journal");
+        try (ServiceRequestJournal journal = new ServiceRequestJournal(path)) {
+            assertThat(journal.open()).isEmpty();
+            journal.append(new ServiceRequestJournal.Entry("h1", "admin", "{\"resourceType\":\"ServiceRequest\"}"));
+            journal.append(new ServiceRequestJournal.Entry("h2", "admin", "{\"id\":\"2\"}"));
+            journal.append(new ServiceRequestJournal.Entry("h3", "nurse\tone", "{\"id\":\"3\"}"));
+            journal.complete("h2", IngestStatus.State.COMPLETED);
+        }
+
+        try (ServiceRequestJournal journal = new ServiceRequestJournal(path)) {
+            List<ServiceRequestJournal.Entry> pending = journal.open();
+
+            assertThat(pending)
+                    .containsExactly(
+                            new ServiceRequestJournal.Entry("h1", "admin", "{\"resourceType\":\"ServiceRequest\"}"),
+                            new ServiceRequestJournal.Entry("h3", "nurse\tone", "{\"id\":\"3\"}"));
+            assertThat(journal.pendingCount()).isEqualTo(2);
+        }
+
+        // Compacted on open, the completion record is gone
+        assertThat(Files.readAllLines(path)).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should truncate the journal once every entry is completed")
+    void complete_shouldTruncateJournalWhenNothingIsPending() throws IOException {
+        Path path = directory.resolve("service-request.journal");
+        try (ServiceRequestJournal journal = new ServiceRequestJournal(path)) {
+            journal.open();
+            journal.append(new ServiceRequestJournal.Entry("h1", "admin", "{}"));
+            journal.append(new ServiceRequestJournal.Entry("h2", "admin", "{}"));
+            journal.complete("h1", IngestStatus.State.COMPLETED);
+            journal.complete("h2", IngestStatus.State.FAILED);
+
+            assertThat(journal.pendingCount()).isZero();
+            assertThat(Files.size(path)).isZero();
+        }
+
+        try (ServiceRequestJournal journal = new ServiceRequestJournal(path)) {
+            assertThat(journal.open()).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("Should skip a record torn by a crash")
+    void open_shouldSkipTornRecord() throws IOException {
+        Path path = directory.resolve("service-request.journal");
+        try (ServiceRequestJournal journal = new ServiceRequestJournal(path)) {
+            journal.open();
+            journal.append(new ServiceRequestJournal.Entry("h1", "admin", "{}"));
+        }
+        Files.writeString(path, Files.readString(path) + "A\th2\tYWRt");
+
+        try (ServiceRequestJournal journal = new ServiceRequestJournal(path)) {
+            assertThat(journal.open()).extracting(ServiceRequestJournal.Entry::handle).containsExactly("h1");
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.odoojava.api.ObjectAdapter;
+import com.odoojava.api.Session;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ObjectAdapterCacheTest {
+
+    private static final String MODEL = "res.partner";
+
+    private ObjectAdapterCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ObjectAdapterCache();
+    }
+
+    @Test
+    @DisplayName("get() constructs an adapter once per session and model")
+    void get_shouldConstructAdapterOncePerSessionAndModel() throws Exception {
+        Session session = mock(Session.class);
+        ObjectAdapter adapter = mock(ObjectAdapter.class);
+        when(session.getObjectAdapter(MODEL)).thenReturn(adapter);
+
+        assertThat(cache.get(session, MODEL)).isSameAs(adapter);
+        assertThat(cache.get(session, MODEL)).isSameAs(adapter);
+
+        verify(session, times(1)).getObjectAdapter(MODEL);
+        assertThat(cache.getLookupCount()).isEqualTo(2L);
+        assertThat(cache.getConstructionCount()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("the metrics binder reports the lookups and constructions as counters")
+    void metricsBinder_shouldReportLookupsAndConstructions() throws Exception {
+        Session session = mock(Session.class);
+        when(session.getObjectAdapter(MODEL)).thenReturn(mock(ObjectAdapter.class));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new ObjectAdapterCacheMetricsBinder(cache).bindTo(registry);
+
+        cache.get(session, MODEL);
+        cache.get(session, MODEL);
+        cache.get(session, MODEL);
+
+        assertThat(registry.get("fhir.odoo.object.adapter.lookups").functionCounter().count())
+                .isEqualTo(3.0);
+        assertThat(registry.get("fhir.odoo.object.adapter.constructions").functionCounter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("get() does not share adapters between sessions")
+    void get_shouldNotShareAdaptersBetweenSessions() throws Exception {
+        Session first = mock(Session.class);
+        Session second = mock(Session.class);
+        when(first.getObjectAdapter(MODEL)).thenReturn(mock(ObjectAdapter.class));
+        when(second.getObjectAdapter(MODEL)).thenReturn(mock(ObjectAdapter.class));
+
+        assertThat(cache.get(first, MODEL)).isNotSameAs(cache.get(second, MODEL));
+        assertThat(cache.getConstructionCount()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("invalidate() forces the adapters of a session to be rebuilt")
+    void invalidate_shouldForceAdaptersToBeRebuilt() throws Exception {
+        Session session = mock(Session.class);
+        when(session.getObjectAdapter(MODEL)).thenReturn(mock(ObjectAdapter.class));
+        cache.get(session, MODEL);
+
+        cache.invalidate(session);
+        cache.get(session, MODEL);
+
+        verify(session, times(2)).getObjectAdapter(MODEL);
+    }
+
+    @Test
+    @DisplayName("get() constructs an adapter once when it is looked up concurrently")
+    void get_shouldConstructAdapterOnceForConcurrentLookups() throws Exception {
+        Session session = mock(Session.class);
+        ObjectAdapter adapter = mock(ObjectAdapter.class);
+        CountDownLatch constructing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(session.getObjectAdapter(MODEL)).thenAnswer(invocation -> {
+            constructing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return adapter;
+        });
+
+        CompletableFuture<ObjectAdapter> first = CompletableFuture.supplyAsync(() -> get(session));
+        constructing.await(5, TimeUnit.SECONDS);
+        CompletableFuture<ObjectAdapter> second = CompletableFuture.supplyAsync(() -> get(session));
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(adapter);
+        assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(adapter);
+        verify(session, times(1)).getObjectAdapter(MODEL);
+    }
+
+    @Test
+    @DisplayName("get() does not cache a failed construction")
+    void get_shouldRetryFailedConstruction() throws Exception {
+        Session session = mock(Session.class);
+        ObjectAdapter adapter = mock(ObjectAdapter.class);
+        when(session.getObjectAdapter(MODEL))
+                .thenThrow(new IllegalStateException("Odoo is down"))
+                .thenReturn(adapter);
+
+        assertThatThrownBy(() -> cache.get(session, MODEL)).isInstanceOf(IllegalStateException.class);
+        assertThat(cache.get(session, MODEL)).isSameAs(adapter);
+    }
+
+    private ObjectAdapter get(Session session) {
+        try {
+            return cache.get(session, MODEL);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
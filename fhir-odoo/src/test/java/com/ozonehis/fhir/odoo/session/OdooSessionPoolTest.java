@@ -0,0 +1,249 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.odoojava.api.Session;
+import com.ozonehis.fhir.odoo.transport.OdooRpcException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class OdooSessionPoolTest {
+
+    private static final OdooCredentials CREDENTIALS = new OdooCredentials("admin", "secret");
+
+    @Mock
+    private OdooSessionFactory sessionFactory;
+
+    private OdooSessionPoolProperties properties;
+
+    private OdooSessionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OdooSessionPoolProperties();
+        properties.setMaxSize(2);
+        properties.setMaxWaitMs(50L);
+        pool = new OdooSessionPool(sessionFactory, properties, new ObjectAdapterCache());
+    }
+
+    @Test
+    @DisplayName("borrow() reuses a returned session instead of logging in again")
+    void borrow_shouldReuseReturnedSession() {
+        Session session = mock(Session.class);
+        when(sessionFactory.openSession(CREDENTIALS)).thenReturn(Optional.of(session));
+
+        pool.borrow(CREDENTIALS).orElseThrow().close();
+        OdooSessionPool.Lease lease = pool.borrow(CREDENTIALS).orElseThrow();
+
+        assertThat(lease.getSession()).isSameAs(session);
+        verify(sessionFactory, times(1)).openSession(CREDENTIALS);
+        assertThat(pool.metrics().created()).isEqualTo(1L);
+        assertThat(pool.metrics().borrows()).isEqualTo(2L);
+        assertThat(pool.metrics().borrowedSessions()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("borrow() hands out distinct sessions to concurrent borrowers")
+    void borrow_shouldHandOutDistinctSessionsToConcurrentBorrowers() {
+        when(sessionFactory.openSession(CREDENTIALS))
+                .thenReturn(Optional.of(mock(Session.class)), Optional.of(mock(Session.class)));
+
+        OdooSessionPool.Lease first = pool.borrow(CREDENTIALS).orElseThrow();
+        OdooSessionPool.Lease second = pool.borrow(CREDENTIALS).orElseThrow();
+
+        assertThat(first.getSession()).isNotSameAs(second.getSession());
+        assertThat(pool.metrics().totalSessions()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("borrow() fails when every session of the user stays borrowed beyond max-wait-ms")
+    void borrow_shouldThrowWhenPoolIsExhausted() {
+        when(sessionFactory.openSession(CREDENTIALS)).thenReturn(Optional.of(mock(Session.class)));
+        pool.borrow(CREDENTIALS);
+        pool.borrow(CREDENTIALS);
+
+        assertThatThrownBy(() -> pool.borrow(CREDENTIALS)).isInstanceOf(OdooSessionPoolExhaustedException.class);
+        assertThat(pool.metrics().waitTimeouts()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("tryBorrow() returns empty without waiting when every session of the user is borrowed")
+    void tryBorrow_shouldReturnEmptyWhenPoolIsExhausted() {
+        when(sessionFactory.openSession(CREDENTIALS)).thenReturn(Optional.of(mock(Session.class)));
+        pool.borrow(CREDENTIALS);
+        OdooSessionPool.Lease second = pool.tryBorrow(CREDENTIALS).orElseThrow();
+
+        assertThat(pool.tryBorrow(CREDENTIALS)).isEmpty();
+        assertThat(pool.metrics().waitTimeouts()).isZero();
+
+        second.close();
+        assertThat(pool.tryBorrow(CREDENTIALS)).isPresent();
+    }
+
+    @Test
+    @DisplayName("the metrics binder reports the pool state as meters")
+    void metricsBinder_shouldReportPoolState() {
+        when(sessionFactory.openSession(CREDENTIALS))
+                .thenReturn(Optional.of(mock(Session.class)), Optional.of(mock(Session.class)));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new OdooSessionPoolMetricsBinder(pool).bindTo(registry);
+
+        pool.borrow(CREDENTIALS).orElseThrow().close();
+        pool.borrow(CREDENTIALS);
+        pool.borrow(CREDENTIALS);
+
+        assertThat(registry.get("fhir.odoo.session.pool.users").gauge().value()).isEqualTo(1.0);
+        assertThat(registry.get("fhir.odoo.session.pool.sessions")
+                        .tag("state", "borrowed")
+                        .gauge()
+                        .value())
+                .isEqualTo(2.0);
+        assertThat(registry.get("fhir.odoo.session.pool.sessions")
+                        .tag("state", "idle")
+                        .gauge()
+                        .value())
+                .isZero();
+        assertThat(registry.get("fhir.odoo.session.pool.created").functionCounter().count())
+                .isEqualTo(2.0);
+        assertThat(registry.get("fhir.odoo.session.pool.borrows").functionCounter().count())
+                .isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("borrow() returns empty and keeps no pool when Odoo rejects the credentials")
+    void borrow_shouldReturnEmptyWhenCredentialsAreRejected() {
+        when(sessionFactory.openSession(CREDENTIALS)).thenReturn(Optional.empty());
+
+        assertThat(pool.borrow(CREDENTIALS)).isEmpty();
+        assertThat(pool.metrics().users()).isZero();
+    }
+
+    @Test
+    @DisplayName("borrow() discards idle sessions that fail validation")
+    void borrow_shouldDiscardSessionsFailingValidation() {
+        properties.setValidationIntervalMs(0L);
+        Session stale = mock(Session.class);
+        Session fresh = mock(Session.class);
+        when(sessionFactory.openSession(CREDENTIALS)).thenReturn(Optional.of(stale), Optional.of(fresh));
+        when(sessionFactory.isValid(stale)).thenReturn(false);
+        pool.borrow(CREDENTIALS).orElseThrow().close();
+
+        OdooSessionPool.Lease lease = pool.borrow(CREDENTIALS).orElseThrow();
+
+        assertThat(lease.getSession()).isSameAs(fresh);
+        assertThat(pool.metrics().validationFailures()).isEqualTo(1L);
+        assertThat(pool.metrics().destroyed()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("evict() closes sessions idle longer than idle-timeout-ms")
+    void evict_shouldCloseExpiredIdleSessions() {
+        properties.setIdleTimeoutMs(1L);
+        when(sessionFactory.openSession(CREDENTIALS)).thenReturn(Optional.of(mock(Session.class)));
+        pool.borrow(CREDENTIALS).orElseThrow().close();
+
+        sleep(5L);
+        pool.evict();
+
+        assertThat(pool.metrics().totalSessions()).isZero();
+        assertThat(pool.metrics().destroyed()).isEqualTo(1L);
+        verify(sessionFactory, never()).isValid(any());
+    }
+
+    @Test
+    @DisplayName("invalidate() discards the session instead of returning it to the pool")
+    void invalidate_shouldDiscardSession() {
+        when(sessionFactory.openSession(CREDENTIALS))
+                .thenReturn(Optional.of(mock(Session.class)), Optional.of(mock(Session.class)));
+        OdooSessionPool.Lease lease = pool.borrow(CREDENTIALS).orElseThrow();
+
+        lease.invalidate();
+        OdooSessionPool.Lease next = pool.borrow(CREDENTIALS).orElseThrow();
+
+        assertThat(next.getSession()).isNotSameAs(lease.getSession());
+        verify(sessionFactory, times(2)).openSession(CREDENTIALS);
+    }
+
+    @Test
+    @DisplayName("close(failure) discards the session when the work failed calling Odoo")
+    void closeWithFailure_shouldDiscardSessionAfterOdooCallFailure() {
+        when(sessionFactory.openSession(CREDENTIALS))
+                .thenReturn(Optional.of(mock(Session.class)), Optional.of(mock(Session.class)));
+        OdooSessionPool.Lease lease = pool.borrow(CREDENTIALS).orElseThrow();
+
+        lease.close(new IllegalStateException("Lookup failed", new OdooRpcException("Access Denied")));
+        OdooSessionPool.Lease next = pool.borrow(CREDENTIALS).orElseThrow();
+
+        assertThat(next.getSession()).isNotSameAs(lease.getSession());
+        assertThat(pool.metrics().destroyed()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("close(failure) returns the session to the pool when the failure did not come from Odoo")
+    void closeWithFailure_shouldReturnSessionAfterOtherFailure() {
+        when(sessionFactory.openSession(CREDENTIALS)).thenReturn(Optional.of(mock(Session.class)));
+        OdooSessionPool.Lease lease = pool.borrow(CREDENTIALS).orElseThrow();
+
+        lease.close(new IllegalArgumentException("Invalid resource"));
+        OdooSessionPool.Lease next = pool.borrow(CREDENTIALS).orElseThrow();
+
+        assertThat(next.getSession()).isSameAs(lease.getSession());
+        assertThat(pool.metrics().destroyed()).isZero();
+    }
+
+    @Test
+    @DisplayName("evict() does not top up min-idle past max-size while a borrower is opening a session")
+    void evict_shouldNotTopUpPastMaxSizeWhileBorrowerOpensSession() throws Exception {
+        properties.setMaxSize(1);
+        properties.setMinIdle(1);
+        CountDownLatch opening = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        when(sessionFactory.openSession(CREDENTIALS)).thenAnswer(invocation -> {
+            opening.countDown();
+            proceed.await();
+            return Optional.of(mock(Session.class));
+        });
+        CompletableFuture<OdooSessionPool.Lease> borrowed =
+                CompletableFuture.supplyAsync(() -> pool.borrow(CREDENTIALS).orElseThrow());
+        assertThat(opening.await(5, TimeUnit.SECONDS)).isTrue();
+
+        pool.evict();
+        proceed.countDown();
+        borrowed.get(5, TimeUnit.SECONDS);
+
+        verify(sessionFactory, times(1)).openSession(CREDENTIALS);
+        assertThat(pool.metrics().totalSessions()).isEqualTo(1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.session;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.odoojava.api.Session;
+import com.ozonehis.fhir.odoo.SessionHolder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Tracks which thread uses which Odoo session while mocked services simulate Odoo calls, to check that a pooled session
+ * is never used by two threads at the same time.
+ */
+public final class OdooSessionUsage {
+
+    public static final OdooCredentials CREDENTIALS = new OdooCredentials("admin", "secret");
+
+    private final ConcurrentMap<Session, Thread> inUse = new ConcurrentHashMap<>();
+
+    private final Set<Session> used = ConcurrentHashMap.newKeySet();
+
+    private final Set<Session> shared = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @return a pool handing out a new mock session for every login, up to {@code maxSize} per user
+     */
+    public static OdooSessionPool newSessionPool(int maxSize) {
+        OdooSessionFactory sessionFactory = mock(OdooSessionFactory.class);
+        when(sessionFactory.openSession(CREDENTIALS)).thenAnswer(invocation -> Optional.of(mock(Session.class)));
+        OdooSessionPoolProperties properties = new OdooSessionPoolProperties();
+        properties.setMaxSize(maxSize);
+        return new OdooSessionPool(sessionFactory, properties, new ObjectAdapterCache());
+    }
+
+    /**
+     * Runs the request the given number of times on each of the given number of threads at the same time. Every run
+     * borrows a session and binds it the way the authentication interceptor does for a FHIR request.
+     */
+    public static void runConcurrently(OdooSessionPool pool, int threads, int runs, Runnable request)
+            throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(clients.submit(() -> {
+                    for (int run = 0; run < runs; run++) {
+                        try (OdooSessionPool.Lease lease = pool.borrow(CREDENTIALS).orElseThrow()) {
+                            SessionHolder.setOdooSession(lease.getSession());
+                            SessionHolder.setOdooCredentials(CREDENTIALS);
+                            request.run();
+                        } finally {
+                            SessionHolder.clear();
+                        }
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    /**
+     * @return an answer that holds on to the session of the calling thread for a moment before returning the result
+     */
+    public <T> Answer<T> returning(T result) {
+        return invocation -> {
+            Session session = SessionHolder.getOdooSession();
+            used.add(session);
+            if (inUse.putIfAbsent(session, Thread.currentThread()) != null) {
+                shared.add(session);
+                return result;
+            }
+
+            try {
+                Thread.sleep(2);
+            } finally {
+                inUse.remove(session);
+            }
+            return result;
+        };
+    }
+
+    /**
+     * @return the sessions the answers were called with
+     */
+    public Set<Session> getUsedSessions() {
+        return used;
+    }
+
+    /**
+     * @return the sessions an answer was called with while another thread was using them
+     */
+    public Set<Session> getSharedSessions() {
+        return shared;
+    }
+}
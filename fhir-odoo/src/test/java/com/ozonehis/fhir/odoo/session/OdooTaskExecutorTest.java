@@ -0,0 +1,250 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.odoojava.api.Session;
+import com.ozonehis.fhir.odoo.SessionHolder;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class OdooTaskExecutorTest {
+
+    private static final OdooCredentials CREDENTIALS = new OdooCredentials("admin", "secret");
+
+    @Mock
+    private OdooSessionFactory sessionFactory;
+
+    private OdooSessionPool pool;
+
+    private OdooTaskExecutor executor;
+
+    private OdooSessionPool.Lease callerLease;
+
+    @BeforeEach
+    void setUp() {
+        when(sessionFactory.openSession(CREDENTIALS)).thenAnswer(invocation -> Optional.of(mock(Session.class)));
+        OdooSessionPoolProperties poolProperties = new OdooSessionPoolProperties();
+        poolProperties.setMaxSize(4);
+        poolProperties.setMaxWaitMs(50L);
+        pool = new OdooSessionPool(sessionFactory, poolProperties, new ObjectAdapterCache());
+        OdooTaskExecutorProperties properties = new OdooTaskExecutorProperties();
+        properties.setParallelism(3);
+        executor = new OdooTaskExecutor(properties, pool);
+
+        // Bind a session the way the authentication interceptor does for a FHIR request
+        callerLease = pool.borrow(CREDENTIALS).orElseThrow();
+        SessionHolder.setOdooSession(callerLease.getSession());
+        SessionHolder.setOdooCredentials(CREDENTIALS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+        SessionHolder.clear();
+        callerLease.close();
+    }
+
+    @Test
+    @DisplayName("invokeAll() returns the results in the order of the tasks")
+    void invokeAll_shouldReturnResultsInTaskOrder() {
+        List<Supplier<Integer>> tasks = IntStream.range(0, 10)
+                .mapToObj(i -> (Supplier<Integer>) () -> i)
+                .toList();
+
+        assertThat(executor.invokeAll(tasks)).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    }
+
+    @Test
+    @DisplayName("invokeAll() runs the dispatched tasks on pooled sessions of their own")
+    void invokeAll_shouldRunWorkersOnTheirOwnSessions() {
+        // Every task waits for the other two, so they only complete when they run at the same time
+        CyclicBarrier allTasksStarted = new CyclicBarrier(3);
+        Supplier<Session> task = () -> {
+            try {
+                allTasksStarted.await(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return SessionHolder.getOdooSession();
+        };
+
+        List<Session> sessions = executor.invokeAll(List.of(task, task, task));
+
+        assertThat(sessions).doesNotHaveDuplicates();
+        assertThat(sessions.get(0)).isSameAs(callerLease.getSession());
+        assertThat(SessionHolder.getOdooSession()).isSameAs(callerLease.getSession());
+        // The worker sessions went back to the pool, only the caller's is still borrowed
+        assertThat(pool.metrics().borrowedSessions()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("invokeAll() binds the caller's Odoo credentials to the worker threads")
+    void invokeAll_shouldBindCallerCredentialsToWorkers() {
+        Supplier<OdooCredentials> task = SessionHolder::getOdooCredentials;
+
+        assertThat(executor.invokeAll(List.of(task, task, task, task))).containsOnly(CREDENTIALS);
+        assertThat(SessionHolder.getOdooCredentials()).isSameAs(CREDENTIALS);
+    }
+
+    @Test
+    @DisplayName("invokeAll() runs the tasks on the caller when no further session of the user is free")
+    void invokeAll_shouldRunTasksOnCallerWhenNoSessionIsFree() {
+        List<OdooSessionPool.Lease> borrowed = List.of(
+                pool.borrow(CREDENTIALS).orElseThrow(),
+                pool.borrow(CREDENTIALS).orElseThrow(),
+                pool.borrow(CREDENTIALS).orElseThrow());
+        Supplier<Session> task = SessionHolder::getOdooSession;
+
+        try {
+            assertThat(executor.invokeAll(List.of(task, task, task))).containsOnly(callerLease.getSession());
+            assertThat(pool.metrics().waitTimeouts()).isZero();
+        } finally {
+            borrowed.forEach(OdooSessionPool.Lease::close);
+        }
+    }
+
+    @Test
+    @DisplayName("invokeAll() limits the tasks of one call running at the same time to the parallelism")
+    void invokeAll_shouldLimitConcurrentTasksToParallelism() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Supplier<Integer> task = () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(20);
+            running.decrementAndGet();
+            return 1;
+        };
+
+        assertThat(executor.invokeAll(List.of(task, task, task, task, task, task, task, task)))
+                .containsOnly(1);
+        // The caller runs the first task, two more run on workers although more workers are free
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("invokeAll() runs the tasks on the caller when no worker is free")
+    void invokeAll_shouldRunTasksOnCallerWhenNoWorkerIsFree() {
+        OdooTaskExecutorProperties properties = new OdooTaskExecutorProperties();
+        properties.setParallelism(3);
+        properties.setMaxWorkers(1);
+        OdooTaskExecutor singleWorkerExecutor = new OdooTaskExecutor(properties, pool);
+        String caller = Thread.currentThread().getName();
+        Supplier<String> threadName = () -> {
+            sleep(20);
+            return Thread.currentThread().getName();
+        };
+
+        try {
+            List<String> threads = singleWorkerExecutor.invokeAll(List.of(threadName, threadName, threadName));
+
+            assertThat(threads.get(0)).isEqualTo(caller);
+            assertThat(threads.stream().filter(caller::equals)).hasSize(2);
+        } finally {
+            singleWorkerExecutor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("invokeAll() runs the tasks on the caller when no Odoo credentials are bound")
+    void invokeAll_shouldRunTasksOnCallerWithoutCredentials() {
+        SessionHolder.clear();
+        String caller = Thread.currentThread().getName();
+        Supplier<String> threadName = () -> Thread.currentThread().getName();
+
+        assertThat(executor.invokeAll(List.of(threadName, threadName, threadName))).containsOnly(caller);
+    }
+
+    @Test
+    @DisplayName("invokeAll() rethrows the exception thrown by a task once the other tasks have completed")
+    void invokeAll_shouldRethrowTaskExceptionAfterOtherTasksCompleted() {
+        AtomicBoolean completed = new AtomicBoolean();
+        Supplier<Integer> failing = () -> {
+            throw new IllegalStateException("Odoo is down");
+        };
+        Supplier<Integer> slow = () -> {
+            sleep(100);
+            completed.set(true);
+            return 1;
+        };
+
+        assertThatThrownBy(() -> executor.invokeAll(List.of(failing, slow)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Odoo is down");
+        assertThat(completed).isTrue();
+        assertThat(pool.metrics().borrowedSessions()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("invokeAll() runs nested tasks on the worker thread")
+    void invokeAll_shouldRunNestedTasksInline() {
+        Supplier<String> threadName = () -> Thread.currentThread().getName();
+        Supplier<List<String>> nested = () -> executor.invokeAll(List.of(threadName, threadName));
+        Supplier<List<String>> none = List::of;
+
+        List<List<String>> results = executor.invokeAll(List.of(none, nested, nested));
+
+        assertThat(results.get(1).get(0)).isEqualTo(results.get(1).get(1)).startsWith("odoo-task-");
+        assertThat(results.get(2).get(0)).isEqualTo(results.get(2).get(1));
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    @DisplayName("invokeAll() in virtual thread mode limits the tasks running at the same time")
+    void invokeAll_shouldLimitConcurrentTasksOnVirtualThreads() {
+        OdooTaskExecutorProperties properties = new OdooTaskExecutorProperties();
+        properties.setParallelism(3);
+        OdooTaskExecutor virtualExecutor = new OdooTaskExecutor(properties, true, pool);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Supplier<OdooCredentials> task = () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(20);
+            running.decrementAndGet();
+            return SessionHolder.getOdooCredentials();
+        };
+
+        try {
+            assertThat(virtualExecutor.isVirtualThreads()).isTrue();
+            assertThat(virtualExecutor.invokeAll(List.of(task, task, task, task, task, task, task, task)))
+                    .containsOnly(CREDENTIALS);
+            // The caller runs the first task, two more run on virtual threads
+            assertThat(maxRunning.get()).isLessThanOrEqualTo(3);
+        } finally {
+            virtualExecutor.shutdown();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.stub;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Evaluates Odoo search domains, in Polish notation with the {@code &}, {@code |} and {@code !} operators, against
+ * the records held by {@link OdooStubServer}.
+ */
+final class OdooStubDomain {
+
+    private OdooStubDomain() {}
+
+    static Predicate<Map<String, Object>> compile(Object domain) {
+        Object[] terms = toArray(domain);
+        Deque<Predicate<Map<String, Object>>> stack = new ArrayDeque<>();
+        for (int i = terms.length - 1; i >= 0; i--) {
+            Object term = terms[i];
+            if ("&".equals(term)) {
+                stack.push(stack.pop().and(stack.pop()));
+            } else if ("|".equals(term)) {
+                stack.push(stack.pop().or(stack.pop()));
+            } else if ("!".equals(term)) {
+                stack.push(stack.pop().negate());
+            } else {
+                stack.push(leaf(toArray(term)));
+            }
+        }
+
+        Predicate<Map<String, Object>> predicate = record -> true;
+        while (!stack.isEmpty()) {
+            predicate = predicate.and(stack.pop());
+        }
+        return predicate;
+    }
+
+    static Comparator<Map<String, Object>> order(Object order) {
+        Comparator<Map<String, Object>> comparator = Comparator.comparing(record -> (Integer) record.get("id"));
+        if (!(order instanceof String orderBy) || orderBy.isBlank()) {
+            return comparator;
+        }
+
+        Comparator<Map<String, Object>> ordering = null;
+        for (String clause : orderBy.split(",")) {
+            String[] parts = clause.trim().split("\\s+");
+            Comparator<Map<String, Object>> byField =
+                    Comparator.comparing(record -> normalize(record.get(parts[0])), OdooStubDomain::compare);
+            if (parts.length > 1 && "desc".equalsIgnoreCase(parts[1])) {
+                byField = byField.reversed();
+            }
+            ordering = ordering == null ? byField : ordering.thenComparing(byField);
+        }
+        return ordering.thenComparing(comparator);
+    }
+
+    static Object[] toArray(Object value) {
+        if (value == null) {
+            return new Object[0];
+        } else if (value instanceof Object[] array) {
+            return array;
+        } else if (value instanceof Collection<?> collection) {
+            return collection.toArray();
+        }
+        return new Object[] {value};
+    }
+
+    private static Predicate<Map<String, Object>> leaf(Object[] term) {
+        if (term.length != 3) {
+            throw new IllegalArgumentException("Invalid domain term " + Arrays.toString(term));
+        }
+
+        String field = (String) term[0];
+        String operator = ((String) term[1]).toLowerCase();
+        Object expected = term[2];
+        return record -> {
+            Object actual = normalize(record.get(field));
+            return switch (operator) {
+                case "=", "==" -> matches(actual, expected);
+                case "!=", "<>" -> !matches(actual, expected);
+                case "in" -> Arrays.stream(toArray(expected)).anyMatch(value -> matches(actual, value));
+                case "not in" -> Arrays.stream(toArray(expected)).noneMatch(value -> matches(actual, value));
+                case "like" -> actual != null && actual.toString().contains(pattern(expected));
+                case "ilike" -> actual != null
+                        && actual.toString().toLowerCase().contains(pattern(expected).toLowerCase());
+                case "=like" -> actual != null && actual.toString().equals(pattern(expected));
+                case "=ilike" -> actual != null && actual.toString().equalsIgnoreCase(pattern(expected));
+                case "<" -> actual != null && compare(actual, expected) < 0;
+                case "<=" -> actual != null && compare(actual, expected) <= 0;
+                case ">" -> actual != null && compare(actual, expected) > 0;
+                case ">=" -> actual != null && compare(actual, expected) >= 0;
+                default -> throw new IllegalArgumentException("Unsupported domain operator " + operator);
+            };
+        };
+    }
+
+    /**
+     * Reduces many2one values, which Odoo returns as {@code [id, display_name]}, to their id.
+     */
+    private static Object normalize(Object value) {
+        if (value instanceof Object[] array && array.length == 2 && array[0] instanceof Number) {
+            return array[0];
+        }
+        return value;
+    }
+
+    private static boolean matches(Object actual, Object expected) {
+        if (Boolean.FALSE.equals(expected)) {
+            return actual == null || Boolean.FALSE.equals(actual);
+        }
+        if (actual instanceof Number a && expected instanceof Number e) {
+            return a.doubleValue() == e.doubleValue();
+        }
+        return Objects.equals(actual, expected);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        if (a instanceof Number x && b instanceof Number y) {
+            return Double.compare(x.doubleValue(), y.doubleValue());
+        }
+        if (a instanceof Comparable comparable && a.getClass().isInstance(b)) {
+            return comparable.compareTo(b);
+        }
+        return a.toString().compareTo(b.toString());
+    }
+
+    private static String pattern(Object expected) {
+        return String.valueOf(expected).replace("%", "");
+    }
+}
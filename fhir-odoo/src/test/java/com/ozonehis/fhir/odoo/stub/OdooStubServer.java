@@ -0,0 +1,633 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.stub;
+
+import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_COMPANY;
+import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_COUNTRY;
+import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_COUNTRY_STATE;
+import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_CURRENCY;
+import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_EXTERNAL_IDENTIFIER;
+import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_PARTNER;
+import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_PRODUCT;
+import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_PRODUCT_CATEGORY;
+import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_SALE_ORDER;
+import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_SALE_ORDER_LINE;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ozonehis.fhir.odoo.model.BaseOdooModel;
+import com.ozonehis.fhir.odoo.model.Country;
+import com.ozonehis.fhir.odoo.model.CountryState;
+import com.ozonehis.fhir.odoo.model.Currency;
+import com.ozonehis.fhir.odoo.model.ExtId;
+import com.ozonehis.fhir.odoo.model.Partner;
+import com.ozonehis.fhir.odoo.model.Product;
+import com.ozonehis.fhir.odoo.model.SaleOrder;
+import com.ozonehis.fhir.odoo.model.SaleOrderLine;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in-process stand-in for the Odoo XML-RPC API, for load, latency and round trip tests without a live Odoo.
+ * <p>
+ * It serves the {@code common}, {@code db} and {@code object} endpoints over XML-RPC and {@code /jsonrpc},
+ * authenticates a single user and keeps the records of every model in memory. The {@code object} endpoint supports
+ * {@code search}, {@code search_count}, {@code read}, {@code search_read}, {@code create}, {@code write},
+ * {@code unlink} and {@code fields_get}, both through {@code execute} and {@code execute_kw}. Field types reported by
+ * {@code fields_get} are derived from the model classes for the models in {@link com.ozonehis.fhir.odoo.OdooConstants},
+ * and from the stored records and {@link #defineField(String, String, String)} for anything else.
+ * <p>
+ * Every HTTP request is one round trip: it is delayed by the configured {@link #setLatency(Duration) latency} and
+ * counted, in total and per model and method, so tests can assert on the number of calls a FHIR operation makes. To
+ * run the facade against the stub, point {@code fhir.odoo.host} at {@code http://localhost} and {@code fhir.odoo.port}
+ * at {@link #getPort()}.
+ */
+public class OdooStubServer implements AutoCloseable {
+
+    public static final int USER_ID = 2;
+
+    public static final String SERVER_VERSION = "16.0";
+
+    private static final String MODEL_IR_MODEL = "ir.model";
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static final DateTimeFormatter JSON_DATE_TIME =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneOffset.UTC);
+
+    private static final Map<String, Class<? extends BaseOdooModel>> MODEL_TYPES = Map.of(
+            MODEL_EXTERNAL_IDENTIFIER, ExtId.class,
+            MODEL_PRODUCT, Product.class,
+            MODEL_COMPANY, BaseOdooModel.class,
+            MODEL_PRODUCT_CATEGORY, BaseOdooModel.class,
+            MODEL_CURRENCY, Currency.class,
+            MODEL_PARTNER, Partner.class,
+            MODEL_COUNTRY_STATE, CountryState.class,
+            MODEL_COUNTRY, Country.class,
+            MODEL_SALE_ORDER, SaleOrder.class,
+            MODEL_SALE_ORDER_LINE, SaleOrderLine.class);
+
+    private final String database;
+
+    private final String username;
+
+    private final String password;
+
+    private final Map<String, Map<Integer, Map<String, Object>>> records = new ConcurrentHashMap<>();
+
+    private final Map<String, Map<String, String>> fieldTypes = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    private final AtomicLong calls = new AtomicLong();
+
+    private final Map<String, AtomicLong> callsByMethod = new ConcurrentHashMap<>();
+
+    private volatile Duration latency = Duration.ZERO;
+
+    private HttpServer server;
+
+    private ExecutorService executor;
+
+    public OdooStubServer(String database, String username, String password) {
+        this.database = database;
+        this.username = username;
+        this.password = password;
+        MODEL_TYPES.forEach((model, type) -> fieldTypes.put(model, fieldTypesOf(type)));
+        MODEL_TYPES.keySet().forEach(this::registerModel);
+    }
+
+    /**
+     * Starts the server on an ephemeral port of the loopback interface.
+     *
+     * @return this server
+     */
+    public OdooStubServer start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        } catch (IOException e) {
+            throw new RuntimeException("Error while starting the Odoo stub server", e);
+        }
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/xmlrpc", this::handle);
+        server.createContext("/jsonrpc", this::handleJsonRpc);
+        server.start();
+        return this;
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + getPort();
+    }
+
+    /**
+     * Sets the delay added to every round trip, to simulate the network and Odoo processing time.
+     */
+    public void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * @return the number of round trips made since the server started or the counts were last reset
+     */
+    public long getCallCount() {
+        return calls.get();
+    }
+
+    /**
+     * @param model the Odoo model, or the service name ({@code common} or {@code db}) for non-model calls
+     * @param method the method, e.g. {@code search_read}
+     * @return the number of calls of the method on the model
+     */
+    public long getCallCount(String model, String method) {
+        AtomicLong count = callsByMethod.get(key(model, method));
+        return count == null ? 0L : count.get();
+    }
+
+    /**
+     * @return the number of calls per {@code model#method}
+     */
+    public Map<String, Long> getCallCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        callsByMethod.forEach((key, count) -> counts.put(key, count.get()));
+        return counts;
+    }
+
+    public void resetCallCounts() {
+        calls.set(0L);
+        callsByMethod.clear();
+    }
+
+    /**
+     * Declares a field, e.g. a custom {@code x_} field, so that it is reported by {@code fields_get}.
+     */
+    public void defineField(String model, String field, String type) {
+        registerModel(model);
+        fieldTypes.computeIfAbsent(model, m -> new ConcurrentHashMap<>()).put(field, type);
+    }
+
+    /**
+     * Stores a record without making a round trip.
+     *
+     * @return the id of the new record
+     */
+    public int insert(String model, Map<String, Object> values) {
+        registerModel(model);
+        return create(model, values);
+    }
+
+    /**
+     * @return a copy of the stored record, or null if there is none
+     */
+    public Map<String, Object> get(String model, int id) {
+        Map<Integer, Map<String, Object>> table = table(model);
+        synchronized (table) {
+            Map<String, Object> record = table.get(id);
+            return record == null ? null : new HashMap<>(record);
+        }
+    }
+
+    /**
+     * @return copies of all stored records of the model, ordered by id
+     */
+    public List<Map<String, Object>> getAll(String model) {
+        Map<Integer, Map<String, Object>> table = table(model);
+        synchronized (table) {
+            return table.values().stream().<Map<String, Object>>map(HashMap::new).toList();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            sleep(latency);
+            calls.incrementAndGet();
+
+            String path = exchange.getRequestURI().getPath();
+            String service = path.substring(path.lastIndexOf('/') + 1);
+            String response;
+            try {
+                XmlRpcCodec.MethodCall call = XmlRpcCodec.parseCall(exchange.getRequestBody());
+                response = XmlRpcCodec.response(dispatch(service, call.methodName(), call.params()));
+            } catch (RuntimeException e) {
+                response = XmlRpcCodec.fault(1, e.getMessage());
+            }
+
+            byte[] body = response.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/xml");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleJsonRpc(HttpExchange exchange) throws IOException {
+        try {
+            sleep(latency);
+            calls.incrementAndGet();
+
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("jsonrpc", "2.0");
+            try {
+                Map<?, ?> request = JSON.readValue(exchange.getRequestBody(), Map.class);
+                response.put("id", request.get("id"));
+                Map<?, ?> params = (Map<?, ?>) request.get("params");
+                List<Object> args = Arrays.asList((Object[]) fromJson(params.get("args")));
+                Object result = dispatch((String) params.get("service"), (String) params.get("method"), args);
+                response.put("result", toJson(result));
+            } catch (RuntimeException e) {
+                String name = e instanceof SecurityException
+                        ? "odoo.exceptions.AccessDenied"
+                        : e.getMessage() != null && e.getMessage().contains("does not exist")
+                                ? "odoo.exceptions.MissingError"
+                                : "odoo.exceptions.UserError";
+                Map<String, Object> data = new LinkedHashMap<>();
+                data.put("name", name);
+                data.put("message", e.getMessage());
+                Map<String, Object> error = new LinkedHashMap<>();
+                error.put("code", 200);
+                error.put("message", "Odoo Server Error");
+                error.put("data", data);
+                response.put("error", error);
+            }
+
+            byte[] body = JSON.writeValueAsBytes(response);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Converts decoded JSON to the types the XML-RPC codec produces, arrays become {@code Object[]}.
+     */
+    private static Object fromJson(Object value) {
+        if (value instanceof List<?> list) {
+            return list.stream().map(OdooStubServer::fromJson).toArray();
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> struct = new HashMap<>();
+            map.forEach((key, item) -> struct.put(String.valueOf(key), fromJson(item)));
+            return struct;
+        }
+        return value;
+    }
+
+    /**
+     * Converts a result to JSON values, dates are sent as strings the way Odoo sends them.
+     */
+    private static Object toJson(Object value) {
+        if (value instanceof Date date) {
+            return JSON_DATE_TIME.format(date.toInstant());
+        }
+        if (value instanceof Object[] array) {
+            return Arrays.stream(array).map(OdooStubServer::toJson).toList();
+        }
+        if (value instanceof Collection<?> collection) {
+            return collection.stream().map(OdooStubServer::toJson).toList();
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> struct = new LinkedHashMap<>();
+            map.forEach((key, item) -> struct.put(String.valueOf(key), toJson(item)));
+            return struct;
+        }
+        return value;
+    }
+
+    private Object dispatch(String service, String method, List<Object> params) {
+        switch (service) {
+            case "common":
+                count(service, method);
+                return switch (method) {
+                    case "version" -> version();
+                    case "login", "authenticate" -> authenticate(params) ? USER_ID : Boolean.FALSE;
+                    case "about" -> "Odoo stub server";
+                    default -> throw new IllegalArgumentException("Unsupported common method " + method);
+                };
+            case "db":
+                count(service, method);
+                return switch (method) {
+                    case "list" -> new Object[] {database};
+                    case "server_version" -> SERVER_VERSION;
+                    case "db_exist" -> database.equals(params.get(0));
+                    default -> throw new IllegalArgumentException("Unsupported db method " + method);
+                };
+            case "object":
+                if (!"execute".equals(method) && !"execute_kw".equals(method)) {
+                    throw new IllegalArgumentException("Unsupported object method " + method);
+                }
+                if (!database.equals(params.get(0))
+                        || !Integer.valueOf(USER_ID).equals(params.get(1))
+                        || !password.equals(params.get(2))) {
+                    throw new SecurityException("Access Denied");
+                }
+
+                String model = (String) params.get(3);
+                String modelMethod = (String) params.get(4);
+                List<Object> args;
+                Map<?, ?> kwargs = Collections.emptyMap();
+                if ("execute_kw".equals(method)) {
+                    args = params.size() > 5 ? Arrays.asList(OdooStubDomain.toArray(params.get(5))) : List.of();
+                    if (params.size() > 6 && params.get(6) instanceof Map<?, ?> map) {
+                        kwargs = map;
+                    }
+                } else {
+                    args = params.subList(5, params.size());
+                }
+                count(model, modelMethod);
+                return execute(model, modelMethod, args, kwargs);
+            default:
+                throw new IllegalArgumentException("Unsupported service " + service);
+        }
+    }
+
+    private Object execute(String model, String method, List<Object> args, Map<?, ?> kwargs) {
+        return switch (method) {
+            case "search" -> {
+                List<Map<String, Object>> found = search(
+                        model,
+                        arg(args, kwargs, 0, "domain"),
+                        arg(args, kwargs, 1, "offset"),
+                        arg(args, kwargs, 2, "limit"),
+                        arg(args, kwargs, 3, "order"));
+                if (Boolean.TRUE.equals(arg(args, kwargs, 4, "count"))) {
+                    yield found.size();
+                }
+                yield found.stream().map(record -> record.get("id")).toArray();
+            }
+            case "search_count" -> search(model, arg(args, kwargs, 0, "domain"), null, null, null).size();
+            case "read" -> read(model, ids(arg(args, kwargs, 0, "ids")), arg(args, kwargs, 1, "fields"));
+            case "search_read" -> {
+                List<Map<String, Object>> found = search(
+                        model,
+                        arg(args, kwargs, 0, "domain"),
+                        arg(args, kwargs, 2, "offset"),
+                        arg(args, kwargs, 3, "limit"),
+                        arg(args, kwargs, 4, "order"));
+                Object fields = arg(args, kwargs, 1, "fields");
+                yield found.stream().map(record -> project(record, fields)).toArray();
+            }
+            case "create" -> {
+                Object values = arg(args, kwargs, 0, "vals_list");
+                if (values instanceof Object[] valuesList) {
+                    yield Arrays.stream(valuesList).map(v -> create(model, toRecord(v))).toArray();
+                }
+                yield create(model, toRecord(values));
+            }
+            case "write" -> write(model, ids(arg(args, kwargs, 0, "ids")), toRecord(arg(args, kwargs, 1, "vals")));
+            case "unlink" -> unlink(model, ids(arg(args, kwargs, 0, "ids")));
+            case "fields_get" -> fieldsGet(model);
+            case "context_get" -> Map.of("lang", "en_US", "tz", "UTC");
+            default -> Boolean.TRUE;
+        };
+    }
+
+    private List<Map<String, Object>> search(String model, Object domain, Object offset, Object limit, Object order) {
+        Map<Integer, Map<String, Object>> table = table(model);
+        List<Map<String, Object>> found;
+        synchronized (table) {
+            found = table.values().stream()
+                    .filter(OdooStubDomain.compile(domain))
+                    .sorted(OdooStubDomain.order(order))
+                    .<Map<String, Object>>map(HashMap::new)
+                    .toList();
+        }
+
+        int from = offset instanceof Number number ? Math.min(number.intValue(), found.size()) : 0;
+        int to = limit instanceof Number number && number.intValue() > 0
+                ? Math.min(from + number.intValue(), found.size())
+                : found.size();
+        return found.subList(from, to);
+    }
+
+    private Object[] read(String model, List<Integer> ids, Object fields) {
+        Map<Integer, Map<String, Object>> table = table(model);
+        List<Object> rows = new ArrayList<>();
+        synchronized (table) {
+            for (Integer id : ids) {
+                Map<String, Object> record = table.get(id);
+                if (record != null) {
+                    rows.add(project(record, fields));
+                }
+            }
+        }
+        return rows.toArray();
+    }
+
+    private int create(String model, Map<String, Object> values) {
+        int id = nextId.getAndIncrement();
+        Date now = new Date();
+        Map<String, Object> record = new HashMap<>(values);
+        record.put("id", id);
+        record.putIfAbsent("display_name", values.get("name"));
+        record.putIfAbsent("create_date", now);
+        record.putIfAbsent("create_uid", USER_ID);
+        record.putIfAbsent("write_date", now);
+        record.putIfAbsent("write_uid", USER_ID);
+
+        Map<Integer, Map<String, Object>> table = table(model);
+        synchronized (table) {
+            table.put(id, record);
+        }
+        return id;
+    }
+
+    private Boolean write(String model, List<Integer> ids, Map<String, Object> values) {
+        Map<Integer, Map<String, Object>> table = table(model);
+        synchronized (table) {
+            for (Integer id : ids) {
+                Map<String, Object> record = table.get(id);
+                if (record == null) {
+                    throw new IllegalArgumentException("Record " + model + "(" + id + ") does not exist");
+                }
+                record.putAll(values);
+                record.put("write_date", new Date());
+                record.put("write_uid", USER_ID);
+            }
+        }
+        return Boolean.TRUE;
+    }
+
+    private Boolean unlink(String model, List<Integer> ids) {
+        Map<Integer, Map<String, Object>> table = table(model);
+        synchronized (table) {
+            ids.forEach(table::remove);
+        }
+        return Boolean.TRUE;
+    }
+
+    private Map<String, Object> fieldsGet(String model) {
+        Map<String, String> types = new HashMap<>(fieldTypes.getOrDefault(model, Map.of()));
+        for (Map<String, Object> record : getAll(model)) {
+            record.forEach((field, value) -> types.putIfAbsent(field, typeOf(value)));
+        }
+        types.put("id", "integer");
+
+        Map<String, Object> fields = new HashMap<>();
+        types.forEach((field, type) -> fields.put(field, Map.of("type", type, "string", field)));
+        return fields;
+    }
+
+    private Map<String, Object> project(Map<String, Object> record, Object fields) {
+        Object[] names = OdooStubDomain.toArray(fields);
+        if (names.length == 0) {
+            return new HashMap<>(record);
+        }
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", record.get("id"));
+        for (Object name : names) {
+            Object value = record.get((String) name);
+            row.put((String) name, value == null ? Boolean.FALSE : value);
+        }
+        return row;
+    }
+
+    private boolean authenticate(List<Object> params) {
+        return params.size() >= 3
+                && database.equals(params.get(0))
+                && username.equals(params.get(1))
+                && password.equals(params.get(2));
+    }
+
+    private Map<String, Object> version() {
+        return Map.of(
+                "server_version", SERVER_VERSION,
+                "server_version_info", new Object[] {16, 0, 0, "final", 0, ""},
+                "server_serie", SERVER_VERSION,
+                "protocol_version", 1);
+    }
+
+    private void registerModel(String model) {
+        if (records.putIfAbsent(model, new TreeMap<>()) != null) {
+            return;
+        }
+        if (!MODEL_IR_MODEL.equals(model)) {
+            registerModel(MODEL_IR_MODEL);
+            create(MODEL_IR_MODEL, Map.of("model", model, "name", model));
+        }
+    }
+
+    private Map<Integer, Map<String, Object>> table(String model) {
+        return records.computeIfAbsent(model, m -> new TreeMap<>());
+    }
+
+    private void count(String model, String method) {
+        callsByMethod.computeIfAbsent(key(model, method), k -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static String key(String model, String method) {
+        return model + "#" + method;
+    }
+
+    private static Object arg(List<Object> args, Map<?, ?> kwargs, int index, String name) {
+        if (kwargs.containsKey(name)) {
+            return kwargs.get(name);
+        }
+        return index < args.size() ? args.get(index) : null;
+    }
+
+    private static List<Integer> ids(Object ids) {
+        return Arrays.stream(OdooStubDomain.toArray(ids))
+                .map(id -> ((Number) id).intValue())
+                .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> toRecord(Object values) {
+        if (!(values instanceof Map<?, ?>)) {
+            throw new IllegalArgumentException("Expected a map of values but got " + values);
+        }
+        return (Map<String, Object>) values;
+    }
+
+    private static Map<String, String> fieldTypesOf(Class<?> type) {
+        Map<String, String> types = new ConcurrentHashMap<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                JsonProperty property = field.getAnnotation(JsonProperty.class);
+                if (property != null) {
+                    types.putIfAbsent(property.value(), typeOf(field.getType()));
+                }
+            }
+        }
+        return types;
+    }
+
+    private static String typeOf(Class<?> type) {
+        if (type == Integer.class || type == int.class || type == Long.class || type == long.class) {
+            return "integer";
+        } else if (type == Double.class || type == double.class || type == Float.class || type == float.class) {
+            return "float";
+        } else if (type == Boolean.class || type == boolean.class) {
+            return "boolean";
+        } else if (Date.class.isAssignableFrom(type)) {
+            return "datetime";
+        } else if (type.isArray() || Collection.class.isAssignableFrom(type) || type == Object.class) {
+            return "one2many";
+        }
+        return "char";
+    }
+
+    private static String typeOf(Object value) {
+        return value == null ? "char" : typeOf(value.getClass());
+    }
+
+    private static void sleep(Duration duration) {
+        if (duration.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
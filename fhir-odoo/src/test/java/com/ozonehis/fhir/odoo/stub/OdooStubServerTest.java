@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.stub;
+
+import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_PARTNER;
+import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_PRODUCT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.odoojava.api.FilterCollection;
+import com.odoojava.api.OdooXmlRpcProxy;
+import com.odoojava.api.RowCollection;
+import com.odoojava.api.Session;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Map;
+import org.apache.xmlrpc.XmlRpcException;
+import org.apache.xmlrpc.client.XmlRpcClient;
+import org.apache.xmlrpc.client.XmlRpcClientConfigImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class OdooStubServerTest {
+
+    private static final String DATABASE = "odoo";
+
+    private static final String USERNAME = "admin";
+
+    private static final String PASSWORD = "secret";
+
+    private OdooStubServer server;
+
+    @BeforeEach
+    void setUp() {
+        server = new OdooStubServer(DATABASE, USERNAME, PASSWORD).start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Should serve an odoo-java-api session and count its round trips")
+    void shouldServeOdooJavaApiSession() throws Exception {
+        int id = server.insert(MODEL_PRODUCT, Map.of("name", "Paracetamol", "list_price", 15.0));
+        server.insert(MODEL_PRODUCT, Map.of("name", "Ibuprofen", "list_price", 20.0));
+
+        Session session = new Session(
+                OdooXmlRpcProxy.RPCProtocol.RPC_HTTP, "localhost", server.getPort(), DATABASE, USERNAME, PASSWORD);
+        session.startSession();
+        assertThat(session.getUserID()).isEqualTo(OdooStubServer.USER_ID);
+
+        FilterCollection filters = new FilterCollection();
+        filters.add("id", "=", id);
+        server.resetCallCounts();
+        RowCollection rows = session.getObjectAdapter(MODEL_PRODUCT)
+                .searchAndReadObject(filters, new String[] {"name", "list_price"});
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).get("name")).isEqualTo("Paracetamol");
+        assertThat(rows.get(0).get("list_price")).isEqualTo(15.0);
+        assertThat(server.getCallCount()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should evaluate domains, paging and ordering in search_read")
+    void shouldSearchRead() throws Exception {
+        server.insert(MODEL_PARTNER, Map.of("name", "Alice", "city", "Nairobi"));
+        server.insert(MODEL_PARTNER, Map.of("name", "Bob", "city", "Kampala"));
+        server.insert(MODEL_PARTNER, Map.of("name", "Carol", "city", "Nairobi"));
+
+        Object[] domain = {"|", new Object[] {"name", "=", "Bob"}, new Object[] {"city", "ilike", "nairobi"}};
+        Object[] rows = (Object[]) executeKw(
+                MODEL_PARTNER,
+                "search_read",
+                new Object[] {domain},
+                Map.of("fields", new Object[] {"name"}, "order", "name desc", "offset", 1, "limit", 2));
+
+        assertThat(rows).extracting(row -> ((Map<?, ?>) row).get("name")).containsExactly("Bob", "Alice");
+        assertThat(server.getCallCount(MODEL_PARTNER, "search_read")).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Should create, write and unlink records")
+    void shouldCreateWriteAndUnlink() throws Exception {
+        int id = (Integer) executeKw(MODEL_PARTNER, "create", new Object[] {Map.of("name", "Alice")}, Map.of());
+        executeKw(MODEL_PARTNER, "write", new Object[] {new Object[] {id}, Map.of("city", "Nairobi")}, Map.of());
+
+        assertThat(server.get(MODEL_PARTNER, id)).containsEntry("name", "Alice").containsEntry("city", "Nairobi");
+
+        executeKw(MODEL_PARTNER, "unlink", new Object[] {new Object[] {id}}, Map.of());
+
+        assertThat(server.get(MODEL_PARTNER, id)).isNull();
+        assertThat(server.getCallCounts())
+                .containsEntry(MODEL_PARTNER + "#create", 1L)
+                .containsEntry(MODEL_PARTNER + "#write", 1L)
+                .containsEntry(MODEL_PARTNER + "#unlink", 1L);
+    }
+
+    @Test
+    @DisplayName("Should delay every round trip by the configured latency")
+    void shouldInjectLatency() throws Exception {
+        server.setLatency(Duration.ofMillis(100));
+
+        long start = System.nanoTime();
+        client("common").execute("version", new Object[] {});
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(100));
+        assertThat(server.getCallCount("common", "version")).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Should reject object calls with invalid credentials")
+    void shouldRejectInvalidCredentials() {
+        assertThatThrownBy(() -> client("object")
+                        .execute("execute_kw", new Object[] {
+                            DATABASE, OdooStubServer.USER_ID, "wrong", MODEL_PARTNER, "search", new Object[] {}
+                        }))
+                .isInstanceOf(XmlRpcException.class)
+                .hasMessageContaining("Access Denied");
+    }
+
+    private Object executeKw(String model, String method, Object[] args, Map<String, Object> kwargs)
+            throws Exception {
+        return client("object")
+                .execute("execute_kw", new Object[] {
+                    DATABASE, OdooStubServer.USER_ID, PASSWORD, model, method, args, kwargs
+                });
+    }
+
+    private XmlRpcClient client(String service) throws Exception {
+        XmlRpcClientConfigImpl config = new XmlRpcClientConfigImpl();
+        config.setServerURL(new URL(server.getUrl() + "/xmlrpc/2/" + service));
+        XmlRpcClient client = new XmlRpcClient();
+        client.setConfig(config);
+        return client;
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.stub;
+
+import java.io.InputStream;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Minimal XML-RPC encoding and decoding used by {@link OdooStubServer}. Dates are written the way Odoo writes them,
+ * as {@code yyyy-MM-dd HH:mm:ss} strings in UTC, and null values are written as {@code false}.
+ */
+final class XmlRpcCodec {
+
+    private static final String ODOO_DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
+
+    record MethodCall(String methodName, List<Object> params) {}
+
+    private XmlRpcCodec() {}
+
+    static MethodCall parseCall(InputStream in) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            Element root = factory.newDocumentBuilder().parse(in).getDocumentElement();
+
+            String methodName = null;
+            List<Object> params = new ArrayList<>();
+            for (Element child : children(root)) {
+                if ("methodName".equals(localName(child))) {
+                    methodName = child.getTextContent().trim();
+                } else if ("params".equals(localName(child))) {
+                    for (Element param : children(child)) {
+                        params.add(parseValue(children(param).get(0)));
+                    }
+                }
+            }
+            return new MethodCall(methodName, params);
+        } catch (Exception e) {
+            throw new RuntimeException("Error while parsing XML-RPC request", e);
+        }
+    }
+
+    static String response(Object value) {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\"?><methodResponse><params><param>");
+        writeValue(value, xml);
+        return xml.append("</param></params></methodResponse>").toString();
+    }
+
+    static String fault(int code, String message) {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\"?><methodResponse><fault>");
+        writeValue(Map.of("faultCode", code, "faultString", message == null ? "" : message), xml);
+        return xml.append("</fault></methodResponse>").toString();
+    }
+
+    static String formatDate(Date date) {
+        SimpleDateFormat format = new SimpleDateFormat(ODOO_DATE_FORMAT);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(date);
+    }
+
+    private static Object parseValue(Element value) throws ParseException {
+        List<Element> children = children(value);
+        if (children.isEmpty()) {
+            return value.getTextContent();
+        }
+
+        Element typed = children.get(0);
+        String text = typed.getTextContent().trim();
+        switch (localName(typed)) {
+            case "i4", "int":
+                return Integer.valueOf(text);
+            case "i8":
+                return Long.valueOf(text);
+            case "boolean":
+                return "1".equals(text);
+            case "double":
+                return Double.valueOf(text);
+            case "string":
+                return typed.getTextContent();
+            case "dateTime.iso8601":
+                return new SimpleDateFormat(text.contains("-") ? "yyyy-MM-dd'T'HH:mm:ss" : "yyyyMMdd'T'HH:mm:ss")
+                        .parse(text);
+            case "base64":
+                return Base64.getMimeDecoder().decode(text);
+            case "nil":
+                return null;
+            case "struct":
+                Map<String, Object> struct = new HashMap<>();
+                for (Element member : children(typed)) {
+                    String name = null;
+                    Object memberValue = null;
+                    for (Element part : children(member)) {
+                        if ("name".equals(localName(part))) {
+                            name = part.getTextContent();
+                        } else {
+                            memberValue = parseValue(part);
+                        }
+                    }
+                    struct.put(name, memberValue);
+                }
+                return struct;
+            case "array":
+                List<Object> items = new ArrayList<>();
+                for (Element data : children(typed)) {
+                    for (Element item : children(data)) {
+                        items.add(parseValue(item));
+                    }
+                }
+                return items.toArray();
+            default:
+                throw new IllegalArgumentException("Unsupported XML-RPC type " + typed.getNodeName());
+        }
+    }
+
+    private static void writeValue(Object value, StringBuilder xml) {
+        xml.append("<value>");
+        if (value == null) {
+            xml.append("<boolean>0</boolean>");
+        } else if (value instanceof Boolean bool) {
+            xml.append("<boolean>").append(bool ? 1 : 0).append("</boolean>");
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+            xml.append("<int>").append(value).append("</int>");
+        } else if (value instanceof Number number) {
+            xml.append("<double>").append(number.doubleValue()).append("</double>");
+        } else if (value instanceof Date date) {
+            xml.append("<string>").append(formatDate(date)).append("</string>");
+        } else if (value instanceof byte[] bytes) {
+            xml.append("<base64>").append(Base64.getEncoder().encodeToString(bytes)).append("</base64>");
+        } else if (value instanceof Map<?, ?> map) {
+            xml.append("<struct>");
+            map.forEach((name, memberValue) -> {
+                xml.append("<member><name>").append(escape(String.valueOf(name))).append("</name>");
+                writeValue(memberValue, xml);
+                xml.append("</member>");
+            });
+            xml.append("</struct>");
+        } else if (value instanceof Object[] array) {
+            writeArray(Arrays.asList(array), xml);
+        } else if (value instanceof Collection<?> collection) {
+            writeArray(collection, xml);
+        } else {
+            xml.append("<string>").append(escape(value.toString())).append("</string>");
+        }
+        xml.append("</value>");
+    }
+
+    private static void writeArray(Collection<?> items, StringBuilder xml) {
+        xml.append("<array><data>");
+        items.forEach(item -> writeValue(item, xml));
+        xml.append("</data></array>");
+    }
+
+    private static List<Element> children(Node node) {
+        List<Element> elements = new ArrayList<>();
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element element) {
+                elements.add(element);
+            }
+        }
+        return elements;
+    }
+
+    private static String localName(Element element) {
+        String name = element.getNodeName();
+        return name.substring(name.indexOf(':') + 1);
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
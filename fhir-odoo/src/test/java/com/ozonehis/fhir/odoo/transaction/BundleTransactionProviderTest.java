@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.transaction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ca.uhn.fhir.rest.server.exceptions.InvalidRequestException;
+import ca.uhn.fhir.rest.server.exceptions.UnprocessableEntityException;
+import com.ozonehis.fhir.odoo.patient.PatientService;
+import com.ozonehis.fhir.odoo.serviceRequest.ServiceRequestService;
+import java.util.List;
+import java.util.Map;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Resource;
+import org.hl7.fhir.r4.model.ServiceRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BundleTransactionProviderTest {
+
+    @Mock
+    private PatientService patientService;
+
+    @Mock
+    private ServiceRequestService serviceRequestService;
+
+    private BundleTransactionProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        provider = new BundleTransactionProvider(patientService, serviceRequestService);
+    }
+
+    @Test
+    @DisplayName("Should hand each resource type to its service once and answer every batch entry in order")
+    void transaction_shouldGroupEntriesByResourceType() {
+        Patient patient = new Patient();
+        patient.setId("p-1");
+        ServiceRequest first = new ServiceRequest();
+        first.setId("sr-1");
+        ServiceRequest second = new ServiceRequest();
+        second.setId("sr-2");
+        Bundle bundle = bundle(Bundle.BundleType.BATCH, first, patient, second, new Observation());
+
+        when(patientService.createAll(List.of(patient))).thenReturn(Map.of());
+        when(serviceRequestService.createAll(List.of(first, second)))
+                .thenReturn(Map.of(1, new UnprocessableEntityException("Product doesn't exists in Odoo")));
+
+        Bundle response = provider.transaction(bundle);
+
+        assertThat(response.getType()).isEqualTo(Bundle.BundleType.BATCHRESPONSE);
+        assertThat(response.getEntry())
+                .extracting(entry -> entry.getResponse().getStatus())
+                .containsExactly("201 Created", "201 Created", "422", "400");
+        assertThat(response.getEntry().get(1).getResponse().getLocation()).isEqualTo("Patient/p-1");
+        assertThat(response.getEntry().get(2).getResponse().getOutcome()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should stop a transaction at the first failing group")
+    void transaction_shouldStopTransactionAtFirstFailure() {
+        Patient patient = new Patient();
+        ServiceRequest serviceRequest = new ServiceRequest();
+        serviceRequest.setId("sr-1");
+        Bundle bundle = bundle(Bundle.BundleType.TRANSACTION, patient, serviceRequest);
+
+        when(patientService.createAll(List.of(patient)))
+                .thenReturn(Map.of(0, new UnprocessableEntityException("Patient ID is required")));
+
+        assertThatThrownBy(() -> provider.transaction(bundle))
+                .isInstanceOf(UnprocessableEntityException.class)
+                .hasMessageContaining("Patient ID is required");
+        verify(serviceRequestService, never()).createAll(any());
+    }
+
+    @Test
+    @DisplayName("Should reject Bundles that are neither batch nor transaction")
+    void transaction_shouldRejectOtherBundleTypes() {
+        Bundle bundle = bundle(Bundle.BundleType.COLLECTION, new Patient());
+
+        assertThatThrownBy(() -> provider.transaction(bundle)).isInstanceOf(InvalidRequestException.class);
+    }
+
+    private Bundle bundle(Bundle.BundleType type, Resource... resources) {
+        Bundle bundle = new Bundle();
+        bundle.setType(type);
+        for (Resource resource : resources) {
+            bundle.addEntry()
+                    .setResource(resource)
+                    .getRequest()
+                    .setMethod(Bundle.HTTPVerb.POST)
+                    .setUrl(resource.fhirType());
+        }
+        return bundle;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.transport;
+
+import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_PARTNER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
+import com.odoojava.api.FilterCollection;
+import com.odoojava.api.OdooXmlRpcProxy;
+import com.odoojava.api.Row;
+import com.odoojava.api.Session;
+import com.ozonehis.fhir.odoo.SessionHolder;
+import com.ozonehis.fhir.odoo.api.PartnerService;
+import com.ozonehis.fhir.odoo.model.OdooModelMapper;
+import com.ozonehis.fhir.odoo.model.OdooModelReader;
+import com.ozonehis.fhir.odoo.model.Partner;
+import com.ozonehis.fhir.odoo.session.OdooCredentials;
+import com.ozonehis.fhir.odoo.stub.OdooStubServer;
+import java.net.URI;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class JsonRpcOdooTransportTest {
+
+    private OdooStubServer server;
+
+    private Session session;
+
+    private CloseableHttpClient httpClient;
+
+    private JsonRpcOdooTransport transport;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new OdooStubServer("odoo", "admin", "secret").start();
+        session = new Session(
+                OdooXmlRpcProxy.RPCProtocol.RPC_HTTP, "localhost", server.getPort(), "odoo", "admin", "secret");
+        session.startSession();
+        SessionHolder.setOdooSession(session);
+        SessionHolder.setOdooCredentials(new OdooCredentials("admin", "secret"));
+
+        httpClient = HttpClients.createDefault();
+        transport = new JsonRpcOdooTransport(URI.create(server.getUrl() + "/jsonrpc"), "odoo", httpClient);
+        server.insert(MODEL_PARTNER, Map.of("name", "Alice", "city", "Nairobi"));
+        server.insert(MODEL_PARTNER, Map.of("name", "Bob", "city", "Kampala"));
+        server.insert(MODEL_PARTNER, Map.of("name", "Carol", "city", "Nairobi"));
+        server.resetCallCounts();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        SessionHolder.clear();
+        httpClient.close();
+        server.close();
+    }
+
+    @Test
+    @DisplayName("execute() should call model methods through /jsonrpc")
+    void execute_shouldCallModelMethods() throws Exception {
+        int id = (Integer) transport.execute(session, MODEL_PARTNER, "create", new Object[] {Map.of("name", "Dave")});
+        transport.execute(session, MODEL_PARTNER, "write", new Object[] {new Object[] {id}, Map.of("city", "Mombasa")});
+        Object[] readArgs = {new Object[] {id}, new Object[] {"city"}};
+        Object[] rows = (Object[]) transport.execute(session, MODEL_PARTNER, "read", readArgs);
+
+        assertThat(rows).hasSize(1);
+        assertThat((Map<?, ?>) rows[0]).containsEntry("id", id).containsEntry("city", "Mombasa");
+        assertThat(server.getCallCounts())
+                .containsEntry(MODEL_PARTNER + "#create", 1L)
+                .containsEntry(MODEL_PARTNER + "#write", 1L)
+                .containsEntry(MODEL_PARTNER + "#read", 1L);
+    }
+
+    @Test
+    @DisplayName("searchRead() should read rows with the fields of the model")
+    void searchRead_shouldReadRows() throws Exception {
+        FilterCollection filters = new FilterCollection();
+        filters.add("city", "=", "Nairobi");
+        OdooSearch search = new OdooSearch(MODEL_PARTNER, filters, new String[] {"name", "city"}, 0, 10, "name desc");
+
+        List<Row> rows = transport.searchRead(session, session.getObjectAdapter(MODEL_PARTNER), search);
+
+        assertThat(rows).extracting(row -> row.get("name")).containsExactly("Carol", "Alice");
+        assertThat(server.getCallCount(MODEL_PARTNER, "search_read")).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("searchRead() should decode the records straight into models")
+    void searchRead_shouldDecodeRecordsIntoModels() throws Exception {
+        Date createdOn = Date.from(Instant.parse("2024-06-01T10:15:30Z"));
+        Object[] country = {3, "Kenya"};
+        server.insert(MODEL_PARTNER, Map.of("name", "Dave", "country_id", country, "create_date", createdOn));
+        String[] fields = {"id", "name", "city", "country_id", "active", "create_date", "create_uid"};
+        OdooSearch search = new OdooSearch(MODEL_PARTNER, new FilterCollection(), fields, 0, 0, "name");
+
+        OdooModelReader<Partner> reader = OdooModelMapper.of(Partner.class);
+        List<Partner> partners =
+                transport.searchRead(session, session.getObjectAdapter(MODEL_PARTNER), search, reader);
+
+        assertThat(partners).extracting(Partner::getName).containsExactly("Alice", "Bob", "Carol", "Dave");
+        assertThat(partners.get(0).getPartnerCity()).isEqualTo("Nairobi");
+        assertThat(partners.get(0).getPartnerCountryId()).isNull();
+        assertThat(partners.get(0).getPartnerActive()).isFalse();
+        Partner dave = partners.get(3);
+        assertThat(dave.getId()).isPositive();
+        assertThat(dave.getPartnerCity()).isNull();
+        assertThat(dave.getPartnerCountryId()).isEqualTo(3);
+        assertThat(dave.getCreatedOn()).isEqualTo(createdOn);
+        assertThat(dave.getCreatedBy()).isEqualTo(OdooStubServer.USER_ID);
+        assertThat(server.getCallCount(MODEL_PARTNER, "search_read")).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("count() should count the matching records")
+    void count_shouldCountMatchingRecords() throws Exception {
+        FilterCollection filters = new FilterCollection();
+        filters.add("city", "=", "Nairobi");
+
+        assertThat(transport.count(session, session.getObjectAdapter(MODEL_PARTNER), MODEL_PARTNER, filters))
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("execute() should report Odoo errors as OdooRpcException")
+    void execute_shouldReportOdooErrors() {
+        assertThatThrownBy(() -> transport.execute(
+                        session, MODEL_PARTNER, "write", new Object[] {new Object[] {999}, Map.of("name", "Zed")}))
+                .isInstanceOf(OdooRpcException.class)
+                .hasMessageContaining("MissingError");
+    }
+
+    @Test
+    @DisplayName("execute() should fail without credentials bound to the thread")
+    void execute_shouldFailWithoutCredentials() {
+        SessionHolder.setOdooCredentials(null);
+
+        assertThatThrownBy(() -> transport.execute(session, MODEL_PARTNER, "search", new Object[] {new Object[] {}}))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Odoo services should report a missing row written through JSON-RPC as not found")
+    void update_shouldReportMissingRowAsNotFound() {
+        PartnerService partnerService = new PartnerService();
+        ReflectionTestUtils.setField(partnerService, "transport", transport);
+
+        assertThatThrownBy(() -> partnerService.update("999", Map.of("name", "Zed"), Map.of("name", "Alice")))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright © 2024, Ozone HIS <info@ozone-his.com>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.ozonehis.fhir.odoo.transport;
+
+import static com.ozonehis.fhir.odoo.OdooConstants.MODEL_PARTNER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.odoojava.api.FilterCollection;
+import com.odoojava.api.OdooXmlRpcProxy;
+import com.odoojava.api.Row;
+import com.odoojava.api.Session;
+import com.ozonehis.fhir.odoo.SessionHolder;
+import com.ozonehis.fhir.odoo.model.OdooModelMapper;
+import com.ozonehis.fhir.odoo.model.OdooModelReader;
+import com.ozonehis.fhir.odoo.model.Partner;
+import com.ozonehis.fhir.odoo.session.OdooCredentials;
+import com.ozonehis.fhir.odoo.stub.OdooStubServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+class PooledXmlRpcOdooTransportTest {
+
+    private OdooStubServer server;
+
+    private Session session;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PoolingHttpClientConnectionManager connectionManager;
+
+    private CloseableHttpClient httpClient;
+
+    private PooledXmlRpcOdooTransport transport;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new OdooStubServer("odoo", "admin", "secret").start();
+        session = new Session(
+                OdooXmlRpcProxy.RPCProtocol.RPC_HTTP, "localhost", server.getPort(), "odoo", "admin", "secret");
+        session.startSession();
+        SessionHolder.setOdooSession(session);
+        SessionHolder.setOdooCredentials(new OdooCredentials("admin", "secret"));
+
+        meterRegistry = new SimpleMeterRegistry();
+        OdooTransportConfiguration configuration = new OdooTransportConfiguration();
+        OdooHttpProperties properties = new OdooHttpProperties();
+        connectionManager = configuration.odooConnectionManager(
+                properties,
+                new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry))
+                        .getBeanProvider(MeterRegistry.class));
+        httpClient = configuration.odooHttpClient(connectionManager, properties);
+        transport = new PooledXmlRpcOdooTransport(URI.create(server.getUrl() + "/xmlrpc/2/object"), "odoo", httpClient);
+
+        server.insert(MODEL_PARTNER, Map.of("name", "Alice", "city", "Nairobi"));
+        server.insert(MODEL_PARTNER, Map.of("name", "Bob", "city", "Kampala"));
+        server.insert(MODEL_PARTNER, Map.of("name", "Carol", "city", "Nairobi"));
+        server.resetCallCounts();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        SessionHolder.clear();
+        httpClient.close();
+        server.close();
+    }
+
+    @Test
+    @DisplayName("execute() should call model methods through /xmlrpc/2/object")
+    void execute_shouldCallModelMethods() throws Exception {
+        int id = (Integer) transport.execute(session, MODEL_PARTNER, "create", new Object[] {Map.of("name", "Dave")});
+        transport.execute(session, MODEL_PARTNER, "write", new Object[] {new Object[] {id}, Map.of("city", "Mombasa")});
+
+        assertThat(server.get(MODEL_PARTNER, id)).containsEntry("name", "Dave").containsEntry("city", "Mombasa");
+        assertThat(server.getCallCounts())
+                .containsEntry(MODEL_PARTNER + "#create", 1L)
+                .containsEntry(MODEL_PARTNER + "#write", 1L);
+    }
+
+    @Test
+    @DisplayName("searchRead() and count() should read the matching records")
+    void searchRead_shouldReadRows() throws Exception {
+        FilterCollection filters = new FilterCollection();
+        filters.add("city", "=", "Nairobi");
+        OdooSearch search = new OdooSearch(MODEL_PARTNER, filters, new String[] {"name", "city"}, 1, 10, "name");
+
+        List<Row> rows = transport.searchRead(session, session.getObjectAdapter(MODEL_PARTNER), search);
+
+        assertThat(rows).extracting(row -> row.get("name")).containsExactly("Carol");
+        assertThat(transport.count(session, session.getObjectAdapter(MODEL_PARTNER), MODEL_PARTNER, filters))
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("searchRead() should decode the records straight into models")
+    void searchRead_shouldDecodeRecordsIntoModels() throws Exception {
+        Date createdOn = Date.from(Instant.parse("2024-06-01T10:15:30Z"));
+        Object[] country = {3, "Kenya"};
+        server.insert(MODEL_PARTNER, Map.of("name", "Dave", "country_id", country, "create_date", createdOn));
+        String[] fields = {"id", "name", "city", "country_id", "active", "create_date", "create_uid"};
+        OdooSearch search = new OdooSearch(MODEL_PARTNER, new FilterCollection(), fields, 0, 0, "name");
+
+        OdooModelReader<Partner> reader = OdooModelMapper.of(Partner.class);
+        List<Partner> partners =
+                transport.searchRead(session, session.getObjectAdapter(MODEL_PARTNER), search, reader);
+
+        assertThat(partners).extracting(Partner::getName).containsExactly("Alice", "Bob", "Carol", "Dave");
+        assertThat(partners.get(0).getPartnerCity()).isEqualTo("Nairobi");
+        assertThat(partners.get(0).getPartnerCountryId()).isNull();
+        assertThat(partners.get(0).getPartnerActive()).isFalse();
+        Partner dave = partners.get(3);
+        assertThat(dave.getId()).isPositive();
+        assertThat(dave.getPartnerCity()).isNull();
+        assertThat(dave.getPartnerCountryId()).isEqualTo(3);
+        assertThat(dave.getCreatedOn()).isEqualTo(createdOn);
+        assertThat(dave.getCreatedBy()).isEqualTo(OdooStubServer.USER_ID);
+        assertThat(server.getCallCount(MODEL_PARTNER, "search_read")).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Calls should reuse a pooled connection and report the pool utilization")
+    void execute_shouldReusePooledConnection() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            transport.execute(session, MODEL_PARTNER, "search_count", new Object[] {new Object[] {}});
+        }
+
+        PoolStats stats = connectionManager.getTotalStats();
+        assertThat(stats.getLeased()).isZero();
+        assertThat(stats.getAvailable()).isEqualTo(1);
+        assertThat(meterRegistry
+                        .get("httpcomponents.httpclient.pool.total.connections")
+                        .tag("httpclient", "odoo")
+                        .tag("state", "available")
+                        .gauge()
+                        .value())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry
+                        .get("httpcomponents.httpclient.pool.total.max")
+                        .gauge()
+                        .value())
+                .isEqualTo(64.0);
+    }
+
+    @Test
+    @DisplayName("execute() should report Odoo faults as OdooRpcException")
+    void execute_shouldReportOdooFaults() {
+        assertThatThrownBy(() -> transport.execute(
+                        session, MODEL_PARTNER, "write", new Object[] {new Object[] {999}, Map.of("name", "Zed")}))
+                .isInstanceOf(OdooRpcException.class)
+                .hasMessageContaining("does not exist");
+    }
+}
@@ -8,10 +8,14 @@
 package com.ozonehis.fhir.odoo.util;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
 import com.odoojava.api.Row;
+import java.util.HashMap;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -78,4 +82,49 @@ class OdooUtilsTest {
 
         assertNull(result);
     }
+
+    @Test
+    void isSameValue_shouldTreatFalseAndNullAsEmpty() {
+        assertTrue(OdooUtils.isSameValue(false, null));
+        assertTrue(OdooUtils.isSameValue(null, false));
+        assertFalse(OdooUtils.isSameValue(false, "value"));
+        assertFalse(OdooUtils.isSameValue(true, null));
+    }
+
+    @Test
+    void isSameValue_shouldCompareMany2oneWithId() {
+        assertTrue(OdooUtils.isSameValue(new Object[] {5, "Kenya"}, 5));
+        assertFalse(OdooUtils.isSameValue(new Object[] {5, "Kenya"}, 6));
+    }
+
+    @Test
+    void isSameValue_shouldCompareNumbersByValue() {
+        assertTrue(OdooUtils.isSameValue(15.0, 15));
+        assertFalse(OdooUtils.isSameValue(15.5, 15));
+    }
+
+    @Test
+    void getChangedValues_shouldReturnOnlyChangedValues() {
+        Map<String, Object> current =
+                Map.of("name", "Alice", "city", "Nairobi", "country_id", new Object[] {5, "Kenya"});
+        Map<String, Object> updated = new HashMap<>();
+        updated.put("name", "Alice");
+        updated.put("city", null);
+        updated.put("country_id", 5);
+        updated.put("zip", "00100");
+
+        Map<String, Object> changes = OdooUtils.getChangedValues(current, updated);
+
+        assertEquals(Map.of("city", false, "zip", "00100"), changes);
+    }
+
+    @Test
+    void renameField_shouldMoveValueToNewField() {
+        Map<String, Object> values = new HashMap<>(Map.of("x_customer_dob", "1990-01-31", "name", "Alice"));
+
+        OdooUtils.renameField(values, "x_customer_dob", "x_dob");
+        OdooUtils.renameField(values, "name", null);
+
+        assertEquals(Map.of("x_dob", "1990-01-31", "name", "Alice"), values);
+    }
 }